@@ -0,0 +1,85 @@
+package com.polymarket.arb.core;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.polymarket.arb.domain.FixedPoint;
+import com.polymarket.arb.domain.FixedPointBook;
+import com.polymarket.arb.domain.Market;
+import com.polymarket.arb.domain.OrderBook;
+import com.polymarket.arb.infra.ApiPayloadDecoder;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-book costs by depth: level parsing (tree vs streaming), building the fixed-point
+ * view, and the effective-price walk NegRisk runs per leg.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BookKernelsBenchmark {
+
+    private static final long NEGRISK_TARGET_UNITS = FixedPoint.toSizeUnits(new BigDecimal("10"));
+
+    @Param({ "5", "20", "100" })
+    public int depth;
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private byte[] json;
+    private JsonNode bids;
+    private OrderBook book;
+    private FixedPointBook fixedPoint;
+    private long deepTargetUnits;
+
+    @Setup
+    public void setup() throws IOException {
+        Market market = SyntheticUniverse.generate(1, depth, 0, 42).markets().get(0);
+        String tokenId = market.getOutcomeIds().get(0);
+        book = market.getYesOrderBook();
+        fixedPoint = book.fixedPoint();
+        json = SyntheticUniverse.bookJson(tokenId, book);
+        bids = mapper.readTree(json).path("bids");
+        // Fills through all but the last bid level
+        deepTargetUnits = fixedPoint.cumulativeSize(true, fixedPoint.levelCount(true) - 1) - 1;
+    }
+
+    @Benchmark
+    public List<OrderBook.OrderLevel> parseLevels() {
+        return MarketIngestor.parseLevels(bids);
+    }
+
+    @Benchmark
+    public OrderBook bookTree() throws IOException {
+        return MarketIngestor.toOrderBook("token", mapper.readTree(json));
+    }
+
+    @Benchmark
+    public OrderBook bookStreaming() throws IOException {
+        try (JsonParser p = mapper.getFactory().createParser(json)) {
+            return ApiPayloadDecoder.decodeBook(p, "token");
+        }
+    }
+
+    @Benchmark
+    public FixedPointBook fixedPointView() {
+        return FixedPointBook.of(book.getBids(), book.getAsks());
+    }
+
+    @Benchmark
+    public long effectivePriceTarget() {
+        return BookKernels.effectivePrice(fixedPoint, NEGRISK_TARGET_UNITS, true);
+    }
+
+    @Benchmark
+    public long effectivePriceDeep() {
+        return BookKernels.effectivePrice(fixedPoint, deepTargetUnits, true);
+    }
+}
@@ -0,0 +1,85 @@
+package com.polymarket.arb.core;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.polymarket.arb.domain.OrderBook;
+import com.polymarket.arb.infra.ApiPayloadDecoder;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tree-based (String -> JsonNode -> BigDecimal) vs streaming decode of /book and /markets bodies.
+ * Payloads under src/jmh/resources/payloads follow the live response shape.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BookParsingBenchmark {
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private byte[] book;
+    private byte[] markets;
+
+    @Setup
+    public void load() throws IOException {
+        book = resource("/payloads/book.json");
+        markets = resource("/payloads/markets.json");
+    }
+
+    @Benchmark
+    public OrderBook bookTree() throws IOException {
+        // Previous path: response.body().string() + readTree + BigDecimal levels + fixed-point view
+        JsonNode node = mapper.readTree(new String(book, StandardCharsets.UTF_8));
+        return MarketIngestor.toOrderBook("token", node);
+    }
+
+    @Benchmark
+    public OrderBook bookStreaming() throws IOException {
+        try (JsonParser p = mapper.getFactory().createParser(new ByteArrayInputStream(book))) {
+            return ApiPayloadDecoder.decodeBook(p, "token");
+        }
+    }
+
+    @Benchmark
+    public void marketsTree(Blackhole bh) throws IOException {
+        // Previous path: page tree plus a fresh ObjectMapper per embedded array
+        JsonNode page = mapper.readTree(new String(markets, StandardCharsets.UTF_8));
+        for (JsonNode node : page) {
+            JsonNode prices = new ObjectMapper().readTree(node.path("outcomePrices").asText());
+            BigDecimal sum = BigDecimal.ZERO;
+            for (JsonNode p : prices) {
+                sum = sum.add(new BigDecimal(p.asText("0")));
+            }
+            bh.consume(sum);
+            bh.consume(new ObjectMapper().readTree(node.path("clobTokenIds").asText()));
+            bh.consume(node.path("question").asText());
+        }
+    }
+
+    @Benchmark
+    public void marketsStreaming(Blackhole bh) throws IOException {
+        try (JsonParser p = mapper.getFactory().createParser(new ByteArrayInputStream(markets))) {
+            bh.consume(ApiPayloadDecoder.decodeMarkets(p));
+        }
+    }
+
+    private static byte[] resource(String path) throws IOException {
+        try (InputStream in = BookParsingBenchmark.class.getResourceAsStream(path)) {
+            if (in == null) {
+                throw new IOException("Missing payload " + path);
+            }
+            return in.readAllBytes();
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.polymarket.arb.core;
+
+import com.polymarket.arb.domain.ArbitrageOpportunity;
+import com.polymarket.arb.domain.Market;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Full and incremental scans of both strategies over a pinned snapshot of a synthetic
+ * universe. The incremental runs mark 1% of markets (and their events) dirty, the
+ * typical share written between two ticks.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = { "-Xms3g", "-Xmx3g" }) // 100k universe with depth 20 is ~1 GB live
+@State(Scope.Benchmark)
+public class DetectionBenchmark {
+
+    @Param({ "1000", "10000", "100000" })
+    public int markets;
+
+    @Param({ "5", "20" })
+    public int depth;
+
+    @Param({ "4", "16" })
+    public int groupSize;
+
+    private MarketSnapshot snapshot;
+    private DirtySet changes;
+    private SumOfPricesStrategy sumOfPrices;
+    private NegRiskStrategy negRisk;
+
+    @Setup
+    public void setup() {
+        SyntheticUniverse universe = SyntheticUniverse.generate(markets, depth, groupSize, 42);
+        MarketSnapshotCache cache = universe.toCache();
+        snapshot = cache.snapshot();
+
+        SplittableRandom random = new SplittableRandom(7);
+        List<Market> all = universe.markets();
+        Set<String> marketIds = new HashSet<>();
+        Set<String> eventIds = new HashSet<>();
+        while (marketIds.size() < Math.max(1, markets / 100)) {
+            Market m = all.get(random.nextInt(all.size()));
+            marketIds.add(m.getMarketId());
+            if (m.getEventId() != null) {
+                eventIds.add(m.getEventId());
+            }
+        }
+        changes = new DirtySet(0, snapshot.version(), marketIds, eventIds, false);
+
+        // No edges in the universe, so the execution path is never reached
+        sumOfPrices = new SumOfPricesStrategy(cache);
+        negRisk = new NegRiskStrategy(cache);
+    }
+
+    @Benchmark
+    public List<ArbitrageOpportunity> sumOfPricesFull() {
+        return sumOfPrices.detect(snapshot);
+    }
+
+    @Benchmark
+    public List<ArbitrageOpportunity> sumOfPricesIncremental() {
+        return sumOfPrices.detect(snapshot, changes);
+    }
+
+    @Benchmark
+    public List<ArbitrageOpportunity> negRiskFull() {
+        return negRisk.detect(snapshot);
+    }
+
+    @Benchmark
+    public List<ArbitrageOpportunity> negRiskIncremental() {
+        return negRisk.detect(snapshot, changes);
+    }
+}
@@ -0,0 +1,59 @@
+package com.polymarket.arb.core;
+
+import com.polymarket.arb.domain.Market;
+import com.polymarket.arb.domain.OrderBook;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One streamed book delta published into the cache at catalog sizes: the copy-on-write
+ * cost every price_change pays before detection can see it.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = { "-Xms3g", "-Xmx3g" })
+@State(Scope.Benchmark)
+public class SnapshotWriteBenchmark {
+
+    private static final int TOKENS = 1024;
+
+    @Param({ "1000", "10000", "100000" })
+    public int markets;
+
+    private MarketSnapshotCache cache;
+    private final List<Map<String, OrderBook>> updates = new ArrayList<>();
+    private int next;
+
+    @Setup
+    public void setup() {
+        SyntheticUniverse universe = SyntheticUniverse.generate(markets, 5, 4, 42);
+        cache = universe.toCache();
+
+        // Two distinct books per token, alternated so no write is skipped as unchanged
+        SplittableRandom random = new SplittableRandom(7);
+        List<Market> all = universe.markets();
+        for (int i = 0; i < TOKENS; i++) {
+            Market market = all.get(random.nextInt(all.size()));
+            String tokenId = market.getOutcomeIds().get(0);
+            OrderBook book = market.getBook(0);
+            for (int copy = 0; copy < 2; copy++) {
+                updates.add(Map.of(tokenId, OrderBook.builder().marketId(tokenId)
+                        .bids(book.getBids()).asks(book.getAsks()).build()));
+            }
+        }
+    }
+
+    @Benchmark
+    public int updateOneBook() {
+        Map<String, OrderBook> update = updates.get(next);
+        next = (next + 1) % updates.size();
+        return cache.updateBooks(update);
+    }
+}
@@ -0,0 +1,28 @@
+package com.polymarket.arb.infra;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigInteger;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * split() calldata for the NegRisk adapter; the partition array grows with the outcome count.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AbiEncodingBenchmark {
+
+    private static final String CONDITION_ID = "0x3b1287fff52ddf5d616499c9e25a7605aec6f0245bd86d40fc891b4a6a50df4d";
+
+    @Param({ "2", "8", "32" })
+    public int outcomes;
+
+    @Benchmark
+    public String encodeSplit() {
+        return Web3Service.encodeSplit(CONDITION_ID, BigInteger.TEN, outcomes);
+    }
+}
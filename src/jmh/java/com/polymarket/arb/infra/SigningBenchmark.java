@@ -0,0 +1,85 @@
+package com.polymarket.arb.infra;
+
+import org.openjdk.jmh.annotations.*;
+import org.web3j.crypto.Credentials;
+
+import java.math.BigInteger;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * EIP-712 order signing, paid once per leg between detection and submission.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SigningBenchmark {
+
+    // Throwaway key, never funded
+    private static final Credentials CREDENTIALS = Credentials
+            .create("0x4c0883a69102937d6231471b5dbb6204fe5129617082792ae468d01a3f362318");
+
+    private final OrderSigner signer = new OrderSigner();
+    private OrderSigner.Order order;
+    private List<OrderSigner.Order> legs;
+    private List<OrderSigner.Order> threeLegs;
+
+    @Setup
+    public void setup() {
+        order = OrderSigner.Order.builder()
+                .salt(BigInteger.valueOf(123456789L))
+                .maker(CREDENTIALS.getAddress())
+                .signer(CREDENTIALS.getAddress())
+                .taker("0x0000000000000000000000000000000000000000")
+                .tokenId(new BigInteger("21825107595760230677430147308854473254949092534946485167547635196556918973"))
+                .makerAmount(BigInteger.valueOf(10_000_000))
+                .takerAmount(BigInteger.valueOf(5_500_000))
+                .expiration(BigInteger.ZERO)
+                .nonce(BigInteger.ZERO)
+                .feeRateBps(BigInteger.ZERO)
+                .side(1)
+                .signatureType(0)
+                .build();
+        legs = Collections.nCopies(8, order);
+        threeLegs = Collections.nCopies(3, order);
+    }
+
+    // EIP-712 struct encoding and hash alone, without the ECDSA signature
+    @Benchmark
+    public byte[] hashOrder() {
+        return signer.hashOrder(order);
+    }
+
+    @Benchmark
+    public String signOrder() {
+        return signer.signOrder(order, CREDENTIALS);
+    }
+
+    // A negRisk event of 8 legs, signed from the caller thread
+    @Benchmark
+    public List<String> signAll() {
+        return signer.signAll(legs, CREDENTIALS);
+    }
+
+    // The execution path: each opportunity executes on a fresh virtual thread, so nothing
+    // cached per thread survives from one execution to the next
+    @Benchmark
+    public List<String> signAllOnVirtualThread() throws Exception {
+        return onVirtualThread(legs);
+    }
+
+    @Benchmark
+    public List<String> signThreeLegsOnVirtualThread() throws Exception {
+        return onVirtualThread(threeLegs);
+    }
+
+    private List<String> onVirtualThread(List<OrderSigner.Order> orders) throws Exception {
+        List<String>[] result = new List[1];
+        Thread.ofVirtual().start(() -> result[0] = signer.signAll(orders, CREDENTIALS)).join();
+        return result[0];
+    }
+}
@@ -5,5 +5,11 @@ import com.polymarket.arb.domain.ArbitrageOpportunity;
 import java.util.List;
 
 public interface ArbitrageDetector {
-    List<ArbitrageOpportunity> detect();
+    // Every market read during one scan comes from the pinned snapshot
+    List<ArbitrageOpportunity> detect(MarketSnapshot snapshot);
+
+    // Incremental scan: only re-evaluate markets / groups touched since the last scan
+    default List<ArbitrageOpportunity> detect(MarketSnapshot snapshot, DirtySet changes) {
+        return detect(snapshot);
+    }
 }
@@ -1,12 +1,35 @@
 package com.polymarket.arb.core;
 
 import com.polymarket.arb.domain.ArbitrageOpportunity;
+import com.polymarket.arb.domain.LatencyLineage;
+import com.polymarket.arb.domain.OrderBook;
+import com.polymarket.arb.infra.ArbMetrics;
+import com.polymarket.arb.infra.ClockOffsetEstimator;
+import com.polymarket.arb.domain.Market;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
 
 @Slf4j
 @Service
@@ -15,37 +38,267 @@ public class ArbitrageOrchestrator {
 
     private final List<ArbitrageDetector> detectors;
     private final ExecutionEngine executionEngine;
+    private final MarketSnapshotCache cache;
+    private final ArbMetrics metrics;
+    private final ClockOffsetEstimator clock;
 
-    // Run frequently to catch opportunities as soon as cache updates
-    @Scheduled(fixedDelay = 5000) // Log heartbeat every 5s
-    public void runLoop() {
-        // Show heartbeat with actual count from detector's perspective
-        // Since we can't easily count from here without adding a method to detector,
-        // we'll just log that the loop is active.
-        log.info("Arb Detector Heartbeat: Scanning markets... [Loop Active]"); // but okay for MVP log
+    // Only re-evaluate markets whose books changed since the previous pass
+    @Value("${polymarket.detect.incremental:true}")
+    private boolean incremental = true;
 
-        // 1. Detect from all strategies
+    // Results of a detector still running past this are dropped for the pass
+    @Value("${polymarket.detect.budget-ms:1000}")
+    private long budgetMillis = 1000;
+
+    // An executed fingerprint (event, legs, top levels) is not executed again within this window
+    @Value("${polymarket.detect.dedup-ttl-ms:5000}")
+    private long dedupTtlMillis = 5000;
+
+    // Journal entries (cache writes) one pass takes at most; the rest goes to the next pass
+    @Value("${polymarket.detect.max-batch:4096}")
+    private int maxBatch = 4096;
+
+    // Longest the detection thread sleeps without a write (heartbeat)
+    @Value("${polymarket.detect.idle-ms:5000}")
+    private long idleMillis = 5000;
+
+    // Detectors are independent: each one runs on its own virtual thread and tracks the
+    // version it last scanned completely, so a slow or timed-out one never holds back the others
+    private final ExecutorService detectionPool = Executors.newVirtualThreadPerTaskExecutor();
+    private final Map<ArbitrageDetector, Long> scannedVersions = new IdentityHashMap<>();
+    private final Map<ArbitrageDetector, Future<List<ArbitrageOpportunity>>> overrunning = new IdentityHashMap<>();
+    private final OpportunityDeduplicator deduplicator = new OpportunityDeduplicator();
+
+    // Execution runs off the detection thread, one virtual thread per opportunity. At most one
+    // execution per event (or binary market) at a time: a newer opportunity on the same event
+    // is dropped while the previous one is still trading its books
+    private final ExecutorService executionPool = Executors.newVirtualThreadPerTaskExecutor();
+    private final Set<String> executing = ConcurrentHashMap.newKeySet();
+
+    // Event-driven trigger: cache writes append to the change journal (lock-free, many writers)
+    // and unpark the detection thread, its only consumer. Writes landing while a pass runs
+    // leave the permit set, so the next pass starts right away and takes all of them at once:
+    // a burst on one event is a single evaluation of that event.
+    private volatile Thread detectionThread;
+    private volatile boolean running;
+    private final AtomicLong signalledAt = new AtomicLong(); // nanoTime of the first unserved write, 0 if none
+    private long lastFullScanVersion = -1;
+    private long passes;
+
+    private record Scan(ArbitrageDetector detector, String name, DirtySet changes,
+            CompletableFuture<List<ArbitrageOpportunity>> result) {
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        detectionThread = Thread.ofPlatform().name("arb-detection").daemon().start(this::detectionLoop);
+        cache.addListener(new MarketSnapshotCache.WriteListener() {
+            @Override
+            public void onWrite(Collection<Market> written) {
+                signal();
+            }
+
+            @Override
+            public void onRemove(String marketId) {
+                signal();
+            }
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        wake();
+        detectionPool.shutdownNow();
+        executionPool.shutdown(); // Legs already in flight finish on their own deadline
+    }
+
+    // Called on the writing thread: must stay cheap
+    void signal() {
+        if (signalledAt.get() == 0) {
+            signalledAt.compareAndSet(0, System.nanoTime());
+        }
+        wake();
+    }
+
+    // Another pass without a write behind it, so not timed as a trigger
+    private void wake() {
+        Thread thread = detectionThread;
+        if (thread != null) {
+            LockSupport.unpark(thread);
+        }
+    }
+
+    private void detectionLoop() {
+        long idleNanos = TimeUnit.MILLISECONDS.toNanos(idleMillis);
+        long lastHeartbeat = System.nanoTime();
+        while (running) {
+            try {
+                if (!scan()) {
+                    LockSupport.parkNanos(this, idleNanos);
+                }
+            } catch (RuntimeException e) {
+                log.error("Detection pass failed", e);
+            }
+            if (System.nanoTime() - lastHeartbeat >= idleNanos) {
+                lastHeartbeat = System.nanoTime();
+                log.info("Arb Detector Heartbeat: {} passes, journal v{} [Loop Active]", passes, cache.getVersion());
+            }
+        }
+    }
+
+    /**
+     * One detection pass over everything written since each detector's last complete scan
+     * (at most max-batch journal entries).
+     *
+     * @return false when there was nothing to scan
+     */
+    public boolean scan() {
+        // Read the journal before pinning the snapshot: anything written after this point
+        // is picked up by the next pass
+        long wokenBy = signalledAt.getAndSet(0);
+        List<ArbitrageDetector> due = new ArrayList<>();
+        List<DirtySet> dueChanges = new ArrayList<>();
+        long version = cache.getVersion();
         for (ArbitrageDetector detector : detectors) {
+            Future<List<ArbitrageOpportunity>> previous = overrunning.get(detector);
+            if (previous != null) {
+                if (!previous.isDone()) {
+                    continue; // Still busy with an older snapshot, never two scans of one detector
+                }
+                overrunning.remove(detector);
+            }
+            if (incremental) {
+                DirtySet changes = cache.changesSince(scannedVersions.getOrDefault(detector, 0L), maxBatch);
+                if (!changes.isEmpty()) {
+                    due.add(detector);
+                    dueChanges.add(changes);
+                }
+            } else if (version != lastFullScanVersion) {
+                due.add(detector);
+                dueChanges.add(null);
+            }
+        }
+        if (due.isEmpty()) {
+            return false;
+        }
+        lastFullScanVersion = version;
+        passes++;
+        if (wokenBy != 0) {
+            metrics.detectTrigger(System.nanoTime() - wokenBy);
+        }
+        // All detectors see the same snapshot, whatever ingestion does meanwhile
+        MarketSnapshot snapshot = cache.snapshot();
+
+        // 1. Detect from all strategies at once
+        List<Scan> scans = new ArrayList<>(due.size());
+        for (int i = 0; i < due.size(); i++) {
+            ArbitrageDetector detector = due.get(i);
+            DirtySet changes = dueChanges.get(i);
+            String name = detector.getClass().getSimpleName();
+            scans.add(new Scan(detector, name, changes, CompletableFuture.supplyAsync(() -> {
+                long start = System.nanoTime();
+                List<ArbitrageOpportunity> found = changes != null ? detector.detect(snapshot, changes)
+                        : detector.detect(snapshot);
+                metrics.detect(name, System.nanoTime() - start);
+                return found;
+            }, detectionPool)));
+        }
+
+        // 2. Collect within the budget, shared by all detectors since they started together
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(budgetMillis);
+        List<List<ArbitrageOpportunity>> results = new ArrayList<>(scans.size());
+        for (Scan scan : scans) {
             try {
-                List<ArbitrageOpportunity> opportunities = detector.detect();
+                List<ArbitrageOpportunity> opportunities = scan.result()
+                        .get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
                 if (!opportunities.isEmpty()) {
-                    log.info("Found {} opportunities using strategy: {}", opportunities.size(),
-                            detector.getClass().getSimpleName());
-                    processOpportunities(opportunities);
+                    log.info("Found {} opportunities using strategy: {}", opportunities.size(), scan.name());
+                    metrics.opportunities(scan.name(), opportunities.size());
+                    results.add(opportunities);
                 }
-            } catch (Exception e) {
-                log.error("Error in detector strategy: {}", detector.getClass().getSimpleName(), e);
+                markScanned(scan);
+            } catch (TimeoutException e) {
+                // Not interruptible: left to finish, its changes are rescanned once it has
+                overrunning.put(scan.detector(), scan.result());
+                scan.result().whenComplete((found, error) -> wake()); // Its changes are due again then
+                metrics.detectOverBudget(scan.name());
+                log.warn("Detector {} over its {} ms budget, results of snapshot v{} dropped", scan.name(),
+                        budgetMillis, snapshot.version());
+            } catch (ExecutionException e) {
+                log.error("Error in detector strategy: {}", scan.name(), e.getCause());
+                markScanned(scan);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return true;
             }
         }
+
+        // 3. One opportunity per fingerprint across strategies
+        Map<String, ArbitrageOpportunity> merged = deduplicator.merge(snapshot, results);
+        int found = results.stream().mapToInt(List::size).sum();
+        if (found > merged.size()) {
+            metrics.duplicates(found - merged.size());
+        }
+        if (!merged.isEmpty()) {
+            traceLineage(snapshot, merged.values());
+            processOpportunities(merged);
+        }
+        return true;
     }
 
-    private void processOpportunities(List<ArbitrageOpportunity> opportunities) {
-        // 2. Execute
+    private void markScanned(Scan scan) {
+        if (scan.changes() != null) {
+            scannedVersions.put(scan.detector(), scan.changes().toVersion());
+        }
+    }
+
+    // Leg book timestamps and detection time onto each opportunity's lineage, and the age of
+    // its oldest leg book (exchange stamp moved onto the local clock) at detection
+    private void traceLineage(MarketSnapshot snapshot, Collection<ArbitrageOpportunity> opportunities) {
         for (ArbitrageOpportunity opp : opportunities) {
+            LatencyLineage lineage = opp.getLineage();
+            lineage.markDetected(opp.getDetectedAt() != null ? LatencyLineage.toMicros(opp.getDetectedAt())
+                    : LatencyLineage.nowMicros());
+            if (opp.getRequiredOrders() != null) {
+                for (ArbitrageOpportunity.OrderRequest req : opp.getRequiredOrders()) {
+                    OrderBook book = snapshot.getBook(req.getTokenId());
+                    if (book != null) {
+                        lineage.addLeg(book);
+                    }
+                }
+            }
+            if (lineage.getOldestExchangeMillis() > 0) {
+                long oldestLocal = clock.toLocalMillis(lineage.getOldestExchangeMillis());
+                metrics.bookAge(lineage.getDetectedMicros() / 1_000 - oldestLocal);
+            }
+        }
+    }
+
+    private void processOpportunities(Map<String, ArbitrageOpportunity> opportunities) {
+        // 4. Hand over to execution, in detector order; the detection thread never waits on it
+        for (Map.Entry<String, ArbitrageOpportunity> entry : opportunities.entrySet()) {
+            ArbitrageOpportunity opp = entry.getValue();
+            String key = opp.getMarketId() != null ? opp.getMarketId() : opp.getId();
+            if (!executing.add(key)) {
+                log.info("Opportunity {} dropped: {} still executing", opp.getId(), key);
+                continue;
+            }
             try {
-                executionEngine.execute(opp);
-            } catch (Exception e) {
-                log.error("Failed to execute opportunity {}", opp.getId(), e);
+                executionPool.execute(() -> {
+                    try {
+                        executionEngine.execute(opp);
+                    } catch (Exception e) {
+                        log.error("Failed to execute opportunity {}", opp.getId(), e);
+                    } finally {
+                        executing.remove(key);
+                    }
+                });
+                // Only what was actually handed over suppresses its fingerprint
+                deduplicator.markExecuted(entry.getKey(), TimeUnit.MILLISECONDS.toNanos(dedupTtlMillis));
+            } catch (RejectedExecutionException e) {
+                executing.remove(key); // Shutting down
             }
         }
     }
@@ -0,0 +1,74 @@
+package com.polymarket.arb.core;
+
+import com.polymarket.arb.domain.FixedPointBook;
+import com.polymarket.arb.domain.OrderBook;
+
+import static com.polymarket.arb.domain.FixedPoint.NONE;
+
+/**
+ * Allocation-free detection kernels over {@link FixedPointBook}.
+ * Prices are 1e-4 ticks, sizes 1e-6 units; {@link com.polymarket.arb.domain.FixedPoint#NONE} means "no price".
+ */
+final class BookKernels {
+
+    private BookKernels() {
+    }
+
+    static FixedPointBook view(OrderBook book) {
+        return book != null ? book.fixedPoint() : null;
+    }
+
+    /**
+     * Best bid (max) or best ask (min) price.
+     */
+    static long bestPrice(FixedPointBook book, boolean bid) {
+        return book == null || book.levelCount(bid) == 0 ? NONE : book.price(bid, 0);
+    }
+
+    /**
+     * Size at the best price; first received level wins on ties. 0 when the side is empty.
+     */
+    static long bestSize(FixedPointBook book, boolean bid) {
+        return book == null || book.levelCount(bid) == 0 ? 0 : book.size(bid, 0);
+    }
+
+    /**
+     * Size-weighted average price to fill {@code targetUnits}, walking from the best level
+     * outwards, rounded half-up to a whole tick. NONE if the side is too thin.
+     * Binary search over the cumulative size prefix instead of walking the levels.
+     */
+    static long effectivePrice(FixedPointBook book, long targetUnits, boolean bid) {
+        if (book == null || book.levelCount(bid) == 0)
+            return NONE;
+
+        int n = book.levelCount(bid);
+        if (book.cumulativeSize(bid, n - 1) < targetUnits)
+            return NONE; // Not enough depth
+
+        // First level whose cumulative size covers the target
+        int lo = 0, hi = n - 1;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (book.cumulativeSize(bid, mid) >= targetUnits) {
+                hi = mid;
+            } else {
+                lo = mid + 1;
+            }
+        }
+
+        long filledBefore = lo > 0 ? book.cumulativeSize(bid, lo - 1) : 0;
+        long notionalBefore = lo > 0 ? book.cumulativeNotional(bid, lo - 1) : 0;
+        if (notionalBefore == FixedPointBook.SATURATED)
+            return NONE;
+        long notional;
+        try {
+            notional = Math.addExact(notionalBefore,
+                    Math.multiplyExact(targetUnits - filledBefore, book.price(bid, lo)));
+            notional = Math.addExact(notional, targetUnits / 2);
+        } catch (ArithmeticException e) {
+            return NONE; // Notional beyond the long range: no price to trust
+        }
+
+        return notional / targetUnits; // Half-up: targetUnits / 2 was added above
+    }
+}
@@ -0,0 +1,93 @@
+package com.polymarket.arb.core;
+
+import com.polymarket.arb.domain.Market;
+import com.polymarket.arb.infra.BookLogWriter;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Collection;
+
+/**
+ * Records every market and book write published by the cache to the book log, so
+ * logged opportunities can be replayed through the detectors later ({@link BookReplayer}).
+ * Off by default. A recording failure disables the recorder, never the ingest path.
+ */
+@Slf4j
+@Component
+public class BookRecorder implements MarketSnapshotCache.WriteListener {
+
+    private final MarketSnapshotCache cache;
+    private final boolean enabled;
+    private final Path dir;
+    private final int segmentBytes;
+    private final int snapshotEvery;
+
+    private volatile BookLogWriter writer;
+
+    public BookRecorder(MarketSnapshotCache cache,
+            @Value("${polymarket.record.enabled:false}") boolean enabled,
+            @Value("${polymarket.record.dir:recordings}") String dir,
+            @Value("${polymarket.record.segment-mb:64}") int segmentMb,
+            @Value("${polymarket.record.snapshot-every:64}") int snapshotEvery) {
+        this.cache = cache;
+        this.enabled = enabled;
+        this.dir = Path.of(dir);
+        this.segmentBytes = segmentMb << 20;
+        this.snapshotEvery = snapshotEvery;
+    }
+
+    @PostConstruct
+    public void start() throws IOException {
+        if (!enabled) {
+            return;
+        }
+        writer = new BookLogWriter(dir, segmentBytes, snapshotEvery);
+        cache.addListener(this);
+        log.info("Recording book updates to {}", dir.toAbsolutePath());
+    }
+
+    @PreDestroy
+    public void stop() {
+        BookLogWriter w = writer;
+        writer = null;
+        if (w != null) {
+            w.close();
+            log.info("Book recording closed: {} full / {} delta books", w.getFullBooks(), w.getDeltaBooks());
+        }
+    }
+
+    @Override
+    public void onWrite(Collection<Market> written) {
+        BookLogWriter w = writer;
+        if (w == null) {
+            return;
+        }
+        try {
+            for (Market market : written) {
+                w.record(market);
+            }
+        } catch (RuntimeException e) {
+            log.error("Book recording failed, recorder disabled", e);
+            stop();
+        }
+    }
+
+    @Override
+    public void onRemove(String marketId) {
+        BookLogWriter w = writer;
+        if (w == null) {
+            return;
+        }
+        try {
+            w.remove(marketId);
+        } catch (RuntimeException e) {
+            log.error("Book recording failed, recorder disabled", e);
+            stop();
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package com.polymarket.arb.core;
+
+import com.polymarket.arb.domain.ArbitrageOpportunity;
+import com.polymarket.arb.domain.Market;
+import com.polymarket.arb.domain.OrderBook;
+import com.polymarket.arb.infra.BookLogReader;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Consumer;
+
+/**
+ * Feeds a recorded book log through detectors: records are applied to a private
+ * {@link MarketSnapshotCache} in order, and every time the recorded clock advances the
+ * detectors run incrementally on the markets written since the previous run, as live.
+ * Books recorded in the same millisecond are published together.
+ * <p>
+ * Detectors should be built on their own cache (or none): only the snapshot passed to
+ * {@code detect} is read.
+ */
+@Slf4j
+public class BookReplayer {
+
+    public enum Pace {
+        ORIGINAL, // Sleeps to reproduce the recorded gaps between updates
+        MAX // As fast as the detectors go
+    }
+
+    public record Result(long records, long books, long detections, long opportunities, long elapsedMillis) {
+    }
+
+    private final List<ArbitrageDetector> detectors;
+
+    public BookReplayer(List<ArbitrageDetector> detectors) {
+        this.detectors = detectors;
+    }
+
+    public Result replay(Path dir, Pace pace, Consumer<ArbitrageOpportunity> sink) throws IOException {
+        Run run = new Run(pace, sink);
+        long records = BookLogReader.read(dir, run);
+        run.flush();
+        long elapsed = (System.nanoTime() - run.startNanos) / 1_000_000;
+        log.info("Replayed {} records ({} books) in {}ms: {} detection runs, {} opportunities", records, run.books,
+                elapsed, run.detections, run.opportunities);
+        return new Result(records, run.books, run.detections, run.opportunities, elapsed);
+    }
+
+    private final class Run implements BookLogReader.Visitor {
+        final MarketSnapshotCache cache = new MarketSnapshotCache();
+        final Pace pace;
+        final Consumer<ArbitrageOpportunity> sink;
+        final long startNanos = System.nanoTime();
+        final Map<String, OrderBook> pending = new LinkedHashMap<>();
+        long firstRecordedAt = -1;
+        long batchAt = -1;
+        long version;
+        long books, detections, opportunities;
+
+        Run(Pace pace, Consumer<ArbitrageOpportunity> sink) {
+            this.pace = pace;
+            this.sink = sink;
+        }
+
+        @Override
+        public void market(long recordedAt, Market market) {
+            advance(recordedAt);
+            flushBooks(); // Books already read belong to the market's previous shape
+            Market existing = cache.getMarket(market.getMarketId());
+            if (existing != null && Objects.equals(existing.getOutcomeIds(), market.getOutcomeIds())) {
+                market = market.toBuilder().books(existing.getBooks()).lastUpdated(existing.getLastUpdated()).build();
+            }
+            cache.updateMarket(market);
+        }
+
+        @Override
+        public void remove(long recordedAt, String marketId) {
+            advance(recordedAt);
+            flushBooks();
+            cache.removeMarket(marketId);
+        }
+
+        @Override
+        public void book(long recordedAt, String tokenId, OrderBook book) {
+            advance(recordedAt);
+            if (pending.containsKey(tokenId)) {
+                flushBooks(); // Keep both versions of the token in order
+            }
+            pending.put(tokenId, book);
+            books++;
+        }
+
+        // A later recorded millisecond closes the batch: publish it and detect
+        void advance(long recordedAt) {
+            if (firstRecordedAt < 0) {
+                firstRecordedAt = recordedAt;
+            }
+            if (batchAt >= 0 && recordedAt != batchAt) {
+                flush();
+            }
+            batchAt = recordedAt;
+            if (pace == Pace.ORIGINAL) {
+                long dueNanos = startNanos + (recordedAt - firstRecordedAt) * 1_000_000;
+                long waitNanos = dueNanos - System.nanoTime();
+                if (waitNanos > 0) {
+                    try {
+                        Thread.sleep(waitNanos / 1_000_000, (int) (waitNanos % 1_000_000));
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new IllegalStateException("Replay interrupted", e);
+                    }
+                }
+            }
+        }
+
+        void flushBooks() {
+            if (!pending.isEmpty()) {
+                cache.updateBooks(new LinkedHashMap<>(pending));
+                pending.clear();
+            }
+        }
+
+        void flush() {
+            flushBooks();
+            // Changes before the snapshot, as in the live loop
+            DirtySet changes = cache.changesSince(version);
+            if (changes.isEmpty()) {
+                return;
+            }
+            version = changes.toVersion();
+            MarketSnapshot snapshot = cache.snapshot();
+            detections++;
+            for (ArbitrageDetector detector : detectors) {
+                for (ArbitrageOpportunity opp : detector.detect(snapshot, changes)) {
+                    opportunities++;
+                    sink.accept(opp);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,234 @@
+package com.polymarket.arb.core;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.polymarket.arb.core.MarketSnapshotCache.TokenRef;
+import com.polymarket.arb.domain.FixedPoint;
+import com.polymarket.arb.domain.FixedPointBook;
+import com.polymarket.arb.domain.Market;
+import com.polymarket.arb.domain.OrderBook;
+import com.polymarket.arb.infra.ClobMarketStream;
+import com.polymarket.arb.infra.PolymarketApiClient;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Applies CLOB market channel events (book snapshots and price_change deltas)
+ * to the cached order books. REST /book is only used for tokens that have no
+ * snapshot yet or missed updates while the socket was down.
+ */
+@Slf4j
+@Service
+public class BookStreamIngestor implements ClobMarketStream.Listener {
+
+    private static final int RESYNC_BATCH_SIZE = 100;
+
+    private final ClobMarketStream marketStream;
+    private final PolymarketApiClient apiClient;
+    private final MarketSnapshotCache cache;
+    private final boolean enabled;
+    private final long resyncGraceMillis;
+
+    // Tokens registered once their market has its initial snapshot; owners come from the cache index
+    private final Set<String> tracked = ConcurrentHashMap.newKeySet();
+    private final Set<String> resyncPending = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean resyncRunning = new AtomicBoolean(false);
+
+    public BookStreamIngestor(ClobMarketStream marketStream,
+            PolymarketApiClient apiClient,
+            MarketSnapshotCache cache,
+            @Value("${polymarket.ws.enabled:false}") boolean enabled,
+            @Value("${polymarket.ws.resync-grace-ms:5000}") long resyncGraceMillis) {
+        this.marketStream = marketStream;
+        this.apiClient = apiClient;
+        this.cache = cache;
+        this.enabled = enabled;
+        this.resyncGraceMillis = resyncGraceMillis;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * True when the token's book is maintained by the stream and needs no REST refresh.
+     */
+    public boolean isLive(String tokenId) {
+        return enabled && tracked.contains(tokenId) && marketStream.isSubscribed(tokenId)
+                && !resyncPending.contains(tokenId);
+    }
+
+    public void track(Market market) {
+        if (!enabled || market.getOutcomeIds() == null || market.getOutcomeIds().size() < 2) {
+            return;
+        }
+        tracked.addAll(market.getOutcomeIds());
+        marketStream.start(this);
+        marketStream.subscribe(market.getOutcomeIds());
+    }
+
+    @Override
+    public void onBook(JsonNode event) {
+        String tokenId = event.path("asset_id").asText();
+        TokenRef ref = tokenRef(tokenId);
+        if (ref == null) {
+            return;
+        }
+        applyBook(tokenId, MarketIngestor.toOrderBook(tokenId, event));
+        resyncPending.remove(tokenId);
+    }
+
+    @Override
+    public void onPriceChange(JsonNode event) {
+        long timestamp = event.path("timestamp").asLong(0);
+        // The levels of one frame are grouped per token: one new book per token, one cache write
+        Map<String, List<JsonNode>> byToken = new LinkedHashMap<>();
+        JsonNode changes = event.path("price_changes");
+        if (changes.isArray()) {
+            // Current format: one entry per level, each carrying its own asset_id
+            for (JsonNode change : changes) {
+                byToken.computeIfAbsent(change.path("asset_id").asText(), k -> new ArrayList<>()).add(change);
+            }
+        } else {
+            // Legacy format: asset_id on the event, levels under "changes"
+            String tokenId = event.path("asset_id").asText();
+            for (JsonNode change : event.path("changes")) {
+                byToken.computeIfAbsent(tokenId, k -> new ArrayList<>()).add(change);
+            }
+        }
+
+        Map<String, OrderBook> updated = new HashMap<>();
+        byToken.forEach((tokenId, levels) -> {
+            OrderBook book = applyLevels(tokenId, levels, timestamp);
+            if (book != null) {
+                updated.put(tokenId, book);
+            }
+        });
+        if (!updated.isEmpty()) {
+            cache.updateBooks(updated);
+        }
+    }
+
+    @Override
+    public void onReconnect() {
+        // Deltas may have been lost while disconnected. The server re-sends book
+        // snapshots on subscribe; whatever is still missing after the grace period
+        // is fetched over REST.
+        resyncPending.addAll(tracked);
+        log.warn("Market stream reconnected, {} tokens pending resync", resyncPending.size());
+        scheduleResync(resyncGraceMillis);
+    }
+
+    // A token's levels from one frame applied to its fixed-point book, no BigDecimal levels;
+    // null when the token is unknown or waiting for a snapshot
+    private OrderBook applyLevels(String tokenId, List<JsonNode> changes, long timestamp) {
+        TokenRef ref = tokenRef(tokenId);
+        if (ref == null || resyncPending.contains(tokenId)) {
+            return null; // a fresh snapshot is on its way
+        }
+        Market market = cache.getMarket(ref.marketId());
+        OrderBook book = market == null ? null : market.getBook(ref.outcomeIndex());
+        if (book == null) {
+            resyncPending.add(tokenId);
+            scheduleResync(0);
+            return null;
+        }
+
+        int n = changes.size();
+        long[] bidPrices = new long[n], bidSizes = new long[n], askPrices = new long[n], askSizes = new long[n];
+        int bids = 0, asks = 0;
+        String hash = null;
+        for (JsonNode change : changes) {
+            long price = FixedPoint.parse(change.path("price").asText("0"), FixedPoint.PRICE_DECIMALS);
+            long size = FixedPoint.parse(change.path("size").asText("0"), FixedPoint.SIZE_DECIMALS);
+            if ("BUY".equalsIgnoreCase(change.path("side").asText())) {
+                bidPrices[bids] = price;
+                bidSizes[bids++] = size;
+            } else {
+                askPrices[asks] = price;
+                askSizes[asks++] = size;
+            }
+            String changeHash = change.path("hash").asText(null);
+            if (changeHash != null) {
+                hash = changeHash; // hash of the book after the last change
+            }
+        }
+
+        FixedPointBook fp = book.fixedPoint();
+        if (bids > 0) {
+            fp = fp.withChanges(true, bidPrices, bidSizes, bids);
+        }
+        if (asks > 0) {
+            fp = fp.withChanges(false, askPrices, askSizes, asks);
+        }
+        // BigDecimal levels are materialized from the fixed-point sides only if someone asks
+        return OrderBook.builder()
+                .marketId(tokenId)
+                .fixedPoint(fp)
+                .hash(hash)
+                .exchangeTimestamp(Math.max(timestamp, book.getExchangeTimestamp()))
+                .sequence(OrderBook.nextSequence())
+                .build();
+    }
+
+    // Unchanged (same hash) and out-of-date books are dropped by the cache
+    private void applyBook(String tokenId, OrderBook book) {
+        cache.updateBooks(Map.of(tokenId, book));
+    }
+
+    private void scheduleResync(long delayMillis) {
+        if (!resyncRunning.compareAndSet(false, true)) {
+            return;
+        }
+        Thread.ofVirtual().name("book-resync").start(() -> {
+            try {
+                TimeUnit.MILLISECONDS.sleep(delayMillis);
+                List<String> pending = new ArrayList<>();
+                for (String tokenId : List.copyOf(resyncPending)) {
+                    if (tokenRef(tokenId) == null) {
+                        resyncPending.remove(tokenId);
+                    } else {
+                        pending.add(tokenId);
+                    }
+                }
+                // Batched POST /books instead of one /book call per token
+                for (int from = 0; from < pending.size(); from += RESYNC_BATCH_SIZE) {
+                    List<String> batch = pending.subList(from, Math.min(from + RESYNC_BATCH_SIZE, pending.size()));
+                    try {
+                        Map<String, OrderBook> books = new HashMap<>();
+                        apiClient.getOrderBooks(batch).forEach((tokenId, book) -> {
+                            if (tokenRef(tokenId) != null) {
+                                books.put(tokenId, book);
+                            }
+                            resyncPending.remove(tokenId);
+                        });
+                        cache.updateBooks(books);
+                    } catch (Exception e) {
+                        log.warn("REST resync failed for {} tokens", batch.size(), e);
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                resyncRunning.set(false);
+                if (!resyncPending.isEmpty() && !Thread.currentThread().isInterrupted()) {
+                    scheduleResync(resyncGraceMillis);
+                }
+            }
+        });
+    }
+
+    private TokenRef tokenRef(String tokenId) {
+        return tracked.contains(tokenId) ? cache.getTokenRef(tokenId) : null;
+    }
+}
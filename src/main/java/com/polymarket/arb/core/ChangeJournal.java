@@ -0,0 +1,76 @@
+package com.polymarket.arb.core;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Lock-free ring of (version, marketId, eventId) entries appended on every cache write.
+ * Readers ask for everything touched since the last version they saw; a reader that
+ * fell more than one ring length behind gets a "full" result and rescans.
+ */
+public class ChangeJournal {
+
+    private final AtomicReferenceArray<Entry> ring;
+    private final int mask;
+    private final AtomicLong version = new AtomicLong();
+
+    private record Entry(long version, String marketId, String eventId) {
+    }
+
+    public ChangeJournal(int capacity) {
+        if (Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Capacity must be a power of two: " + capacity);
+        }
+        this.ring = new AtomicReferenceArray<>(capacity);
+        this.mask = capacity - 1;
+    }
+
+    public long append(String marketId, String eventId) {
+        long v = version.incrementAndGet();
+        ring.set((int) (v & mask), new Entry(v, marketId, eventId));
+        return v;
+    }
+
+    public long currentVersion() {
+        return version.get();
+    }
+
+    public DirtySet since(long fromVersion) {
+        return since(fromVersion, Long.MAX_VALUE);
+    }
+
+    /**
+     * At most {@code maxEntries} entries past {@code fromVersion}; the rest is left for the next call.
+     */
+    public DirtySet since(long fromVersion, long maxEntries) {
+        long to = version.get();
+        if (to - fromVersion > ring.length()) {
+            return DirtySet.full(fromVersion, to);
+        }
+        if (to - fromVersion > maxEntries) {
+            to = fromVersion + maxEntries;
+        }
+
+        Set<String> markets = new HashSet<>();
+        Set<String> events = new HashSet<>();
+        for (long v = fromVersion + 1; v <= to; v++) {
+            Entry e = ring.get((int) (v & mask));
+            if (e == null || e.version() < v) {
+                // Version claimed but the writer has not stored the entry yet: stop here,
+                // the next call picks it up
+                to = v - 1;
+                break;
+            }
+            if (e.version() > v) {
+                return DirtySet.full(fromVersion, version.get()); // overwritten while reading
+            }
+            markets.add(e.marketId());
+            if (e.eventId() != null) {
+                events.add(e.eventId());
+            }
+        }
+        return new DirtySet(fromVersion, to, markets, events, false);
+    }
+}
@@ -0,0 +1,19 @@
+package com.polymarket.arb.core;
+
+import java.util.Set;
+
+/**
+ * Market and event ids touched by cache writes in (fromVersion, toVersion].
+ * {@code full} means the journal could not answer precisely (reader fell too far
+ * behind) and the caller has to rescan everything.
+ */
+public record DirtySet(long fromVersion, long toVersion, Set<String> marketIds, Set<String> eventIds, boolean full) {
+
+    public static DirtySet full(long fromVersion, long toVersion) {
+        return new DirtySet(fromVersion, toVersion, Set.of(), Set.of(), true);
+    }
+
+    public boolean isEmpty() {
+        return !full && marketIds.isEmpty();
+    }
+}
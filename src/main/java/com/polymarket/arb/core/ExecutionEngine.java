@@ -1,14 +1,26 @@
 package com.polymarket.arb.core;
 
 import com.polymarket.arb.domain.ArbitrageOpportunity;
+import com.polymarket.arb.domain.FixedPoint;
+import com.polymarket.arb.domain.OrderBook;
+import com.polymarket.arb.infra.ArbMetrics;
 import com.polymarket.arb.infra.Web3Service;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.math.BigInteger;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 @Slf4j
 @Service
@@ -16,6 +28,22 @@ import java.util.List;
 public class ExecutionEngine {
 
     private final Web3Service web3Service;
+    private final MarketSnapshotCache cache;
+    private final ArbMetrics metrics;
+    private final LatencyJournal journal;
+
+    // Legs not acknowledged this long after they were sent go to the partial unwind
+    @Value("${polymarket.execution.leg-deadline-ms:2000}")
+    private long legDeadlineMillis = 2000;
+
+    public enum LegState {
+        ACKNOWLEDGED,
+        REJECTED,
+        TIMED_OUT
+    }
+
+    public record LegOutcome(ArbitrageOpportunity.OrderRequest request, LegState state) {
+    }
 
     public enum ExecutionState {
         PRE_FLIGHT_CHECK,
@@ -28,11 +56,19 @@ public class ExecutionEngine {
     public void execute(ArbitrageOpportunity opp) {
         log.info("--- START PRODUCTION ARB EXECUTION: {} ---", opp.getId());
         ExecutionState state = ExecutionState.PRE_FLIGHT_CHECK;
+        recordSinceDetection(opp, "started");
 
         try {
             // STEP 1: Pre-flight Verification
             log.info("[EXECUTION] State: {} | Verifying market conditions...", state);
-            // In real prod, re-verify Σ(Bid) > 1.0 here to ensure no racing
+            // Edge gone on the latest books: drop it, the detector re-evaluates the newer
+            // data on its next pass anyway
+            if (isStale(opp)) {
+                log.warn("[EXECUTION] Pre-flight ABORTED: edge gone since snapshot v{} for Arb {}",
+                        opp.getSnapshotVersion(), opp.getId());
+                journal.record(opp, "STALE");
+                return;
+            }
             log.info("[EXECUTION] Step 1: Pre-flight Verification - OK");
 
             state = ExecutionState.ON_CHAIN_SPLIT;
@@ -48,30 +84,29 @@ public class ExecutionEngine {
                         .toBigInteger();
 
                 web3Service.executeSplit(opp.getConditionId(), splitAmountWei, opp.getOutcomeCount());
-                log.info("[EXECUTION] SPLIT Transaction Confirmed on-chain.");
+                opp.getLineage().markSplitSent();
+                log.info("[EXECUTION] SPLIT Transaction sent (not yet confirmed on-chain).");
+                recordSinceDetection(opp, "split");
             }
 
             state = ExecutionState.MULTI_TOKEN_SELL;
 
             // STEP 3: Multi-Sell
-            log.info("[EXECUTION] State: {} | Executing sell sequence for {} outcomes",
+            log.info("[EXECUTION] State: {} | Sending {} legs at once",
                     state, opp.getRequiredOrders() != null ? opp.getRequiredOrders().size() : 0);
 
             if (opp.getRequiredOrders() != null) {
-                List<ArbitrageOpportunity.OrderRequest> failedOrders = new ArrayList<>();
-                for (ArbitrageOpportunity.OrderRequest req : opp.getRequiredOrders()) {
-                    log.info("[EXECUTION] Attempting SELL: Token={} Size={} TargetPrice={}",
-                            req.getTokenId(), req.getSize(), req.getPrice());
-
-                    boolean success = tryExecuteSell(opp, req);
-                    if (!success) {
-                        failedOrders.add(req);
-                        log.error("[EXECUTION] SELL FAILED for token {}. State: PARTIAL_FILL_RISK", req.getTokenId());
+                List<LegOutcome> unfilled = new ArrayList<>();
+                for (LegOutcome leg : executeLegs(opp)) {
+                    if (leg.state() != LegState.ACKNOWLEDGED) {
+                        unfilled.add(leg);
+                        log.error("[EXECUTION] {} {} for token {}. State: PARTIAL_FILL_RISK",
+                                leg.request().getSide(), leg.state(), leg.request().getTokenId());
                     }
                 }
 
-                if (!failedOrders.isEmpty()) {
-                    handlePartialUnwind(opp, failedOrders);
+                if (!unfilled.isEmpty()) {
+                    handlePartialUnwind(opp, unfilled);
                     state = ExecutionState.FAILED;
                 } else {
                     state = ExecutionState.COMPLETED;
@@ -79,6 +114,7 @@ public class ExecutionEngine {
             }
 
             if (state == ExecutionState.COMPLETED) {
+                recordSinceDetection(opp, "completed");
                 log.info("--- 🎯 EXECUTION SUCCESSFUL for Arb {} ---", opp.getId());
             } else {
                 log.warn("--- ⚠️ EXECUTION COMPLETED WITH WARNINGS/FAILURES for Arb {} ---", opp.getId());
@@ -88,28 +124,135 @@ public class ExecutionEngine {
             log.error("[EXECUTION] FATAL ERROR during state {}", state, e);
             state = ExecutionState.FAILED;
         }
+        journal.record(opp, state.name());
+    }
+
+    /**
+     * Signs every leg, then submits them at once and waits for them against one deadline
+     * that starts after signing: the stage takes about one round-trip whatever the leg
+     * count. Several legs go out as one batch request, a single leg as a plain order.
+     * Each leg is resolved separately: legs still in flight at the deadline are TIMED_OUT
+     * and left running, they may yet fill, while the others keep their ACKNOWLEDGED or
+     * REJECTED state.
+     */
+    List<LegOutcome> executeLegs(ArbitrageOpportunity opp) {
+        List<ArbitrageOpportunity.OrderRequest> orders = opp.getRequiredOrders();
+        for (ArbitrageOpportunity.OrderRequest req : orders) {
+            log.info("[EXECUTION] Attempting {}: Token={} Size={} TargetPrice={}",
+                    req.getSide(), req.getTokenId(), req.getSize(), req.getPrice());
+        }
+        // Signed before the clock starts: the deadline is for the network, not the signer
+        Web3Service.SignedLegs signed = trySign(opp, orders);
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(legDeadlineMillis);
+        List<CompletableFuture<Boolean>> acked = trySubmit(opp, signed);
+
+        List<LegOutcome> outcomes = new ArrayList<>(orders.size());
+        for (int i = 0; i < orders.size(); i++) {
+            outcomes.add(new LegOutcome(orders.get(i), await(orders.get(i), acked.get(i), deadline)));
+        }
+        return outcomes;
+    }
+
+    private LegState await(ArbitrageOpportunity.OrderRequest req, Future<Boolean> acked, long deadline) {
+        try {
+            return Boolean.TRUE.equals(acked.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS))
+                    ? LegState.ACKNOWLEDGED : LegState.REJECTED;
+        } catch (TimeoutException e) {
+            return LegState.TIMED_OUT;
+        } catch (ExecutionException e) {
+            log.error("[EXECUTION] Leg {} raised", req.getTokenId(), e.getCause());
+            return LegState.REJECTED;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return LegState.TIMED_OUT;
+        }
+    }
+
+    private void recordSinceDetection(ArbitrageOpportunity opp, String stage) {
+        if (opp.getDetectedAt() != null) {
+            metrics.execution(stage, Duration.between(opp.getDetectedAt(), Instant.now()).toNanos());
+        }
+    }
+
+    /**
+     * Re-quotes every leg on the latest snapshot at its size-weighted price for the leg size.
+     * Stale when a leg can no longer be filled or the set's edge is at or below the
+     * opportunity's {@code minEdgeTicks}, the bar of the strategy that found it; otherwise
+     * the legs are repriced to the current quotes. Writes that leave the quotes alone (deep levels, hash-only refreshes)
+     * keep the opportunity. Legs of one opportunity share a side.
+     */
+    private boolean isStale(ArbitrageOpportunity opp) {
+        List<ArbitrageOpportunity.OrderRequest> orders = opp.getRequiredOrders();
+        if (opp.getSnapshotVersion() <= 0 || orders == null || orders.isEmpty()) {
+            return false; // Not computed from a snapshot, or nothing to send
+        }
+        MarketSnapshot latest = cache.snapshot();
+        boolean sell = orders.get(0).getSide() == ArbitrageOpportunity.Side.SELL;
+        long[] quotes = new long[orders.size()];
+        long sum = 0;
+        for (int i = 0; i < quotes.length; i++) {
+            ArbitrageOpportunity.OrderRequest req = orders.get(i);
+            OrderBook book = latest.getBook(req.getTokenId());
+            if (book == null) {
+                return true; // Market gone
+            }
+            quotes[i] = BookKernels.effectivePrice(book.fixedPoint(), FixedPoint.toSizeUnits(req.getSize()), sell);
+            if (quotes[i] == FixedPoint.NONE) {
+                return true; // Not enough depth left for the leg
+            }
+            sum += quotes[i];
+        }
+        // Split-and-sell earns Σ(bid) - 1 per set, buying a complete set 1 - Σ(ask)
+        long edge = sell ? sum - FixedPoint.PRICE_ONE : FixedPoint.PRICE_ONE - sum;
+        if (edge <= opp.getMinEdgeTicks()) {
+            return true;
+        }
+        for (int i = 0; i < quotes.length; i++) {
+            orders.get(i).setPrice(FixedPoint.toPrice(quotes[i]));
+        }
+        return false;
+    }
+
+    // All legs built and signed through Web3Service, nothing sent yet
+    private Web3Service.SignedLegs trySign(ArbitrageOpportunity opp, List<ArbitrageOpportunity.OrderRequest> orders) {
+        MarketSnapshot snapshot = cache.snapshot();
+        List<Web3Service.LegOrder> legs = new ArrayList<>(orders.size());
+        for (ArbitrageOpportunity.OrderRequest req : orders) {
+            MarketSnapshotCache.TokenRef ref = snapshot.getTokenRef(req.getTokenId());
+            legs.add(new Web3Service.LegOrder(
+                    ref != null ? ref.marketId() : opp.getMarketId(),
+                    req.getTokenId(),
+                    req.getSize().doubleValue(),
+                    req.getPrice().doubleValue(),
+                    req.getSide() == ArbitrageOpportunity.Side.BUY));
+        }
+        try {
+            return web3Service.signOrders(legs, opp.getLineage());
+        } catch (Exception e) {
+            log.error("[EXECUTION] Signing legs of {} raised", opp.getId(), e);
+            return new Web3Service.SignedLegs(legs, new ArrayList<>(Collections.nCopies(legs.size(), null)));
+        }
     }
 
-    private boolean tryExecuteSell(ArbitrageOpportunity opp, ArbitrageOpportunity.OrderRequest req) {
+    // One POST /order for a single leg, one POST /orders otherwise, a future per leg
+    private List<CompletableFuture<Boolean>> trySubmit(ArbitrageOpportunity opp, Web3Service.SignedLegs signed) {
         try {
-            // Simulated CLOB Execution
-            // In production, this would call web3Service.executeSell(...) or Gamma API
-            // directly
-            // For now, we simulate based on WATCH-ONLY mode
-            log.info("[SIMULATION] CLOB SELL Token={} at {}", req.getTokenId(), req.getPrice());
-            return true; // Assume success for simulation
+            return web3Service.submitOrders(signed, opp.getLineage());
         } catch (Exception e) {
-            return false;
+            log.error("[EXECUTION] Legs of {} raised", opp.getId(), e);
+            return signed.legs().stream().map(leg -> CompletableFuture.completedFuture(false)).toList();
         }
     }
 
-    private void handlePartialUnwind(ArbitrageOpportunity opp, List<ArbitrageOpportunity.OrderRequest> failedOrders) {
+    private void handlePartialUnwind(ArbitrageOpportunity opp, List<LegOutcome> unfilled) {
         log.error("🚨 PARTIAL UNWIND TRIGGERED! Potential Loss Scenario.");
         log.error("Opportunity ID: {}", opp.getId());
 
-        for (ArbitrageOpportunity.OrderRequest failed : failedOrders) {
-            log.error("   [UNHEDGED] Token ID: {} | Size: {} | Required Exit: {}",
-                    failed.getTokenId(), failed.getSize(), failed.getPrice());
+        for (LegOutcome leg : unfilled) {
+            ArbitrageOpportunity.OrderRequest failed = leg.request();
+            // TIMED_OUT legs are still in flight: their fill is unknown, not failed
+            log.error("   [UNHEDGED] Token ID: {} | Size: {} | Required Exit: {} | Leg: {}",
+                    failed.getTokenId(), failed.getSize(), failed.getPrice(), leg.state());
 
             // PRODUCTION STRATEGY:
             // 1. Re-attempt with lower price (slippage)
@@ -0,0 +1,141 @@
+package com.polymarket.arb.core;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.polymarket.arb.domain.ArbitrageOpportunity;
+import com.polymarket.arb.domain.LatencyLineage;
+import com.polymarket.arb.infra.ClockOffsetEstimator;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * One JSON line per executed (or aborted) opportunity: the raw lineage timestamps plus a
+ * latency breakdown in ms, so a missed arb can be pinned on a stale book, slow detection
+ * or slow submission. Exchange timestamps are moved onto the local clock with the current
+ * {@link ClockOffsetEstimator} offset, which is logged with its uncertainty.
+ * <p>
+ * Breakdown, all on the local clock:
+ * <ul>
+ * <li>bookAge: oldest leg book, exchange stamp to detection</li>
+ * <li>transit: newest leg book, exchange stamp to local receipt</li>
+ * <li>receiveToDetect: newest leg book received to detection</li>
+ * <li>detectToSigned, signedToSubmitted, submittedToAck, detectToSplitSent, detectToAck</li>
+ * </ul>
+ * A failure to write disables the journal, never execution.
+ */
+@Slf4j
+@Component
+public class LatencyJournal {
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final ClockOffsetEstimator clock;
+    private final boolean enabled;
+    private final Path path;
+
+    private BufferedWriter writer;
+    private boolean failed;
+
+    public LatencyJournal(ClockOffsetEstimator clock,
+            @Value("${polymarket.latency.journal.enabled:true}") boolean enabled,
+            @Value("${polymarket.latency.journal.path:latency-journal.jsonl}") String path) {
+        this.clock = clock;
+        this.enabled = enabled;
+        this.path = Path.of(path);
+    }
+
+    /**
+     * @param outcome how execution ended (ExecutionState name, or STALE when dropped in pre-flight)
+     */
+    public synchronized void record(ArbitrageOpportunity opp, String outcome) {
+        if (!enabled || failed) {
+            return;
+        }
+        try {
+            if (writer == null) {
+                Path parent = path.toAbsolutePath().getParent();
+                if (parent != null) {
+                    Files.createDirectories(parent);
+                }
+                writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8, StandardOpenOption.CREATE,
+                        StandardOpenOption.APPEND);
+            }
+            writer.write(mapper.writeValueAsString(entry(opp, outcome)));
+            writer.newLine();
+            writer.flush(); // Opportunities are rare; every line is on disk when it matters
+        } catch (IOException e) {
+            log.error("Latency journal write to {} failed, journal disabled", path, e);
+            failed = true;
+        }
+    }
+
+    ObjectNode entry(ArbitrageOpportunity opp, String outcome) {
+        LatencyLineage l = opp.getLineage();
+        long offset = clock.offsetMillis();
+        ObjectNode node = mapper.createObjectNode();
+        node.put("id", opp.getId());
+        node.put("type", opp.getType() != null ? opp.getType().name() : null);
+        node.put("market", opp.getMarketId());
+        node.put("snapshot", opp.getSnapshotVersion());
+        node.put("outcome", outcome);
+        node.put("clockOffsetMs", offset);
+        node.put("clockUncertaintyMs", clock.uncertaintyMillis());
+
+        ObjectNode at = node.putObject("at");
+        putIfSet(at, "bookExchangeOldestMs", l.getOldestExchangeMillis());
+        putIfSet(at, "bookExchangeNewestMs", l.getNewestExchangeMillis());
+        putIfSet(at, "bookReceivedOldestUs", l.getOldestReceivedMicros());
+        putIfSet(at, "bookReceivedNewestUs", l.getNewestReceivedMicros());
+        putIfSet(at, "detectedUs", l.getDetectedMicros());
+        putIfSet(at, "signedUs", l.getSignedMicros());
+        putIfSet(at, "submittedUs", l.getSubmittedMicros());
+        putIfSet(at, "acknowledgedUs", l.getAcknowledgedMicros());
+        putIfSet(at, "splitSentUs", l.getSplitSentMicros());
+
+        ObjectNode ms = node.putObject("latencyMs");
+        long oldestExchange = l.getOldestExchangeMillis() > 0 ? (l.getOldestExchangeMillis() - offset) * 1_000 : 0;
+        long newestExchange = l.getNewestExchangeMillis() > 0 ? (l.getNewestExchangeMillis() - offset) * 1_000 : 0;
+        putSpan(ms, "bookAge", oldestExchange, l.getDetectedMicros());
+        putSpan(ms, "transit", newestExchange, l.getNewestReceivedMicros());
+        putSpan(ms, "receiveToDetect", l.getNewestReceivedMicros(), l.getDetectedMicros());
+        putSpan(ms, "detectToSigned", l.getDetectedMicros(), l.getSignedMicros());
+        putSpan(ms, "signedToSubmitted", l.getSignedMicros(), l.getSubmittedMicros());
+        putSpan(ms, "submittedToAck", l.getSubmittedMicros(), l.getAcknowledgedMicros());
+        putSpan(ms, "detectToSplitSent", l.getDetectedMicros(), l.getSplitSentMicros());
+        putSpan(ms, "detectToAck", l.getDetectedMicros(), l.getAcknowledgedMicros());
+        return node;
+    }
+
+    @PreDestroy
+    public synchronized void close() {
+        if (writer != null) {
+            try {
+                writer.close();
+            } catch (IOException e) {
+                log.warn("Failed to close latency journal {}", path, e);
+            }
+            writer = null;
+        }
+    }
+
+    private static void putIfSet(ObjectNode node, String field, long value) {
+        if (value > 0) {
+            node.put(field, value);
+        }
+    }
+
+    // Both ends in local epoch micros; skipped unless both were reached
+    private static void putSpan(ObjectNode node, String field, long fromMicros, long toMicros) {
+        if (fromMicros > 0 && toMicros > 0) {
+            node.put(field, (toMicros - fromMicros) / 1_000.0);
+        }
+    }
+}
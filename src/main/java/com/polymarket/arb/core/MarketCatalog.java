@@ -0,0 +1,212 @@
+package com.polymarket.arb.core;
+
+import com.polymarket.arb.domain.EventMetadata;
+import com.polymarket.arb.domain.MarketMetadata;
+import com.polymarket.arb.infra.PolymarketApiClient;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Market metadata from Gamma, synced on a slow cadence and kept apart from the book
+ * refresh path. Every sync is diffed against the previous one; listeners get the
+ * added / removed / changed markets only.
+ * Listed from /events by default so a negRisk group always arrives with all of its legs;
+ * /markets pages can cut an event in half.
+ */
+@Slf4j
+@Service
+public class MarketCatalog {
+
+    private final PolymarketApiClient apiClient;
+    private final int pageSize;
+    private final int parallelPages;
+    private final int maxMarkets;
+    private final boolean fromEvents;
+
+    private volatile Map<String, MarketMetadata> entries = Map.of();
+    private volatile Map<String, List<MarketMetadata>> byEvent = Map.of();
+    private final List<Consumer<Diff>> listeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * Changes between two syncs. {@code changed} holds the new metadata.
+     */
+    public record Diff(List<MarketMetadata> added, List<String> removed, List<MarketMetadata> changed) {
+        public boolean isEmpty() {
+            return added.isEmpty() && removed.isEmpty() && changed.isEmpty();
+        }
+    }
+
+    public MarketCatalog(PolymarketApiClient apiClient,
+            @Value("${polymarket.catalog.page-size:100}") int pageSize,
+            @Value("${polymarket.catalog.parallel-pages:4}") int parallelPages,
+            @Value("${polymarket.catalog.max-markets:1000}") int maxMarkets,
+            @Value("${polymarket.catalog.source:events}") String source) {
+        this.apiClient = apiClient;
+        this.pageSize = pageSize;
+        this.parallelPages = parallelPages;
+        this.maxMarkets = maxMarkets;
+        this.fromEvents = !"markets".equalsIgnoreCase(source);
+    }
+
+    public void addListener(Consumer<Diff> listener) {
+        listeners.add(listener);
+    }
+
+    public Collection<MarketMetadata> getAll() {
+        return entries.values();
+    }
+
+    public MarketMetadata get(String marketId) {
+        return entries.get(marketId);
+    }
+
+    /**
+     * All listed legs of an event, empty for unknown events.
+     */
+    public List<MarketMetadata> getByEvent(String eventId) {
+        return eventId == null ? List.of() : byEvent.getOrDefault(eventId, List.of());
+    }
+
+    @Scheduled(fixedDelayString = "${polymarket.catalog.sync-ms:300000}")
+    public void scheduledSync() {
+        try {
+            sync();
+        } catch (Exception e) {
+            // Keep the previous catalog: a partial listing would read as mass removals
+            log.error("Market catalog sync failed", e);
+        }
+    }
+
+    public Diff sync() {
+        long start = System.currentTimeMillis();
+        Map<String, MarketMetadata> next = fromEvents ? fetchEvents() : fetchAll();
+        Map<String, MarketMetadata> previous = entries;
+
+        List<MarketMetadata> added = new ArrayList<>();
+        List<MarketMetadata> changed = new ArrayList<>();
+        List<String> removed = new ArrayList<>();
+        for (MarketMetadata meta : next.values()) {
+            MarketMetadata old = previous.get(meta.getMarketId());
+            if (old == null) {
+                added.add(meta);
+            } else if (!sameListing(old, meta)) {
+                changed.add(meta);
+            }
+        }
+        for (String marketId : previous.keySet()) {
+            if (!next.containsKey(marketId)) {
+                removed.add(marketId);
+            }
+        }
+
+        Map<String, List<MarketMetadata>> nextByEvent = new HashMap<>();
+        for (MarketMetadata meta : next.values()) {
+            if (meta.getEventId() != null) {
+                nextByEvent.computeIfAbsent(meta.getEventId(), k -> new ArrayList<>()).add(meta);
+            }
+        }
+        entries = next;
+        byEvent = nextByEvent;
+        Diff diff = new Diff(added, removed, changed);
+        log.info("Market catalog synced in {}ms: {} markets (+{} -{} ~{})", System.currentTimeMillis() - start,
+                next.size(), added.size(), removed.size(), changed.size());
+        if (!diff.isEmpty()) {
+            for (Consumer<Diff> listener : listeners) {
+                try {
+                    listener.accept(diff);
+                } catch (Exception e) {
+                    log.error("Catalog listener failed", e);
+                }
+            }
+        }
+        return diff;
+    }
+
+    // Pages are requested a wave at a time; a short page ends the listing
+    private Map<String, MarketMetadata> fetchAll() {
+        Map<String, MarketMetadata> byId = new LinkedHashMap<>();
+        for (int offset = 0; offset < maxMarkets; offset += pageSize * parallelPages) {
+            List<CompletableFuture<List<MarketMetadata>>> wave = new ArrayList<>();
+            for (int i = 0; i < parallelPages && offset + i * pageSize < maxMarkets; i++) {
+                wave.add(apiClient.getMarketsAsync(pageSize, String.valueOf(offset + i * pageSize)));
+            }
+            boolean last = false;
+            for (CompletableFuture<List<MarketMetadata>> page : wave) {
+                List<MarketMetadata> markets = page.join();
+                for (MarketMetadata meta : markets) {
+                    if (meta.getMarketId() != null && byId.size() < maxMarkets) {
+                        byId.putIfAbsent(meta.getMarketId(), meta); // Pages can overlap as the listing shifts
+                    }
+                }
+                last |= markets.size() < pageSize;
+            }
+            if (last) {
+                break;
+            }
+        }
+        return byId;
+    }
+
+    // Same waves over /events; whole events only, the cap never splits a negRisk group
+    private Map<String, MarketMetadata> fetchEvents() {
+        Map<String, MarketMetadata> byId = new LinkedHashMap<>();
+        Set<String> seenEvents = new HashSet<>();
+        boolean full = false;
+        for (int offset = 0; !full; offset += pageSize * parallelPages) {
+            List<CompletableFuture<List<EventMetadata>>> wave = new ArrayList<>();
+            for (int i = 0; i < parallelPages; i++) {
+                wave.add(apiClient.getEventsAsync(pageSize, String.valueOf(offset + i * pageSize)));
+            }
+            boolean last = false;
+            for (CompletableFuture<List<EventMetadata>> page : wave) {
+                List<EventMetadata> events = page.join();
+                for (EventMetadata event : events) {
+                    if (full || event.getEventId() == null || !seenEvents.add(event.getEventId())) {
+                        continue;
+                    }
+                    if (byId.size() + event.getMarkets().size() > maxMarkets && !byId.isEmpty()) {
+                        full = true;
+                        continue;
+                    }
+                    for (MarketMetadata meta : event.getMarkets()) {
+                        if (meta.getMarketId() != null) {
+                            byId.putIfAbsent(meta.getMarketId(), meta);
+                        }
+                    }
+                }
+                last |= events.size() < pageSize;
+            }
+            if (last) {
+                break;
+            }
+        }
+        return byId;
+    }
+
+    // Fields that matter to ingestion; prices, liquidity and volume drift on every sync
+    private static boolean sameListing(MarketMetadata a, MarketMetadata b) {
+        return Objects.equals(a.getQuestion(), b.getQuestion())
+                && Objects.equals(a.getConditionId(), b.getConditionId())
+                && Objects.equals(a.getEventId(), b.getEventId())
+                && Objects.equals(a.getTokenIds(), b.getTokenIds())
+                && a.isNegRisk() == b.isNegRisk()
+                && a.isActive() == b.isActive()
+                && a.isClosed() == b.isClosed()
+                && a.isAcceptingOrders() == b.isAcceptingOrders();
+    }
+}
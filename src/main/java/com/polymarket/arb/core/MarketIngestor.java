@@ -1,18 +1,29 @@
 package com.polymarket.arb.core;
 
 import com.fasterxml.jackson.databind.JsonNode;
+import com.polymarket.arb.domain.FixedPoint;
+import com.polymarket.arb.domain.FixedPointBook;
 import com.polymarket.arb.domain.Market;
+import com.polymarket.arb.domain.MarketMetadata;
 import com.polymarket.arb.domain.OrderBook;
+import com.polymarket.arb.domain.TokenDictionary;
 import com.polymarket.arb.infra.PolymarketApiClient;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
 import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
 
 @Slf4j
 @Service
@@ -20,128 +31,246 @@ import java.util.List;
 public class MarketIngestor {
 
     private final PolymarketApiClient apiClient;
+    private final MarketCatalog catalog;
     private final MarketSnapshotCache cache;
+    private final BookStreamIngestor bookStream;
+    private final RefreshScheduler refreshScheduler;
 
+    private static final long MIN_INDICATIVE_SUM_TICKS = 9_000; // 0.90
+
+    // Tokens per POST /books request; both tokens of a market always share a request
+    @Value("${polymarket.ingest.book-batch-size:100}")
+    private int bookBatchSize = 100;
+
+    @PostConstruct
+    public void init() {
+        catalog.addListener(this::onCatalogChange);
+    }
+
+    /**
+     * Book loop: snapshots for catalog markets that have none yet (or whose snapshot failed).
+     * Market discovery is the catalog's job, this never touches Gamma.
+     */
     @Scheduled(fixedDelay = 10000)
-    public void ingestMarkets() {
-        log.info("Starting full market ingestion...");
+    public void refreshBooks() {
         try {
-            int limit = 100; // Fetch 100 at a time
-            int totalFetched = 0;
-            int maxToFetch = 1000;
-
-            // Use virtual threads for parallelism, but rate limited
-            try (var executor = java.util.concurrent.Executors.newVirtualThreadPerTaskExecutor()) {
-                for (int offset = 0; totalFetched < maxToFetch; offset += limit) {
-                    log.info("Fetching markets batch offset: {}...", offset);
-                    JsonNode marketsParams = apiClient.getMarkets(limit, String.valueOf(offset));
-                    if (marketsParams == null || !marketsParams.isArray() || marketsParams.size() == 0) {
-                        break;
-                    }
+            List<MarketMetadata> candidates = withEventLegs(catalog.getAll().stream().filter(this::needsBookFetch).toList());
+            if (candidates.isEmpty()) {
+                return;
+            }
+            log.info("Fetching book snapshots for {} markets...", candidates.size());
+            fetchSnapshots(candidates).join();
+            log.info("Snapshots complete. Total markets in cache: {}", cache.getAllMarkets().size());
+        } catch (Exception e) {
+            log.error("Error during book refresh", e);
+        }
+    }
 
-                    log.info("Processing {} markets in batch (filtering active)...", marketsParams.size());
+    void onCatalogChange(MarketCatalog.Diff diff) {
+        diff.removed().forEach(cache::removeMarket);
 
-                    java.util.stream.StreamSupport.stream(marketsParams.spliterator(), false)
-                            .forEach(node -> executor.submit(() -> {
-                                processMarket(node);
-                            }));
+        List<MarketMetadata> snapshots = new ArrayList<>(diff.added());
+        for (MarketMetadata meta : diff.changed()) {
+            Market cached = cache.getMarket(meta.getMarketId());
+            // Same tokens: metadata only, the cached books stay whatever they are by then
+            if (cached == null || !Objects.equals(cached.getOutcomeIds(), meta.getTokenIds())
+                    || !cache.updateMetadata(meta.getMarketId(), builder -> withMetadata(builder, meta))) {
+                snapshots.add(meta); // New tokens need new books
+            }
+        }
+        // Not joined: the next book loop picks up whatever fails here
+        fetchSnapshots(withEventLegs(snapshots.stream().filter(this::needsBookFetch).toList()));
+    }
 
-                    totalFetched += marketsParams.size();
-                    if (marketsParams.size() < limit)
-                        break;
+    /**
+     * A negRisk leg is only useful next to its siblings: pull in every binary leg of the
+     * event so the whole group is snapshotted together, ordered event by event.
+     */
+    private List<MarketMetadata> withEventLegs(List<MarketMetadata> candidates) {
+        Map<String, MarketMetadata> byId = new LinkedHashMap<>();
+        for (MarketMetadata meta : candidates) {
+            if (!meta.isNegRisk() || meta.getEventId() == null) {
+                byId.putIfAbsent(meta.getMarketId(), meta);
+                continue;
+            }
+            if (byId.containsKey(meta.getMarketId())) {
+                continue; // Already added with its event
+            }
+            byId.put(meta.getMarketId(), meta);
+            for (MarketMetadata leg : catalog.getByEvent(meta.getEventId())) {
+                if (leg.getTokenIds() != null && leg.getTokenIds().size() >= 2) {
+                    byId.putIfAbsent(leg.getMarketId(), leg);
                 }
             }
+        }
+        return new ArrayList<>(byId.values());
+    }
 
-            log.info("Ingestion complete. Total markets in cache: {}", cache.getAllMarkets().size());
-        } catch (Exception e) {
-            log.error("Error during ingestion", e);
+    // Book requests are issued asynchronously; the client paces them to the rate limit
+    // and caps in-flight calls, so no thread waits per request
+    // Legs of one event never straddle two requests unless the event alone exceeds a batch
+    private CompletableFuture<Void> fetchSnapshots(List<MarketMetadata> candidates) {
+        List<CompletableFuture<Void>> pending = new ArrayList<>();
+        int marketsPerRequest = Math.max(1, bookBatchSize / 2);
+        List<MarketMetadata> chunk = new ArrayList<>();
+        for (List<MarketMetadata> group : groupByEvent(candidates)) {
+            if (!chunk.isEmpty() && chunk.size() + group.size() > marketsPerRequest) {
+                pending.add(processBatch(chunk));
+                chunk = new ArrayList<>();
+            }
+            for (MarketMetadata meta : group) {
+                if (chunk.size() == marketsPerRequest) {
+                    pending.add(processBatch(chunk));
+                    chunk = new ArrayList<>();
+                }
+                chunk.add(meta);
+            }
         }
+        if (!chunk.isEmpty()) {
+            pending.add(processBatch(chunk));
+        }
+        return CompletableFuture.allOf(pending.toArray(CompletableFuture[]::new));
     }
 
-    private void processMarket(JsonNode node) {
-        try {
-            String marketId = node.path("id").asText();
-            String clobTokenIdsStr = node.path("clobTokenIds").asText();
-
-            // Optimization: Filter based on outcomePrices (Last Trade Prices)
-            // If Sum(Prices) < 0.90, unlikely to have arb (Sum(Bids) > 1.0)
-            String outcomePricesStr = node.path("outcomePrices").asText();
-            if (outcomePricesStr != null && !outcomePricesStr.equals("null") && !outcomePricesStr.isEmpty()) {
-                try {
-                    JsonNode pricesNode = new com.fasterxml.jackson.databind.ObjectMapper().readTree(outcomePricesStr);
-                    if (pricesNode.isArray() && pricesNode.size() > 0) {
-                        BigDecimal sumPrices = BigDecimal.ZERO;
-                        for (JsonNode p : pricesNode) {
-                            sumPrices = sumPrices.add(new BigDecimal(p.asText("0")));
-                        }
+    private static Collection<List<MarketMetadata>> groupByEvent(List<MarketMetadata> candidates) {
+        Map<String, List<MarketMetadata>> groups = new LinkedHashMap<>();
+        for (MarketMetadata meta : candidates) {
+            String key = meta.isNegRisk() && meta.getEventId() != null
+                    ? "event:" + meta.getEventId() : "market:" + meta.getMarketId();
+            groups.computeIfAbsent(key, k -> new ArrayList<>()).add(meta);
+        }
+        return groups.values();
+    }
+
+    /**
+     * Binary markets that pass the indicative-price filter and whose books are not
+     * already maintained by the stream.
+     */
+    private boolean needsBookFetch(MarketMetadata meta) {
+        // Optimization: Filter based on outcomePrices (Last Trade Prices)
+        // If Sum(Prices) < 0.90, unlikely to have arb (Sum(Bids) > 1.0)
+        // Heuristic: If indicative sum is too low, skip expensive OrderBook fetch
+        // Keep safety buffer (e.g. 0.90); unparseable prices (NONE) proceed safely
+        if (meta.getOutcomePriceSum() != FixedPoint.NONE && meta.getOutcomePriceSum() < MIN_INDICATIVE_SUM_TICKS) {
+            return false;
+        }
+
+        List<String> tokenIds = meta.getTokenIds();
+        if (tokenIds == null || tokenIds.size() < 2) {
+            return false; // Binary and categorical markets, one book per outcome
+        }
+
+        // Books of known markets are kept fresh by the WebSocket feed or the refresh
+        // scheduler; only new (or resyncing) markets need a snapshot from the sweep
+        if (cache.getMarket(meta.getMarketId()) == null) {
+            return true;
+        }
+        boolean streamed = tokenIds.stream().allMatch(bookStream::isLive);
+        return !streamed && !refreshScheduler.isTracked(meta.getMarketId());
+    }
+
+    /**
+     * One POST /books call for all tokens of the chunk, then one cache publish for all of
+     * its new markets so an event's legs appear together. Books of markets already cached
+     * go through {@link MarketSnapshotCache#updateBooks}, so a slow response never
+     * replaces a newer book from the stream.
+     */
+    private CompletableFuture<Void> processBatch(List<MarketMetadata> chunk) {
+        List<String> tokenIds = new ArrayList<>(chunk.size() * 2);
+        chunk.forEach(meta -> tokenIds.addAll(meta.getTokenIds()));
 
-                        // Heuristic: If indicative sum is too low, skip expensive OrderBook fetch
-                        // Keep safety buffer (e.g. 0.90)
-                        if (sumPrices.compareTo(new BigDecimal("0.90")) < 0) {
-                            // Skip processing this market to save API calls
-                            return;
+        return apiClient.getOrderBooksAsync(tokenIds)
+                .thenAccept(books -> {
+                    List<Market> added = new ArrayList<>(chunk.size());
+                    List<Market> markets = new ArrayList<>(chunk.size());
+                    Map<String, OrderBook> refreshed = new LinkedHashMap<>();
+                    for (MarketMetadata meta : chunk) {
+                        try {
+                            Market cached = cache.getMarket(meta.getMarketId());
+                            if (cached != null && Objects.equals(cached.getOutcomeIds(), meta.getTokenIds())) {
+                                for (String tokenId : meta.getTokenIds()) {
+                                    OrderBook book = books.get(tokenId);
+                                    if (book != null) {
+                                        refreshed.put(tokenId, book);
+                                    }
+                                }
+                                markets.add(cached);
+                                continue;
+                            }
+                            Market market = toMarket(meta, books);
+                            if (market != null) {
+                                added.add(market);
+                                markets.add(market);
+                            }
+                        } catch (Exception e) {
+                            log.warn("Failed to process market {}", meta.getMarketId(), e);
                         }
                     }
-                } catch (Exception ignore) {
-                    // If parsing fails, proceed safely
-                }
-            }
-
-            if (clobTokenIdsStr == null || clobTokenIdsStr.isEmpty() || clobTokenIdsStr.equals("null")) {
-                return;
-            }
+                    cache.updateMarkets(added);
+                    cache.updateBooks(refreshed);
+                    for (Market market : markets) {
+                        bookStream.track(market);
+                        refreshScheduler.register(market);
+                    }
+                })
+                .exceptionally(e -> {
+                    log.warn("Failed to fetch books for {} markets", chunk.size(), e);
+                    return null;
+                });
+    }
 
-            JsonNode tokenIdsNode = new com.fasterxml.jackson.databind.ObjectMapper().readTree(clobTokenIdsStr);
-            if (tokenIdsNode.size() != 2) {
-                return; // Only support binary markets for now
+    private Market toMarket(MarketMetadata meta, Map<String, OrderBook> books) {
+        List<String> tokenIds = meta.getTokenIds();
+        OrderBook[] outcomeBooks = new OrderBook[tokenIds.size()];
+        String[] canonical = new String[tokenIds.size()];
+        for (int i = 0; i < outcomeBooks.length; i++) {
+            outcomeBooks[i] = books.get(tokenIds.get(i));
+            if (outcomeBooks[i] == null) {
+                log.debug("No CLOB book for outcome {} of market {}, skipping", i, meta.getMarketId());
+                return null;
             }
+            // Shared instances: every index keyed by this token hashes it once
+            canonical[i] = TokenDictionary.canonical(tokenIds.get(i));
+        }
 
-            String outcomeY = tokenIdsNode.get(0).asText();
-            String outcomeN = tokenIdsNode.get(1).asText();
-
-            // Fetch Orderbooks (Rate limited by outer loop technically? No, need to rate
-            // limit these calls too)
-            // Actually, strictRateLimiter.acquire() was called before processMarket.
-            // But processMarket makes 2 calls. 1 'acquire' allows 1 unit of work (2 calls).
-            // That means effectively 20 API calls/sec if limit is 10 ops/sec.
-            // Let's acquire inside fetchOrderBook for stricter control?
-            // Or just accept the 'market unit' cost.
-            // Let's stick to '1 market processing token'.
-
-            OrderBook obYes = fetchOrderBook(outcomeY);
-            OrderBook obNo = fetchOrderBook(outcomeN);
-
-            Market market = Market.builder()
-                    .marketId(marketId)
-                    .conditionId(node.path("condition_id").asText())
-                    .negRisk(node.path("negRisk").asBoolean(false))
-                    .outcomeIds(List.of(outcomeY, outcomeN))
-                    .active(node.path("active").asBoolean())
-                    .closed(node.path("closed").asBoolean())
-                    .yesOrderBook(obYes)
-                    .noOrderBook(obNo)
-                    .question(node.path("question").asText())
-                    .lastUpdated(Instant.now())
-                    .build();
-
-            cache.updateMarket(market);
+        return withMetadata(Market.builder(), meta)
+                .outcomeIds(List.of(canonical))
+                .books(outcomeBooks)
+                .lastUpdated(Instant.now())
+                .build();
+    }
 
-        } catch (Exception e) {
-            log.warn("Failed to process market {}", node.path("id").asText(), e);
-        }
+    private static Market.MarketBuilder withMetadata(Market.MarketBuilder builder, MarketMetadata meta) {
+        return builder
+                .marketId(meta.getMarketId())
+                .conditionId(meta.getConditionId())
+                .eventId(meta.getEventId())
+                .negRisk(meta.isNegRisk())
+                .active(meta.isActive())
+                .closed(meta.isClosed())
+                .acceptingOrders(meta.isAcceptingOrders())
+                .question(meta.getQuestion())
+                .liquidity(meta.getLiquidity())
+                .volume(meta.getVolume());
     }
 
-    private OrderBook fetchOrderBook(String tokenId) {
-        JsonNode bookNode = apiClient.getOrderBook(tokenId);
+    // Tree path, still used for WebSocket book frames
+    static OrderBook toOrderBook(String tokenId, JsonNode bookNode) {
         if (bookNode == null) {
             return OrderBook.builder().marketId(tokenId).bids(new ArrayList<>()).asks(new ArrayList<>()).build();
         }
         List<OrderBook.OrderLevel> bids = parseLevels(bookNode.path("bids"));
         List<OrderBook.OrderLevel> asks = parseLevels(bookNode.path("asks"));
-        return OrderBook.builder().marketId(tokenId).bids(bids).asks(asks).build();
+        // Fixed-point view is built here, once, instead of on the detection path
+        return OrderBook.builder().marketId(tokenId).bids(bids).asks(asks)
+                .fixedPoint(FixedPointBook.of(bids, asks))
+                .hash(bookNode.path("hash").asText(null))
+                .exchangeTimestamp(bookNode.path("timestamp").asLong(0))
+                .sequence(OrderBook.nextSequence())
+                .build();
     }
 
-    private List<OrderBook.OrderLevel> parseLevels(JsonNode levelsNode) {
+    static List<OrderBook.OrderLevel> parseLevels(JsonNode levelsNode) {
         List<OrderBook.OrderLevel> list = new ArrayList<>();
         if (levelsNode.isArray()) {
             for (JsonNode l : levelsNode) {
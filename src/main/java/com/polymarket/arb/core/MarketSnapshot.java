@@ -0,0 +1,224 @@
+package com.polymarket.arb.core;
+
+import com.polymarket.arb.core.MarketSnapshotCache.TokenRef;
+import com.polymarket.arb.domain.Market;
+import com.polymarket.arb.domain.OrderBook;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Immutable, versioned view of the whole cache: markets plus the event / condition /
+ * token indexes, all from the same epoch. A detector pins one for its whole scan, so a
+ * NegRisk group can never mix legs from different writes. Writers publish a new
+ * snapshot per write (or per batch), sharing every untouched shard with the previous one.
+ */
+public final class MarketSnapshot {
+
+    static final MarketSnapshot EMPTY = new MarketSnapshot(0, ShardedMap.empty(), ShardedMap.empty(),
+            ShardedMap.empty(), ShardedMap.empty());
+
+    // Market plus the snapshot version that last wrote it
+    private record Entry(Market market, long version) {
+    }
+
+    // Members of an event or condition; negRisk counts members flagged negRisk
+    private record Group(List<String> marketIds, int negRisk) {
+    }
+
+    private final long version;
+    private final ShardedMap<String, Entry> markets;
+    private final ShardedMap<String, Group> events;
+    private final ShardedMap<String, Group> conditions;
+    private final ShardedMap<String, TokenRef> tokens;
+
+    private MarketSnapshot(long version, ShardedMap<String, Entry> markets, ShardedMap<String, Group> events,
+            ShardedMap<String, Group> conditions, ShardedMap<String, TokenRef> tokens) {
+        this.version = version;
+        this.markets = markets;
+        this.events = events;
+        this.conditions = conditions;
+        this.tokens = tokens;
+    }
+
+    public long version() {
+        return version;
+    }
+
+    public int size() {
+        return markets.size();
+    }
+
+    public Market getMarket(String marketId) {
+        Entry entry = markets.get(marketId);
+        return entry != null ? entry.market() : null;
+    }
+
+    public List<Market> getAllMarkets() {
+        List<Market> all = new ArrayList<>(markets.size());
+        markets.forEach((id, entry) -> all.add(entry.market()));
+        return all;
+    }
+
+    public List<Market> getMarketsByEventId(String eventId) {
+        return eventId == null ? List.of() : resolve(events.get(eventId));
+    }
+
+    public List<Market> getMarketsByConditionId(String conditionId) {
+        return conditionId == null ? List.of() : resolve(conditions.get(conditionId));
+    }
+
+    public TokenRef getTokenRef(String tokenId) {
+        return tokens.get(tokenId);
+    }
+
+    /**
+     * Cached book of a token, via its owning market.
+     */
+    public OrderBook getBook(String tokenId) {
+        TokenRef ref = tokens.get(tokenId);
+        Market market = ref != null ? getMarket(ref.marketId()) : null;
+        if (market == null) {
+            return null;
+        }
+        return market.getBook(ref.outcomeIndex());
+    }
+
+    public Set<String> getNegRiskEventIds() {
+        Set<String> ids = new HashSet<>();
+        events.forEach((id, group) -> {
+            if (group.negRisk() > 0) {
+                ids.add(id);
+            }
+        });
+        return ids;
+    }
+
+    /**
+     * Whether any of the markets was written (or removed) after {@code sinceVersion}
+     * as seen from this snapshot.
+     */
+    public boolean changedSince(Collection<String> marketIds, long sinceVersion) {
+        for (String marketId : marketIds) {
+            Entry entry = markets.get(marketId);
+            if (entry == null || entry.version() > sinceVersion) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Next version with the upserts and removals applied in one step.
+     */
+    MarketSnapshot apply(Collection<Market> upserts, Collection<String> removals) {
+        long next = version + 1;
+        Writer writer = new Writer();
+        for (Market market : upserts) {
+            Entry previous = writer.markets.get(market.getMarketId());
+            // Book writes keep event, condition, flags and tokens: the indexes stay as they are
+            if (previous == null || !sameIndexKeys(previous.market(), market)) {
+                writer.reindex(market.getMarketId(), previous != null ? previous.market() : null, market);
+            }
+            writer.markets.put(market.getMarketId(), new Entry(market, next));
+        }
+        for (String marketId : removals) {
+            Entry previous = writer.markets.get(marketId);
+            if (previous != null) {
+                writer.reindex(marketId, previous.market(), null);
+                writer.markets.remove(marketId);
+            }
+        }
+        return new MarketSnapshot(next, writer.markets.publish(), writer.events.publish(),
+                writer.conditions.publish(), writer.tokens.publish());
+    }
+
+    private static boolean sameIndexKeys(Market a, Market b) {
+        return Objects.equals(a.getEventId(), b.getEventId())
+                && Objects.equals(a.getConditionId(), b.getConditionId())
+                && a.isNegRisk() == b.isNegRisk()
+                && Objects.equals(a.getOutcomeIds(), b.getOutcomeIds());
+    }
+
+    private List<Market> resolve(Group group) {
+        if (group == null) {
+            return List.of();
+        }
+        List<Market> resolved = new ArrayList<>(group.marketIds().size());
+        for (String marketId : group.marketIds()) {
+            Market market = getMarket(marketId);
+            if (market != null) {
+                resolved.add(market);
+            }
+        }
+        return resolved;
+    }
+
+    private final class Writer {
+        final ShardedMap.Editor<String, Entry> markets = MarketSnapshot.this.markets.edit();
+        final ShardedMap.Editor<String, Group> events = MarketSnapshot.this.events.edit();
+        final ShardedMap.Editor<String, Group> conditions = MarketSnapshot.this.conditions.edit();
+        final ShardedMap.Editor<String, TokenRef> tokens = MarketSnapshot.this.tokens.edit();
+
+        void reindex(String marketId, Market previous, Market next) {
+            String oldEvent = previous != null ? previous.getEventId() : null;
+            String newEvent = next != null ? next.getEventId() : null;
+            String oldCondition = previous != null ? previous.getConditionId() : null;
+            String newCondition = next != null ? next.getConditionId() : null;
+
+            // Counted rather than flagged: an event stays negRisk while any member is
+            int oldNegRisk = previous != null && previous.isNegRisk() ? 1 : 0;
+            int newNegRisk = next != null && next.isNegRisk() ? 1 : 0;
+            if (oldEvent != null) {
+                update(events, oldEvent, marketId, false, -oldNegRisk);
+            }
+            if (newEvent != null) {
+                update(events, newEvent, marketId, true, newNegRisk);
+            }
+            if (oldCondition != null && !oldCondition.equals(newCondition)) {
+                update(conditions, oldCondition, marketId, false, 0);
+            }
+            if (newCondition != null) {
+                update(conditions, newCondition, marketId, true, 0);
+            }
+
+            List<String> oldTokens = previous != null && previous.getOutcomeIds() != null ? previous.getOutcomeIds()
+                    : List.of();
+            List<String> newTokens = next != null && next.getOutcomeIds() != null ? next.getOutcomeIds() : List.of();
+            for (int i = 0; i < oldTokens.size(); i++) {
+                String tokenId = oldTokens.get(i);
+                if (!newTokens.contains(tokenId) && new TokenRef(marketId, i).equals(tokens.get(tokenId))) {
+                    tokens.remove(tokenId);
+                }
+            }
+            for (int i = 0; i < newTokens.size(); i++) {
+                tokens.put(newTokens.get(i), new TokenRef(marketId, i));
+            }
+        }
+
+        private static void update(ShardedMap.Editor<String, Group> index, String key, String marketId,
+                boolean member, int negRiskDelta) {
+            Group group = index.get(key);
+            List<String> ids = group != null ? group.marketIds() : List.of();
+            int negRisk = (group != null ? group.negRisk() : 0) + negRiskDelta;
+            if (member != ids.contains(marketId)) {
+                List<String> changed = new ArrayList<>(ids);
+                if (member) {
+                    changed.add(marketId);
+                } else {
+                    changed.remove(marketId);
+                }
+                ids = List.copyOf(changed);
+            }
+            if (ids.isEmpty() && negRisk <= 0) {
+                index.remove(key);
+            } else if (group == null || negRisk != group.negRisk() || !Objects.equals(ids, group.marketIds())) {
+                index.put(key, new Group(ids, negRisk));
+            }
+        }
+    }
+}
@@ -1,35 +1,282 @@
 package com.polymarket.arb.core;
 
 import com.polymarket.arb.domain.Market;
+import com.polymarket.arb.domain.OrderBook;
+import com.polymarket.arb.infra.ArbMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
+import java.time.Instant;
 import java.util.Collection;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.UnaryOperator;
 
+/**
+ * Latest market state, published as immutable {@link MarketSnapshot}s. Writers build the
+ * next snapshot copy-on-write and CAS it in; readers either pin {@link #snapshot()} for a
+ * consistent multi-market view or use the single-lookup getters below (latest snapshot).
+ */
 @Component
 public class MarketSnapshotCache {
 
-    private final ConcurrentHashMap<String, Market> cache = new ConcurrentHashMap<>();
+    private static final int JOURNAL_CAPACITY = 1 << 16;
+
+    private final AtomicReference<MarketSnapshot> current = new AtomicReference<>(MarketSnapshot.EMPTY);
+    private final ChangeJournal journal = new ChangeJournal(JOURNAL_CAPACITY);
+
+    // Book updates written vs. dropped as no-ops (same book, same hash or older exchange timestamp)
+    private final LongAdder booksWritten = new LongAdder();
+    private final LongAdder booksSkipped = new LongAdder();
+
+    private final List<WriteListener> listeners = new CopyOnWriteArrayList<>();
+
+    public MarketSnapshotCache() {
+    }
+
+    @Autowired
+    public MarketSnapshotCache(ArbMetrics metrics) {
+        metrics.bookWrites(booksWritten::sum, booksSkipped::sum);
+    }
+
+    /**
+     * CLOB token id -> owning market and outcome index (0 = YES, 1 = NO for binary markets,
+     * position in outcomeIds for categorical ones).
+     */
+    public record TokenRef(String marketId, int outcomeIndex) {
+    }
+
+    /**
+     * Told about every published write, on the writing thread, after the journal entry.
+     * Concurrent writers may deliver out of publish order.
+     */
+    public interface WriteListener {
+        void onWrite(Collection<Market> written);
+
+        default void onRemove(String marketId) {
+        }
+    }
+
+    public void addListener(WriteListener listener) {
+        listeners.add(listener);
+    }
 
     public void updateMarket(Market market) {
-        cache.put(market.getMarketId(), market);
+        updateMarkets(List.of(market));
+    }
+
+    /**
+     * Publishes all markets in one snapshot, e.g. every leg of a refreshed event, so no
+     * reader sees the group half-updated.
+     */
+    public void updateMarkets(Collection<Market> markets) {
+        if (markets.isEmpty()) {
+            return;
+        }
+        MarketSnapshot base = publish(markets, List.of());
+        journalWrites(base, markets);
+        notifyWrite(markets);
+    }
+
+    /**
+     * Rewrites the metadata of a cached market (question, flags, event, volume...) while
+     * keeping the outcomes and books of the version it is applied to, so a catalog sync
+     * racing a book write never rolls the book back.
+     *
+     * @return false if the market is not cached
+     */
+    public boolean updateMetadata(String marketId, UnaryOperator<Market.MarketBuilder> metadata) {
+        for (;;) {
+            MarketSnapshot base = current.get();
+            Market cached = base.getMarket(marketId);
+            if (cached == null) {
+                return false;
+            }
+            Market next = metadata.apply(cached.toBuilder())
+                    .marketId(marketId)
+                    .outcomeIds(cached.getOutcomeIds())
+                    .books(cached.getBooks())
+                    .lastUpdated(cached.getLastUpdated())
+                    .build();
+            if (current.compareAndSet(base, base.apply(List.of(next), List.of()))) {
+                journalWrites(base, List.of(next));
+                notifyWrite(List.of(next));
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Applies books keyed by token id, all in one publish. Books identical to the cached
+     * one (same instance or same exchange hash) or older than it are dropped, so no-op
+     * polls never reach the journal and detectors do not re-evaluate them. Books of tokens
+     * no cached market owns are dropped too, without counting as skipped.
+     *
+     * @return number of books actually written
+     */
+    public int updateBooks(Map<String, OrderBook> books) {
+        if (books.isEmpty()) {
+            return 0;
+        }
+        for (;;) {
+            MarketSnapshot base = current.get();
+            Map<String, Market> changed = new LinkedHashMap<>();
+            int written = 0;
+            int unknown = 0;
+            for (Map.Entry<String, OrderBook> e : books.entrySet()) {
+                TokenRef ref = base.getTokenRef(e.getKey());
+                Market market = ref == null ? null
+                        : changed.getOrDefault(ref.marketId(), base.getMarket(ref.marketId()));
+                if (market == null) {
+                    unknown++; // Not a no-op, just nowhere to write it: left out of the skip count
+                    continue;
+                }
+                if (isNoOp(market.getBook(ref.outcomeIndex()), e.getValue())) {
+                    continue;
+                }
+                changed.put(ref.marketId(), market.toBuilder().lastUpdated(Instant.now())
+                        .book(ref.outcomeIndex(), e.getValue()).build());
+                written++;
+            }
+            // Built from base: only publish if nobody wrote in between, else redo on the new base
+            if (changed.isEmpty() || current.compareAndSet(base, base.apply(changed.values(), List.of()))) {
+                booksWritten.add(written);
+                booksSkipped.add(books.size() - written - unknown);
+                for (Market market : changed.values()) {
+                    journal.append(market.getMarketId(), market.getEventId());
+                }
+                if (!changed.isEmpty()) {
+                    notifyWrite(changed.values());
+                }
+                return written;
+            }
+        }
+    }
+
+    /**
+     * Share of offered book updates dropped as unchanged or stale since startup.
+     */
+    public double getBookSkipRatio() {
+        long skipped = booksSkipped.sum();
+        long offered = booksWritten.sum() + skipped;
+        return offered == 0 ? 0 : (double) skipped / offered;
+    }
+
+    public void removeMarket(String marketId) {
+        MarketSnapshot base = publish(List.of(), List.of(marketId));
+        Market removed = base.getMarket(marketId);
+        if (removed != null) {
+            journal.append(marketId, removed.getEventId());
+            for (WriteListener listener : listeners) {
+                listener.onRemove(marketId);
+            }
+        }
+    }
+
+    /**
+     * Current snapshot. Everything read through it comes from one version.
+     */
+    public MarketSnapshot snapshot() {
+        return current.get();
     }
 
     public Market getMarket(String marketId) {
-        return cache.get(marketId);
+        return current.get().getMarket(marketId);
     }
 
     public Collection<Market> getAllMarkets() {
-        return cache.values();
+        return current.get().getAllMarkets();
+    }
+
+    public List<Market> getMarketsByEventId(String eventId) {
+        return current.get().getMarketsByEventId(eventId);
+    }
+
+    public List<Market> getMarketsByConditionId(String conditionId) {
+        return current.get().getMarketsByConditionId(conditionId);
+    }
+
+    public TokenRef getTokenRef(String tokenId) {
+        return current.get().getTokenRef(tokenId);
+    }
+
+    public OrderBook getBook(String tokenId) {
+        return current.get().getBook(tokenId);
+    }
+
+    public Set<String> getNegRiskEventIds() {
+        return current.get().getNegRiskEventIds();
     }
 
-    public java.util.List<Market> getMarketsByEventId(String eventId) {
-        return cache.values().stream()
-                .filter(m -> eventId.equals(m.getEventId()))
-                .toList();
+    public long getVersion() {
+        return journal.currentVersion();
+    }
+
+    /**
+     * Markets and events written since {@code version}. Read the changes before pinning
+     * the snapshot, so nothing written in between is skipped.
+     */
+    public DirtySet changesSince(long version) {
+        return journal.since(version);
+    }
+
+    /**
+     * Like {@link #changesSince(long)}, covering at most {@code maxEntries} journal entries.
+     */
+    public DirtySet changesSince(long version, int maxEntries) {
+        return journal.since(version, maxEntries);
     }
 
     public void clear() {
-        cache.clear();
+        MarketSnapshot base;
+        do {
+            base = current.get();
+        } while (!current.compareAndSet(base, base.apply(List.of(),
+                base.getAllMarkets().stream().map(Market::getMarketId).toList())));
+    }
+
+    private static boolean isNoOp(OrderBook cached, OrderBook next) {
+        if (cached == null) {
+            return false;
+        }
+        if (cached == next || (next.getHash() != null && next.getHash().equals(cached.getHash()))) {
+            return true;
+        }
+        // A slow REST response must not roll back a newer book from the stream
+        return next.getExchangeTimestamp() > 0 && next.getExchangeTimestamp() < cached.getExchangeTimestamp();
+    }
+
+    // Journal after the publish so a reader that saw the entry also sees the market
+    private void journalWrites(MarketSnapshot base, Collection<Market> markets) {
+        for (Market market : markets) {
+            Market previous = base.getMarket(market.getMarketId());
+            journal.append(market.getMarketId(), market.getEventId());
+            if (previous != null && previous.getEventId() != null
+                    && !Objects.equals(previous.getEventId(), market.getEventId())) {
+                journal.append(market.getMarketId(), previous.getEventId()); // left its old group
+            }
+        }
+    }
+
+    private void notifyWrite(Collection<Market> written) {
+        for (WriteListener listener : listeners) {
+            listener.onWrite(written);
+        }
+    }
+
+    // CAS loop; returns the snapshot the write was applied to
+    private MarketSnapshot publish(Collection<Market> upserts, Collection<String> removals) {
+        for (;;) {
+            MarketSnapshot base = current.get();
+            if (current.compareAndSet(base, base.apply(upserts, removals))) {
+                return base;
+            }
+        }
     }
 }
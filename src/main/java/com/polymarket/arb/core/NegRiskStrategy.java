@@ -1,17 +1,15 @@
 package com.polymarket.arb.core;
 
 import com.polymarket.arb.domain.ArbitrageOpportunity;
+import com.polymarket.arb.domain.FixedPoint;
 import com.polymarket.arb.domain.Market;
-import com.polymarket.arb.domain.OrderBook;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
-import java.math.RoundingMode;
 import java.time.Instant;
 import java.util.*;
-import java.util.stream.Collectors;
 
 @Slf4j
 @Service
@@ -21,116 +19,122 @@ public class NegRiskStrategy implements ArbitrageDetector {
     private final MarketSnapshotCache cache;
     private static final BigDecimal MIN_PROFIT_THRESHOLD = new BigDecimal("0.0001");
     private static final BigDecimal TARGET_SIZE = new BigDecimal("10.0");
+    private static final long TARGET_SIZE_UNITS = FixedPoint.toSizeUnits(TARGET_SIZE);
     private static final BigDecimal EXECUTION_BUFFER = new BigDecimal("0.002"); // 0.2% for slippage/fees
+    // Σ(bid) - 1 must stay above buffer + threshold for the net profit to clear the threshold
+    private static final long MIN_EDGE_TICKS = FixedPoint.toPriceTicks(EXECUTION_BUFFER.add(MIN_PROFIT_THRESHOLD));
 
-    @Override
     public List<ArbitrageOpportunity> detect() {
+        return detect(cache.snapshot());
+    }
+
+    public List<ArbitrageOpportunity> detect(DirtySet changes) {
+        return detect(cache.snapshot(), changes);
+    }
+
+    @Override
+    public List<ArbitrageOpportunity> detect(MarketSnapshot snapshot) {
         List<ArbitrageOpportunity> opportunities = new ArrayList<>();
 
-        // Group markets by eventId where negRisk is true
-        Map<String, List<Market>> negRiskEvents = cache.getAllMarkets().stream()
-                .filter(Market::isNegRisk)
-                .collect(Collectors.groupingBy(Market::getEventId));
-
-        for (Map.Entry<String, List<Market>> entry : negRiskEvents.entrySet()) {
-            String eventId = entry.getKey();
-            List<Market> markets = entry.getValue();
-
-            // Σ(EffectiveBid(YES_i)) > 1.0 (Short Arb)
-            BigDecimal totalEffectiveBid = BigDecimal.ZERO;
-            boolean allMarketsHaveLiquidity = true;
-            List<ArbitrageOpportunity.OrderRequest> requests = new ArrayList<>();
-            StringBuilder breakdown = new StringBuilder();
-
-            for (Market m : markets) {
-                // Production Grade health check
-                if (!m.isActive() || m.isClosed() || !m.isAcceptingOrders()) {
-                    allMarketsHaveLiquidity = false;
-                    break;
-                }
-
-                BigDecimal effectiveBid = getEffectivePrice(m.getYesOrderBook(), TARGET_SIZE, true);
-                if (effectiveBid == null || effectiveBid.compareTo(BigDecimal.ZERO) == 0) {
-                    allMarketsHaveLiquidity = false;
-                    break;
-                }
-                totalEffectiveBid = totalEffectiveBid.add(effectiveBid);
-                breakdown.append(String.format("[%s: %.4f] ", m.getOutcomeIds().get(0), effectiveBid));
-
-                requests.add(ArbitrageOpportunity.OrderRequest.builder()
-                        .tokenId(m.getOutcomeIds().get(0))
-                        .price(effectiveBid)
-                        .size(TARGET_SIZE)
-                        .side(ArbitrageOpportunity.Side.SELL)
-                        .build());
-            }
+        // NegRisk events come straight from the snapshot index, no regrouping per scan
+        for (String eventId : snapshot.getNegRiskEventIds()) {
+            evaluateEvent(snapshot, eventId, opportunities);
+        }
 
-            if (allMarketsHaveLiquidity && totalEffectiveBid.compareTo(BigDecimal.ONE) > 0) {
-                BigDecimal grossProfit = totalEffectiveBid.subtract(BigDecimal.ONE);
-                BigDecimal netProfit = grossProfit.subtract(EXECUTION_BUFFER);
-
-                String eventDisplayName = markets.isEmpty() ? eventId
-                        : markets.get(0).getQuestion().split(" \\| ")[0];
-
-                // Pre-flight simulation reporting
-                log.info("📊 PRE-FLIGHT REPORT | Event: {} | Σ(Eff. Bid): {} | Buffer: {} | Net: {}",
-                        eventDisplayName, totalEffectiveBid, EXECUTION_BUFFER, netProfit);
-                log.info("   -> Breakdown: {}", breakdown.toString());
-
-                if (netProfit.compareTo(MIN_PROFIT_THRESHOLD) > 0) {
-                    ArbitrageOpportunity opp = ArbitrageOpportunity.builder()
-                            .id(UUID.randomUUID().toString())
-                            .marketId(eventId)
-                            .conditionId(markets.get(0).getConditionId())
-                            .outcomeCount(markets.size())
-                            .type(ArbitrageOpportunity.Type.NEGRISK_SHORT_ARB)
-                            .requiredOrders(requests)
-                            .totalCost(BigDecimal.ONE)
-                            .estimatedProfit(netProfit)
-                            .detectedAt(Instant.now())
-                            .build();
-
-                    opportunities.add(opp);
-                    log.info("🎯 NEGRISK SHORT ARB TRIGGERED: Profit: {} | Event: {}", netProfit, eventDisplayName);
-                }
-            }
+        return opportunities;
+    }
+
+    @Override
+    public List<ArbitrageOpportunity> detect(MarketSnapshot snapshot, DirtySet changes) {
+        if (changes.full()) {
+            return detect(snapshot);
+        }
+        List<ArbitrageOpportunity> opportunities = new ArrayList<>();
+
+        // Only events with at least one leg written since the last scan
+        for (String eventId : changes.eventIds()) {
+            evaluateEvent(snapshot, eventId, opportunities);
         }
 
         return opportunities;
     }
 
-    private BigDecimal getEffectivePrice(OrderBook book, BigDecimal targetSize, boolean isBid) {
-        if (book == null)
-            return null;
-        List<OrderBook.OrderLevel> levels = isBid ? book.getBids() : book.getAsks();
-        if (levels == null || levels.isEmpty())
-            return null;
-
-        BigDecimal totalValue = BigDecimal.ZERO;
-        BigDecimal remainingSize = targetSize;
-
-        // Bids should be sorted desc (highest first), Asks asc (lowest first).
-        // BestAsk is min, BestBid is max.
-        List<OrderBook.OrderLevel> sortedLevels = new ArrayList<>(levels);
-        if (isBid) {
-            sortedLevels.sort((a, b) -> b.getPrice().compareTo(a.getPrice()));
-        } else {
-            sortedLevels.sort(Comparator.comparing(OrderBook.OrderLevel::getPrice));
+    private void evaluateEvent(MarketSnapshot snapshot, String eventId, List<ArbitrageOpportunity> opportunities) {
+        List<Market> markets = snapshot.getMarketsByEventId(eventId).stream()
+                .filter(Market::isNegRisk)
+                .toList();
+        if (markets.isEmpty()) {
+            return;
+        }
+
+        // Σ(EffectiveBid(YES_i)) > 1.0 (Short Arb), summed in fixed-point ticks
+        long[] effectiveBids = new long[markets.size()];
+        long totalEffectiveBid = 0;
+
+        for (int i = 0; i < effectiveBids.length; i++) {
+            Market m = markets.get(i);
+            // Production Grade health check
+            if (!m.isActive() || m.isClosed() || !m.isAcceptingOrders()) {
+                return;
+            }
+
+            long effectiveBid = BookKernels.effectivePrice(BookKernels.view(m.getYesOrderBook()), TARGET_SIZE_UNITS,
+                    true);
+            if (effectiveBid == FixedPoint.NONE || effectiveBid == 0) {
+                return;
+            }
+            effectiveBids[i] = effectiveBid;
+            totalEffectiveBid += effectiveBid;
         }
 
-        for (OrderBook.OrderLevel level : sortedLevels) {
-            BigDecimal fillSize = remainingSize.min(level.getSize());
-            totalValue = totalValue.add(fillSize.multiply(level.getPrice()));
-            remainingSize = remainingSize.subtract(fillSize);
-            if (remainingSize.compareTo(BigDecimal.ZERO) <= 0)
-                break;
+        if (totalEffectiveBid <= FixedPoint.PRICE_ONE) {
+            return;
         }
 
-        if (remainingSize.compareTo(BigDecimal.ZERO) > 0) {
-            // Not enough depth
-            return null;
+        // Boundary: from here on BigDecimal for reporting and the opportunity itself
+        BigDecimal totalBid = FixedPoint.toPrice(totalEffectiveBid);
+        BigDecimal grossProfit = totalBid.subtract(BigDecimal.ONE);
+        BigDecimal netProfit = grossProfit.subtract(EXECUTION_BUFFER);
+
+        List<ArbitrageOpportunity.OrderRequest> requests = new ArrayList<>();
+        StringBuilder breakdown = new StringBuilder();
+        for (int i = 0; i < effectiveBids.length; i++) {
+            Market m = markets.get(i);
+            BigDecimal effectiveBid = FixedPoint.toPrice(effectiveBids[i]);
+            breakdown.append(String.format("[%s: %.4f] ", m.getOutcomeIds().get(0), effectiveBid));
+
+            requests.add(ArbitrageOpportunity.OrderRequest.builder()
+                    .tokenId(m.getOutcomeIds().get(0))
+                    .price(effectiveBid)
+                    .size(TARGET_SIZE)
+                    .side(ArbitrageOpportunity.Side.SELL)
+                    .build());
         }
 
-        return totalValue.divide(targetSize, 4, RoundingMode.HALF_UP);
+        String eventDisplayName = markets.get(0).getQuestion().split(" \\| ")[0];
+
+        // Pre-flight simulation reporting
+        log.info("📊 PRE-FLIGHT REPORT | Event: {} | Σ(Eff. Bid): {} | Buffer: {} | Net: {}",
+                eventDisplayName, totalBid, EXECUTION_BUFFER, netProfit);
+        log.info("   -> Breakdown: {}", breakdown.toString());
+
+        if (netProfit.compareTo(MIN_PROFIT_THRESHOLD) > 0) {
+            ArbitrageOpportunity opp = ArbitrageOpportunity.builder()
+                    .id(UUID.randomUUID().toString())
+                    .marketId(eventId)
+                    .conditionId(markets.get(0).getConditionId())
+                    .outcomeCount(markets.size())
+                    .type(ArbitrageOpportunity.Type.NEGRISK_SHORT_ARB)
+                    .requiredOrders(requests)
+                    .totalCost(BigDecimal.ONE)
+                    .estimatedProfit(netProfit)
+                    .detectedAt(Instant.now())
+                    .snapshotVersion(snapshot.version())
+                    .minEdgeTicks(MIN_EDGE_TICKS)
+                    .build();
+
+            opportunities.add(opp);
+            log.info("🎯 NEGRISK SHORT ARB TRIGGERED: Profit: {} | Event: {}", netProfit, eventDisplayName);
+        }
     }
 }
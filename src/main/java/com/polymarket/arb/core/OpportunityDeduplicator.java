@@ -0,0 +1,116 @@
+package com.polymarket.arb.core;
+
+import com.polymarket.arb.domain.ArbitrageOpportunity;
+import com.polymarket.arb.domain.FixedPointBook;
+import com.polymarket.arb.domain.Market;
+import com.polymarket.arb.domain.OrderBook;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Merges the opportunities of all detectors of one scan, keeping one per canonical fingerprint:
+ * the event, the traded legs and the top-of-book levels of those legs in the snapshot. The
+ * fingerprint ignores how a strategy keyed or priced the trade, so SumOfPrices (by conditionId,
+ * best bid) and NegRisk (by eventId, effective bid) reporting the same mispricing on the same
+ * books collapse into one; the first detector in order wins.
+ * <p>
+ * Fingerprints that were handed to execution are remembered for a while, so a book state that
+ * is re-scanned (the arb persisting while our orders are in flight) is not executed twice.
+ * A changed level on any leg is a new fingerprint. Not thread-safe: owned by the detection loop.
+ */
+@Slf4j
+class OpportunityDeduplicator {
+
+    private final Map<String, Long> recent = new HashMap<>(); // fingerprint -> expiry (nanoTime)
+
+    /**
+     * @param results per detector, in detector order
+     * @return fingerprint to opportunity, in detector order
+     */
+    Map<String, ArbitrageOpportunity> merge(MarketSnapshot snapshot, List<List<ArbitrageOpportunity>> results) {
+        long now = System.nanoTime();
+        for (Iterator<Long> it = recent.values().iterator(); it.hasNext();) {
+            if (it.next() - now <= 0) {
+                it.remove();
+            }
+        }
+
+        Map<String, ArbitrageOpportunity> merged = new LinkedHashMap<>();
+        for (List<ArbitrageOpportunity> opportunities : results) {
+            for (ArbitrageOpportunity opp : opportunities) {
+                String fingerprint = fingerprint(snapshot, opp);
+                if (recent.containsKey(fingerprint) || merged.putIfAbsent(fingerprint, opp) != null) {
+                    log.debug("Duplicate opportunity {} ({})", opp.getId(), fingerprint);
+                }
+            }
+        }
+        return merged;
+    }
+
+    /**
+     * The opportunity behind {@code fingerprint} was handed to execution: identical ones are
+     * suppressed for {@code ttlNanos}.
+     */
+    void markExecuted(String fingerprint, long ttlNanos) {
+        recent.put(fingerprint, System.nanoTime() + ttlNanos);
+    }
+
+    /**
+     * {@code event|token:side:bid/ask;...} with legs sorted by token. Opportunities without
+     * legs (binary mirror) fingerprint every outcome of their market.
+     */
+    static String fingerprint(MarketSnapshot snapshot, ArbitrageOpportunity opp) {
+        List<String> legs = new ArrayList<>();
+        String event = null;
+        if (opp.getRequiredOrders() != null && !opp.getRequiredOrders().isEmpty()) {
+            for (ArbitrageOpportunity.OrderRequest req : opp.getRequiredOrders()) {
+                if (event == null) {
+                    event = eventOf(snapshot, req.getTokenId());
+                }
+                legs.add(leg(snapshot, req.getTokenId(), req.getSide() != null ? req.getSide().name() : "-"));
+            }
+        } else {
+            Market market = opp.getMarketId() != null ? snapshot.getMarket(opp.getMarketId()) : null;
+            if (market != null && market.getOutcomeIds() != null) {
+                event = market.getEventId();
+                for (String tokenId : market.getOutcomeIds()) {
+                    legs.add(leg(snapshot, tokenId, "-"));
+                }
+            }
+        }
+        if (event == null) {
+            event = opp.getMarketId() != null ? opp.getMarketId() : opp.getConditionId();
+        }
+        legs.sort(null);
+
+        StringBuilder sb = new StringBuilder(event != null ? event : "?").append('|');
+        if (legs.isEmpty()) {
+            sb.append(opp.getType()).append(':').append(opp.getId()); // Nothing to compare: never a duplicate
+        }
+        for (String leg : legs) {
+            sb.append(leg).append(';');
+        }
+        return sb.toString();
+    }
+
+    private static String eventOf(MarketSnapshot snapshot, String tokenId) {
+        MarketSnapshotCache.TokenRef ref = snapshot.getTokenRef(tokenId);
+        Market market = ref != null ? snapshot.getMarket(ref.marketId()) : null;
+        if (market == null) {
+            return null;
+        }
+        return market.getEventId() != null ? market.getEventId() : market.getMarketId();
+    }
+
+    private static String leg(MarketSnapshot snapshot, String tokenId, String side) {
+        OrderBook book = snapshot.getBook(tokenId);
+        FixedPointBook fp = book != null ? BookKernels.view(book) : FixedPointBook.EMPTY;
+        return tokenId + ':' + side + ':' + BookKernels.bestPrice(fp, true) + '/' + BookKernels.bestPrice(fp, false);
+    }
+}
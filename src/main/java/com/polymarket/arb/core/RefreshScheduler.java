@@ -0,0 +1,416 @@
+package com.polymarket.arb.core;
+
+import com.polymarket.arb.domain.FixedPointBook;
+import com.polymarket.arb.domain.Market;
+import com.polymarket.arb.domain.OrderBook;
+import com.polymarket.arb.infra.AdaptiveRateLimiter;
+import com.polymarket.arb.infra.ApiRateLimiters;
+import com.polymarket.arb.infra.ArbMetrics;
+import com.polymarket.arb.infra.PolymarketApiClient;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import static com.polymarket.arb.domain.FixedPoint.NONE;
+import static com.polymarket.arb.domain.FixedPoint.PRICE_ONE;
+
+/**
+ * Priority-driven REST book refresh. A refresh unit is a binary market, or all legs of a
+ * negRisk event refreshed together. After every refresh a unit is rescheduled somewhere
+ * between the hot and cold interval, based on its distance to the arb boundary, recent
+ * volatility, liquidity and volume. Units are dispatched most-overdue first, and only
+ * while the CLOB_BOOK bucket has budget.
+ */
+@Slf4j
+@Service
+public class RefreshScheduler {
+
+    private static final long BOUNDARY_BAND_TICKS = 1_000; // Beyond 0.10 from the boundary counts as cold
+    private static final double VOLATILITY_SCALE_TICKS = 100;
+    private static final double VOLATILITY_DECAY = 0.7;
+    private static final long MAX_IDLE_NANOS = TimeUnit.MILLISECONDS.toNanos(50);
+
+    private final PolymarketApiClient apiClient;
+    private final MarketSnapshotCache cache;
+    private final BookStreamIngestor bookStream;
+    private final ArbMetrics metrics;
+    private final AdaptiveRateLimiter bookLimiter;
+    private final boolean enabled;
+    private final long hotMillis;
+    private final long coldMillis;
+    private final int batchSize;
+    private final Semaphore inFlight;
+
+    private final ConcurrentHashMap<String, RefreshUnit> units = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, String> unitByMarket = new ConcurrentHashMap<>();
+    private final DelayQueue<RefreshUnit> queue = new DelayQueue<>();
+    private volatile Thread worker;
+
+    /**
+     * Age of cached books across all markets, in milliseconds.
+     */
+    public record Staleness(int markets, long p50Millis, long p90Millis, long p99Millis, long maxMillis) {
+    }
+
+    public RefreshScheduler(PolymarketApiClient apiClient,
+            MarketSnapshotCache cache,
+            BookStreamIngestor bookStream,
+            ApiRateLimiters rateLimiters,
+            ArbMetrics metrics,
+            @Value("${polymarket.refresh.enabled:true}") boolean enabled,
+            @Value("${polymarket.refresh.hot-ms:300}") long hotMillis,
+            @Value("${polymarket.refresh.cold-ms:60000}") long coldMillis,
+            @Value("${polymarket.refresh.max-in-flight:4}") int maxInFlight,
+            @Value("${polymarket.ingest.book-batch-size:100}") int batchSize) {
+        this.apiClient = apiClient;
+        this.cache = cache;
+        this.bookStream = bookStream;
+        this.metrics = metrics;
+        this.bookLimiter = rateLimiters.get(ApiRateLimiters.Endpoint.CLOB_BOOK);
+        this.enabled = enabled;
+        this.hotMillis = hotMillis;
+        this.coldMillis = coldMillis;
+        this.batchSize = batchSize;
+        this.inFlight = new Semaphore(maxInFlight);
+    }
+
+    @PostConstruct
+    public void start() {
+        if (enabled && worker == null) {
+            worker = Thread.ofVirtual().name("book-refresh").start(this::run);
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        Thread t = worker;
+        if (t != null) {
+            t.interrupt();
+        }
+    }
+
+    public boolean isTracked(String marketId) {
+        return enabled && unitByMarket.containsKey(marketId);
+    }
+
+    /**
+     * Hands a market with a fresh snapshot over to the scheduler.
+     */
+    public void register(Market market) {
+        if (!enabled) {
+            return;
+        }
+        boolean event = market.isNegRisk() && market.getEventId() != null;
+        String key = event ? "event:" + market.getEventId() : "market:" + market.getMarketId();
+        unitByMarket.put(market.getMarketId(), key);
+
+        RefreshUnit created = null;
+        RefreshUnit unit = units.get(key);
+        if (unit == null) {
+            created = new RefreshUnit(key, event);
+            unit = units.putIfAbsent(key, created);
+            if (unit == null) {
+                unit = created;
+            } else {
+                created = null;
+            }
+        }
+        unit.marketIds.add(market.getMarketId());
+        if (created != null) {
+            reschedule(created); // Just snapshotted, first refresh is one interval out
+        }
+    }
+
+    /**
+     * Next refresh interval the unit of this market is scheduled with, -1 if untracked.
+     */
+    public long currentIntervalMillis(String marketId) {
+        String key = unitByMarket.get(marketId);
+        RefreshUnit unit = key != null ? units.get(key) : null;
+        return unit != null ? unit.intervalMillis : -1;
+    }
+
+    /**
+     * Book age per market: since the last write, or since the last fetch that found the
+     * book unchanged (those are skipped and never touch the cache).
+     */
+    public Staleness staleness() {
+        long now = System.currentTimeMillis();
+        long[] ages = cache.getAllMarkets().stream()
+                .filter(m -> m.getLastUpdated() != null)
+                .mapToLong(m -> Math.max(0, now - Math.max(m.getLastUpdated().toEpochMilli(), fetchedAt(m))))
+                .toArray();
+        if (ages.length == 0) {
+            return new Staleness(0, 0, 0, 0, 0);
+        }
+        Arrays.sort(ages);
+        return new Staleness(ages.length, percentile(ages, 0.50), percentile(ages, 0.90), percentile(ages, 0.99),
+                ages[ages.length - 1]);
+    }
+
+    @Scheduled(fixedDelay = 30000)
+    public void reportStaleness() {
+        if (!enabled) {
+            return;
+        }
+        Staleness s = staleness();
+        metrics.bookStaleness(s.markets(), s.p50Millis(), s.p90Millis(), s.p99Millis(), s.maxMillis());
+        log.info("Book staleness over {} markets: p50={}ms p90={}ms p99={}ms max={}ms ({} refresh units, {}% unchanged books skipped)",
+                s.markets(), s.p50Millis(), s.p90Millis(), s.p99Millis(), s.maxMillis(), units.size(),
+                Math.round(cache.getBookSkipRatio() * 100));
+    }
+
+    private long fetchedAt(Market market) {
+        String key = unitByMarket.get(market.getMarketId());
+        RefreshUnit unit = key != null ? units.get(key) : null;
+        return unit != null ? unit.fetchedAtMillis : 0;
+    }
+
+    private void run() {
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                if (dispatchDue() == 0) {
+                    RefreshUnit head = queue.peek();
+                    long idle = head != null ? head.getDelay(TimeUnit.NANOSECONDS) : MAX_IDLE_NANOS;
+                    LockSupport.parkNanos(Math.max(TimeUnit.MILLISECONDS.toNanos(1), Math.min(idle, MAX_IDLE_NANOS)));
+                }
+            } catch (Exception e) {
+                log.error("Refresh scheduler iteration failed", e);
+            }
+        }
+    }
+
+    /**
+     * Dispatches due units while the book bucket has budget and in-flight slots are free.
+     * Returns the number of requests sent.
+     */
+    int dispatchDue() {
+        int sent = 0;
+        while (bookLimiter.hasPermit() && inFlight.tryAcquire()) {
+            List<RefreshUnit> batch = new ArrayList<>();
+            List<String> tokens = new ArrayList<>();
+            collectBatch(batch, tokens);
+            if (batch.isEmpty()) {
+                inFlight.release();
+                break;
+            }
+            sent++;
+            // Books whose hash matches the cached one come back unparsed and are not rewritten
+            apiClient.getOrderBooksAsync(tokens, cache::getBook).whenComplete((books, error) -> {
+                try {
+                    if (error != null) {
+                        log.warn("Book refresh of {} units failed: {}", batch.size(), error.getMessage());
+                    }
+                    for (RefreshUnit unit : batch) {
+                        if (error == null) {
+                            apply(unit, books);
+                        }
+                        reschedule(unit);
+                    }
+                } finally {
+                    inFlight.release();
+                }
+            });
+        }
+        return sent;
+    }
+
+    // Most overdue units first, whole units only, up to the batch size in tokens
+    private void collectBatch(List<RefreshUnit> batch, List<String> tokens) {
+        RefreshUnit unit;
+        while (tokens.size() < batchSize && (unit = queue.poll()) != null) {
+            List<String> unitTokens = staleTokens(unit);
+            if (unit.marketIds.isEmpty()) {
+                units.remove(unit.key, unit); // All members gone from the cache
+                continue;
+            }
+            if (unitTokens.isEmpty()) {
+                reschedule(unit); // Fully streamed, nothing to fetch
+                continue;
+            }
+            if (!batch.isEmpty() && tokens.size() + unitTokens.size() > batchSize) {
+                queue.put(unit); // Still due, leads the next batch
+                return;
+            }
+            batch.add(unit);
+            tokens.addAll(unitTokens);
+        }
+    }
+
+    private List<String> staleTokens(RefreshUnit unit) {
+        List<String> tokens = new ArrayList<>();
+        for (String marketId : unit.marketIds) {
+            Market market = cache.getMarket(marketId);
+            if (market == null) {
+                unit.marketIds.remove(marketId);
+                unitByMarket.remove(marketId, unit.key);
+                continue;
+            }
+            if (market.getOutcomeIds() == null) {
+                continue;
+            }
+            for (String tokenId : market.getOutcomeIds()) {
+                if (!bookStream.isLive(tokenId)) {
+                    tokens.add(tokenId);
+                }
+            }
+        }
+        return tokens;
+    }
+
+    // One publish per unit: detectors never see an event with half of its legs refreshed.
+    // A missing book keeps the previous one.
+    private void apply(RefreshUnit unit, Map<String, OrderBook> books) {
+        Map<String, OrderBook> unitBooks = new HashMap<>();
+        for (String marketId : unit.marketIds) {
+            Market market = cache.getMarket(marketId);
+            if (market == null || market.getOutcomeIds() == null) {
+                continue;
+            }
+            for (String tokenId : market.getOutcomeIds()) {
+                OrderBook book = books.get(tokenId);
+                if (book != null) {
+                    unitBooks.put(tokenId, book);
+                }
+            }
+        }
+        cache.updateBooks(unitBooks);
+        unit.fetchedAtMillis = System.currentTimeMillis();
+    }
+
+    private void reschedule(RefreshUnit unit) {
+        if (units.get(unit.key) != unit) {
+            return;
+        }
+        long sum = NONE;
+        long distance = BOUNDARY_BAND_TICKS;
+        double liquidity = 0, volume = 0;
+        List<Market> members = unit.marketIds.stream().map(cache::getMarket).filter(m -> m != null).toList();
+        if (!members.isEmpty()) {
+            long[] bounds = unit.event ? eventBoundary(members) : marketBoundary(members.get(0));
+            sum = bounds[0];
+            distance = bounds[1];
+            for (Market m : members) {
+                liquidity += toDouble(m.getLiquidity());
+                volume += toDouble(m.getVolume());
+            }
+        }
+        if (sum != NONE && unit.lastSum != NONE) {
+            unit.volatility = VOLATILITY_DECAY * unit.volatility
+                    + (1 - VOLATILITY_DECAY) * Math.abs(sum - unit.lastSum);
+        }
+        unit.lastSum = sum;
+
+        double score = score(distance, unit.volatility, liquidity, volume);
+        unit.intervalMillis = intervalMillis(score, hotMillis, coldMillis);
+        unit.dueNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(unit.intervalMillis);
+        queue.put(unit);
+    }
+
+    // {Σ best bid, distance}: mirroring arbs sit at Σ bids > 1 or Σ asks < 1
+    private static long[] marketBoundary(Market market) {
+        long bidSum = 0, askSum = 0;
+        for (int i = 0; i < market.getOutcomeCount(); i++) {
+            FixedPointBook book = BookKernels.view(market.getBook(i));
+            long bid = BookKernels.bestPrice(book, true), ask = BookKernels.bestPrice(book, false);
+            bidSum = bid != NONE && bidSum != NONE ? bidSum + bid : NONE;
+            askSum = ask != NONE && askSum != NONE ? askSum + ask : NONE;
+        }
+        if (market.getOutcomeCount() == 0) {
+            bidSum = askSum = NONE;
+        }
+        long distance = BOUNDARY_BAND_TICKS;
+        if (bidSum != NONE) {
+            distance = Math.min(distance, Math.max(0, PRICE_ONE - bidSum));
+        }
+        if (askSum != NONE) {
+            distance = Math.min(distance, Math.max(0, askSum - PRICE_ONE));
+        }
+        return new long[] { bidSum, distance };
+    }
+
+    // negRisk: Σ YES best bids across the event against 1
+    private static long[] eventBoundary(List<Market> members) {
+        long sum = 0;
+        for (Market m : members) {
+            long bid = BookKernels.bestPrice(BookKernels.view(m.getYesOrderBook()), true);
+            if (bid == NONE) {
+                return new long[] { NONE, BOUNDARY_BAND_TICKS };
+            }
+            sum += bid;
+        }
+        return new long[] { sum, Math.min(BOUNDARY_BAND_TICKS, Math.max(0, PRICE_ONE - sum)) };
+    }
+
+    /**
+     * 0 (cold) .. 1 (hot). Boundary proximity dominates; volatility, liquidity and volume break ties.
+     */
+    static double score(long distanceTicks, double volatilityTicks, double liquidity, double volume) {
+        double proximity = Math.max(0, 1 - (double) distanceTicks / BOUNDARY_BAND_TICKS);
+        double volatility = Math.min(1, volatilityTicks / VOLATILITY_SCALE_TICKS);
+        double liq = Math.min(1, Math.log10(1 + Math.max(0, liquidity)) / 6); // $1M saturates
+        double vol = Math.min(1, Math.log10(1 + Math.max(0, volume)) / 7); // $10M saturates
+        return 0.6 * proximity * proximity + 0.2 * volatility + 0.1 * liq + 0.1 * vol;
+    }
+
+    /**
+     * Geometric between hot (score 1) and cold (score 0).
+     */
+    static long intervalMillis(double score, long hotMillis, long coldMillis) {
+        double s = Math.max(0, Math.min(1, score));
+        return Math.round(hotMillis * Math.pow((double) coldMillis / hotMillis, 1 - s));
+    }
+
+    private static long percentile(long[] sorted, double p) {
+        int index = (int) Math.ceil(p * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(sorted.length - 1, index))];
+    }
+
+    private static double toDouble(BigDecimal value) {
+        return value != null ? value.doubleValue() : 0;
+    }
+
+    private static final class RefreshUnit implements Delayed {
+        final String key;
+        final boolean event;
+        final Set<String> marketIds = ConcurrentHashMap.newKeySet();
+        // Only touched by whoever holds the unit (queue -> in flight -> queue)
+        volatile long dueNanos;
+        volatile long intervalMillis;
+        volatile long lastSum = NONE;
+        volatile double volatility;
+        volatile long fetchedAtMillis; // Last successful fetch, changed or not
+
+        RefreshUnit(String key, boolean event) {
+            this.key = key;
+            this.event = event;
+        }
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(dueNanos - System.nanoTime(), TimeUnit.NANOSECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed other) {
+            return Long.compare(dueNanos, ((RefreshUnit) other).dueNanos);
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package com.polymarket.arb.core;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+/**
+ * Immutable hash map split into 64 x 64 leaf maps under a two-level array. An edit copies
+ * the root, the branches and the leaves it touches and shares the rest with the previous
+ * version: one write costs ~128 references plus one leaf of size / 4096 entries, so a
+ * single book delta on a 100k-market catalog copies tens of entries, not thousands.
+ */
+final class ShardedMap<K, V> {
+
+    private static final int BITS = 6;
+    private static final int FANOUT = 1 << BITS;
+    private static final int MASK = FANOUT - 1;
+    private static final ShardedMap<?, ?> EMPTY = new ShardedMap<>(emptyRoot(), 0);
+
+    private final Map<K, V>[][] root; // Never mutated once published
+    private final int size;
+
+    private ShardedMap(Map<K, V>[][] root, int size) {
+        this.root = root;
+        this.size = size;
+    }
+
+    @SuppressWarnings("unchecked")
+    static <K, V> ShardedMap<K, V> empty() {
+        return (ShardedMap<K, V>) EMPTY;
+    }
+
+    V get(K key) {
+        int h = hash(key);
+        return root[h & MASK][(h >>> BITS) & MASK].get(key);
+    }
+
+    int size() {
+        return size;
+    }
+
+    void forEach(BiConsumer<? super K, ? super V> action) {
+        for (Map<K, V>[] branch : root) {
+            for (Map<K, V> leaf : branch) {
+                leaf.forEach(action);
+            }
+        }
+    }
+
+    List<V> values() {
+        List<V> values = new ArrayList<>(size);
+        for (Map<K, V>[] branch : root) {
+            for (Map<K, V> leaf : branch) {
+                values.addAll(leaf.values());
+            }
+        }
+        return values;
+    }
+
+    Editor<K, V> edit() {
+        return new Editor<>(this);
+    }
+
+    /**
+     * Staged changes on top of a published map. Each branch and leaf is copied at most once per edit.
+     */
+    static final class Editor<K, V> {
+        private final Map<K, V>[][] root;
+        private long copiedBranches; // bit i: root[i] is this editor's own
+        private final long[] copiedLeaves = new long[FANOUT]; // bit j of [i]: root[i][j] is too
+        private int size;
+
+        private Editor(ShardedMap<K, V> base) {
+            this.root = base.root.clone();
+            this.size = base.size;
+        }
+
+        V get(K key) {
+            int h = hash(key);
+            return root[h & MASK][(h >>> BITS) & MASK].get(key);
+        }
+
+        void put(K key, V value) {
+            if (leaf(key).put(key, value) == null) {
+                size++;
+            }
+        }
+
+        void remove(K key) {
+            if (!containsKey(key)) {
+                return;
+            }
+            leaf(key).remove(key);
+            size--;
+        }
+
+        ShardedMap<K, V> publish() {
+            // Published branches and leaves are frozen, later edits copy again
+            copiedBranches = 0;
+            Arrays.fill(copiedLeaves, 0);
+            return new ShardedMap<>(root.clone(), size);
+        }
+
+        private boolean containsKey(K key) {
+            int h = hash(key);
+            return root[h & MASK][(h >>> BITS) & MASK].containsKey(key);
+        }
+
+        private Map<K, V> leaf(K key) {
+            int h = hash(key);
+            int i = h & MASK, j = (h >>> BITS) & MASK;
+            if ((copiedBranches & (1L << i)) == 0) {
+                root[i] = root[i].clone();
+                copiedBranches |= 1L << i;
+            }
+            if ((copiedLeaves[i] & (1L << j)) == 0) {
+                root[i][j] = new HashMap<>(root[i][j]);
+                copiedLeaves[i] |= 1L << j;
+            }
+            return root[i][j];
+        }
+    }
+
+    // Leaf index, for tests: branch * FANOUT + leaf
+    static int shardOf(Object key) {
+        int h = hash(key);
+        return (h & MASK) * FANOUT + ((h >>> BITS) & MASK);
+    }
+
+    // Shard bits come from a full re-mix (murmur3 fmix32), not from the low hashCode bits the
+    // leaf HashMap buckets by: keys of one leaf must not also share a bucket inside it
+    private static int hash(Object key) {
+        int h = key.hashCode();
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        h *= 0xc2b2ae35;
+        return h ^ (h >>> 16);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <K, V> Map<K, V>[][] emptyRoot() {
+        Map<K, V>[] branch = new Map[FANOUT];
+        for (int j = 0; j < FANOUT; j++) {
+            branch[j] = Map.of();
+        }
+        Map<K, V>[][] root = new Map[FANOUT][];
+        for (int i = 0; i < FANOUT; i++) {
+            root[i] = branch; // Shared: branches are copied before any write
+        }
+        return root;
+    }
+}
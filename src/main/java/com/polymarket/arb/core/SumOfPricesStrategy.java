@@ -1,8 +1,9 @@
 package com.polymarket.arb.core;
 
 import com.polymarket.arb.domain.ArbitrageOpportunity;
+import com.polymarket.arb.domain.FixedPoint;
+import com.polymarket.arb.domain.FixedPointBook;
 import com.polymarket.arb.domain.Market;
-import com.polymarket.arb.domain.OrderBook;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -17,68 +18,126 @@ import java.util.*;
 public class SumOfPricesStrategy implements ArbitrageDetector {
 
     private final MarketSnapshotCache cache;
-    private final com.polymarket.arb.infra.Web3Service web3Service;
 
     // Safety margin (e.g., covering gas if non-trivial, though Polygon gas is
     // cheap)
     // Also accounts for potential slippage if we don't assume atomic
     private static final BigDecimal MIN_PROFIT_THRESHOLD = new BigDecimal("0.0001"); // Lowered for live observation
+    static final long MIN_PROFIT_TICKS = FixedPoint.toPriceTicks(MIN_PROFIT_THRESHOLD);
+    private static final long MAX_SIZE_UNITS = FixedPoint.toSizeUnits(new BigDecimal("10"));
 
-    @Override
     public List<ArbitrageOpportunity> detect() {
+        return detect(cache.snapshot());
+    }
+
+    public List<ArbitrageOpportunity> detect(DirtySet changes) {
+        return detect(cache.snapshot(), changes);
+    }
+
+    @Override
+    public List<ArbitrageOpportunity> detect(MarketSnapshot snapshot) {
         List<ArbitrageOpportunity> opportunities = new ArrayList<>();
-        Collection<Market> markets = cache.getAllMarkets();
+        Collection<Market> markets = snapshot.getAllMarkets();
         log.debug("Strategy scanning {} markets", markets.size());
 
-        // 1. Group NegRisk Markets by Condition ID
-        Map<String, List<Market>> negRiskGroups = new HashMap<>();
+        // 1. Collect NegRisk Condition IDs (groups themselves come from the cache index)
+        Set<String> negRiskConditions = new HashSet<>();
 
         for (Market market : markets) {
             if (!isValidMarket(market))
                 continue;
 
             if (market.isNegRisk() && market.getConditionId() != null) {
-                negRiskGroups.computeIfAbsent(market.getConditionId(), k -> new ArrayList<>()).add(market);
+                negRiskConditions.add(market.getConditionId());
             }
 
-            // Binary Mirroring Logic (existing)
+            // Binary Mirroring Logic (existing), complete sets for categorical markets
             if (!market.isNegRisk()) {
-                detectBinaryMirroring(market, opportunities);
+                detectStandalone(snapshot, market, opportunities);
             }
         }
 
         // 2. Process NegRisk Groups
-        for (Map.Entry<String, List<Market>> entry : negRiskGroups.entrySet()) {
-            detectNegRiskArb(entry.getKey(), entry.getValue(), opportunities);
+        for (String conditionId : negRiskConditions) {
+            detectNegRiskArb(snapshot, conditionId, negRiskGroup(snapshot, conditionId), opportunities);
+        }
+
+        return opportunities;
+    }
+
+    @Override
+    public List<ArbitrageOpportunity> detect(MarketSnapshot snapshot, DirtySet changes) {
+        if (changes.full()) {
+            return detect(snapshot);
+        }
+        List<ArbitrageOpportunity> opportunities = new ArrayList<>();
+        log.debug("Strategy scanning {} changed markets", changes.marketIds().size());
+
+        // Binary markets are evaluated on their own, NegRisk legs pull in their whole condition group
+        Set<String> dirtyConditions = new HashSet<>();
+        for (String marketId : changes.marketIds()) {
+            Market market = snapshot.getMarket(marketId);
+            if (!isValidMarket(market))
+                continue;
+
+            if (market.isNegRisk() && market.getConditionId() != null) {
+                dirtyConditions.add(market.getConditionId());
+            }
+            if (!market.isNegRisk()) {
+                detectStandalone(snapshot, market, opportunities);
+            }
+        }
+
+        for (String conditionId : dirtyConditions) {
+            detectNegRiskArb(snapshot, conditionId, negRiskGroup(snapshot, conditionId), opportunities);
         }
 
         return opportunities;
     }
 
-    private void detectBinaryMirroring(Market market, List<ArbitrageOpportunity> opportunities) {
+    private List<Market> negRiskGroup(MarketSnapshot snapshot, String conditionId) {
+        return snapshot.getMarketsByConditionId(conditionId).stream()
+                .filter(m -> m.isNegRisk() && isValidMarket(m))
+                .toList();
+    }
+
+    private void detectStandalone(MarketSnapshot snapshot, Market market, List<ArbitrageOpportunity> opportunities) {
+        if (market.getOutcomeCount() == 2) {
+            detectBinaryMirroring(snapshot, market, opportunities);
+        } else if (market.getOutcomeCount() > 2) {
+            detectCompleteSet(snapshot, market, opportunities);
+        }
+    }
+
+    private void detectBinaryMirroring(MarketSnapshot snapshot, Market market,
+            List<ArbitrageOpportunity> opportunities) {
         // Mirroring Logic from docs:
         // Effective Buy YES = min(YES.ask, 1 - NO.bid)
         // Effective Buy NO = min(NO.ask, 1 - YES.bid)
 
-        BigDecimal yesAsk = getBestPrice(market.getYesOrderBook(), true); // Ask
-        BigDecimal noBid = getBestPrice(market.getNoOrderBook(), false); // Bid
+        FixedPointBook yesBook = BookKernels.view(market.getYesOrderBook());
+        FixedPointBook noBook = BookKernels.view(market.getNoOrderBook());
+
+        long yesAsk = BookKernels.bestPrice(yesBook, false); // Ask
+        long noBid = BookKernels.bestPrice(noBook, true); // Bid
 
-        BigDecimal noAsk = getBestPrice(market.getNoOrderBook(), true); // Ask
-        BigDecimal yesBid = getBestPrice(market.getYesOrderBook(), false); // Bid
+        long noAsk = BookKernels.bestPrice(noBook, false); // Ask
+        long yesBid = BookKernels.bestPrice(yesBook, true); // Bid
 
-        if (yesAsk == null || noBid == null || noAsk == null || yesBid == null)
+        if (yesAsk == FixedPoint.NONE || noBid == FixedPoint.NONE || noAsk == FixedPoint.NONE
+                || yesBid == FixedPoint.NONE)
             return;
 
-        BigDecimal effectiveYesCost = yesAsk.min(BigDecimal.ONE.subtract(noBid));
-        BigDecimal effectiveNoCost = noAsk.min(BigDecimal.ONE.subtract(yesBid));
+        long effectiveYesCost = Math.min(yesAsk, FixedPoint.PRICE_ONE - noBid);
+        long effectiveNoCost = Math.min(noAsk, FixedPoint.PRICE_ONE - yesBid);
 
-        BigDecimal totalCost = effectiveYesCost.add(effectiveNoCost);
+        long totalCost = effectiveYesCost + effectiveNoCost;
 
         // If Cost < 1.0
-        if (totalCost.compareTo(BigDecimal.ONE) < 0) {
-            BigDecimal potentialProfit = BigDecimal.ONE.subtract(totalCost);
+        if (totalCost < FixedPoint.PRICE_ONE) {
+            long potentialProfit = FixedPoint.PRICE_ONE - totalCost;
 
-            if (potentialProfit.compareTo(MIN_PROFIT_THRESHOLD) > 0) {
+            if (potentialProfit > MIN_PROFIT_TICKS) {
                 // LOG / TRACK OPPORTUNITY
                 // For Binary, execution is complex (involves selling NO or buying YES).
                 // MVP Focus is NegRisk, so just logging here for now.
@@ -86,139 +145,170 @@ public class SumOfPricesStrategy implements ArbitrageDetector {
                         .id(UUID.randomUUID().toString())
                         .marketId(market.getMarketId())
                         .type(ArbitrageOpportunity.Type.SYNTHETIC_ARBITRAGE)
-                        .totalCost(totalCost)
-                        .estimatedProfit(potentialProfit)
+                        .totalCost(FixedPoint.toPrice(totalCost))
+                        .estimatedProfit(FixedPoint.toPrice(potentialProfit))
                         .detectedAt(Instant.now())
+                        .snapshotVersion(snapshot.version())
+                        .minEdgeTicks(MIN_PROFIT_TICKS)
                         .build();
 
                 opportunities.add(opp);
                 log.info("📈 MIRROR ARBITRAGE FOUND: Market [{}] Cost: {} Profit: {}",
-                        market.getQuestion(), totalCost, potentialProfit);
+                        market.getQuestion(), opp.getTotalCost(), opp.getEstimatedProfit());
             }
         }
     }
 
-    private void detectNegRiskArb(String conditionId, List<Market> markets, List<ArbitrageOpportunity> opportunities) {
+    // Categorical market, one condition with N outcomes: exactly one pays out 1.0, so
+    // Σ(best ask) < 1 buys a complete set below par and Σ(best bid) > 1 sells a split set above it
+    private void detectCompleteSet(MarketSnapshot snapshot, Market market,
+            List<ArbitrageOpportunity> opportunities) {
+        int n = market.getOutcomeCount();
+        long askSum = 0, bidSum = 0;
+        long askSize = MAX_SIZE_UNITS, bidSize = MAX_SIZE_UNITS;
+        for (int i = 0; i < n; i++) {
+            FixedPointBook book = BookKernels.view(market.getBook(i));
+            long ask = BookKernels.bestPrice(book, false);
+            long bid = BookKernels.bestPrice(book, true);
+            askSum = ask == FixedPoint.NONE || askSum == FixedPoint.NONE ? FixedPoint.NONE : askSum + ask;
+            bidSum = bid == FixedPoint.NONE || bidSum == FixedPoint.NONE ? FixedPoint.NONE : bidSum + bid;
+            askSize = Math.min(askSize, BookKernels.bestSize(book, false));
+            bidSize = Math.min(bidSize, BookKernels.bestSize(book, true));
+        }
+
+        if (askSum != FixedPoint.NONE && FixedPoint.PRICE_ONE - askSum > MIN_PROFIT_TICKS
+                && askSize >= FixedPoint.SIZE_ONE) {
+            opportunities.add(completeSet(snapshot, market, ArbitrageOpportunity.Type.SYNTHETIC_ARBITRAGE,
+                    ArbitrageOpportunity.Side.BUY, askSize, FixedPoint.PRICE_ONE - askSum));
+            log.info("📈 COMPLETE SET BUY FOUND: Market [{}] {} outcomes Σ(Ask)={}", market.getQuestion(), n,
+                    FixedPoint.toPrice(askSum));
+        }
+        if (bidSum != FixedPoint.NONE && bidSum - FixedPoint.PRICE_ONE > MIN_PROFIT_TICKS
+                && bidSize >= FixedPoint.SIZE_ONE) {
+            opportunities.add(completeSet(snapshot, market, ArbitrageOpportunity.Type.NEGRISK_SHORT_ARB,
+                    ArbitrageOpportunity.Side.SELL, bidSize, bidSum - FixedPoint.PRICE_ONE));
+            log.info("🚨 COMPLETE SET SPLIT+SELL FOUND: Market [{}] {} outcomes Σ(Bid)={}", market.getQuestion(), n,
+                    FixedPoint.toPrice(bidSum));
+        }
+    }
+
+    private ArbitrageOpportunity completeSet(MarketSnapshot snapshot, Market market, ArbitrageOpportunity.Type type,
+            ArbitrageOpportunity.Side side, long sizeUnits, long edgeTicks) {
+        BigDecimal size = FixedPoint.toSize(sizeUnits);
+        List<ArbitrageOpportunity.OrderRequest> orders = new ArrayList<>(market.getOutcomeCount());
+        long priceSum = 0;
+        for (int i = 0; i < market.getOutcomeCount(); i++) {
+            long price = BookKernels.bestPrice(BookKernels.view(market.getBook(i)),
+                    side == ArbitrageOpportunity.Side.SELL);
+            priceSum += price;
+            orders.add(ArbitrageOpportunity.OrderRequest.builder()
+                    .tokenId(market.getOutcomeIds().get(i))
+                    .price(FixedPoint.toPrice(price))
+                    .size(size)
+                    .side(side)
+                    .build());
+        }
+        return ArbitrageOpportunity.builder()
+                .id(UUID.randomUUID().toString())
+                .marketId(market.getMarketId())
+                .conditionId(market.getConditionId())
+                .outcomeCount(market.getOutcomeCount())
+                .type(type)
+                .requiredOrders(orders)
+                // Buy: Σ(ask) per set paid in USDC. Sell: split amount in USDC, one set per unit
+                .totalCost(side == ArbitrageOpportunity.Side.BUY ? FixedPoint.toPrice(priceSum).multiply(size) : size)
+                .estimatedProfit(FixedPoint.toPrice(edgeTicks).multiply(size))
+                .detectedAt(Instant.now())
+                .snapshotVersion(snapshot.version())
+                .minEdgeTicks(MIN_PROFIT_TICKS)
+                .build();
+    }
+
+    private void detectNegRiskArb(MarketSnapshot snapshot, String conditionId, List<Market> markets,
+            List<ArbitrageOpportunity> opportunities) {
         // NegRisk Strategy: Sum(BestBid_YES) > 1.0
         // If > 1.0, we MINT (Split) 1.0 set, and SELL all YES tokens.
 
-        BigDecimal sumOfBids = BigDecimal.ZERO;
-        List<BigDecimal> bestBids = new ArrayList<>();
-        List<BigDecimal> liquidityAtBestBid = new ArrayList<>();
+        long sumOfBids = 0;
+        long maxSize = Long.MAX_VALUE;
 
         // Ensure we have one market per outcome or at least cover the set logic
         // For NegRisk, usually each outcome has a market (YES/NO). We focus on YES
         // token of that market.
 
         for (Market m : markets) {
-            BigDecimal yesBid = getBestPrice(m.getYesOrderBook(), false); // Best Bid for YES
-            if (yesBid == null) {
+            FixedPointBook yesBook = BookKernels.view(m.getYesOrderBook());
+            long yesBid = BookKernels.bestPrice(yesBook, true); // Best Bid for YES
+            if (yesBid == FixedPoint.NONE) {
                 // If any outcome has NO bid, we risk not being able to sell that leg.
                 // However, sum might still be > 1.0 if others are high?
                 // Wait, if we can't sell one leg, we hold it. If it loses (likely), we lose 0
                 // on that leg.
                 // But we paid 1.0 for the whole set.
                 // Ideally we want to sell ALL or Sum(Sold) > 1.0.
-                yesBid = BigDecimal.ZERO;
+                yesBid = 0;
             }
-            bestBids.add(yesBid);
-            sumOfBids = sumOfBids.add(yesBid);
+            sumOfBids += yesBid;
 
             // Liquidity check (simplified: take size at best bid)
             // Real logic needs to walk the book.
-            BigDecimal size = getBestSize(m.getYesOrderBook(), false);
-            liquidityAtBestBid.add(size);
+            // Max executable size is limited by the thinnest leg
+            maxSize = Math.min(maxSize, BookKernels.bestSize(yesBook, true));
         }
+        if (markets.isEmpty())
+            maxSize = 0;
 
-        if (sumOfBids.compareTo(BigDecimal.ONE.add(MIN_PROFIT_THRESHOLD)) > 0) {
+        if (sumOfBids > FixedPoint.PRICE_ONE + MIN_PROFIT_TICKS) {
             // Found Opportunity!
 
-            // Calculate max executable size (limited by thinnest leg)
-            BigDecimal maxSize = liquidityAtBestBid.stream().min(Comparator.naturalOrder()).orElse(BigDecimal.ZERO);
-
             // Cap size for safety in MVP (e.g., 10 USDC)
-            BigDecimal safeSize = maxSize.min(new BigDecimal("10"));
+            long safeSize = Math.min(maxSize, MAX_SIZE_UNITS);
 
-            if (safeSize.compareTo(new BigDecimal("1")) < 0) {
+            if (safeSize < FixedPoint.SIZE_ONE) {
                 return; // Too small
             }
 
-            BigDecimal potentialProfitPerUnit = sumOfBids.subtract(BigDecimal.ONE);
-            BigDecimal totalExpectedProfit = potentialProfitPerUnit.multiply(safeSize);
+            // Boundary: BigDecimal for reporting, execution and the opportunity
+            BigDecimal size = FixedPoint.toSize(safeSize);
+            BigDecimal potentialProfitPerUnit = FixedPoint.toPrice(sumOfBids - FixedPoint.PRICE_ONE);
+            BigDecimal totalExpectedProfit = potentialProfitPerUnit.multiply(size);
 
             log.info("🚨 NEGRISK ARB FOUND: Condition {} | Sum(Bids)={} | Profit/Unit={} | Size={}",
-                    conditionId, sumOfBids, potentialProfitPerUnit, safeSize);
-
-            // Execute!
-            // 1. Split
-            web3Service.executeSplit(conditionId, safeSize.toBigInteger(), markets.size());
+                    conditionId, FixedPoint.toPrice(sumOfBids), potentialProfitPerUnit, size);
 
-            // 2. Sell each leg
+            // Split one set per unit, then sell every YES leg at its best bid. Execution is
+            // ExecutionEngine's job: detection only describes the trade
+            List<ArbitrageOpportunity.OrderRequest> orders = new ArrayList<>(markets.size());
             for (Market m : markets) {
-                BigDecimal bidPrice = getBestPrice(m.getYesOrderBook(), false);
-                if (bidPrice != null && bidPrice.compareTo(BigDecimal.ZERO) > 0) {
-                    // Sell YES
-                    // Token ID for YES is needed. Market has `outcomeIds` [YES, NO]
-                    String yesTokenId = m.getOutcomeIds().get(0);
-
-                    web3Service.executeOrder(
-                            m.getMarketId(),
-                            yesTokenId,
-                            safeSize.doubleValue(),
-                            bidPrice.doubleValue(),
-                            false, // SELL
-                            true // High Priority
-                    );
+                long bidPrice = BookKernels.bestPrice(BookKernels.view(m.getYesOrderBook()), true);
+                if (bidPrice > 0) {
+                    orders.add(ArbitrageOpportunity.OrderRequest.builder()
+                            .tokenId(m.getOutcomeIds().get(0)) // YES token of the leg
+                            .price(FixedPoint.toPrice(bidPrice))
+                            .size(size)
+                            .side(ArbitrageOpportunity.Side.SELL)
+                            .build());
                 }
             }
 
             ArbitrageOpportunity opp = ArbitrageOpportunity.builder()
                     .id(UUID.randomUUID().toString())
+                    .marketId(markets.get(0).getEventId())
                     .conditionId(conditionId)
                     .outcomeCount(markets.size())
                     .type(ArbitrageOpportunity.Type.NEGRISK_SHORT_ARB)
+                    .requiredOrders(orders)
+                    .totalCost(size) // Split amount in USDC, one set per unit
                     .estimatedProfit(totalExpectedProfit)
                     .detectedAt(Instant.now())
+                    .snapshotVersion(snapshot.version())
+                    .minEdgeTicks(MIN_PROFIT_TICKS)
                     .build();
             opportunities.add(opp);
         }
     }
 
     private boolean isValidMarket(Market m) {
-        return m != null && m.getYesOrderBook() != null && m.getNoOrderBook() != null; // Basic check
-    }
-
-    private BigDecimal getBestPrice(OrderBook book, boolean isAsk) {
-        if (book == null)
-            return null;
-        List<OrderBook.OrderLevel> levels = isAsk ? book.getAsks() : book.getBids();
-        if (levels == null || levels.isEmpty())
-            return null;
-
-        if (isAsk) {
-            return levels.stream().map(OrderBook.OrderLevel::getPrice).min(Comparator.naturalOrder()).orElse(null);
-        } else {
-            return levels.stream().map(OrderBook.OrderLevel::getPrice).max(Comparator.naturalOrder()).orElse(null);
-        }
-    }
-
-    private BigDecimal getBestSize(OrderBook book, boolean isAsk) {
-        if (book == null)
-            return BigDecimal.ZERO;
-        List<OrderBook.OrderLevel> levels = isAsk ? book.getAsks() : book.getBids();
-        if (levels == null || levels.isEmpty())
-            return BigDecimal.ZERO;
-
-        // Assuming getBestPrice finds the first level if sorted?
-        // Actually current getBestPrice sorts every time.
-        // Let's just take the size of the one with best price.
-
-        if (isAsk) {
-            return levels.stream().min(Comparator.comparing(OrderBook.OrderLevel::getPrice))
-                    .map(OrderBook.OrderLevel::getSize).orElse(BigDecimal.ZERO);
-        } else {
-            return levels.stream().max(Comparator.comparing(OrderBook.OrderLevel::getPrice))
-                    .map(OrderBook.OrderLevel::getSize).orElse(BigDecimal.ZERO);
-        }
+        return m != null && m.hasAllBooks(); // Basic check: a book for every outcome
     }
 }
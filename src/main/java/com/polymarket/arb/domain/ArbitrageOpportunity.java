@@ -2,6 +2,8 @@ package com.polymarket.arb.domain;
 
 import lombok.Builder;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
 
 import java.math.BigDecimal;
 import java.time.Instant;
@@ -22,6 +24,14 @@ public class ArbitrageOpportunity {
     private BigDecimal totalCost;
     private BigDecimal estimatedProfit;
     private Instant detectedAt;
+    private long snapshotVersion; // MarketSnapshot the opportunity was computed from
+    private long minEdgeTicks; // Per-set edge (price ticks) it must still beat at execution
+
+    // Book, detection and execution timestamps, for the latency journal
+    @Builder.Default
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private LatencyLineage lineage = new LatencyLineage();
 
     @Data
     @Builder
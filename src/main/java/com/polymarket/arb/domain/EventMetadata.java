@@ -0,0 +1,18 @@
+package com.polymarket.arb.domain;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Gamma /events entry with all of its markets, so a negRisk group arrives complete.
+ */
+@Data
+@Builder
+public class EventMetadata {
+    private String eventId;
+    private String title;
+    private boolean negRisk;
+    private List<MarketMetadata> markets; // eventId already set on each
+}
@@ -0,0 +1,100 @@
+package com.polymarket.arb.domain;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Fixed-point conventions for the detection hot path.
+ * Prices are longs in 1e-4 units (1.0 = 10_000 ticks), sizes in 1e-6 units (USDC decimals).
+ */
+public final class FixedPoint {
+
+    public static final int PRICE_DECIMALS = 4;
+    public static final int SIZE_DECIMALS = 6;
+    public static final long PRICE_ONE = 10_000L;
+    public static final long SIZE_ONE = 1_000_000L;
+
+    // Marker for "no price" (empty side / not enough depth)
+    public static final long NONE = -1L;
+
+    private FixedPoint() {
+    }
+
+    public static long toPriceTicks(BigDecimal price) {
+        return price.setScale(PRICE_DECIMALS, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    public static long toSizeUnits(BigDecimal size) {
+        return size.setScale(SIZE_DECIMALS, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    /**
+     * Parses a plain decimal ("0.523", ".5", "100") from a char range into fixed-point units with
+     * {@code decimals} digits, rounding half-up, without creating a String. Exponent notation is
+     * rejected with NumberFormatException so callers can fall back to BigDecimal.
+     */
+    public static long parse(char[] chars, int offset, int length, int decimals) {
+        if (length == 0) {
+            throw new NumberFormatException("empty");
+        }
+        long value = 0;
+        int fractionDigits = -1; // -1 until the decimal point
+        boolean negative = false;
+        boolean roundUp = false;
+        for (int i = offset, end = offset + length; i < end; i++) {
+            char c = chars[i];
+            if (c == '.' && fractionDigits < 0) {
+                fractionDigits = 0;
+                continue;
+            }
+            if (c == '-' && i == offset) {
+                negative = true;
+                continue;
+            }
+            if (c < '0' || c > '9') {
+                throw new NumberFormatException(new String(chars, offset, length));
+            }
+            int digit = c - '0';
+            if (fractionDigits < 0) {
+                value = value * 10 + digit;
+            } else if (fractionDigits < decimals) {
+                value = value * 10 + digit;
+                fractionDigits++;
+            } else if (fractionDigits == decimals) {
+                roundUp = digit >= 5; // only the first dropped digit decides HALF_UP
+                fractionDigits++;
+            }
+        }
+        for (int f = Math.max(fractionDigits, 0); f < decimals; f++) {
+            value *= 10;
+        }
+        if (roundUp) {
+            value++;
+        }
+        return negative ? -value : value;
+    }
+
+    /**
+     * A decimal String into fixed-point units, BigDecimal only for what the char parser rejects.
+     */
+    public static long parse(String text, int decimals) {
+        try {
+            return parse(text.toCharArray(), 0, text.length(), decimals);
+        } catch (NumberFormatException e) {
+            return new BigDecimal(text.trim()).setScale(decimals, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+        }
+    }
+
+    /**
+     * Price ticks back to BigDecimal, in the CLOB's cents format (at least 2 decimals, no trailing zeros beyond).
+     */
+    public static BigDecimal toPrice(long ticks) {
+        BigDecimal price = BigDecimal.valueOf(ticks, PRICE_DECIMALS).stripTrailingZeros();
+        return price.scale() < 2 ? price.setScale(2) : price;
+    }
+
+    public static BigDecimal toSize(long units) {
+        BigDecimal size = BigDecimal.valueOf(units, SIZE_DECIMALS).stripTrailingZeros();
+        return size.scale() < 0 ? size.setScale(0) : size;
+    }
+}
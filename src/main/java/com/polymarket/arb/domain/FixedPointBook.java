@@ -0,0 +1,210 @@
+package com.polymarket.arb.domain;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Primitive-array order book: prices in 1e-4 ticks, sizes in 1e-6 units (see {@link FixedPoint}).
+ * Normalized once on construction: bids descending, asks ascending (stable, so equal prices keep
+ * their received order), with cumulative size / notional prefix arrays per side.
+ * Instances are immutable once built.
+ */
+public final class FixedPointBook {
+
+    public static final FixedPointBook EMPTY = new FixedPointBook(new long[0], new long[0], 0,
+            new long[0], new long[0], 0);
+
+    private final Side bids;
+    private final Side asks;
+
+    /**
+     * Takes ownership of the arrays; levels may arrive in any order.
+     */
+    public FixedPointBook(long[] bidPrices, long[] bidSizes, int bidCount,
+            long[] askPrices, long[] askSizes, int askCount) {
+        this.bids = new Side(bidPrices, bidSizes, bidCount, true);
+        this.asks = new Side(askPrices, askSizes, askCount, false);
+    }
+
+    private FixedPointBook(Side bids, Side asks) {
+        this.bids = bids;
+        this.asks = asks;
+    }
+
+    /**
+     * This book with level changes applied to one side: a change sets the size at its price,
+     * size 0 removes the level. The other side is shared, the changed one copied once.
+     */
+    public FixedPointBook withChanges(boolean bid, long[] prices, long[] sizes, int changeCount) {
+        Side side = side(bid);
+        long[] p = Arrays.copyOf(side.prices, side.count + changeCount);
+        long[] s = Arrays.copyOf(side.sizes, side.count + changeCount);
+        int n = side.count;
+        for (int c = 0; c < changeCount; c++) {
+            int i = 0;
+            while (i < n && p[i] != prices[c]) {
+                i++;
+            }
+            if (i == n) {
+                p[n] = prices[c];
+                n++;
+            }
+            s[i] = sizes[c];
+        }
+        int kept = 0;
+        for (int i = 0; i < n; i++) {
+            if (s[i] > 0) {
+                p[kept] = p[i];
+                s[kept] = s[i];
+                kept++;
+            }
+        }
+        // Still sorted but for the added levels: the insertion sort only moves those
+        Side changed = new Side(p, s, kept, bid);
+        return bid ? new FixedPointBook(changed, asks) : new FixedPointBook(bids, changed);
+    }
+
+    public static FixedPointBook of(List<OrderBook.OrderLevel> bids, List<OrderBook.OrderLevel> asks) {
+        int nb = bids != null ? bids.size() : 0;
+        int na = asks != null ? asks.size() : 0;
+        long[] bp = new long[nb], bs = new long[nb], ap = new long[na], as = new long[na];
+        for (int i = 0; i < nb; i++) {
+            bp[i] = FixedPoint.toPriceTicks(bids.get(i).getPrice());
+            bs[i] = FixedPoint.toSizeUnits(bids.get(i).getSize());
+        }
+        for (int i = 0; i < na; i++) {
+            ap[i] = FixedPoint.toPriceTicks(asks.get(i).getPrice());
+            as[i] = FixedPoint.toSizeUnits(asks.get(i).getSize());
+        }
+        return new FixedPointBook(bp, bs, nb, ap, as, na);
+    }
+
+    public int levelCount(boolean bid) {
+        return side(bid).count;
+    }
+
+    /**
+     * Level 0 is the best price.
+     */
+    public long price(boolean bid, int level) {
+        return side(bid).prices[level];
+    }
+
+    public long size(boolean bid, int level) {
+        return side(bid).sizes[level];
+    }
+
+    /**
+     * Value of a cumulative size or notional that no longer fits in a long.
+     */
+    public static final long SATURATED = Long.MAX_VALUE;
+
+    /**
+     * Total size of levels 0..level inclusive, {@link #SATURATED} on overflow.
+     */
+    public long cumulativeSize(boolean bid, int level) {
+        return side(bid).cumSizes[level];
+    }
+
+    /**
+     * Σ price * size (ticks * units) of levels 0..level inclusive, {@link #SATURATED} on overflow.
+     */
+    public long cumulativeNotional(boolean bid, int level) {
+        return side(bid).cumNotional[level];
+    }
+
+    /**
+     * BigDecimal levels in normalized order, for boundaries (logging, order building).
+     */
+    public List<OrderBook.OrderLevel> toLevels(boolean bid) {
+        Side side = side(bid);
+        List<OrderBook.OrderLevel> levels = new ArrayList<>(side.count);
+        for (int i = 0; i < side.count; i++) {
+            levels.add(OrderBook.OrderLevel.builder()
+                    .price(FixedPoint.toPrice(side.prices[i]))
+                    .size(FixedPoint.toSize(side.sizes[i]))
+                    .build());
+        }
+        return levels;
+    }
+
+    private Side side(boolean bid) {
+        return bid ? bids : asks;
+    }
+
+    private static final class Side {
+        final long[] prices;
+        final long[] sizes;
+        final int count;
+        final long[] cumSizes;
+        final long[] cumNotional;
+
+        Side(long[] prices, long[] sizes, int count, boolean descending) {
+            this.prices = prices;
+            this.sizes = sizes;
+            this.count = count;
+            normalize(descending);
+
+            this.cumSizes = new long[count];
+            this.cumNotional = new long[count];
+            long size = 0, notional = 0;
+            for (int i = 0; i < count; i++) {
+                size = saturatedAdd(size, sizes[i]);
+                notional = saturatedAdd(notional, saturatedMultiply(sizes[i], prices[i]));
+                cumSizes[i] = size;
+                cumNotional[i] = notional;
+            }
+        }
+
+        // A size near the long range (bad feed data) pins the prefix at SATURATED instead of
+        // wrapping to a negative notional that would read as a cheap fill
+        private static long saturatedAdd(long a, long b) {
+            long r = a + b;
+            return ((a ^ r) & (b ^ r)) < 0 ? SATURATED : r;
+        }
+
+        private static long saturatedMultiply(long a, long b) {
+            long hi = Math.multiplyHigh(a, b), lo = a * b;
+            return (hi == 0 && lo >= 0) || (hi == -1 && lo < 0) ? lo : SATURATED;
+        }
+
+        private void normalize(boolean descending) {
+            // The CLOB sends each side worst-to-best, so a strictly reversed side is the common case
+            if (isStrictlyOrdered(!descending)) {
+                for (int i = 0, j = count - 1; i < j; i++, j--) {
+                    swap(i, j);
+                }
+                return;
+            }
+            // Stable insertion sort otherwise; books are tens of levels, not thousands
+            for (int i = 1; i < count; i++) {
+                long p = prices[i], s = sizes[i];
+                int j = i - 1;
+                while (j >= 0 && (descending ? prices[j] < p : prices[j] > p)) {
+                    prices[j + 1] = prices[j];
+                    sizes[j + 1] = sizes[j];
+                    j--;
+                }
+                prices[j + 1] = p;
+                sizes[j + 1] = s;
+            }
+        }
+
+        private boolean isStrictlyOrdered(boolean descending) {
+            for (int i = 1; i < count; i++) {
+                if (descending ? prices[i - 1] <= prices[i] : prices[i - 1] >= prices[i])
+                    return false;
+            }
+            return count > 1;
+        }
+
+        private void swap(int i, int j) {
+            long p = prices[i], s = sizes[i];
+            prices[i] = prices[j];
+            sizes[i] = sizes[j];
+            prices[j] = p;
+            sizes[j] = s;
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.polymarket.arb.domain;
+
+import lombok.Getter;
+
+import java.time.Instant;
+
+/**
+ * Timestamps an opportunity was built from and went through, from the exchange stamping
+ * its books to the CLOB acknowledging its orders. Exchange times are exchange-clock
+ * millis as sent; local times are epoch micros of this process ({@link #nowMicros()}).
+ * 0 means not reached / unknown.
+ * <p>
+ * Legs execute independently, so each milestone keeps its latest leg: the opportunity
+ * is only signed, submitted or acknowledged once all of its legs are.
+ */
+@Getter
+public class LatencyLineage {
+
+    private long oldestExchangeMillis;
+    private long newestExchangeMillis;
+    private long oldestReceivedMicros;
+    private long newestReceivedMicros;
+
+    private long detectedMicros;
+    private long signedMicros;
+    private long submittedMicros;
+    private long acknowledgedMicros;
+    private long splitSentMicros;
+
+    public static long nowMicros() {
+        return toMicros(Instant.now());
+    }
+
+    public static long toMicros(Instant instant) {
+        return instant.getEpochSecond() * 1_000_000L + instant.getNano() / 1_000;
+    }
+
+    /**
+     * Widens the leg range with a book the opportunity was computed from.
+     */
+    public synchronized void addLeg(OrderBook book) {
+        long exchange = book.getExchangeTimestamp();
+        if (exchange > 0) {
+            oldestExchangeMillis = oldestExchangeMillis == 0 ? exchange : Math.min(oldestExchangeMillis, exchange);
+            newestExchangeMillis = Math.max(newestExchangeMillis, exchange);
+        }
+        long received = book.getReceivedAtMicros();
+        if (received > 0) {
+            oldestReceivedMicros = oldestReceivedMicros == 0 ? received : Math.min(oldestReceivedMicros, received);
+            newestReceivedMicros = Math.max(newestReceivedMicros, received);
+        }
+    }
+
+    public synchronized void markDetected(long micros) {
+        detectedMicros = micros;
+    }
+
+    public synchronized void markSigned() {
+        signedMicros = Math.max(signedMicros, nowMicros());
+    }
+
+    public synchronized void markSubmitted() {
+        submittedMicros = Math.max(submittedMicros, nowMicros());
+    }
+
+    public synchronized void markAcknowledged() {
+        acknowledgedMicros = Math.max(acknowledgedMicros, nowMicros());
+    }
+
+    public synchronized void markSplitSent() {
+        splitSentMicros = Math.max(splitSentMicros, nowMicros());
+    }
+}
@@ -6,10 +6,11 @@ import lombok.ToString;
 
 import java.math.BigDecimal;
 import java.time.Instant;
+import java.util.Arrays;
 import java.util.List;
 
 @Data
-@Builder
+@Builder(toBuilder = true)
 @ToString
 public class Market {
     private String marketId;
@@ -17,7 +18,7 @@ public class Market {
     private String eventId; // For NegRisk grouping
     private boolean negRisk; // True for multi-outcome events
     private String question;
-    private List<String> outcomeIds; // [YES, NO] usually
+    private List<String> outcomeIds; // [YES, NO] usually, N tokens for categorical markets
     private boolean active;
     private boolean closed;
     private boolean acceptingOrders;
@@ -25,7 +26,58 @@ public class Market {
     private BigDecimal volume;
     private Instant lastUpdated;
 
-    // Derived or fetched separately
-    private OrderBook yesOrderBook;
-    private OrderBook noOrderBook;
+    // Derived or fetched separately. One book per outcome, same order as outcomeIds.
+    // Never mutated once built: the builder copies on every per-outcome write.
+    private OrderBook[] books;
+
+    public int getOutcomeCount() {
+        return outcomeIds != null ? outcomeIds.size() : books != null ? books.length : 0;
+    }
+
+    public OrderBook getBook(int outcome) {
+        return books != null && outcome < books.length ? books[outcome] : null;
+    }
+
+    /**
+     * True when every outcome has a book.
+     */
+    public boolean hasAllBooks() {
+        int n = getOutcomeCount();
+        if (n == 0 || books == null || books.length < n) {
+            return false;
+        }
+        for (int i = 0; i < n; i++) {
+            if (books[i] == null) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public OrderBook getYesOrderBook() {
+        return getBook(0);
+    }
+
+    public OrderBook getNoOrderBook() {
+        return getBook(1);
+    }
+
+    public static class MarketBuilder {
+
+        public MarketBuilder book(int outcome, OrderBook book) {
+            OrderBook[] next = Arrays.copyOf(books != null ? books : new OrderBook[0],
+                    Math.max(outcome + 1, books != null ? books.length : 2));
+            next[outcome] = book;
+            this.books = next;
+            return this;
+        }
+
+        public MarketBuilder yesOrderBook(OrderBook book) {
+            return book(0, book);
+        }
+
+        public MarketBuilder noOrderBook(OrderBook book) {
+            return book(1, book);
+        }
+    }
 }
@@ -0,0 +1,29 @@
+package com.polymarket.arb.domain;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Gamma /markets entry, decoded straight from the response stream.
+ * Only the fields the ingestor uses; everything else is skipped unread.
+ */
+@Data
+@Builder
+public class MarketMetadata {
+    private String marketId;
+    private String conditionId;
+    private String eventId; // Parent Gamma event, groups negRisk legs
+    private String question;
+    private List<String> tokenIds; // clobTokenIds, outcome order
+    private boolean negRisk;
+    private boolean active;
+    private boolean closed;
+    private boolean acceptingOrders;
+    @Builder.Default
+    private long outcomePriceSum = FixedPoint.NONE; // Σ outcomePrices in ticks, NONE if absent/unparseable
+    private BigDecimal liquidity;
+    private BigDecimal volume;
+}
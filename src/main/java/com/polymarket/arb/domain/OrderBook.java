@@ -1,10 +1,16 @@
 package com.polymarket.arb.domain;
 
+import lombok.AccessLevel;
 import lombok.Builder;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
 
 import java.math.BigDecimal;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
 
 @Data
 @Builder
@@ -17,6 +23,55 @@ public class OrderBook {
     private List<OrderLevel> bids;
     private List<OrderLevel> asks;
 
+    // Exchange book hash and timestamp (ms) as sent by the CLOB; null / 0 for locally built books
+    private String hash;
+    private long exchangeTimestamp;
+    // Local, monotonic across all books: later-built books always compare greater
+    private long sequence;
+    // Local epoch micros the book was received and decoded; books are built on arrival
+    @Builder.Default
+    @EqualsAndHashCode.Exclude
+    private long receivedAtMicros = LatencyLineage.nowMicros();
+
+    private static final AtomicLong SEQUENCE = new AtomicLong();
+
+    public static long nextSequence() {
+        return SEQUENCE.incrementAndGet();
+    }
+
+    // Normalized fixed-point view (sorted sides, cached top-of-book, depth prefixes)
+    // shared by all detection kernels, derived once per book.
+    // Books are replaced, not mutated, once they are in the cache.
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private volatile FixedPointBook fixedPoint;
+
+    // Books decoded straight into fixed-point materialize BigDecimal levels only when asked
+    public List<OrderLevel> getBids() {
+        if (bids == null && fixedPoint != null) {
+            bids = fixedPoint.toLevels(true);
+        }
+        return bids;
+    }
+
+    public List<OrderLevel> getAsks() {
+        if (asks == null && fixedPoint != null) {
+            asks = fixedPoint.toLevels(false);
+        }
+        return asks;
+    }
+
+    public FixedPointBook fixedPoint() {
+        FixedPointBook fp = fixedPoint;
+        if (fp == null) {
+            fp = FixedPointBook.of(bids, asks);
+            fixedPoint = fp;
+        }
+        return fp;
+    }
+
     @Data
     @Builder
     public static class OrderLevel {
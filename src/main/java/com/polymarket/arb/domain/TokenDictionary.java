@@ -0,0 +1,86 @@
+package com.polymarket.arb.domain;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Process-wide dictionary of CLOB token ids. The 77-digit decimal strings are interned
+ * once into a compact int key, a canonical String instance (its hash is computed once and
+ * cached) and the parsed uint256, so nothing on the hot path parses or rehashes them.
+ * Entries are never removed; the token universe is bounded by the market catalog.
+ */
+public final class TokenDictionary {
+
+    private static final ConcurrentHashMap<String, Integer> KEYS = new ConcurrentHashMap<>();
+    private static final Object LOCK = new Object();
+
+    // Append-only, replaced wholesale when grown; readers only index below a key they hold
+    private static volatile String[] tokenIds = new String[1024];
+    private static volatile BigInteger[] values = new BigInteger[1024];
+    private static int size;
+
+    private TokenDictionary() {
+    }
+
+    /**
+     * Key of a token id, assigning the next one on first sight.
+     */
+    public static int intern(String tokenId) {
+        Integer key = KEYS.get(tokenId);
+        if (key != null) {
+            return key;
+        }
+        BigInteger value = parse(tokenId); // Outside the lock
+        synchronized (LOCK) {
+            key = KEYS.get(tokenId);
+            if (key != null) {
+                return key;
+            }
+            int k = size;
+            if (k == tokenIds.length) {
+                tokenIds = Arrays.copyOf(tokenIds, k * 2);
+                values = Arrays.copyOf(values, k * 2);
+            }
+            tokenIds[k] = tokenId;
+            values[k] = value;
+            size = k + 1;
+            KEYS.put(tokenId, k); // Published last: a reader that finds the key finds the entry
+            return k;
+        }
+    }
+
+    /**
+     * The shared instance equal to {@code tokenId}, so maps keyed by it hash it only once.
+     */
+    public static String canonical(String tokenId) {
+        int key = intern(tokenId); // Before reading the array: interning may replace it
+        return tokenIds[key];
+    }
+
+    public static String tokenId(int key) {
+        return tokenIds[key];
+    }
+
+    public static BigInteger value(int key) {
+        return values[key];
+    }
+
+    public static BigInteger value(String tokenId) {
+        int key = intern(tokenId);
+        return values[key];
+    }
+
+    public static int size() {
+        return KEYS.size();
+    }
+
+    // Non-numeric ids (fixtures, other venues) are still keyed, they just have no uint256 form
+    private static BigInteger parse(String tokenId) {
+        try {
+            return new BigInteger(tokenId);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
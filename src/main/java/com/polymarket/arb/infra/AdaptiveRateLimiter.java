@@ -0,0 +1,142 @@
+package com.polymarket.arb.infra;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Lock-free token bucket (GCRA): a single CAS on the theoretical arrival time reserves a
+ * permit, the caller then parks for its slot without holding anything.
+ * The rate adapts AIMD-style: halved on a 429 (at most once per cooldown, since a burst
+ * of in-flight requests all see the same 429), crept back up on every success.
+ */
+public final class AdaptiveRateLimiter {
+
+    private static final long DECREASE_COOLDOWN_NANOS = TimeUnit.SECONDS.toNanos(1);
+    private static final long MAX_PENALTY_NANOS = TimeUnit.SECONDS.toNanos(60);
+
+    private final String name;
+    private final double maxRate;
+    private final double minRate;
+    private final double increaseStep;
+    private final int burst;
+
+    private final AtomicLong tat; // Theoretical arrival time of the next permit
+    private final AtomicLong lastDecrease;
+    private volatile double rate;
+
+    public AdaptiveRateLimiter(String name, double permitsPerSecond, int burst) {
+        if (permitsPerSecond <= 0 || burst < 1) {
+            throw new IllegalArgumentException("rate must be > 0 and burst >= 1");
+        }
+        this.name = name;
+        this.maxRate = permitsPerSecond;
+        this.minRate = permitsPerSecond / 16;
+        this.increaseStep = permitsPerSecond / 100; // back to full ~50 successes after a halving
+        this.burst = burst;
+        this.rate = permitsPerSecond;
+        long now = System.nanoTime();
+        this.tat = new AtomicLong(now);
+        this.lastDecrease = new AtomicLong(now - DECREASE_COOLDOWN_NANOS);
+    }
+
+    /**
+     * Blocks until a permit is available. Waiters park outside any monitor.
+     */
+    public void acquire() {
+        long wait = reserve();
+        if (wait <= 0) {
+            return;
+        }
+        long deadline = System.nanoTime() + wait;
+        long remaining;
+        while ((remaining = deadline - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(this, remaining);
+            if (Thread.interrupted()) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Takes a permit only if one is available right now.
+     */
+    public boolean tryAcquire() {
+        for (;;) {
+            long now = System.nanoTime();
+            long interval = intervalNanos();
+            long current = tat.get();
+            long next = Math.max(current, now) + interval;
+            if (next - burst * interval > now) {
+                return false;
+            }
+            if (tat.compareAndSet(current, next)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Whether a permit would be granted right now, without taking it. Lets a scheduler
+     * spend the budget only when there is budget to spend.
+     */
+    public boolean hasPermit() {
+        long now = System.nanoTime();
+        long interval = intervalNanos();
+        return Math.max(tat.get(), now) + interval - burst * interval <= now;
+    }
+
+    /**
+     * Reserves the next permit and returns how long to wait for it (<= 0: go now).
+     */
+    long reserve() {
+        for (;;) {
+            long now = System.nanoTime();
+            long interval = intervalNanos();
+            long current = tat.get();
+            long next = Math.max(current, now) + interval;
+            if (tat.compareAndSet(current, next)) {
+                return next - burst * interval - now;
+            }
+        }
+    }
+
+    public void onSuccess() {
+        double r = rate;
+        if (r < maxRate) {
+            rate = Math.min(maxRate, r + increaseStep); // Racy on purpose, a lost step is harmless
+        }
+    }
+
+    /**
+     * 429 feedback: halve the rate and hold the whole bucket until {@code retryAfterNanos} has passed.
+     */
+    public void onThrottled(long retryAfterNanos) {
+        long now = System.nanoTime();
+        long last = lastDecrease.get();
+        if (now - last >= DECREASE_COOLDOWN_NANOS && lastDecrease.compareAndSet(last, now)) {
+            rate = Math.max(minRate, rate / 2);
+        }
+        // First permit after the penalty lands at now + retryAfter, with no burst credit left
+        long penalty = Math.min(Math.max(retryAfterNanos, 0), MAX_PENALTY_NANOS);
+        long holdUntil = now + penalty + (burst - 1) * intervalNanos();
+        tat.accumulateAndGet(holdUntil, Math::max);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public double getRate() {
+        return rate;
+    }
+
+    public int getBurst() {
+        return burst;
+    }
+
+    private long intervalNanos() {
+        return (long) (1_000_000_000L / rate);
+    }
+}
@@ -0,0 +1,440 @@
+package com.polymarket.arb.infra;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.polymarket.arb.domain.EventMetadata;
+import com.polymarket.arb.domain.FixedPoint;
+import com.polymarket.arb.domain.FixedPointBook;
+import com.polymarket.arb.domain.MarketMetadata;
+import com.polymarket.arb.domain.OrderBook;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Streaming decoders for the CLOB /book(s) and Gamma /markets, /events responses.
+ * Reads tokens straight into domain structures: book levels go into fixed-point arrays
+ * (no JsonNode tree, no per-level BigDecimal/String), unknown fields are skipped unread.
+ */
+public final class ApiPayloadDecoder {
+
+    // Per-thread scratch for level parsing; books are copied out at their exact size
+    private static final ThreadLocal<LevelBuffer[]> SCRATCH = ThreadLocal
+            .withInitial(() -> new LevelBuffer[] { new LevelBuffer(), new LevelBuffer() });
+
+    private static final Function<String, OrderBook> NO_KNOWN_BOOKS = tokenId -> null;
+
+    private ApiPayloadDecoder() {
+    }
+
+    /**
+     * Decodes one /book object. The parser may be positioned before or on START_OBJECT.
+     * Anything that is not an object yields an empty book.
+     */
+    public static OrderBook decodeBook(JsonParser p, String tokenId) throws IOException {
+        return decodeBook(p, tokenId, NO_KNOWN_BOOKS);
+    }
+
+    /**
+     * As above, but when {@code knownBooks} already holds a book with the same exchange
+     * hash the levels are skipped unparsed and that very instance is returned, so callers
+     * can drop the update with an identity check.
+     */
+    public static OrderBook decodeBook(JsonParser p, String tokenId, Function<String, OrderBook> knownBooks)
+            throws IOException {
+        JsonToken t = p.currentToken() != null ? p.currentToken() : p.nextToken();
+        if (t != JsonToken.START_OBJECT) {
+            p.skipChildren();
+            return emptyBook(tokenId);
+        }
+
+        LevelBuffer[] scratch = SCRATCH.get();
+        LevelBuffer bids = scratch[0].reset();
+        LevelBuffer asks = scratch[1].reset();
+        String assetId = tokenId;
+        String hash = null;
+        long timestamp = 0;
+        OrderBook unchanged = null;
+
+        // The CLOB sends hash before the levels, so an unchanged book is never parsed
+        while (p.nextToken() == JsonToken.FIELD_NAME) {
+            String name = p.currentName();
+            p.nextToken();
+            switch (name) {
+                case "bids", "asks" -> {
+                    if (unchanged == null) {
+                        unchanged = sameHash(knownBooks, assetId, hash);
+                    }
+                    if (unchanged != null) {
+                        p.skipChildren();
+                    } else {
+                        readLevels(p, name.equals("bids") ? bids : asks);
+                    }
+                }
+                case "asset_id" -> {
+                    if (tokenId == null) {
+                        assetId = p.getValueAsString();
+                    }
+                }
+                case "hash" -> hash = p.getValueAsString();
+                case "timestamp" -> timestamp = p.getValueAsLong();
+                default -> p.skipChildren();
+            }
+        }
+        if (unchanged == null) {
+            unchanged = sameHash(knownBooks, assetId, hash); // hash after the levels: parsed, still deduped
+        }
+        if (unchanged != null) {
+            return unchanged;
+        }
+
+        FixedPointBook fp = new FixedPointBook(
+                Arrays.copyOf(bids.prices, bids.count), Arrays.copyOf(bids.sizes, bids.count), bids.count,
+                Arrays.copyOf(asks.prices, asks.count), Arrays.copyOf(asks.sizes, asks.count), asks.count);
+        // BigDecimal level lists are materialized lazily from the fixed-point view
+        return OrderBook.builder().marketId(assetId).fixedPoint(fp)
+                .hash(hash).exchangeTimestamp(timestamp).sequence(OrderBook.nextSequence()).build();
+    }
+
+    /**
+     * Decodes a POST /books response (array of book objects keyed by their asset_id).
+     */
+    public static List<OrderBook> decodeBooks(JsonParser p) throws IOException {
+        return decodeBooks(p, NO_KNOWN_BOOKS);
+    }
+
+    public static List<OrderBook> decodeBooks(JsonParser p, Function<String, OrderBook> knownBooks)
+            throws IOException {
+        List<OrderBook> books = new ArrayList<>();
+        JsonToken t = p.currentToken() != null ? p.currentToken() : p.nextToken();
+        if (t != JsonToken.START_ARRAY) {
+            p.skipChildren();
+            return books;
+        }
+        while ((t = p.nextToken()) != JsonToken.END_ARRAY && t != null) {
+            if (t == JsonToken.START_OBJECT) {
+                books.add(decodeBook(p, null, knownBooks));
+            } else {
+                p.skipChildren();
+            }
+        }
+        return books;
+    }
+
+    private static OrderBook sameHash(Function<String, OrderBook> knownBooks, String tokenId, String hash) {
+        if (hash == null || tokenId == null) {
+            return null;
+        }
+        OrderBook known = knownBooks.apply(tokenId);
+        return known != null && hash.equals(known.getHash()) ? known : null;
+    }
+
+    public static OrderBook emptyBook(String tokenId) {
+        return OrderBook.builder().marketId(tokenId).fixedPoint(FixedPointBook.EMPTY).build();
+    }
+
+    /**
+     * Decodes a Gamma /markets page (top-level array). Anything else yields an empty list.
+     */
+    public static List<MarketMetadata> decodeMarkets(JsonParser p) throws IOException {
+        List<MarketMetadata> markets = new ArrayList<>();
+        JsonToken t = p.currentToken() != null ? p.currentToken() : p.nextToken();
+        if (t != JsonToken.START_ARRAY) {
+            p.skipChildren();
+            return markets;
+        }
+        while ((t = p.nextToken()) != JsonToken.END_ARRAY && t != null) {
+            if (t == JsonToken.START_OBJECT) {
+                markets.add(readMarket(p));
+            } else {
+                p.skipChildren();
+            }
+        }
+        return markets;
+    }
+
+    /**
+     * Decodes a Gamma /events page (top-level array of events with nested markets).
+     */
+    public static List<EventMetadata> decodeEvents(JsonParser p) throws IOException {
+        List<EventMetadata> events = new ArrayList<>();
+        JsonToken t = p.currentToken() != null ? p.currentToken() : p.nextToken();
+        if (t != JsonToken.START_ARRAY) {
+            p.skipChildren();
+            return events;
+        }
+        while ((t = p.nextToken()) != JsonToken.END_ARRAY && t != null) {
+            if (t == JsonToken.START_OBJECT) {
+                events.add(readEvent(p));
+            } else {
+                p.skipChildren();
+            }
+        }
+        return events;
+    }
+
+    private static EventMetadata readEvent(JsonParser p) throws IOException {
+        String eventId = null, title = null;
+        boolean negRisk = false;
+        List<MarketMetadata> markets = new ArrayList<>();
+        while (p.nextToken() == JsonToken.FIELD_NAME) {
+            String name = p.currentName();
+            JsonToken value = p.nextToken();
+            if (value == JsonToken.VALUE_NULL) {
+                continue;
+            }
+            switch (name) {
+                case "id" -> eventId = p.getValueAsString();
+                case "title" -> title = p.getValueAsString();
+                case "negRisk" -> negRisk = p.getValueAsBoolean();
+                case "markets" -> {
+                    if (value != JsonToken.START_ARRAY) {
+                        p.skipChildren();
+                        break;
+                    }
+                    JsonToken t;
+                    while ((t = p.nextToken()) != JsonToken.END_ARRAY && t != null) {
+                        if (t == JsonToken.START_OBJECT) {
+                            markets.add(readMarket(p));
+                        } else {
+                            p.skipChildren();
+                        }
+                    }
+                }
+                default -> p.skipChildren();
+            }
+        }
+        // Event fields may come after the markets array, so link the legs at the end
+        for (MarketMetadata market : markets) {
+            market.setEventId(eventId);
+            market.setNegRisk(market.isNegRisk() || negRisk);
+        }
+        return EventMetadata.builder().eventId(eventId).title(title).negRisk(negRisk).markets(markets).build();
+    }
+
+    private static MarketMetadata readMarket(JsonParser p) throws IOException {
+        MarketMetadata.MarketMetadataBuilder builder = MarketMetadata.builder();
+        while (p.nextToken() == JsonToken.FIELD_NAME) {
+            String name = p.currentName();
+            JsonToken value = p.nextToken();
+            if (value == JsonToken.VALUE_NULL) {
+                continue;
+            }
+            switch (name) {
+                case "id" -> builder.marketId(p.getValueAsString());
+                case "conditionId", "condition_id" -> builder.conditionId(p.getValueAsString());
+                case "question" -> builder.question(p.getValueAsString());
+                case "negRisk" -> builder.negRisk(p.getValueAsBoolean());
+                case "active" -> builder.active(p.getValueAsBoolean());
+                case "closed" -> builder.closed(p.getValueAsBoolean());
+                case "acceptingOrders" -> builder.acceptingOrders(p.getValueAsBoolean());
+                case "liquidity", "liquidityNum" -> builder.liquidity(readBigDecimal(p));
+                case "volume", "volumeNum" -> builder.volume(readBigDecimal(p));
+                case "events" -> builder.eventId(firstEventId(p)); // /markets embeds its parent events
+                // Gamma embeds these arrays as JSON strings, e.g. "[\"0.52\", \"0.48\"]"
+                case "clobTokenIds" -> {
+                    if (value == JsonToken.VALUE_STRING) {
+                        builder.tokenIds(embeddedStrings(p.getTextCharacters(), p.getTextOffset(), p.getTextLength()));
+                    } else {
+                        p.skipChildren();
+                    }
+                }
+                case "outcomePrices" -> {
+                    if (value == JsonToken.VALUE_STRING) {
+                        builder.outcomePriceSum(
+                                embeddedPriceSum(p.getTextCharacters(), p.getTextOffset(), p.getTextLength()));
+                    } else {
+                        p.skipChildren();
+                    }
+                }
+                default -> p.skipChildren();
+            }
+        }
+        return builder.build();
+    }
+
+    private static String firstEventId(JsonParser p) throws IOException {
+        if (p.currentToken() != JsonToken.START_ARRAY) {
+            p.skipChildren();
+            return null;
+        }
+        String eventId = null;
+        JsonToken t;
+        while ((t = p.nextToken()) != JsonToken.END_ARRAY && t != null) {
+            if (t != JsonToken.START_OBJECT) {
+                p.skipChildren();
+                continue;
+            }
+            while (p.nextToken() == JsonToken.FIELD_NAME) {
+                String name = p.currentName();
+                p.nextToken();
+                if (eventId == null && "id".equals(name)) {
+                    eventId = p.getValueAsString();
+                } else {
+                    p.skipChildren();
+                }
+            }
+        }
+        return eventId;
+    }
+
+    private static void readLevels(JsonParser p, LevelBuffer into) throws IOException {
+        if (p.currentToken() != JsonToken.START_ARRAY) {
+            p.skipChildren();
+            return;
+        }
+        JsonToken t;
+        while ((t = p.nextToken()) != JsonToken.END_ARRAY && t != null) {
+            if (t != JsonToken.START_OBJECT) {
+                p.skipChildren();
+                continue;
+            }
+            long price = 0, size = 0; // Missing fields read as 0, like the tree path
+            while (p.nextToken() == JsonToken.FIELD_NAME) {
+                String name = p.currentName();
+                p.nextToken();
+                switch (name) {
+                    case "price" -> price = readFixed(p, FixedPoint.PRICE_DECIMALS);
+                    case "size" -> size = readFixed(p, FixedPoint.SIZE_DECIMALS);
+                    default -> p.skipChildren();
+                }
+            }
+            into.add(price, size);
+        }
+    }
+
+    // Parses the token text in place; falls back to BigDecimal for exponents and other oddities
+    private static long readFixed(JsonParser p, int decimals) throws IOException {
+        JsonToken t = p.currentToken();
+        if (t != JsonToken.VALUE_STRING && t != JsonToken.VALUE_NUMBER_FLOAT && t != JsonToken.VALUE_NUMBER_INT) {
+            p.skipChildren();
+            return 0;
+        }
+        try {
+            return FixedPoint.parse(p.getTextCharacters(), p.getTextOffset(), p.getTextLength(), decimals);
+        } catch (NumberFormatException e) {
+            return new BigDecimal(p.getText().trim()).setScale(decimals, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+        }
+    }
+
+    private static BigDecimal readBigDecimal(JsonParser p) throws IOException {
+        String text = p.getValueAsString();
+        if (text == null || text.isBlank()) {
+            return null;
+        }
+        try {
+            return new BigDecimal(text.trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Elements of an embedded JSON string array: ["a", "b"] -> [a, b]. Not an array -> null.
+     */
+    static List<String> embeddedStrings(char[] chars, int offset, int length) {
+        List<String> values = new ArrayList<>(2);
+        int[] bounds = new int[2];
+        int pos = arrayStart(chars, offset, length);
+        if (pos < 0) {
+            return null;
+        }
+        int end = offset + length;
+        while ((pos = nextElement(chars, pos, end, bounds)) >= 0) {
+            values.add(new String(chars, bounds[0], bounds[1]));
+        }
+        return values;
+    }
+
+    /**
+     * Σ of an embedded price array in ticks. NONE when absent, empty or unparseable.
+     */
+    static long embeddedPriceSum(char[] chars, int offset, int length) {
+        int pos = arrayStart(chars, offset, length);
+        if (pos < 0) {
+            return FixedPoint.NONE;
+        }
+        int[] bounds = new int[2];
+        int end = offset + length;
+        long sum = 0;
+        int count = 0;
+        try {
+            while ((pos = nextElement(chars, pos, end, bounds)) >= 0) {
+                sum += FixedPoint.parse(chars, bounds[0], bounds[1], FixedPoint.PRICE_DECIMALS);
+                count++;
+            }
+        } catch (NumberFormatException e) {
+            return FixedPoint.NONE;
+        }
+        return count > 0 ? sum : FixedPoint.NONE;
+    }
+
+    private static int arrayStart(char[] chars, int offset, int length) {
+        for (int i = offset, end = offset + length; i < end; i++) {
+            char c = chars[i];
+            if (c == '[') {
+                return i + 1;
+            }
+            if (!Character.isWhitespace(c)) {
+                return -1;
+            }
+        }
+        return -1;
+    }
+
+    // Finds the next element from pos, strips whitespace and quotes into bounds {start, length},
+    // returns the position after it or -1 at the closing bracket
+    private static int nextElement(char[] chars, int pos, int end, int[] bounds) {
+        while (pos < end && (chars[pos] == ',' || Character.isWhitespace(chars[pos]))) {
+            pos++;
+        }
+        if (pos >= end || chars[pos] == ']') {
+            return -1;
+        }
+        int start, stop;
+        if (chars[pos] == '"') {
+            start = pos + 1;
+            stop = start;
+            while (stop < end && chars[stop] != '"') {
+                stop++;
+            }
+            pos = stop + 1;
+        } else {
+            start = pos;
+            stop = start;
+            while (stop < end && chars[stop] != ',' && chars[stop] != ']' && !Character.isWhitespace(chars[stop])) {
+                stop++;
+            }
+            pos = stop;
+        }
+        bounds[0] = start;
+        bounds[1] = stop - start;
+        return pos;
+    }
+
+    private static final class LevelBuffer {
+        long[] prices = new long[64];
+        long[] sizes = new long[64];
+        int count;
+
+        LevelBuffer reset() {
+            count = 0;
+            return this;
+        }
+
+        void add(long price, long size) {
+            if (count == prices.length) {
+                prices = Arrays.copyOf(prices, count * 2);
+                sizes = Arrays.copyOf(sizes, count * 2);
+            }
+            prices[count] = price;
+            sizes[count] = size;
+            count++;
+        }
+    }
+}
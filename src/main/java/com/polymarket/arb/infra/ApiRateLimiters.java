@@ -0,0 +1,38 @@
+package com.polymarket.arb.infra;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * One independent bucket per endpoint class, so order submission never queues
+ * behind book reads and a 429 burst on one endpoint does not stall the others.
+ * Defaults keep each bucket at the 4/s the single shared limiter used to allow.
+ */
+@Component
+public class ApiRateLimiters {
+
+    public enum Endpoint {
+        GAMMA, CLOB_BOOK, CLOB_ORDER
+    }
+
+    private final Map<Endpoint, AdaptiveRateLimiter> limiters = new EnumMap<>(Endpoint.class);
+
+    public ApiRateLimiters(
+            @Value("${polymarket.rate.gamma.per-second:4}") double gammaRate,
+            @Value("${polymarket.rate.gamma.burst:4}") int gammaBurst,
+            @Value("${polymarket.rate.clob-book.per-second:4}") double bookRate,
+            @Value("${polymarket.rate.clob-book.burst:4}") int bookBurst,
+            @Value("${polymarket.rate.clob-order.per-second:4}") double orderRate,
+            @Value("${polymarket.rate.clob-order.burst:4}") int orderBurst) {
+        limiters.put(Endpoint.GAMMA, new AdaptiveRateLimiter("gamma", gammaRate, gammaBurst));
+        limiters.put(Endpoint.CLOB_BOOK, new AdaptiveRateLimiter("clob-book", bookRate, bookBurst));
+        limiters.put(Endpoint.CLOB_ORDER, new AdaptiveRateLimiter("clob-order", orderRate, orderBurst));
+    }
+
+    public AdaptiveRateLimiter get(Endpoint endpoint) {
+        return limiters.get(endpoint);
+    }
+}
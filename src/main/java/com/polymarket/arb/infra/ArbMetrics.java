@@ -0,0 +1,191 @@
+package com.polymarket.arb.infra;
+
+import com.polymarket.arb.infra.ApiRateLimiters.Endpoint;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Latency and throughput meters across ingest, detection and execution, scraped from
+ * /actuator/prometheus. Every timer keeps an HDR histogram: percentiles are computed
+ * locally and exported alongside Prometheus buckets, so tails are visible both per
+ * instance and aggregated.
+ */
+@Component
+public class ArbMetrics {
+
+    private static final double[] PERCENTILES = { 0.5, 0.9, 0.99, 0.999 };
+
+    private final MeterRegistry registry;
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+    private final Map<String, Counter> counters = new ConcurrentHashMap<>();
+    private final Map<String, AtomicLong> gauges = new ConcurrentHashMap<>();
+
+    public ArbMetrics(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    /**
+     * In-memory registry, for code built outside the Spring context (tests, tools).
+     */
+    public static ArbMetrics simple() {
+        return new ArbMetrics(new SimpleMeterRegistry());
+    }
+
+    public MeterRegistry registry() {
+        return registry;
+    }
+
+    /**
+     * One HTTP exchange, from send to response headers; status is the HTTP code or "io_error".
+     */
+    public void apiRequest(Endpoint endpoint, String status, long nanos) {
+        timer("polymarket.api.request", "Polymarket API request latency", Duration.ofMillis(1), Duration.ofSeconds(60),
+                "endpoint", endpointTag(endpoint), "status", status)
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void apiThrottled(Endpoint endpoint) {
+        counter("polymarket.api.throttled", "429 responses", "endpoint", endpointTag(endpoint)).increment();
+    }
+
+    /**
+     * One {@code detect()} pass of a strategy over a snapshot.
+     */
+    public void detect(String detector, long nanos) {
+        timer("arb.detect", "ArbitrageDetector.detect duration", Duration.ofNanos(1_000), Duration.ofSeconds(10),
+                "detector", detector)
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * First cache write not yet scanned until the detection pass that picks it up starts.
+     */
+    public void detectTrigger(long nanos) {
+        timer("arb.detect.trigger", "Cache write to detection pass", Duration.ofNanos(1_000), Duration.ofSeconds(10))
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void detectOverBudget(String detector) {
+        counter("arb.detect.over.budget", "Scans dropped past the detection budget", "detector", detector).increment();
+    }
+
+    public void opportunities(String detector, int count) {
+        counter("arb.opportunities", "Opportunities found", "detector", detector).increment(count);
+    }
+
+    /**
+     * Opportunities dropped as the same fingerprint as another strategy's, or as one just executed.
+     */
+    public void duplicates(int count) {
+        counter("arb.opportunities.duplicate", "Duplicate opportunities dropped").increment(count);
+    }
+
+    /**
+     * Age of the oldest book an opportunity was computed from, exchange time to detection.
+     */
+    public void bookAge(long millis) {
+        timer("arb.detect.book.age", "Book age at detection", Duration.ofMillis(1), Duration.ofMinutes(10))
+                .record(Math.max(0, millis), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Time from detection to an execution milestone (started, split, completed).
+     */
+    public void execution(String stage, long nanos) {
+        timer("arb.execution", "Detection to execution milestone", Duration.ofNanos(10_000), Duration.ofSeconds(60),
+                "stage", stage)
+                .record(Math.max(0, nanos), TimeUnit.NANOSECONDS);
+    }
+
+    public void orderSigned(long nanos) {
+        timer("polymarket.order.sign", "EIP-712 order signing", Duration.ofNanos(1_000), Duration.ofSeconds(1))
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Signed order handed to the client until the CLOB acknowledged (or rejected) it.
+     */
+    public void orderAcked(boolean success, long nanos) {
+        timer("polymarket.order.submit", "Signed order to submit acknowledgement", Duration.ofMillis(1),
+                Duration.ofSeconds(60), "outcome", success ? "ack" : "error")
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Book updates the cache wrote vs. dropped as unchanged or stale, read from its own totals.
+     */
+    public void bookWrites(LongSupplier written, LongSupplier skipped) {
+        FunctionCounter.builder("arb.books.written", written, LongSupplier::getAsLong)
+                .description("Book updates written to the cache")
+                .register(registry);
+        FunctionCounter.builder("arb.books.skipped", skipped, LongSupplier::getAsLong)
+                .description("Book updates dropped as unchanged or stale")
+                .register(registry);
+    }
+
+    /**
+     * Book age across the cached markets (since the last write or unchanged fetch), refreshed
+     * by each staleness report: percentiles as {@code quantile} tags, plus the market count.
+     */
+    public void bookStaleness(int markets, long p50Millis, long p90Millis, long p99Millis, long maxMillis) {
+        stalenessGauge("0.5").set(p50Millis);
+        stalenessGauge("0.9").set(p90Millis);
+        stalenessGauge("0.99").set(p99Millis);
+        stalenessGauge("max").set(maxMillis);
+        gauge("arb.books.staleness.markets", "Markets the book staleness is computed over", null).set(markets);
+    }
+
+    private AtomicLong stalenessGauge(String quantile) {
+        return gauge("arb.books.staleness", "Cached book age across markets", "milliseconds", "quantile", quantile);
+    }
+
+    private Timer timer(String name, String description, Duration min, Duration max, String... tags) {
+        return timers.computeIfAbsent(key(name, tags), k -> Timer.builder(name)
+                .description(description)
+                .tags(tags)
+                .publishPercentiles(PERCENTILES)
+                .publishPercentileHistogram()
+                .minimumExpectedValue(min)
+                .maximumExpectedValue(max)
+                .register(registry));
+    }
+
+    private Counter counter(String name, String description, String... tags) {
+        return counters.computeIfAbsent(key(name, tags), k -> Counter.builder(name)
+                .description(description)
+                .tags(tags)
+                .register(registry));
+    }
+
+    private AtomicLong gauge(String name, String description, String baseUnit, String... tags) {
+        return gauges.computeIfAbsent(key(name, tags), k -> {
+            AtomicLong value = new AtomicLong();
+            Gauge.builder(name, value, AtomicLong::get)
+                    .description(description)
+                    .baseUnit(baseUnit)
+                    .tags(tags)
+                    .register(registry);
+            return value;
+        });
+    }
+
+    private static String key(String name, String... tags) {
+        return tags.length == 0 ? name : name + '|' + String.join("|", tags);
+    }
+
+    private static String endpointTag(Endpoint endpoint) {
+        return endpoint.name().toLowerCase().replace('_', '-');
+    }
+}
@@ -0,0 +1,110 @@
+package com.polymarket.arb.infra;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * On-disk layout of the book log. A log is a directory of fixed-size segments
+ * ({@code books-000001.log}, ...), each starting with a header and holding records
+ * {@code [int length][byte type][long recordedAtMillis][body]} until a zero length.
+ * Every segment is self-contained: it re-declares its tokens and markets and opens
+ * with a full book per token, so old segments can be dropped or read on their own.
+ * <p>
+ * Bodies use varints; prices are zigzag deltas from the previous level of the side.
+ * Token keys are TokenDictionary keys of the writing process, declared per segment.
+ */
+final class BookLogFormat {
+
+    static final int MAGIC = 0x424f4f4b; // "BOOK"
+    static final short VERSION = 1;
+    static final int HEADER_BYTES = 8; // magic, version, reserved
+    static final int RECORD_HEADER_BYTES = 4 + 1 + 8;
+
+    static final byte TOKEN = 1; // key, token id
+    static final byte MARKET = 2; // market id, condition id, event id, question, flags, token keys
+    static final byte REMOVE = 3; // market id
+    static final byte BOOK_FULL = 4; // key, exchange timestamp, hash, per side: count, levels
+    static final byte BOOK_DELTA = 5; // key, exchange timestamp, hash, per side: count, changed levels (size 0 = gone)
+
+    static final int NEG_RISK = 1, ACTIVE = 2, CLOSED = 4, ACCEPTING_ORDERS = 8;
+
+    private BookLogFormat() {
+    }
+
+    static String segmentName(int index) {
+        return String.format("books-%06d.log", index);
+    }
+
+    static List<Path> segments(Path dir) throws IOException {
+        if (!Files.isDirectory(dir)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.filter(f -> f.getFileName().toString().matches("books-\\d{6}\\.log")).sorted().toList();
+        }
+    }
+
+    static int segmentIndex(Path segment) {
+        String name = segment.getFileName().toString();
+        return Integer.parseInt(name.substring(6, 12));
+    }
+
+    static void putVarLong(ByteBuffer buf, long value) {
+        while ((value & ~0x7FL) != 0) {
+            buf.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buf.put((byte) value);
+    }
+
+    static long getVarLong(ByteBuffer buf) {
+        long value = 0;
+        for (int shift = 0;; shift += 7) {
+            byte b = buf.get();
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+    }
+
+    static void putZigZag(ByteBuffer buf, long value) {
+        putVarLong(buf, (value << 1) ^ (value >> 63));
+    }
+
+    static long getZigZag(ByteBuffer buf) {
+        long v = getVarLong(buf);
+        return (v >>> 1) ^ -(v & 1);
+    }
+
+    // Length + 1 so null survives the round trip
+    static void putString(ByteBuffer buf, String value) {
+        if (value == null) {
+            putVarLong(buf, 0);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        putVarLong(buf, bytes.length + 1L);
+        buf.put(bytes);
+    }
+
+    static String getString(ByteBuffer buf) {
+        int length = (int) getVarLong(buf) - 1;
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buf.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    // Worst-case encoded size of a string
+    static int stringBound(String value) {
+        return 10 + (value != null ? value.length() * 3 : 0);
+    }
+}
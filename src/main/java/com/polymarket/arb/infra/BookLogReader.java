@@ -0,0 +1,202 @@
+package com.polymarket.arb.infra;
+
+import com.polymarket.arb.domain.FixedPointBook;
+import com.polymarket.arb.domain.Market;
+import com.polymarket.arb.domain.OrderBook;
+import com.polymarket.arb.domain.TokenDictionary;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.polymarket.arb.infra.BookLogFormat.*;
+
+/**
+ * Reads a {@link BookLogWriter} log back in record order, rebuilding every book in full
+ * (deltas are applied to the previous book of the token).
+ */
+public final class BookLogReader {
+
+    public interface Visitor {
+        /**
+         * Market metadata and outcome tokens; books follow as separate {@link #book} calls.
+         */
+        void market(long recordedAtMillis, Market market);
+
+        void remove(long recordedAtMillis, String marketId);
+
+        void book(long recordedAtMillis, String tokenId, OrderBook book);
+    }
+
+    private BookLogReader() {
+    }
+
+    /**
+     * All segments of {@code dir}, oldest first.
+     *
+     * @return number of records read
+     */
+    public static long read(Path dir, Visitor visitor) throws IOException {
+        long records = 0;
+        for (Path segment : segments(dir)) {
+            records += readSegment(segment, visitor);
+        }
+        return records;
+    }
+
+    public static long readSegment(Path file, Visitor visitor) throws IOException {
+        MappedByteBuffer buf;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            buf = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        if (buf.remaining() < HEADER_BYTES || buf.getInt() != MAGIC) {
+            throw new IOException("Not a book log segment: " + file);
+        }
+        short version = buf.getShort();
+        if (version != VERSION) {
+            throw new IOException("Unsupported book log version " + version + ": " + file);
+        }
+        buf.position(HEADER_BYTES);
+
+        // Segments are self-contained: keys and base books never cross a segment boundary
+        Map<Integer, String> tokens = new HashMap<>();
+        Map<Integer, OrderBook> books = new HashMap<>();
+        long records = 0;
+        while (buf.remaining() >= 4) {
+            int length = buf.getInt();
+            if (length <= 0) {
+                break; // End of written data
+            }
+            int next = buf.position() + length;
+            byte type = buf.get();
+            long recordedAt = buf.getLong();
+            switch (type) {
+                case TOKEN -> tokens.put((int) getVarLong(buf), TokenDictionary.canonical(getString(buf)));
+                case MARKET -> visitor.market(recordedAt, readMarket(buf, tokens));
+                case REMOVE -> visitor.remove(recordedAt, getString(buf));
+                case BOOK_FULL, BOOK_DELTA -> {
+                    int key = (int) getVarLong(buf);
+                    String tokenId = tokens.get(key);
+                    if (tokenId == null) {
+                        throw new IOException("Undeclared token key " + key + " in " + file);
+                    }
+                    long exchangeTimestamp = getVarLong(buf);
+                    String hash = getString(buf);
+                    FixedPointBook fp;
+                    if (type == BOOK_FULL) {
+                        fp = readFull(buf);
+                    } else {
+                        OrderBook base = books.get(key);
+                        if (base == null) {
+                            throw new IOException("Delta without a base book for key " + key + " in " + file);
+                        }
+                        fp = applyDelta(buf, base.fixedPoint());
+                    }
+                    OrderBook book = OrderBook.builder()
+                            .marketId(tokenId)
+                            .fixedPoint(fp)
+                            .hash(hash)
+                            .exchangeTimestamp(exchangeTimestamp)
+                            .sequence(OrderBook.nextSequence())
+                            .receivedAtMicros(recordedAt * 1_000)
+                            .build();
+                    books.put(key, book);
+                    visitor.book(recordedAt, tokenId, book);
+                }
+                default -> {
+                    // Unknown record type from a newer writer: skip it
+                }
+            }
+            buf.position(next);
+            records++;
+        }
+        return records;
+    }
+
+    private static Market readMarket(ByteBuffer buf, Map<Integer, String> tokens) {
+        String marketId = getString(buf);
+        String conditionId = getString(buf);
+        String eventId = getString(buf);
+        String question = getString(buf);
+        int flags = buf.get();
+        int n = (int) getVarLong(buf);
+        List<String> outcomeIds = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            outcomeIds.add(tokens.get((int) getVarLong(buf)));
+        }
+        return Market.builder()
+                .marketId(marketId)
+                .conditionId(conditionId)
+                .eventId(eventId)
+                .question(question)
+                .negRisk((flags & NEG_RISK) != 0)
+                .active((flags & ACTIVE) != 0)
+                .closed((flags & CLOSED) != 0)
+                .acceptingOrders((flags & ACCEPTING_ORDERS) != 0)
+                .outcomeIds(List.copyOf(outcomeIds))
+                .build();
+    }
+
+    private static FixedPointBook readFull(ByteBuffer buf) {
+        long[][] sides = new long[4][];
+        int[] counts = new int[2];
+        for (int s = 0; s < 2; s++) {
+            int n = (int) getVarLong(buf);
+            long[] prices = new long[n], sizes = new long[n];
+            long price = 0;
+            for (int i = 0; i < n; i++) {
+                price += getZigZag(buf);
+                prices[i] = price;
+                sizes[i] = getVarLong(buf);
+            }
+            sides[2 * s] = prices;
+            sides[2 * s + 1] = sizes;
+            counts[s] = n;
+        }
+        return new FixedPointBook(sides[0], sides[1], counts[0], sides[2], sides[3], counts[1]);
+    }
+
+    // Merge of the base side with the changed levels, both in book order
+    private static FixedPointBook applyDelta(ByteBuffer buf, FixedPointBook base) {
+        long[][] sides = new long[4][];
+        int[] counts = new int[2];
+        for (int s = 0; s < 2; s++) {
+            boolean bid = s == 0;
+            int changes = buf.getInt();
+            int n = base.levelCount(bid);
+            long[] prices = new long[n + changes], sizes = new long[n + changes];
+            int out = 0, i = 0;
+            long price = 0;
+            for (int c = 0; c < changes; c++) {
+                price += getZigZag(buf);
+                long size = getVarLong(buf);
+                while (i < n && BookLogWriter.compare(base.price(bid, i), price, bid) < 0) {
+                    prices[out] = base.price(bid, i);
+                    sizes[out++] = base.size(bid, i++);
+                }
+                if (i < n && base.price(bid, i) == price) {
+                    i++; // Replaced or removed
+                }
+                if (size > 0) {
+                    prices[out] = price;
+                    sizes[out++] = size;
+                }
+            }
+            while (i < n) {
+                prices[out] = base.price(bid, i);
+                sizes[out++] = base.size(bid, i++);
+            }
+            sides[2 * s] = prices;
+            sides[2 * s + 1] = sizes;
+            counts[s] = out;
+        }
+        return new FixedPointBook(sides[0], sides[1], counts[0], sides[2], sides[3], counts[1]);
+    }
+}
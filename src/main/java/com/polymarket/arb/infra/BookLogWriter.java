@@ -0,0 +1,393 @@
+package com.polymarket.arb.infra;
+
+import com.polymarket.arb.domain.FixedPointBook;
+import com.polymarket.arb.domain.Market;
+import com.polymarket.arb.domain.OrderBook;
+import com.polymarket.arb.domain.TokenDictionary;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static com.polymarket.arb.infra.BookLogFormat.*;
+
+/**
+ * Appends market metadata and book updates to a {@link BookLogFormat} log through
+ * memory-mapped segments. A book is written as a delta against the previous book of its
+ * token (changed price levels only), and in full on first sight, after every
+ * {@code snapshotEvery} deltas of the token and at the start of each segment.
+ * Thread-safe; each call is one short critical section and never blocks on disk: a
+ * finished segment is flushed on a background thread and unmapped once collected.
+ */
+@Slf4j
+public final class BookLogWriter implements Closeable {
+
+    private final Path dir;
+    private final int segmentBytes;
+    private final int snapshotEvery;
+
+    private MappedByteBuffer segment;
+    private int segmentIndex;
+
+    // Per segment, keyed by TokenDictionary key
+    private final BitSet declared = new BitSet();
+    private OrderBook[] last = new OrderBook[1024];
+    private int[] sinceFull = new int[1024];
+    // Latest recorded metadata per market, re-declared at the start of each segment
+    private final Map<String, Market> markets = new LinkedHashMap<>();
+
+    private long fullBooks;
+    private long deltaBooks;
+    private boolean closed;
+
+    // Forces rolled-over segments, in roll order
+    private final ExecutorService retirer = Executors.newSingleThreadExecutor(
+            Thread.ofPlatform().name("book-log-retire").daemon().factory());
+
+    public BookLogWriter(Path dir, int segmentBytes, int snapshotEvery) throws IOException {
+        this.dir = dir;
+        this.segmentBytes = segmentBytes;
+        this.snapshotEvery = Math.max(1, snapshotEvery);
+        Files.createDirectories(dir);
+        List<Path> existing = segments(dir);
+        // Never append to a segment from an earlier run
+        this.segmentIndex = existing.isEmpty() ? 0 : segmentIndex(existing.get(existing.size() - 1));
+        openSegment();
+    }
+
+    /**
+     * Metadata (if changed since last recorded) plus every outcome book of the market.
+     */
+    public synchronized void record(Market market) {
+        if (closed) {
+            return;
+        }
+        Market known = markets.get(market.getMarketId());
+        if (known == null || !sameMetadata(known, market)) {
+            reserve(marketBound(market));
+            writeMarket(market);
+            markets.put(market.getMarketId(), market);
+        }
+        for (int i = 0; i < market.getOutcomeCount(); i++) {
+            OrderBook book = market.getBook(i);
+            if (book != null) {
+                writeBook(market.getOutcomeIds().get(i), book);
+            }
+        }
+    }
+
+    public synchronized void remove(String marketId) {
+        if (closed || markets.remove(marketId) == null) {
+            return;
+        }
+        reserve(RECORD_HEADER_BYTES + stringBound(marketId));
+        int start = begin(REMOVE);
+        putString(segment, marketId);
+        end(start);
+    }
+
+    public synchronized long getFullBooks() {
+        return fullBooks;
+    }
+
+    public synchronized long getDeltaBooks() {
+        return deltaBooks;
+    }
+
+    /**
+     * Flushes every segment to disk, waiting for rolled-over ones still being retired.
+     */
+    @Override
+    public synchronized void close() {
+        if (!closed) {
+            closed = true;
+            retire(segment);
+            retirer.shutdown();
+            try {
+                if (!retirer.awaitTermination(30, TimeUnit.SECONDS)) {
+                    log.warn("Book log segments still flushing after 30s");
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private void writeBook(String tokenId, OrderBook book) {
+        int key = TokenDictionary.intern(tokenId);
+        ensureKey(key);
+        OrderBook previous = last[key];
+        if (previous == book || (previous != null && previous.fixedPoint() == book.fixedPoint())) {
+            return; // Same book republished with its market
+        }
+        reserve(bookBound(tokenId, book, previous != null ? previous.fixedPoint() : null));
+        previous = last[key]; // A roll re-bases the token on a fresh full book, or forgets it
+
+        FixedPointBook base = previous != null ? previous.fixedPoint() : null;
+        declare(key, tokenId);
+        if (base == null || sinceFull[key] >= snapshotEvery || !deltaSafe(book.fixedPoint()) || !deltaSafe(base)) {
+            writeFull(key, book);
+        } else {
+            writeDelta(key, book, base);
+        }
+        last[key] = book;
+    }
+
+    private void writeFull(int key, OrderBook book) {
+        int start = begin(BOOK_FULL);
+        putBookHeader(key, book);
+        FixedPointBook fp = book.fixedPoint();
+        for (boolean bid : new boolean[] { true, false }) {
+            int n = fp.levelCount(bid);
+            putVarLong(segment, n);
+            long prevPrice = 0;
+            for (int i = 0; i < n; i++) {
+                putZigZag(segment, fp.price(bid, i) - prevPrice);
+                putVarLong(segment, fp.size(bid, i));
+                prevPrice = fp.price(bid, i);
+            }
+        }
+        end(start);
+        sinceFull[key] = 0;
+        fullBooks++;
+    }
+
+    // Merge walk of both sides in book order; emits levels that appeared, changed size or vanished
+    private void writeDelta(int key, OrderBook book, FixedPointBook base) {
+        int start = begin(BOOK_DELTA);
+        putBookHeader(key, book);
+        FixedPointBook fp = book.fixedPoint();
+        for (boolean bid : new boolean[] { true, false }) {
+            int countAt = segment.position();
+            segment.putInt(0); // Patched below
+            int changes = 0;
+            long prevPrice = 0;
+            int i = 0, j = 0;
+            int n = base.levelCount(bid), m = fp.levelCount(bid);
+            while (i < n || j < m) {
+                long oldPrice = i < n ? base.price(bid, i) : 0;
+                long newPrice = j < m ? fp.price(bid, j) : 0;
+                int order = i >= n ? 1 : j >= m ? -1 : compare(oldPrice, newPrice, bid);
+                long price, size;
+                if (order < 0) { // Level gone
+                    price = oldPrice;
+                    size = 0;
+                    i++;
+                } else if (order > 0) { // New level
+                    price = newPrice;
+                    size = fp.size(bid, j);
+                    j++;
+                } else {
+                    long oldSize = base.size(bid, i++);
+                    size = fp.size(bid, j++);
+                    price = newPrice;
+                    if (oldSize == size) {
+                        continue;
+                    }
+                }
+                putZigZag(segment, price - prevPrice);
+                putVarLong(segment, size);
+                prevPrice = price;
+                changes++;
+            }
+            segment.putInt(countAt, changes);
+        }
+        end(start);
+        sinceFull[key]++;
+        deltaBooks++;
+    }
+
+    // Negative when a comes first in book order (bids descending, asks ascending)
+    static int compare(long a, long b, boolean bid) {
+        return bid ? Long.compare(b, a) : Long.compare(a, b);
+    }
+
+    private void putBookHeader(int key, OrderBook book) {
+        putVarLong(segment, key);
+        putVarLong(segment, Math.max(0, book.getExchangeTimestamp()));
+        putString(segment, book.getHash());
+    }
+
+    private void writeMarket(Market market) {
+        List<String> tokens = market.getOutcomeIds() != null ? market.getOutcomeIds() : List.of();
+        int[] keys = new int[tokens.size()];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = TokenDictionary.intern(tokens.get(i));
+            ensureKey(keys[i]);
+            declare(keys[i], tokens.get(i));
+        }
+        int start = begin(MARKET);
+        putString(segment, market.getMarketId());
+        putString(segment, market.getConditionId());
+        putString(segment, market.getEventId());
+        putString(segment, market.getQuestion());
+        segment.put((byte) ((market.isNegRisk() ? NEG_RISK : 0) | (market.isActive() ? ACTIVE : 0)
+                | (market.isClosed() ? CLOSED : 0) | (market.isAcceptingOrders() ? ACCEPTING_ORDERS : 0)));
+        putVarLong(segment, keys.length);
+        for (int key : keys) {
+            putVarLong(segment, key);
+        }
+        end(start);
+    }
+
+    private void declare(int key, String tokenId) {
+        if (declared.get(key)) {
+            return;
+        }
+        int start = begin(TOKEN);
+        putVarLong(segment, key);
+        putString(segment, tokenId);
+        end(start);
+        declared.set(key);
+    }
+
+    private int begin(byte type) {
+        int start = segment.position();
+        segment.position(start + 4);
+        segment.put(type);
+        segment.putLong(System.currentTimeMillis());
+        return start;
+    }
+
+    // Length last: a reader tailing the segment never sees a half-written record
+    private void end(int start) {
+        segment.putInt(start, segment.position() - start - 4);
+    }
+
+    /**
+     * Rolls to a new segment unless {@code bytes} (plus the end marker) still fit.
+     */
+    private void reserve(int bytes) {
+        if (segment.remaining() >= bytes + 4) {
+            return;
+        }
+        roll();
+        if (segment.remaining() < bytes + 4) {
+            throw new IllegalStateException("Record of " + bytes + " bytes does not fit a fresh segment");
+        }
+    }
+
+    // New segment opens with the current state: every known market and the last book of its tokens
+    private void roll() {
+        retire(segment);
+        OrderBook[] books = last;
+        try {
+            openSegment();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        for (Market market : markets.values()) {
+            if (segment.remaining() < marketBound(market) + 4) {
+                throw new IllegalStateException("Segment of " + segmentBytes + " bytes cannot hold the market state");
+            }
+            writeMarket(market);
+            for (String tokenId : market.getOutcomeIds() != null ? market.getOutcomeIds() : List.<String>of()) {
+                int key = TokenDictionary.intern(tokenId);
+                if (key < books.length && books[key] != null) {
+                    if (segment.remaining() < bookBound(tokenId, books[key], null) + 4) {
+                        throw new IllegalStateException(
+                                "Segment of " + segmentBytes + " bytes cannot hold the book state");
+                    }
+                    writeFull(key, books[key]);
+                    last[key] = books[key];
+                }
+            }
+        }
+        log.info("Book log rolled to {} ({} markets carried over)", segmentName(segmentIndex), markets.size());
+    }
+
+    private void openSegment() throws IOException {
+        segmentIndex++;
+        Path file = dir.resolve(segmentName(segmentIndex));
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ,
+                StandardOpenOption.WRITE)) {
+            segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentBytes); // Stays valid after close
+        }
+        segment.putInt(MAGIC);
+        segment.putShort(VERSION);
+        segment.putShort((short) 0);
+        declared.clear();
+        last = new OrderBook[last.length];
+        sinceFull = new int[sinceFull.length];
+    }
+
+    // The writer never touches a segment again once it is handed over here; dropping the last
+    // reference leaves the mapping for the GC to release
+    private void retire(MappedByteBuffer finished) {
+        retirer.execute(() -> {
+            try {
+                finished.force();
+            } catch (RuntimeException e) {
+                log.error("Failed to flush book log segment", e);
+            }
+        });
+    }
+
+    private void ensureKey(int key) {
+        if (key >= last.length) {
+            int size = Math.max(key + 1, last.length * 2);
+            last = Arrays.copyOf(last, size);
+            sinceFull = Arrays.copyOf(sinceFull, size);
+        }
+    }
+
+    // Deltas key levels by price and use size 0 for removal: duplicate prices or empty
+    // levels only round-trip as a full book
+    private static boolean deltaSafe(FixedPointBook fp) {
+        for (boolean bid : new boolean[] { true, false }) {
+            for (int i = 0; i < fp.levelCount(bid); i++) {
+                if (fp.size(bid, i) == 0 || (i > 0 && fp.price(bid, i) == fp.price(bid, i - 1))) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    // Worst cases: 10-byte varints, 3 bytes per char; a token declaration may precede the record
+    private static int marketBound(Market market) {
+        int bound = RECORD_HEADER_BYTES + 1 + 10 + stringBound(market.getMarketId())
+                + stringBound(market.getConditionId()) + stringBound(market.getEventId())
+                + stringBound(market.getQuestion());
+        if (market.getOutcomeIds() != null) {
+            for (String tokenId : market.getOutcomeIds()) {
+                bound += 10 + RECORD_HEADER_BYTES + 10 + stringBound(tokenId);
+            }
+        }
+        return bound;
+    }
+
+    private static int bookBound(String tokenId, OrderBook book, FixedPointBook base) {
+        FixedPointBook fp = book.fixedPoint();
+        int levels = fp.levelCount(true) + fp.levelCount(false)
+                + (base != null ? base.levelCount(true) + base.levelCount(false) : 0);
+        return RECORD_HEADER_BYTES + 10 + stringBound(tokenId) // Token declaration
+                + RECORD_HEADER_BYTES + 20 + stringBound(book.getHash()) + 2 * 10 + levels * 20;
+    }
+
+    private static boolean sameMetadata(Market a, Market b) {
+        return Objects.equals(a.getConditionId(), b.getConditionId())
+                && Objects.equals(a.getEventId(), b.getEventId())
+                && Objects.equals(a.getQuestion(), b.getQuestion())
+                && Objects.equals(a.getOutcomeIds(), b.getOutcomeIds())
+                && a.isNegRisk() == b.isNegRisk()
+                && a.isActive() == b.isActive()
+                && a.isClosed() == b.isClosed()
+                && a.isAcceptingOrders() == b.isAcceptingOrders();
+    }
+}
@@ -0,0 +1,184 @@
+package com.polymarket.arb.infra;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.socket.WebSocketMessage;
+import org.springframework.web.reactive.socket.WebSocketSession;
+import org.springframework.web.reactive.socket.client.ReactorNettyWebSocketClient;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.http.client.WebsocketClientSpec;
+import reactor.util.retry.Retry;
+
+import jakarta.annotation.PreDestroy;
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Subscription manager for the CLOB "market" WebSocket channel.
+ * Keeps one connection open for every tracked token, re-subscribes after reconnects
+ * and hands raw book / price_change events to a {@link Listener}.
+ */
+@Slf4j
+@Service
+public class ClobMarketStream {
+
+    public interface Listener {
+        void onBook(JsonNode event);
+
+        void onPriceChange(JsonNode event);
+
+        // Called after a reconnect: anything received before may be stale (gap)
+        void onReconnect();
+    }
+
+    private static final Duration PING_INTERVAL = Duration.ofSeconds(10);
+
+    private final URI uri;
+    private final ObjectMapper objectMapper;
+    private final ReactorNettyWebSocketClient client;
+
+    private final Set<String> subscribed = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean started = new AtomicBoolean(false);
+    private volatile Sinks.Many<String> outbound; // current session only
+    private volatile Listener listener;
+    private volatile Disposable connection;
+    private volatile boolean connectedOnce = false;
+
+    public ClobMarketStream(ObjectMapper objectMapper,
+            @Value("${polymarket.api.ws:wss://ws-subscriptions-clob.polymarket.com/ws/market}") String wsUrl) {
+        this.objectMapper = objectMapper;
+        this.uri = URI.create(wsUrl);
+        // Initial book dumps for hundreds of tokens easily exceed the 64k default frame size
+        this.client = new ReactorNettyWebSocketClient(HttpClient.create(),
+                () -> WebsocketClientSpec.builder().maxFramePayloadLength(16 * 1024 * 1024));
+    }
+
+    public void start(Listener listener) {
+        if (!started.compareAndSet(false, true)) {
+            return;
+        }
+        this.listener = listener;
+        this.connection = Mono.defer(() -> client.execute(uri, this::handleSession))
+                // Server closing the socket is a gap as well, go through the retry path
+                .then(Mono.<Void>error(new IllegalStateException("Market stream closed by server")))
+                .retryWhen(Retry.backoff(Long.MAX_VALUE, Duration.ofSeconds(1))
+                        .maxBackoff(Duration.ofSeconds(30))
+                        .doBeforeRetry(s -> log.warn("Market stream disconnected ({}), reconnecting...",
+                                s.failure().getMessage())))
+                .subscribe(null, e -> log.error("Market stream terminated", e));
+        log.info("Market stream started: {}", uri);
+    }
+
+    /**
+     * Adds tokens to the subscription. Already subscribed ids are ignored.
+     */
+    public void subscribe(Collection<String> tokenIds) {
+        List<String> added = new ArrayList<>();
+        for (String tokenId : tokenIds) {
+            if (subscribed.add(tokenId)) {
+                added.add(tokenId);
+            }
+        }
+        if (added.isEmpty()) {
+            return;
+        }
+        Sinks.Many<String> sink = outbound;
+        if (sink != null) {
+            sink.tryEmitNext(subscribeMessage(added, false));
+        }
+        // Otherwise the next session sends the full set on connect
+    }
+
+    public boolean isSubscribed(String tokenId) {
+        return subscribed.contains(tokenId);
+    }
+
+    public int getSubscriptionCount() {
+        return subscribed.size();
+    }
+
+    @PreDestroy
+    public void stop() {
+        Disposable c = connection;
+        if (c != null) {
+            c.dispose();
+        }
+        started.set(false);
+    }
+
+    private Mono<Void> handleSession(WebSocketSession session) {
+        Sinks.Many<String> sink = Sinks.many().unicast().onBackpressureBuffer();
+        this.outbound = sink;
+
+        if (connectedOnce) {
+            listener.onReconnect();
+        }
+        connectedOnce = true;
+        log.info("Market stream connected, subscribing {} tokens", subscribed.size());
+
+        Flux<WebSocketMessage> out = Flux.concat(
+                Mono.just(subscribeMessage(List.copyOf(subscribed), true)),
+                Flux.merge(sink.asFlux(), Flux.interval(PING_INTERVAL).map(i -> "PING")))
+                .map(session::textMessage);
+
+        Mono<Void> in = session.receive()
+                .map(WebSocketMessage::getPayloadAsText)
+                .doOnNext(this::dispatch)
+                .then();
+
+        return Mono.zip(session.send(out), in).then();
+    }
+
+    private String subscribeMessage(List<String> tokenIds, boolean initial) {
+        var node = objectMapper.createObjectNode();
+        var ids = node.putArray("assets_ids");
+        tokenIds.forEach(ids::add);
+        if (initial) {
+            node.put("type", "market");
+        } else {
+            node.put("operation", "subscribe");
+        }
+        return node.toString();
+    }
+
+    void dispatch(String payload) {
+        if (payload.isEmpty() || payload.charAt(0) != '{' && payload.charAt(0) != '[') {
+            return; // PONG and other keepalive noise
+        }
+        try {
+            JsonNode root = objectMapper.readTree(payload);
+            if (root.isArray()) {
+                for (JsonNode event : root) {
+                    dispatchEvent(event);
+                }
+            } else {
+                dispatchEvent(root);
+            }
+        } catch (Exception e) {
+            log.warn("Failed to handle market stream message", e);
+        }
+    }
+
+    private void dispatchEvent(JsonNode event) {
+        switch (event.path("event_type").asText()) {
+            case "book" -> listener.onBook(event);
+            case "price_change" -> listener.onPriceChange(event);
+            default -> {
+                // tick_size_change / last_trade_price are not used by the detectors
+            }
+        }
+    }
+}
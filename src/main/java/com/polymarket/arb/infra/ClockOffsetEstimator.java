@@ -0,0 +1,102 @@
+package com.polymarket.arb.infra;
+
+import org.springframework.stereotype.Component;
+
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * Offset of the exchange clock against ours (exchange - local, ms), from the Date header of
+ * API responses. A Date header only has second resolution, but the server stamped it somewhere
+ * between sending the request and receiving the response, so each response bounds the offset to
+ * [date - received, date + 999 - sent]. Intersecting the bounds of recent responses, whose
+ * sub-second phases differ, narrows the window well below a second.
+ * <p>
+ * Samples older than the window are dropped so clock drift and steps on either side
+ * are followed; a sample disjoint from the current bounds means the clocks stepped and
+ * restarts the estimate from it.
+ */
+@Component
+public class ClockOffsetEstimator {
+
+    private static final long WINDOW_MILLIS = 10 * 60_000;
+    private static final int MAX_SAMPLES = 512;
+
+    private record Sample(long at, long low, long high) {
+    }
+
+    private record Bounds(long low, long high) {
+    }
+
+    private final Deque<Sample> samples = new ArrayDeque<>();
+    private volatile Bounds bounds; // null until the first response
+
+    /**
+     * @param date       Date header of the response (RFC 1123), ignored when null or unparseable
+     * @param sentMillis local time the request was sent
+     * @param receivedMillis local time the response headers arrived
+     */
+    public void onResponse(String date, long sentMillis, long receivedMillis) {
+        if (date == null || receivedMillis < sentMillis) {
+            return;
+        }
+        long server;
+        try {
+            server = ZonedDateTime.parse(date, DateTimeFormatter.RFC_1123_DATE_TIME).toInstant().toEpochMilli();
+        } catch (DateTimeParseException e) {
+            return;
+        }
+        onSample(server, sentMillis, receivedMillis);
+    }
+
+    synchronized void onSample(long serverSecondMillis, long sentMillis, long receivedMillis) {
+        Sample sample = new Sample(receivedMillis, serverSecondMillis - receivedMillis,
+                serverSecondMillis + 999 - sentMillis);
+        while (!samples.isEmpty()
+                && (samples.size() >= MAX_SAMPLES || receivedMillis - samples.peekFirst().at() > WINDOW_MILLIS)) {
+            samples.pollFirst();
+        }
+        Bounds current = bounds;
+        if (current != null && (sample.low() > current.high() || sample.high() < current.low())) {
+            samples.clear(); // Disjoint: one of the clocks stepped
+        }
+        samples.addLast(sample);
+
+        long lo = Long.MIN_VALUE, hi = Long.MAX_VALUE;
+        for (Sample s : samples) {
+            lo = Math.max(lo, s.low());
+            hi = Math.min(hi, s.high());
+        }
+        bounds = new Bounds(lo, hi);
+    }
+
+    public boolean hasEstimate() {
+        return bounds != null;
+    }
+
+    /**
+     * Exchange clock minus local clock, ms; 0 until a response was seen.
+     */
+    public long offsetMillis() {
+        Bounds b = bounds;
+        return b == null ? 0 : b.low() + (b.high() - b.low()) / 2;
+    }
+
+    /**
+     * Half-width of the offset window, ms; -1 until a response was seen.
+     */
+    public long uncertaintyMillis() {
+        Bounds b = bounds;
+        return b == null ? -1 : (b.high() - b.low()) / 2;
+    }
+
+    /**
+     * An exchange timestamp on the local clock.
+     */
+    public long toLocalMillis(long exchangeMillis) {
+        return exchangeMillis - offsetMillis();
+    }
+}
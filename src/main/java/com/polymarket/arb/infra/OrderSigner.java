@@ -2,16 +2,31 @@ package com.polymarket.arb.infra;
 
 import lombok.Builder;
 import lombok.Data;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
+import org.bouncycastle.crypto.digests.KeccakDigest;
 import org.springframework.stereotype.Component;
 import org.web3j.crypto.Credentials;
+import org.web3j.crypto.ECKeyPair;
 import org.web3j.crypto.Hash;
 import org.web3j.crypto.Sign;
 import org.web3j.utils.Numeric;
 
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
 import java.math.BigInteger;
 import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 @Slf4j
 @Component
@@ -29,12 +44,39 @@ public class OrderSigner {
             "Order(uint256 salt,address maker,address signer,address taker,uint256 tokenId,uint256 makerAmount,uint256 takerAmount,uint256 expiration,uint256 nonce,uint256 feeRateBps,uint8 side,uint8 signatureType)"
                     .getBytes());
 
+    // Up to this many legs are signed one after the other on the caller: handing them to the
+    // signing pool costs more than it saves
+    static final int SEQUENTIAL_LEGS = 3;
+
+    private static final int CORES = Runtime.getRuntime().availableProcessors();
+    private static final VarHandle LONG_BE = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.BIG_ENDIAN);
+
     private final byte[] domainSeparator;
+    private final Map<String, byte[]> addressWords = new ConcurrentHashMap<>();
+
+    // Encoding buffers and keccak state. Signing runs on short-lived virtual threads, so sets
+    // are pooled across threads rather than kept per thread; an empty pool allocates a new one
+    private static final class Scratch {
+        final byte[] struct = new byte[13 * 32];
+        final byte[] digestInput = new byte[2 + 32 + 32];
+        final KeccakDigest keccak = new KeccakDigest(256);
+    }
+
+    private final ArrayBlockingQueue<Scratch> scratches = new ArrayBlockingQueue<>(2 * CORES);
+
+    // Legs of one batch beyond the first, bounded to the cores they can actually run on
+    private final ExecutorService signingPool = Executors.newFixedThreadPool(CORES,
+            Thread.ofPlatform().name("order-signer-", 0).daemon().factory());
 
     public OrderSigner() {
         this.domainSeparator = buildDomainSeparator();
     }
 
+    @PreDestroy
+    public void shutdown() {
+        signingPool.shutdown();
+    }
+
     @Data
     @Builder
     public static class Order {
@@ -53,35 +95,133 @@ public class OrderSigner {
     }
 
     public String signOrder(Order order, Credentials credentials) {
-        byte[] hashStruct = hashOrder(order);
+        return Numeric.toHexString(signDigest(digest(order), credentials.getEcKeyPair()));
+    }
 
-        // Final EIP-712 Hash: keccak256("\x19\x01" ‖ domainSeparator ‖
-        // hashStruct(message))
-        ByteBuffer buffer = ByteBuffer.allocate(2 + 32 + 32);
-        buffer.put((byte) 0x19);
-        buffer.put((byte) 0x01);
-        buffer.put(domainSeparator);
-        buffer.put(hashStruct);
+    /**
+     * Signatures of all orders, in order. Up to {@link #SEQUENTIAL_LEGS} legs (or on a single
+     * core) they are signed on the caller; otherwise all but the first go to the signing pool
+     * while the caller signs the first.
+     */
+    public List<String> signAll(List<Order> orders, Credentials credentials) {
+        if (orders.size() <= SEQUENTIAL_LEGS || CORES == 1) {
+            List<String> signatures = new ArrayList<>(orders.size());
+            for (Order order : orders) {
+                signatures.add(signOrder(order, credentials));
+            }
+            return signatures;
+        }
+        List<CompletableFuture<String>> rest = new ArrayList<>(orders.size() - 1);
+        for (Order order : orders.subList(1, orders.size())) {
+            rest.add(CompletableFuture.supplyAsync(() -> signOrder(order, credentials), signingPool));
+        }
+        List<String> signatures = new ArrayList<>(orders.size());
+        signatures.add(signOrder(orders.get(0), credentials));
+        try {
+            for (CompletableFuture<String> signature : rest) {
+                signatures.add(signature.join());
+            }
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException runtime ? runtime : e;
+        }
+        return signatures;
+    }
 
-        byte[] finalHash = Hash.sha3(buffer.array());
+    // Final EIP-712 hash: keccak256("\x19\x01" ‖ domainSeparator ‖ hashStruct(message))
+    byte[] digest(Order order) {
+        Scratch scratch = acquire();
+        try {
+            byte[] input = scratch.digestInput;
+            input[0] = 0x19;
+            input[1] = 0x01;
+            System.arraycopy(domainSeparator, 0, input, 2, 32);
+            hashStruct(order, scratch, input, 34);
+
+            byte[] digest = new byte[32];
+            scratch.keccak.update(input, 0, input.length);
+            scratch.keccak.doFinal(digest, 0);
+            return digest;
+        } finally {
+            scratches.offer(scratch);
+        }
+    }
 
-        Sign.SignatureData signatureData = Sign.signMessage(finalHash, credentials.getEcKeyPair(), false);
+    byte[] hashOrder(Order order) {
+        byte[] hash = new byte[32];
+        Scratch scratch = acquire();
+        try {
+            hashStruct(order, scratch, hash, 0);
+        } finally {
+            scratches.offer(scratch);
+        }
+        return hash;
+    }
 
-        // Combine into R, S, V formatted string/bytes
-        // Web3j produces V as 27 or 28, we need to ensure it fits standard if needed,
-        // but standard recover works with 27/28.
-        byte[] r = signatureData.getR();
-        byte[] s = signatureData.getS();
-        byte[] v = signatureData.getV();
+    // doFinal resets the digest, so a returned set is always clean; a full pool drops it
+    private Scratch acquire() {
+        Scratch scratch = scratches.poll();
+        return scratch != null ? scratch : new Scratch();
+    }
+
+    // keccak256(abi.encode(ORDER_TYPEHASH, salt, maker, signer, taker, tokenId, makerAmount,
+    // takerAmount, expiration, nonce, feeRateBps, side, signatureType)) written to out[offset..+32].
+    // Every field is one 32-byte word (side and signatureType are uint8, expanded by abi.encode)
+    private void hashStruct(Order o, Scratch scratch, byte[] out, int offset) {
+        byte[] words = scratch.struct;
+        System.arraycopy(ORDER_TYPEHASH, 0, words, 0, 32);
+        putUint256(words, 32, o.salt);
+        System.arraycopy(addressWord(o.maker), 0, words, 64, 32);
+        System.arraycopy(addressWord(o.signer), 0, words, 96, 32);
+        System.arraycopy(addressWord(o.taker), 0, words, 128, 32);
+        putUint256(words, 160, o.tokenId);
+        putUint256(words, 192, o.makerAmount);
+        putUint256(words, 224, o.takerAmount);
+        putUint256(words, 256, o.expiration);
+        putUint256(words, 288, o.nonce);
+        putUint256(words, 320, o.feeRateBps);
+        putUint256(words, 352, o.side);
+        putUint256(words, 384, o.signatureType);
+
+        scratch.keccak.update(words, 0, words.length);
+        scratch.keccak.doFinal(out, offset);
+    }
+
+    // Orders carry the wallet address as maker and signer and the zero address as taker:
+    // each is parsed and padded once for the process lifetime
+    private byte[] addressWord(String address) {
+        return addressWords.computeIfAbsent(address,
+                a -> Numeric.toBytesPadded(new BigInteger(Numeric.cleanHexPrefix(a), 16), 32));
+    }
 
-        // Polymarket CLOB expects hex string of joined signature components
-        // signature = r + s + v (65 bytes) -> hex
-        ByteBuffer sigBuffer = ByteBuffer.allocate(65);
-        sigBuffer.put(r);
-        sigBuffer.put(s);
-        sigBuffer.put(v);
+    private static void putUint256(byte[] buf, int offset, BigInteger value) {
+        if (value.signum() < 0 || value.bitLength() > 256) {
+            throw new IllegalArgumentException("Not a uint256: " + value);
+        }
+        if (value.bitLength() < 64) {
+            putUint256(buf, offset, value.longValue());
+            return;
+        }
+        byte[] bytes = value.toByteArray(); // May carry a leading sign byte
+        int length = Math.min(bytes.length, 32);
+        Arrays.fill(buf, offset, offset + 32 - length, (byte) 0);
+        System.arraycopy(bytes, bytes.length - length, buf, offset + 32 - length, length);
+    }
 
-        return Numeric.toHexString(sigBuffer.array());
+    private static void putUint256(byte[] buf, int offset, long value) {
+        Arrays.fill(buf, offset, offset + 24, (byte) 0);
+        LONG_BE.set(buf, offset + 24, value);
+    }
+
+    /**
+     * @return r ‖ s ‖ v, 65 bytes
+     */
+    static byte[] signDigest(byte[] digest, ECKeyPair keyPair) {
+        Sign.SignatureData sig = Sign.signMessage(digest, keyPair, false);
+        byte[] signature = new byte[65];
+        System.arraycopy(sig.getR(), 0, signature, 0, 32);
+        System.arraycopy(sig.getS(), 0, signature, 32, 32);
+        signature[64] = sig.getV()[0];
+        return signature;
     }
 
     private byte[] buildDomainSeparator() {
@@ -102,39 +242,6 @@ public class OrderSigner {
                 Numeric.toBytesPadded(new BigInteger(EXCHANGE_ADDRESS.substring(2), 16), 32)));
     }
 
-    private byte[] hashOrder(Order o) {
-        // keccak256(abi.encode(
-        // ORDER_TYPEHASH,
-        // salt,
-        // maker,
-        // signer,
-        // taker,
-        // tokenId,
-        // makerAmount,
-        // takerAmount,
-        // expiration,
-        // nonce,
-        // feeRateBps,
-        // side,
-        // signatureType
-        // ))
-
-        return Hash.sha3(concat(
-                ORDER_TYPEHASH,
-                Numeric.toBytesPadded(o.salt, 32),
-                Numeric.toBytesPadded(new BigInteger(o.maker.substring(2), 16), 32),
-                Numeric.toBytesPadded(new BigInteger(o.signer.substring(2), 16), 32),
-                Numeric.toBytesPadded(new BigInteger(o.taker.substring(2), 16), 32),
-                Numeric.toBytesPadded(o.tokenId, 32),
-                Numeric.toBytesPadded(o.makerAmount, 32),
-                Numeric.toBytesPadded(o.takerAmount, 32),
-                Numeric.toBytesPadded(o.expiration, 32),
-                Numeric.toBytesPadded(o.nonce, 32),
-                Numeric.toBytesPadded(o.feeRateBps, 32),
-                Numeric.toBytesPadded(BigInteger.valueOf(o.side), 32), // side is unit8 but expanded in abi.encode
-                Numeric.toBytesPadded(BigInteger.valueOf(o.signatureType), 32)));
-    }
-
     private byte[] concat(byte[]... arrays) {
         int totalLength = Arrays.stream(arrays).mapToInt(a -> a.length).sum();
         ByteBuffer buffer = ByteBuffer.allocate(totalLength);
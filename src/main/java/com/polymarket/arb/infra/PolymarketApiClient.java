@@ -1,8 +1,21 @@
 package com.polymarket.arb.infra;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.util.ByteArrayBuilder;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.polymarket.arb.domain.EventMetadata;
+import com.polymarket.arb.domain.MarketMetadata;
+import com.polymarket.arb.domain.OrderBook;
+import com.polymarket.arb.infra.ApiRateLimiters.Endpoint;
+import jakarta.annotation.PreDestroy;
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.ConnectionPool;
+import okhttp3.Dispatcher;
 import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
 import okhttp3.Request;
 import okhttp3.Response;
 import java.util.concurrent.TimeUnit;
@@ -11,177 +24,493 @@ import org.springframework.beans.factory.annotation.Value;
 import lombok.extern.slf4j.Slf4j;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.function.Function;
 
 @Slf4j
 @Service
 public class PolymarketApiClient {
 
+    private static final int MAX_ATTEMPTS = 3;
+    private static final long IO_RETRY_DELAY_MS = 500;
+    // Orders per POST /orders request accepted by the CLOB
+    static final int MAX_BATCH_ORDERS = 15;
+    private static final okhttp3.MediaType JSON = okhttp3.MediaType.parse("application/json");
+
     private final OkHttpClient httpClient;
+    private final OkHttpClient orderClient;
     private final ObjectMapper objectMapper;
+    private final ApiRateLimiters rateLimiters;
+    private final ArbMetrics metrics;
+    private final ClockOffsetEstimator clock;
+
+    // Rate-limit waits and retries are timers, not sleeping threads
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("api-scheduler").daemon().factory());
 
-    private static final String GAMMA_API_URL = "https://gamma-api.polymarket.com";
-    private static final String CLOB_API_URL = "https://clob.polymarket.com";
+    private final String gammaApiUrl;
+    private final String clobApiUrl;
 
     // Mimic Chrome User-Agent
     private static final String USER_AGENT = "Mozilla/5.0 (Macintosh; Intel Mac OS X 10_15_7) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/120.0.0.0 Safari/537.36";
 
-    public PolymarketApiClient(ObjectMapper objectMapper, @Value("${app.private-key:}") String privateKey) {
+    /**
+     * Result of POST /order as reported by the CLOB.
+     */
+    public record OrderResult(boolean success, String orderId, String status, String errorMsg) {
+    }
+
+    /**
+     * An order with its EIP-712 signature, ready to post.
+     */
+    public record SignedOrder(OrderSigner.Order order, String signature) {
+    }
+
+    public PolymarketApiClient(ObjectMapper objectMapper,
+            @Value("${app.private-key:}") String privateKey,
+            @Value("${polymarket.api.gamma:https://gamma-api.polymarket.com}") String gammaApiUrl,
+            @Value("${polymarket.api.clob:https://clob.polymarket.com}") String clobApiUrl,
+            ApiRateLimiters rateLimiters,
+            ArbMetrics metrics,
+            ClockOffsetEstimator clock,
+            @Value("${polymarket.http.max-requests-per-host:16}") int maxRequestsPerHost,
+            @Value("${polymarket.http.max-requests:64}") int maxRequests) {
         this.objectMapper = objectMapper;
+        this.rateLimiters = rateLimiters;
+        this.metrics = metrics;
+        this.clock = clock;
+        this.gammaApiUrl = gammaApiUrl;
+        this.clobApiUrl = clobApiUrl;
         // Use COMPATIBLE_TLS to ensure handshake success with some strict servers
         okhttp3.ConnectionSpec spec = new okhttp3.ConnectionSpec.Builder(okhttp3.ConnectionSpec.MODERN_TLS)
                 .allEnabledTlsVersions()
                 .allEnabledCipherSuites()
                 .build();
 
+        // In-flight calls are capped per host by the dispatcher; queued calls hold no thread.
+        // Calls run on virtual threads, multiplexed over pooled HTTP/2 connections where offered.
+        Dispatcher dispatcher = new Dispatcher(Executors.newVirtualThreadPerTaskExecutor());
+        dispatcher.setMaxRequestsPerHost(maxRequestsPerHost);
+        dispatcher.setMaxRequests(maxRequests);
+
         this.httpClient = new OkHttpClient.Builder()
                 .connectionSpecs(java.util.Arrays.asList(spec, okhttp3.ConnectionSpec.CLEARTEXT))
+                .protocols(List.of(Protocol.HTTP_2, Protocol.HTTP_1_1))
+                .dispatcher(dispatcher)
+                .connectionPool(new ConnectionPool(maxRequestsPerHost, 5, TimeUnit.MINUTES))
                 .readTimeout(60, TimeUnit.SECONDS) // Liberal timeout
                 .connectTimeout(30, TimeUnit.SECONDS)
                 .retryOnConnectionFailure(true)
                 .build();
+
+        // Orders get their own dispatcher (same connection pool and settings): a backlog of
+        // book reads holding every per-host slot must never delay an order
+        Dispatcher orderDispatcher = new Dispatcher(Executors.newVirtualThreadPerTaskExecutor());
+        orderDispatcher.setMaxRequestsPerHost(maxRequestsPerHost);
+        orderDispatcher.setMaxRequests(maxRequests);
+        this.orderClient = httpClient.newBuilder()
+                .dispatcher(orderDispatcher)
+                .build();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+        httpClient.dispatcher().executorService().shutdown();
+        orderClient.dispatcher().executorService().shutdown();
     }
 
-    public JsonNode getMarkets(int limit, String offset) {
-        String url = GAMMA_API_URL + "/markets?limit=" + limit + "&active=true&closed=false";
+    public List<MarketMetadata> getMarkets(int limit, String offset) {
+        return await(getMarketsAsync(limit, offset));
+    }
+
+    public CompletableFuture<List<MarketMetadata>> getMarketsAsync(int limit, String offset) {
+        String url = gammaApiUrl + "/markets?limit=" + limit + "&active=true&closed=false";
         if (offset != null && !offset.isEmpty()) {
             url += "&offset=" + offset;
         }
-        return executeRequest(url);
+        return executeAsync(Endpoint.GAMMA, requestBuilder(url).build(), true, body -> {
+            try (JsonParser parser = objectMapper.getFactory().createParser(body)) {
+                return ApiPayloadDecoder.decodeMarkets(parser);
+            }
+        }).thenApply(markets -> markets != null ? markets : List.of());
+    }
+
+    /**
+     * Events with all of their markets; every market carries its eventId.
+     */
+    public CompletableFuture<List<EventMetadata>> getEventsAsync(int limit, String offset) {
+        String url = gammaApiUrl + "/events?limit=" + limit + "&active=true&closed=false";
+        if (offset != null && !offset.isEmpty()) {
+            url += "&offset=" + offset;
+        }
+        return executeAsync(Endpoint.GAMMA, requestBuilder(url).build(), true, body -> {
+            try (JsonParser parser = objectMapper.getFactory().createParser(body)) {
+                return ApiPayloadDecoder.decodeEvents(parser);
+            }
+        }).thenApply(events -> events != null ? events : List.of());
+    }
+
+    public OrderBook getOrderBook(String token_id) {
+        return await(getOrderBookAsync(token_id));
+    }
+
+    public CompletableFuture<OrderBook> getOrderBookAsync(String token_id) {
+        String url = clobApiUrl + "/book?token_id=" + token_id;
+        return executeAsync(Endpoint.CLOB_BOOK, requestBuilder(url).build(), true, body -> {
+            try (JsonParser parser = objectMapper.getFactory().createParser(body)) {
+                return ApiPayloadDecoder.decodeBook(parser, token_id);
+            }
+        }).thenApply(book -> book != null ? book : ApiPayloadDecoder.emptyBook(token_id));
     }
 
-    public JsonNode getOrderBook(String token_id) {
-        String url = CLOB_API_URL + "/book?token_id=" + token_id;
-        return executeRequest(url);
+    /**
+     * Books for many tokens in one POST /books call, keyed by token id.
+     * Tokens without a book on the CLOB are absent from the result.
+     */
+    public Map<String, OrderBook> getOrderBooks(Collection<String> tokenIds) {
+        return await(getOrderBooksAsync(tokenIds));
     }
 
-    public void submitOrder(OrderSigner.Order order, String signature) {
-        // ... (keep existing implementation, omitted for brevity but technically this
-        // tool replaces blocks)
-        // Wait, I cannot omit if I'm replacing the whole block.
-        // I will implement submitOrder fully again to be safe.
+    public CompletableFuture<Map<String, OrderBook>> getOrderBooksAsync(Collection<String> tokenIds) {
+        return getOrderBooksAsync(tokenIds, tokenId -> null);
+    }
 
+    /**
+     * As above; tokens whose book hash matches the one in {@code knownBooks} come back as
+     * that same instance, without their levels being parsed.
+     */
+    public CompletableFuture<Map<String, OrderBook>> getOrderBooksAsync(Collection<String> tokenIds,
+            Function<String, OrderBook> knownBooks) {
+        if (tokenIds.isEmpty()) {
+            return CompletableFuture.completedFuture(Map.of());
+        }
+        byte[] payload;
         try {
-            var orderNode = objectMapper.createObjectNode();
-            orderNode.put("salt", order.getSalt());
-            orderNode.put("maker", order.getMaker());
-            orderNode.put("signer", order.getSigner());
-            orderNode.put("taker", order.getTaker());
-            orderNode.put("tokenId", order.getTokenId());
-            orderNode.put("makerAmount", order.getMakerAmount());
-            orderNode.put("takerAmount", order.getTakerAmount());
-            orderNode.put("expiration", order.getExpiration());
-            orderNode.put("nonce", order.getNonce());
-            orderNode.put("feeRateBps", order.getFeeRateBps());
-            orderNode.put("side", order.getSide() == 0 ? "BUY" : "SELL");
-            orderNode.put("signatureType", order.getSignatureType());
-
-            var payload = objectMapper.createObjectNode();
-            payload.set("order", orderNode);
-            payload.put("owner", order.getMaker());
-            payload.put("orderType", "GTC");
-            payload.put("signature", signature);
-
-            String jsonPayload = objectMapper.writeValueAsString(payload);
-
-            Request request = new Request.Builder()
-                    .url(CLOB_API_URL + "/order")
-                    .post(okhttp3.RequestBody.create(jsonPayload, okhttp3.MediaType.parse("application/json")))
-                    .header("User-Agent", USER_AGENT)
-                    .header("Origin", "https://polymarket.com") // Make it look like official site
-                    .build();
-
-            try (Response response = httpClient.newCall(request).execute()) {
-                if (!response.isSuccessful()) {
-                    String body = response.body() != null ? response.body().string() : "null";
-                    log.error("[REAL-EXECUTION] Order Submission Failed: {} {}", response.code(), body);
-                } else {
-                    log.info("[REAL-EXECUTION] Order Submitted Successfully! Response: {}", response.body().string());
+            payload = encodeBookRequest(tokenIds);
+        } catch (IOException e) {
+            return CompletableFuture.failedFuture(new RuntimeException("Failed to encode /books request", e));
+        }
+        Request request = requestBuilder(clobApiUrl + "/books")
+                .post(okhttp3.RequestBody.create(payload, JSON))
+                .build();
+
+        return executeAsync(Endpoint.CLOB_BOOK, request, true, in -> {
+            try (JsonParser parser = objectMapper.getFactory().createParser(in)) {
+                return ApiPayloadDecoder.decodeBooks(parser, knownBooks);
+            }
+        }).thenApply(books -> {
+            Map<String, OrderBook> byToken = new HashMap<>();
+            if (books != null) {
+                for (OrderBook book : books) {
+                    if (book.getMarketId() != null) {
+                        byToken.put(book.getMarketId(), book);
+                    }
                 }
             }
+            return byToken;
+        });
+    }
+
+    /**
+     * @return whether the CLOB acknowledged the order
+     */
+    public boolean submitOrder(OrderSigner.Order order, String signature) {
+        try {
+            OrderResult result = submitOrderAsync(order, signature).join();
+            if (result.success()) {
+                log.info("[REAL-EXECUTION] Order Submitted Successfully! Response: {}", result);
+            } else {
+                log.error("[REAL-EXECUTION] Order Submission Failed: {}", result);
+            }
+            return result.success();
         } catch (Exception e) {
             log.error("[REAL-EXECUTION] Failed to submit order", e);
+            return false;
         }
     }
 
-    // Global Rate Limiter: 4 requests per second
-    private final RateLimiter rateLimiter = new RateLimiter(4.0);
-
-    private JsonNode executeRequest(String url) {
-        rateLimiter.acquire();
+    /**
+     * Submits on the CLOB_ORDER bucket through the order dispatcher, so it never queues behind book reads.
+     * Retried on 429 only: after a network error the order may already be live.
+     */
+    public CompletableFuture<OrderResult> submitOrderAsync(OrderSigner.Order order, String signature) {
+        byte[] payload;
+        try {
+            payload = encodeOrders(List.of(new SignedOrder(order, signature)), false);
+        } catch (IOException e) {
+            return CompletableFuture.failedFuture(new RuntimeException("Failed to encode order", e));
+        }
 
         Request request = new Request.Builder()
-                .url(url)
+                .url(clobApiUrl + "/order")
+                .post(okhttp3.RequestBody.create(payload, JSON))
                 .header("User-Agent", USER_AGENT)
-                .header("Accept", "application/json")
-                .header("Origin", "https://polymarket.com")
-                .header("Referer", "https://polymarket.com/")
+                .header("Origin", "https://polymarket.com") // Make it look like official site
                 .build();
 
-        int retries = 3;
-        for (int i = 0; i < retries; i++) {
-            try (Response response = httpClient.newCall(request).execute()) {
-                if (!response.isSuccessful()) {
-                    if (response.code() == 429 && i < retries - 1) {
-                        // Backoff for 429
-                        try {
-                            Thread.sleep(1000 * (i + 1));
-                        } catch (InterruptedException ignored) {
-                        }
-                        continue;
-                    }
-                    throw new RuntimeException("API Request failed: " + response.code() + " " + response.message());
-                }
-                if (response.body() == null)
-                    return null;
-                return objectMapper.readTree(response.body().string());
-            } catch (IOException e) {
-                if (i == retries - 1) {
-                    throw new RuntimeException("Failed to call API after retries: " + url, e);
-                }
-                // Transient network error, wait and retry
-                try {
-                    Thread.sleep(500);
-                } catch (InterruptedException ignored) {
-                }
+        return executeAsync(Endpoint.CLOB_ORDER, request, false, body -> orderResult(objectMapper.readTree(body)));
+    }
+
+    /**
+     * All orders through POST /orders, one result per order in the same order. A request
+     * that fails as a whole fails each of its orders.
+     */
+    public List<OrderResult> submitOrders(List<SignedOrder> orders) {
+        List<OrderResult> results = submitOrdersAsync(orders).join();
+        for (int i = 0; i < results.size(); i++) {
+            OrderResult result = results.get(i);
+            if (result.success()) {
+                log.info("[REAL-EXECUTION] Batch order {} submitted: {}", i, result);
+            } else {
+                log.error("[REAL-EXECUTION] Batch order {} failed: {}", i, result);
             }
         }
-        return null; // Should not reach here
+        return results;
     }
 
     /**
-     * Simple Token Bucket Rate Limiter
+     * As above, split into requests of at most {@value #MAX_BATCH_ORDERS} orders sent together.
+     * Never retried on network errors, like single orders.
      */
-    private static class RateLimiter {
-        private final double permitsPerSecond;
-        private long lastSync = System.nanoTime();
-        private double storedPermits = 0.0;
+    public CompletableFuture<List<OrderResult>> submitOrdersAsync(List<SignedOrder> orders) {
+        List<CompletableFuture<OrderResult>> each = submitOrdersEach(orders);
+        return CompletableFuture.allOf(each.toArray(CompletableFuture[]::new))
+                .thenApply(done -> each.stream().map(CompletableFuture::join).toList());
+    }
 
-        public RateLimiter(double permitsPerSecond) {
-            this.permitsPerSecond = permitsPerSecond;
+    /**
+     * As above, one future per order: each completes with the response of the request that
+     * carried it, so a slow request does not hold back the results of the others.
+     */
+    public List<CompletableFuture<OrderResult>> submitOrdersEach(List<SignedOrder> orders) {
+        List<CompletableFuture<OrderResult>> results = new ArrayList<>(orders.size());
+        for (int from = 0; from < orders.size(); from += MAX_BATCH_ORDERS) {
+            int to = Math.min(orders.size(), from + MAX_BATCH_ORDERS);
+            CompletableFuture<List<OrderResult>> chunk = submitBatch(orders.subList(from, to));
+            for (int i = 0; i < to - from; i++) {
+                int index = i;
+                results.add(chunk.thenApply(chunkResults -> chunkResults.get(index)));
+            }
         }
+        return results;
+    }
 
-        public synchronized void acquire() {
-            long now = System.nanoTime();
-            double newPermits = (now - lastSync) / 1_000_000_000.0 * permitsPerSecond;
-            storedPermits = Math.min(1.0, storedPermits + newPermits); // Max burst 1.0
-            lastSync = now;
+    private CompletableFuture<List<OrderResult>> submitBatch(List<SignedOrder> orders) {
+        byte[] payload;
+        try {
+            payload = encodeOrders(orders, true);
+        } catch (IOException e) {
+            return CompletableFuture.completedFuture(failedAll(orders.size(), "Failed to encode orders: " + e));
+        }
+        Request request = requestBuilder(clobApiUrl + "/orders")
+                .post(okhttp3.RequestBody.create(payload, JSON))
+                .build();
 
-            if (storedPermits >= 1.0) {
-                storedPermits -= 1.0;
-                return;
+        return executeAsync(Endpoint.CLOB_ORDER, request, false, body -> {
+            JsonNode node = objectMapper.readTree(body);
+            List<OrderResult> results = new ArrayList<>(orders.size());
+            for (int i = 0; i < orders.size(); i++) {
+                JsonNode item = node != null && node.isArray() ? node.get(i) : null;
+                results.add(item != null ? orderResult(item)
+                        : new OrderResult(false, null, null, "missing from batch response"));
             }
+            return results;
+        }).exceptionally(e -> failedAll(orders.size(), String.valueOf(e.getCause() != null ? e.getCause() : e)));
+    }
 
-            double missing = 1.0 - storedPermits;
-            long waitNanos = (long) (missing / permitsPerSecond * 1_000_000_000.0);
+    // [{"token_id": ...}, ...] written like the order payloads, no tree per token
+    private byte[] encodeBookRequest(Collection<String> tokenIds) throws IOException {
+        ByteArrayBuilder buffer = new ByteArrayBuilder(96 * tokenIds.size());
+        try (JsonGenerator gen = objectMapper.getFactory().createGenerator(buffer)) {
+            gen.writeStartArray();
+            for (String tokenId : tokenIds) {
+                gen.writeStartObject();
+                gen.writeStringField("token_id", tokenId);
+                gen.writeEndObject();
+            }
+            gen.writeEndArray();
+        }
+        return buffer.toByteArray();
+    }
 
-            try {
-                TimeUnit.NANOSECONDS.sleep(waitNanos);
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
+    // POST /order takes one payload object, POST /orders an array of them. Written with a
+    // streaming generator straight into the request bytes, no tree per order
+    private byte[] encodeOrders(List<SignedOrder> orders, boolean batch) throws IOException {
+        ByteArrayBuilder buffer = new ByteArrayBuilder(512 * orders.size());
+        try (JsonGenerator gen = objectMapper.getFactory().createGenerator(buffer)) {
+            if (batch) {
+                gen.writeStartArray();
+            }
+            for (SignedOrder signed : orders) {
+                OrderSigner.Order order = signed.order();
+                gen.writeStartObject();
+                gen.writeObjectFieldStart("order");
+                gen.writeNumberField("salt", order.getSalt());
+                gen.writeStringField("maker", order.getMaker());
+                gen.writeStringField("signer", order.getSigner());
+                gen.writeStringField("taker", order.getTaker());
+                gen.writeNumberField("tokenId", order.getTokenId());
+                gen.writeNumberField("makerAmount", order.getMakerAmount());
+                gen.writeNumberField("takerAmount", order.getTakerAmount());
+                gen.writeNumberField("expiration", order.getExpiration());
+                gen.writeNumberField("nonce", order.getNonce());
+                gen.writeNumberField("feeRateBps", order.getFeeRateBps());
+                gen.writeStringField("side", order.getSide() == 0 ? "BUY" : "SELL");
+                gen.writeNumberField("signatureType", order.getSignatureType());
+                gen.writeEndObject();
+                gen.writeStringField("owner", order.getMaker());
+                gen.writeStringField("orderType", "GTC");
+                gen.writeStringField("signature", signed.signature());
+                gen.writeEndObject();
+            }
+            if (batch) {
+                gen.writeEndArray();
             }
+        }
+        return buffer.toByteArray();
+    }
+
+    private static OrderResult orderResult(JsonNode node) {
+        return new OrderResult(node.path("success").asBoolean(false),
+                node.path("orderID").asText(null),
+                node.path("status").asText(null),
+                node.path("errorMsg").asText(null));
+    }
 
-            lastSync = System.nanoTime();
-            storedPermits = 0;
+    private static List<OrderResult> failedAll(int count, String error) {
+        List<OrderResult> results = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            results.add(new OrderResult(false, null, null, error));
+        }
+        return results;
+    }
+
+    // Decodes the body straight from the response stream, no intermediate String or tree
+    @FunctionalInterface
+    private interface BodyReader<T> {
+        T read(InputStream body) throws IOException;
+    }
+
+    private Request.Builder requestBuilder(String url) {
+        return new Request.Builder()
+                .url(url)
+                .header("User-Agent", USER_AGENT)
+                .header("Accept", "application/json")
+                .header("Origin", "https://polymarket.com")
+                .header("Referer", "https://polymarket.com/");
+    }
+
+    private <T> CompletableFuture<T> executeAsync(Endpoint endpoint, Request request, boolean retryIoFailures,
+            BodyReader<T> reader) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        attempt(endpoint, request, retryIoFailures, reader, result, 1);
+        return result;
+    }
+
+    // Reserves a permit and sends when it is due; the wait is a timer, no thread is parked
+    private <T> void attempt(Endpoint endpoint, Request request, boolean retryIoFailures, BodyReader<T> reader,
+            CompletableFuture<T> result, int attempt) {
+        long waitNanos = rateLimiters.get(endpoint).reserve();
+        Runnable send = () -> send(endpoint, request, retryIoFailures, reader, result, attempt);
+        if (waitNanos > 0) {
+            scheduler.schedule(send, waitNanos, TimeUnit.NANOSECONDS);
+        } else {
+            send.run();
+        }
+    }
+
+    private <T> void send(Endpoint endpoint, Request request, boolean retryIoFailures, BodyReader<T> reader,
+            CompletableFuture<T> result, int attempt) {
+        AdaptiveRateLimiter limiter = rateLimiters.get(endpoint);
+        long sentAt = System.nanoTime();
+        OkHttpClient client = endpoint == Endpoint.CLOB_ORDER ? orderClient : httpClient;
+        client.newCall(request).enqueue(new Callback() {
+            @Override
+            public void onFailure(Call call, IOException e) {
+                metrics.apiRequest(endpoint, "io_error", System.nanoTime() - sentAt);
+                if (!retryIoFailures || attempt >= MAX_ATTEMPTS) {
+                    result.completeExceptionally(
+                            new RuntimeException("Failed to call API after retries: " + request.url(), e));
+                    return;
+                }
+                // Transient network error, retry later
+                scheduler.schedule(() -> attempt(endpoint, request, retryIoFailures, reader, result, attempt + 1),
+                        IO_RETRY_DELAY_MS, TimeUnit.MILLISECONDS);
+            }
+
+            @Override
+            public void onResponse(Call call, Response response) {
+                try (response) {
+                    metrics.apiRequest(endpoint, Integer.toString(response.code()), System.nanoTime() - sentAt);
+                    clock.onResponse(response.header("Date"), response.sentRequestAtMillis(),
+                            response.receivedResponseAtMillis());
+                    if (!response.isSuccessful()) {
+                        if (response.code() == 429) {
+                            metrics.apiThrottled(endpoint);
+                            // Backoff for 429: the limiter slows down and holds this endpoint until Retry-After
+                            limiter.onThrottled(retryAfterNanos(response.header("Retry-After")));
+                            if (attempt < MAX_ATTEMPTS) {
+                                attempt(endpoint, request, retryIoFailures, reader, result, attempt + 1);
+                                return;
+                            }
+                        }
+                        String body = response.body() != null ? response.body().string() : "";
+                        result.completeExceptionally(new RuntimeException(
+                                "API Request failed: " + response.code() + " " + response.message() + " " + body));
+                        return;
+                    }
+                    limiter.onSuccess();
+                    result.complete(response.body() != null ? reader.read(response.body().byteStream()) : null);
+                } catch (Exception e) {
+                    result.completeExceptionally(e);
+                }
+            }
+        });
+    }
+
+    private static <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new RuntimeException(e.getCause());
+        }
+    }
+
+    /**
+     * Retry-After as seconds or an HTTP date; 1s when absent or unparseable.
+     */
+    static long retryAfterNanos(String header) {
+        long fallback = TimeUnit.SECONDS.toNanos(1);
+        if (header == null || header.isBlank()) {
+            return fallback;
+        }
+        try {
+            return TimeUnit.SECONDS.toNanos(Long.parseLong(header.trim()));
+        } catch (NumberFormatException ignored) {
+        }
+        try {
+            ZonedDateTime at = ZonedDateTime.parse(header.trim(), DateTimeFormatter.RFC_1123_DATE_TIME);
+            return Math.max(0, Duration.between(Instant.now(), at.toInstant()).toNanos());
+        } catch (DateTimeParseException ignored) {
+            return fallback;
         }
     }
 }
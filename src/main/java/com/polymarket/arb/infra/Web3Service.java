@@ -1,5 +1,7 @@
 package com.polymarket.arb.infra;
 
+import com.polymarket.arb.domain.LatencyLineage;
+import com.polymarket.arb.domain.TokenDictionary;
 import org.web3j.abi.FunctionEncoder;
 import org.web3j.abi.datatypes.Address;
 import org.web3j.abi.datatypes.DynamicArray;
@@ -18,8 +20,12 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.math.BigInteger;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
 
 @Slf4j
 @Service
@@ -29,6 +35,7 @@ public class Web3Service {
     private final Credentials credentials;
     private final PolymarketApiClient apiClient;
     private final OrderSigner orderSigner;
+    private final ArbMetrics metrics;
 
     // Polygon RPC
     private static final String POLYGON_RPC = "https://polygon-rpc.com";
@@ -39,10 +46,12 @@ public class Web3Service {
 
     public Web3Service(@Value("${app.private-key:}") String privateKey,
             PolymarketApiClient apiClient,
-            OrderSigner orderSigner) {
+            OrderSigner orderSigner,
+            ArbMetrics metrics) {
         this.web3j = Web3j.build(new HttpService(POLYGON_RPC));
         this.apiClient = apiClient;
         this.orderSigner = orderSigner;
+        this.metrics = metrics;
 
         if (privateKey != null && !privateKey.isEmpty()) {
             this.credentials = Credentials.create(privateKey);
@@ -53,74 +62,242 @@ public class Web3Service {
         }
     }
 
-    public void executeOrder(String marketId, String tokenId, Double amount, Double price, boolean isBuy,
+    public boolean executeOrder(String marketId, String tokenId, Double amount, Double price, boolean isBuy,
             boolean highPriority) {
+        return executeOrder(marketId, tokenId, amount, price, isBuy, highPriority, null);
+    }
+
+    /**
+     * @param lineage stamped with the signed / submitted / acknowledged milestones, when given
+     * @return whether the CLOB acknowledged the order (always true in WATCH-ONLY mode)
+     */
+    public boolean executeOrder(String marketId, String tokenId, Double amount, Double price, boolean isBuy,
+            boolean highPriority, LatencyLineage lineage) {
         if (credentials == null) {
             log.info("[WATCH-ONLY] Would {} Token {} in Market {} for {} units @ {} | Priority={}",
                     isBuy ? "BUY" : "SELL", tokenId, marketId, amount, price, highPriority);
-            return;
+            return true;
         }
 
         try {
-            // Amount is in units of the asset being sold/bought?
-            // If BUY: We provide USDC (MakerAmount) to get Tokens (TakerAmount).
-            // If SELL: We provide Tokens (MakerAmount) to get USDC (TakerAmount).
-
-            // NOTE: This logic depends heavily on CLOB conventions for "Maker" vs "Taker"
-            // roles.
-            // A "Maker" order usually sits on the book. A "Taker" order crosses.
-            // Polymarket CLOB accepts "Maker" orders that can be FOK/IOC matches
-            // (effectively Taker).
-            // However, the fields are `makerAmount` and `takerAmount`.
-
-            long makerAmountRaw;
-            long takerAmountRaw;
-
-            if (isBuy) {
-                // BUY: We are paying USDC to get Tokens.
-                // Maker = USDC, Taker = Tokens
-                long amountTokens = (long) (amount * 1_000_000); // Wanted
-                long amountUSDC = (long) (amount * price * 1_000_000); // Offered
-                makerAmountRaw = amountUSDC;
-                takerAmountRaw = amountTokens;
-            } else {
-                // SELL: We are paying Tokens to get USDC.
-                // Maker = Tokens, Taker = USDC
-                long amountTokens = (long) (amount * 1_000_000); // Offered
-                long amountUSDC = (long) (amount * price * 1_000_000); // Wanted
-                makerAmountRaw = amountTokens;
-                takerAmountRaw = amountUSDC;
-            }
-
-            if (makerAmountRaw <= 0 || takerAmountRaw <= 0) {
-                log.warn("Skipping INVALID order: Maker={}, Taker={}", makerAmountRaw, takerAmountRaw);
-                return;
+            OrderSigner.Order order = buildOrder(tokenId, amount, price, isBuy);
+            if (order == null) {
+                return false;
             }
 
-            OrderSigner.Order order = OrderSigner.Order.builder()
-                    .salt(BigInteger.valueOf(System.currentTimeMillis()))
-                    .maker(credentials.getAddress())
-                    .signer(credentials.getAddress())
-                    .taker("0x0000000000000000000000000000000000000000")
-                    .tokenId(new BigInteger(tokenId))
-                    .makerAmount(BigInteger.valueOf(makerAmountRaw))
-                    .takerAmount(BigInteger.valueOf(takerAmountRaw))
-                    .expiration(BigInteger.valueOf(System.currentTimeMillis() / 1000 + 300)) // 5 mins
-                    .nonce(BigInteger.ZERO)
-                    .feeRateBps(BigInteger.ZERO)
-                    .side(isBuy ? 0 : 1) // 0=BUY, 1=SELL
-                    .signatureType(0) // EOA
-                    .build();
-
+            long signStart = System.nanoTime();
             String signature = orderSigner.signOrder(order, credentials);
+            long signed = System.nanoTime();
+            metrics.orderSigned(signed - signStart);
+            if (lineage != null) {
+                lineage.markSigned();
+            }
 
             log.info("[REAL-EXECUTION] Submitting {} order: {} Tokens @ {} USDC (Total {})",
                     isBuy ? "BUY" : "SELL", amount, price, amount * price);
-            apiClient.submitOrder(order, signature);
+            if (lineage != null) {
+                lineage.markSubmitted();
+            }
+            boolean acked = apiClient.submitOrder(order, signature);
+            metrics.orderAcked(acked, System.nanoTime() - signed);
+            if (acked && lineage != null) {
+                lineage.markAcknowledged();
+            }
+            return acked;
 
         } catch (Exception e) {
             log.error("Failed to execute order", e);
+            return false;
+        }
+    }
+
+    /**
+     * One order of a multi-leg opportunity.
+     */
+    public record LegOrder(String marketId, String tokenId, double amount, double price, boolean isBuy) {
+    }
+
+    /**
+     * Legs of one opportunity after signing, in leg order; a null order is a leg that could
+     * not be built or signed (all null in WATCH-ONLY mode).
+     */
+    public record SignedLegs(List<LegOrder> legs, List<PolymarketApiClient.SignedOrder> orders) {
+    }
+
+    /**
+     * Signs every leg, then submits them all in one batch request (POST /orders).
+     *
+     * @see #signOrders
+     * @see #submitOrders
+     */
+    public List<CompletableFuture<Boolean>> executeOrders(List<LegOrder> legs, LatencyLineage lineage) {
+        return submitOrders(signOrders(legs, lineage), lineage);
+    }
+
+    /**
+     * Builds and signs every leg, nothing is sent. Split from {@link #submitOrders} so callers
+     * can time the network round-trip alone.
+     */
+    public SignedLegs signOrders(List<LegOrder> legs, LatencyLineage lineage) {
+        List<PolymarketApiClient.SignedOrder> orders = new ArrayList<>(Collections.nCopies(legs.size(), null));
+        if (credentials == null) {
+            return new SignedLegs(legs, orders);
         }
+
+        try {
+            // Legs that cannot be built stay unsigned, the rest still goes out
+            List<Integer> built = new ArrayList<>(legs.size());
+            List<OrderSigner.Order> unsigned = new ArrayList<>(legs.size());
+            for (int i = 0; i < legs.size(); i++) {
+                LegOrder leg = legs.get(i);
+                OrderSigner.Order order = buildOrder(leg.tokenId(), leg.amount(), leg.price(), leg.isBuy());
+                if (order != null) {
+                    unsigned.add(order);
+                    built.add(i);
+                }
+            }
+            long signStart = System.nanoTime();
+            List<String> signatures = orderSigner.signAll(unsigned, credentials);
+            long signedEach = (System.nanoTime() - signStart) / Math.max(1, unsigned.size()); // Amortized
+            for (int i = 0; i < unsigned.size(); i++) {
+                orders.set(built.get(i), new PolymarketApiClient.SignedOrder(unsigned.get(i), signatures.get(i)));
+                metrics.orderSigned(signedEach);
+            }
+            if (!unsigned.isEmpty() && lineage != null) {
+                lineage.markSigned();
+            }
+        } catch (Exception e) {
+            log.error("Failed to sign batch of {} orders", legs.size(), e);
+            Collections.fill(orders, null);
+        }
+        return new SignedLegs(legs, orders);
+    }
+
+    /**
+     * Submits the signed legs: one POST /order for a single leg, one batch request
+     * (POST /orders) otherwise.
+     *
+     * @return per leg, in order, a future of whether the CLOB acknowledged it (all true in
+     *         WATCH-ONLY mode). Each completes with the request that carried its leg; legs
+     *         without a signed order are false right away
+     */
+    public List<CompletableFuture<Boolean>> submitOrders(SignedLegs signed, LatencyLineage lineage) {
+        List<LegOrder> legs = signed.legs();
+        List<CompletableFuture<Boolean>> acked = new ArrayList<>(legs.size());
+        boolean watchOnly = credentials == null;
+        for (LegOrder leg : legs) {
+            if (watchOnly) {
+                log.info("[WATCH-ONLY] Would {} Token {} in Market {} for {} units @ {} | Batch",
+                        leg.isBuy() ? "BUY" : "SELL", leg.tokenId(), leg.marketId(), leg.amount(), leg.price());
+            }
+            acked.add(CompletableFuture.completedFuture(watchOnly));
+        }
+        if (watchOnly) {
+            return acked;
+        }
+
+        List<Integer> sent = new ArrayList<>(legs.size());
+        List<PolymarketApiClient.SignedOrder> orders = new ArrayList<>(legs.size());
+        for (int i = 0; i < legs.size(); i++) {
+            if (signed.orders().get(i) != null) {
+                orders.add(signed.orders().get(i));
+                sent.add(i);
+            }
+        }
+        if (orders.isEmpty()) {
+            return acked;
+        }
+
+        try {
+            if (lineage != null) {
+                lineage.markSubmitted();
+            }
+            log.info("[REAL-EXECUTION] Submitting {} orders in one batch", orders.size());
+            long submitted = System.nanoTime();
+            List<CompletableFuture<PolymarketApiClient.OrderResult>> results = orders.size() == 1
+                    ? List.of(apiClient.submitOrderAsync(orders.get(0).order(), orders.get(0).signature()))
+                    : apiClient.submitOrdersEach(orders);
+            // Acknowledged in the lineage once every leg of the opportunity is
+            AtomicInteger unacked = new AtomicInteger(legs.size());
+            for (int i = 0; i < results.size(); i++) {
+                int leg = sent.get(i);
+                acked.set(leg, results.get(i).handle((result, e) -> {
+                    boolean success = e == null && result.success();
+                    metrics.orderAcked(success, System.nanoTime() - submitted);
+                    if (success) {
+                        log.info("[REAL-EXECUTION] Batch order {} submitted: {}", leg, result);
+                    } else {
+                        log.error("[REAL-EXECUTION] Batch order {} failed: {}", leg, e != null ? e : result);
+                    }
+                    if (success && unacked.decrementAndGet() == 0 && lineage != null) {
+                        lineage.markAcknowledged();
+                    }
+                    return success;
+                }));
+            }
+        } catch (Exception e) {
+            log.error("Failed to submit batch of {} orders", orders.size(), e);
+        }
+        return acked;
+    }
+
+    // Amounts in 1e-6 units. BUY pays USDC (maker) for tokens (taker), SELL the reverse.
+    // Null when either amount rounds to nothing
+    private OrderSigner.Order buildOrder(String tokenId, double amount, double price, boolean isBuy) {
+        // NOTE: This logic depends heavily on CLOB conventions for "Maker" vs "Taker"
+        // roles.
+        // A "Maker" order usually sits on the book. A "Taker" order crosses.
+        // Polymarket CLOB accepts "Maker" orders that can be FOK/IOC matches
+        // (effectively Taker).
+        // However, the fields are `makerAmount` and `takerAmount`.
+
+        long makerAmountRaw;
+        long takerAmountRaw;
+
+        if (isBuy) {
+            // BUY: We are paying USDC to get Tokens.
+            // Maker = USDC, Taker = Tokens
+            long amountTokens = (long) (amount * 1_000_000); // Wanted
+            long amountUSDC = (long) (amount * price * 1_000_000); // Offered
+            makerAmountRaw = amountUSDC;
+            takerAmountRaw = amountTokens;
+        } else {
+            // SELL: We are paying Tokens to get USDC.
+            // Maker = Tokens, Taker = USDC
+            long amountTokens = (long) (amount * 1_000_000); // Offered
+            long amountUSDC = (long) (amount * price * 1_000_000); // Wanted
+            makerAmountRaw = amountTokens;
+            takerAmountRaw = amountUSDC;
+        }
+
+        if (makerAmountRaw <= 0 || takerAmountRaw <= 0) {
+            log.warn("Skipping INVALID order: Maker={}, Taker={}", makerAmountRaw, takerAmountRaw);
+            return null;
+        }
+
+        return OrderSigner.Order.builder()
+                .salt(BigInteger.valueOf(System.currentTimeMillis()))
+                .maker(credentials.getAddress())
+                .signer(credentials.getAddress())
+                .taker("0x0000000000000000000000000000000000000000")
+                .tokenId(tokenValue(tokenId))
+                .makerAmount(BigInteger.valueOf(makerAmountRaw))
+                .takerAmount(BigInteger.valueOf(takerAmountRaw))
+                .expiration(BigInteger.valueOf(System.currentTimeMillis() / 1000 + 300)) // 5 mins
+                .nonce(BigInteger.ZERO)
+                .feeRateBps(BigInteger.ZERO)
+                .side(isBuy ? 0 : 1) // 0=BUY, 1=SELL
+                .signatureType(0) // EOA
+                .build();
+    }
+
+    // uint256 form from the token dictionary, parsed once per token for the process lifetime
+    private static BigInteger tokenValue(String tokenId) {
+        BigInteger value = TokenDictionary.value(tokenId);
+        if (value == null) {
+            throw new IllegalArgumentException("Not a CLOB token id: " + tokenId);
+        }
+        return value;
     }
 
     public void executeSplit(String conditionId, BigInteger amount, int outcomeCount) {
@@ -133,27 +310,9 @@ public class Web3Service {
                 outcomeCount);
 
         try {
-            // 1. Construct Partition [1, 2, 4, ...]
-            Uint256[] partitionArray = new Uint256[outcomeCount];
-            for (int i = 0; i < outcomeCount; i++) {
-                partitionArray[i] = new Uint256(BigInteger.valueOf(1).shiftLeft(i));
-            }
+            String encodedFunction = encodeSplit(conditionId, amount, outcomeCount);
 
-            // 2. Prepare function: split(address collateralToken, bytes32
-            // parentCollectionId, bytes32 conditionId, uint256[] partition, uint256 amount)
-            Function function = new Function(
-                    "split",
-                    Arrays.asList(
-                            new Address(USDC_TOKEN),
-                            new Bytes32(new byte[32]), // parentCollectionId = 0
-                            new Bytes32(org.web3j.utils.Numeric.hexStringToByteArray(conditionId)),
-                            new DynamicArray<>(Uint256.class, Arrays.asList(partitionArray)),
-                            new Uint256(amount)),
-                    Collections.emptyList());
-
-            String encodedFunction = FunctionEncoder.encode(function);
-
-            // 3. Send Transaction
+            // Send Transaction
             TransactionManager txManager = new RawTransactionManager(web3j, credentials, 137); // Polygon Chain ID
             StaticGasProvider gasProvider = new StaticGasProvider(
                     BigInteger.valueOf(100).multiply(BigInteger.valueOf(1000000000L)), // 100 Gwei base price
@@ -175,4 +334,26 @@ public class Web3Service {
             throw new RuntimeException("Split execution failed", e);
         }
     }
+
+    // split(address collateralToken, bytes32 parentCollectionId, bytes32 conditionId,
+    // uint256[] partition, uint256 amount) calldata for the NegRisk adapter
+    static String encodeSplit(String conditionId, BigInteger amount, int outcomeCount) {
+        // Partition [1, 2, 4, ...]
+        Uint256[] partitionArray = new Uint256[outcomeCount];
+        for (int i = 0; i < outcomeCount; i++) {
+            partitionArray[i] = new Uint256(BigInteger.valueOf(1).shiftLeft(i));
+        }
+
+        Function function = new Function(
+                "split",
+                Arrays.asList(
+                        new Address(USDC_TOKEN),
+                        new Bytes32(new byte[32]), // parentCollectionId = 0
+                        new Bytes32(org.web3j.utils.Numeric.hexStringToByteArray(conditionId)),
+                        new DynamicArray<>(Uint256.class, Arrays.asList(partitionArray)),
+                        new Uint256(amount)),
+                Collections.emptyList());
+
+        return FunctionEncoder.encode(function);
+    }
 }
@@ -0,0 +1,162 @@
+package com.polymarket.arb.core;
+
+import com.polymarket.arb.domain.ArbitrageOpportunity;
+import com.polymarket.arb.domain.Market;
+import com.polymarket.arb.infra.ArbMetrics;
+import com.polymarket.arb.infra.ClockOffsetEstimator;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ArbitrageOrchestratorTest {
+
+    @Test
+    void testSlowDetectorNeitherDelaysOthersNorRunsTwice() throws Exception {
+        MarketSnapshotCache cache = new MarketSnapshotCache();
+        cache.updateMarket(Market.builder().marketId("m1").build());
+
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger slowScans = new AtomicInteger();
+        ArbitrageDetector slow = snapshot -> {
+            slowScans.incrementAndGet();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return List.of(opportunity("slow"));
+        };
+        ArbitrageDetector fast = snapshot -> List.of(opportunity("fast"));
+
+        ExecutionEngine engine = mock(ExecutionEngine.class);
+        ArbitrageOrchestrator orchestrator = new ArbitrageOrchestrator(List.of(slow, fast), engine, cache,
+                ArbMetrics.simple(), new ClockOffsetEstimator());
+        ReflectionTestUtils.setField(orchestrator, "budgetMillis", 1_000L);
+        try {
+            orchestrator.scan();
+            verify(engine, timeout(2_000).times(1)).execute(argThat(opp -> opp.getId().equals("fast")));
+            verifyNoMoreInteractions(engine);
+
+            // Still running: not scanned again; the fast one has nothing new to scan
+            orchestrator.scan();
+            assertEquals(1, slowScans.get());
+
+            // Done: its changes are rescanned on the next pass
+            release.countDown();
+            Thread.sleep(50);
+            orchestrator.scan();
+            assertEquals(2, slowScans.get());
+            verify(engine, timeout(2_000).times(1)).execute(argThat(opp -> opp.getId().equals("slow")));
+        } finally {
+            orchestrator.shutdown();
+        }
+    }
+
+    @Test
+    void testCacheWriteTriggersDetection() {
+        MarketSnapshotCache cache = new MarketSnapshotCache();
+        AtomicInteger scans = new AtomicInteger();
+        ArbitrageDetector detector = snapshot -> {
+            scans.incrementAndGet();
+            return snapshot.getMarket("m1") != null ? List.of(opportunity("m1")) : List.of();
+        };
+
+        ExecutionEngine engine = mock(ExecutionEngine.class);
+        ArbitrageOrchestrator orchestrator = new ArbitrageOrchestrator(List.of(detector), engine, cache,
+                ArbMetrics.simple(), new ClockOffsetEstimator());
+        orchestrator.start();
+        try {
+            // Idle timeout is 5s: only the write can make this pass happen in time
+            cache.updateMarket(Market.builder().marketId("m1").build());
+            verify(engine, timeout(2_000)).execute(argThat(opp -> opp.getId().equals("m1")));
+            assertEquals(1, scans.get());
+        } finally {
+            orchestrator.shutdown();
+        }
+    }
+
+    @Test
+    void testOverrunningDetectorWakesTheLoopWhenDone() throws Exception {
+        MarketSnapshotCache cache = new MarketSnapshotCache();
+        CountDownLatch release = new CountDownLatch(1);
+        ArbitrageDetector slow = snapshot -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return snapshot.getMarket("m1") != null ? List.of(opportunity("m1")) : List.of();
+        };
+
+        ExecutionEngine engine = mock(ExecutionEngine.class);
+        ArbMetrics metrics = ArbMetrics.simple();
+        ArbitrageOrchestrator orchestrator = new ArbitrageOrchestrator(List.of(slow), engine, cache,
+                metrics, new ClockOffsetEstimator());
+        ReflectionTestUtils.setField(orchestrator, "budgetMillis", 100L);
+        orchestrator.start();
+        try {
+            Thread.sleep(50); // Loop parked, so the write is what starts the first pass
+            cache.updateMarket(Market.builder().marketId("m1").build());
+            verify(engine, after(500).never()).execute(any());
+
+            // Idle timeout is 5s: only the finished scan can wake the rescan in time
+            release.countDown();
+            verify(engine, timeout(2_000)).execute(argThat(opp -> opp.getId().equals("m1")));
+            // One write, one trigger: the rescan is a self-wake
+            assertEquals(1, metrics.registry().get("arb.detect.trigger").timer().count());
+        } finally {
+            orchestrator.shutdown();
+        }
+    }
+
+    @Test
+    void testExecutionRunsOffTheDetectionThreadOncePerEvent() throws Exception {
+        MarketSnapshotCache cache = new MarketSnapshotCache();
+        cache.updateMarket(Market.builder().marketId("m1").build());
+        AtomicInteger scans = new AtomicInteger();
+        ArbitrageDetector detector = snapshot -> List.of(opportunity("evt-" + scans.incrementAndGet(), "evt"));
+
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutionEngine engine = mock(ExecutionEngine.class);
+        doAnswer(invocation -> release.await(5, TimeUnit.SECONDS)).when(engine).execute(any());
+        ArbitrageOrchestrator orchestrator = new ArbitrageOrchestrator(List.of(detector), engine, cache,
+                ArbMetrics.simple(), new ClockOffsetEstimator());
+        ReflectionTestUtils.setField(orchestrator, "dedupTtlMillis", 0L);
+        try {
+            // The pass returns while the first execution is still stuck
+            assertTimeoutPreemptively(Duration.ofSeconds(2), orchestrator::scan);
+            verify(engine, timeout(2_000)).execute(argThat(opp -> opp.getId().equals("evt-1")));
+
+            // Same event while it executes: detected, not executed
+            cache.updateMarket(Market.builder().marketId("m1").question("v2").build());
+            orchestrator.scan();
+            assertEquals(2, scans.get());
+
+            release.countDown();
+            verify(engine, timeout(2_000).times(1)).execute(any());
+            Thread.sleep(50);
+            cache.updateMarket(Market.builder().marketId("m1").question("v3").build());
+            orchestrator.scan();
+            verify(engine, timeout(2_000)).execute(argThat(opp -> opp.getId().equals("evt-3")));
+            verify(engine, never()).execute(argThat(opp -> opp.getId().equals("evt-2")));
+        } finally {
+            orchestrator.shutdown();
+        }
+    }
+
+    private static ArbitrageOpportunity opportunity(String id, String marketId) {
+        return ArbitrageOpportunity.builder().id(id).marketId(marketId).build();
+    }
+
+    private static ArbitrageOpportunity opportunity(String id) {
+        return ArbitrageOpportunity.builder().id(id).marketId(id).build();
+    }
+}
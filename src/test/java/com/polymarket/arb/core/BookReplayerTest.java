@@ -0,0 +1,69 @@
+package com.polymarket.arb.core;
+
+import com.polymarket.arb.domain.ArbitrageOpportunity;
+import com.polymarket.arb.domain.Market;
+import com.polymarket.arb.domain.OrderBook;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BookReplayerTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void testReplayFindsTheRecordedOpportunities() throws Exception {
+        SyntheticUniverse universe = SyntheticUniverse.generate(300, 5, 2, 10, 0.1, 5);
+        MarketSnapshotCache live = new MarketSnapshotCache();
+        BookRecorder recorder = new BookRecorder(live, true, dir.toString(), 1, 8);
+        recorder.start();
+
+        List<Market> markets = universe.markets();
+        live.updateMarkets(markets.subList(0, 150));
+        live.updateMarkets(markets.subList(150, markets.size()));
+        // Later updates: a binary arb loses its edge (NO asks pulled), a quiet market is delisted
+        Market closed = markets.stream().filter(m -> universe.injectedArbs().contains(m.getMarketId()))
+                .findFirst().orElseThrow();
+        Market quiet = markets.stream().filter(m -> !universe.injectedArbs().contains(m.getMarketId())
+                && !m.isNegRisk()).findFirst().orElseThrow();
+        OrderBook noEdge = OrderBook.builder().marketId(closed.getOutcomeIds().get(1))
+                .bids(closed.getNoOrderBook().getBids()).asks(List.of())
+                .hash("pulled").exchangeTimestamp(Long.MAX_VALUE / 2).build();
+        live.updateBooks(Map.of(closed.getOutcomeIds().get(1), noEdge));
+        live.removeMarket(quiet.getMarketId());
+        recorder.stop();
+
+        Set<String> expected = new HashSet<>(universe.injectedArbs());
+        expected.remove(closed.getMarketId());
+        assertEquals(expected, found(detectors(new MarketSnapshotCache()), live.snapshot()));
+
+        Set<String> replayed = new HashSet<>();
+        BookReplayer.Result result = new BookReplayer(detectors(new MarketSnapshotCache()))
+                .replay(dir, BookReplayer.Pace.MAX, opp -> replayed.add(opp.getMarketId()));
+
+        // Everything that was ever an opportunity, including the one that closed later
+        assertEquals(universe.injectedArbs(), replayed);
+        assertEquals(2L * markets.size() + 1, result.books());
+        assertTrue(result.detections() >= 1);
+    }
+
+    private static List<ArbitrageDetector> detectors(MarketSnapshotCache cache) {
+        return List.of(new SumOfPricesStrategy(cache), new NegRiskStrategy(cache));
+    }
+
+    private static Set<String> found(List<ArbitrageDetector> detectors, MarketSnapshot snapshot) {
+        Set<String> ids = new HashSet<>();
+        for (ArbitrageDetector detector : detectors) {
+            detector.detect(snapshot).stream().map(ArbitrageOpportunity::getMarketId).forEach(ids::add);
+        }
+        return ids;
+    }
+}
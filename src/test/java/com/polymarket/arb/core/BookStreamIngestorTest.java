@@ -0,0 +1,100 @@
+package com.polymarket.arb.core;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.polymarket.arb.domain.Market;
+import com.polymarket.arb.domain.OrderBook;
+import com.polymarket.arb.infra.ClobMarketStream;
+import com.polymarket.arb.infra.PolymarketApiClient;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class BookStreamIngestorTest {
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    @Test
+    void testApplyBookAndPriceChanges() throws Exception {
+        MarketSnapshotCache cache = new MarketSnapshotCache();
+        ClobMarketStream stream = mock(ClobMarketStream.class);
+        when(stream.isSubscribed(anyString())).thenReturn(true);
+        BookStreamIngestor ingestor = new BookStreamIngestor(stream, mock(PolymarketApiClient.class), cache, true, 0);
+
+        Market market = Market.builder()
+                .marketId("mkt-1")
+                .outcomeIds(List.of("YES-1", "NO-1"))
+                .yesOrderBook(OrderBook.builder().bids(List.of()).asks(List.of()).build())
+                .noOrderBook(OrderBook.builder().bids(List.of()).asks(List.of()).build())
+                .build();
+        cache.updateMarket(market);
+        ingestor.track(market);
+        verify(stream).subscribe(List.of("YES-1", "NO-1"));
+        assertTrue(ingestor.isLive("YES-1"));
+
+        // Full snapshot replaces the book
+        ingestor.onBook(mapper.readTree("""
+                {"event_type":"book","asset_id":"YES-1",
+                 "bids":[{"price":"0.48","size":"30"},{"price":"0.47","size":"100"}],
+                 "asks":[{"price":"0.52","size":"25"}]}"""));
+
+        // Deltas: new bid level, removed bid level (size 0), resized ask, in one cache write
+        long version = cache.getVersion();
+        ingestor.onPriceChange(mapper.readTree("""
+                {"event_type":"price_change","price_changes":[
+                 {"asset_id":"YES-1","price":"0.49","size":"10","side":"BUY"},
+                 {"asset_id":"YES-1","price":"0.47","size":"0","side":"BUY"},
+                 {"asset_id":"YES-1","price":"0.52","size":"5","side":"SELL"}]}"""));
+
+        assertEquals(version + 1, cache.getVersion());
+
+        OrderBook yes = cache.getMarket("mkt-1").getYesOrderBook();
+        assertEquals(2, yes.getBids().size());
+        assertEquals(4_900, yes.fixedPoint().price(true, 0));
+        assertEquals(30_000_000, yes.fixedPoint().cumulativeSize(true, 1) - yes.fixedPoint().size(true, 0));
+        assertTrue(yes.getBids().stream().anyMatch(l -> l.getPrice().compareTo(new BigDecimal("0.49")) == 0));
+        assertTrue(yes.getBids().stream().noneMatch(l -> l.getPrice().compareTo(new BigDecimal("0.47")) == 0));
+        assertEquals(0, yes.getAsks().get(0).getSize().compareTo(new BigDecimal("5")));
+
+        // NO side is untouched
+        assertTrue(cache.getMarket("mkt-1").getNoOrderBook().getBids().isEmpty());
+    }
+
+    @Test
+    void testReconnectMarksTokensForResync() throws Exception {
+        MarketSnapshotCache cache = new MarketSnapshotCache();
+        ClobMarketStream stream = mock(ClobMarketStream.class);
+        when(stream.isSubscribed(anyString())).thenReturn(true);
+        PolymarketApiClient apiClient = mock(PolymarketApiClient.class);
+        when(apiClient.getOrderBooks(anyCollection())).thenReturn(Map.of("YES-1",
+                MarketIngestor.toOrderBook("YES-1", mapper.readTree("""
+                        {"bids":[{"price":"0.40","size":"10"}],"asks":[]}"""))));
+        BookStreamIngestor ingestor = new BookStreamIngestor(stream, apiClient, cache, true, 60_000);
+
+        Market market = Market.builder()
+                .marketId("mkt-1")
+                .outcomeIds(List.of("YES-1", "NO-1"))
+                .yesOrderBook(OrderBook.builder().bids(List.of()).asks(List.of()).build())
+                .noOrderBook(OrderBook.builder().bids(List.of()).asks(List.of()).build())
+                .build();
+        cache.updateMarket(market);
+        ingestor.track(market);
+
+        ingestor.onReconnect();
+        assertFalse(ingestor.isLive("YES-1"));
+
+        // Deltas are dropped until a snapshot arrives, then the token is live again
+        ingestor.onPriceChange(mapper.readTree("""
+                {"event_type":"price_change","asset_id":"YES-1","changes":[{"price":"0.3","size":"1","side":"BUY"}]}"""));
+        assertTrue(cache.getMarket("mkt-1").getYesOrderBook().getBids().isEmpty());
+
+        ingestor.onBook(mapper.readTree("""
+                {"event_type":"book","asset_id":"YES-1","bids":[{"price":"0.41","size":"10"}],"asks":[]}"""));
+        assertTrue(ingestor.isLive("YES-1"));
+        assertEquals(1, cache.getMarket("mkt-1").getYesOrderBook().getBids().size());
+    }
+}
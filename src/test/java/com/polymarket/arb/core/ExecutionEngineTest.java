@@ -0,0 +1,186 @@
+package com.polymarket.arb.core;
+
+import com.polymarket.arb.domain.ArbitrageOpportunity;
+import com.polymarket.arb.domain.Market;
+import com.polymarket.arb.domain.OrderBook;
+import com.polymarket.arb.infra.ArbMetrics;
+import com.polymarket.arb.infra.Web3Service;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class ExecutionEngineTest {
+
+    @Test
+    void testLegsGoOutAsOneBatchWithPerLegOutcomes() {
+        // One 300 ms round-trip for the whole batch; t3 is rejected
+        Executor roundTrip = CompletableFuture.delayedExecutor(300, TimeUnit.MILLISECONDS);
+        Web3Service web3 = web3(leg -> CompletableFuture.supplyAsync(() -> !leg.tokenId().equals("t3"), roundTrip));
+        ExecutionEngine engine = engine(web3);
+
+        long start = System.nanoTime();
+        List<ExecutionEngine.LegOutcome> outcomes = engine.executeLegs(opportunity(8));
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        assertTrue(elapsedMillis < 1_000, "took " + elapsedMillis + " ms");
+        assertEquals(8, outcomes.size());
+        for (ExecutionEngine.LegOutcome outcome : outcomes) {
+            String token = outcome.request().getTokenId();
+            assertEquals(token.equals("t3") ? ExecutionEngine.LegState.REJECTED
+                    : ExecutionEngine.LegState.ACKNOWLEDGED, outcome.state(), token);
+        }
+        verify(web3, times(1)).signOrders(argThat(legs -> legs.size() == 8), any());
+        verify(web3, times(1)).submitOrders(argThat(signed -> signed.legs().size() == 8), any());
+        verify(web3, never()).executeOrder(any(), any(), any(), any(), anyBoolean(), anyBoolean(), any());
+    }
+
+    @Test
+    void testUnansweredLegsTimeOutAtTheDeadline() {
+        Web3Service web3 = web3(leg -> new CompletableFuture<>());
+        ExecutionEngine engine = engine(web3);
+
+        long start = System.nanoTime();
+        List<ExecutionEngine.LegOutcome> outcomes = engine.executeLegs(opportunity(3));
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        assertTrue(elapsedMillis < 2_000, "took " + elapsedMillis + " ms");
+        assertTrue(outcomes.stream().allMatch(o -> o.state() == ExecutionEngine.LegState.TIMED_OUT));
+    }
+
+    @Test
+    void testEachLegIsResolvedOnItsOwn() {
+        // t0 acknowledged, t1 rejected, t2 failed, t3 never answered
+        Web3Service web3 = web3(leg -> switch (leg.tokenId()) {
+            case "t0" -> CompletableFuture.completedFuture(true);
+            case "t1" -> CompletableFuture.completedFuture(false);
+            case "t2" -> CompletableFuture.failedFuture(new IllegalStateException("boom"));
+            default -> new CompletableFuture<>();
+        });
+        ExecutionEngine engine = engine(web3);
+
+        List<ExecutionEngine.LegState> states = engine.executeLegs(opportunity(4)).stream()
+                .map(ExecutionEngine.LegOutcome::state).toList();
+
+        assertEquals(List.of(ExecutionEngine.LegState.ACKNOWLEDGED, ExecutionEngine.LegState.REJECTED,
+                ExecutionEngine.LegState.REJECTED, ExecutionEngine.LegState.TIMED_OUT), states);
+    }
+
+    @Test
+    void testSigningTimeIsNotChargedToTheDeadline() {
+        Web3Service web3 = web3(leg -> CompletableFuture.completedFuture(true));
+        // Signing alone outlasts the 1 s deadline
+        when(web3.signOrders(anyList(), any())).thenAnswer(inv -> {
+            Thread.sleep(1_200);
+            return unsigned(inv.getArgument(0));
+        });
+        ExecutionEngine engine = engine(web3);
+
+        assertTrue(engine.executeLegs(opportunity(3)).stream()
+                .allMatch(o -> o.state() == ExecutionEngine.LegState.ACKNOWLEDGED));
+    }
+
+    @Test
+    void testPreFlightOnlyAbortsWhenTheEdgeIsGone() {
+        Web3Service web3 = web3(leg -> CompletableFuture.completedFuture(true));
+        MarketSnapshotCache cache = new MarketSnapshotCache();
+        for (int i = 0; i < 3; i++) {
+            cache.updateMarket(leg(i, book("0.40", "0.30", "50")));
+        }
+        LatencyJournal journal = mock(LatencyJournal.class);
+        ExecutionEngine engine = engine(web3, cache, journal);
+
+        // A deeper level moved: Σ(bid) is still 1.20
+        ArbitrageOpportunity kept = negRiskSell(cache.snapshot().version());
+        cache.updateMarket(leg(1, book("0.40", "0.30", "80")));
+        engine.execute(kept);
+        verify(journal).record(kept, "COMPLETED");
+        verify(web3, times(1)).submitOrders(any(), any());
+
+        // Best bid of one leg fell: Σ(bid) is 0.90
+        ArbitrageOpportunity dropped = negRiskSell(cache.snapshot().version());
+        cache.updateMarket(leg(1, book("0.10", "0.05", "50")));
+        engine.execute(dropped);
+        verify(journal).record(dropped, "STALE");
+        verify(web3, times(1)).submitOrders(any(), any());
+
+        // Σ(bid) is 1.0015: still an edge, but inside NegRisk's 0.002 execution buffer
+        cache.updateMarket(leg(1, book("0.40", "0.30", "50")));
+        ArbitrageOpportunity thin = negRiskSell(cache.snapshot().version());
+        cache.updateMarket(leg(1, book("0.2015", "0.05", "50")));
+        engine.execute(thin);
+        verify(journal).record(thin, "STALE");
+        verify(web3, times(1)).submitOrders(any(), any());
+    }
+
+    // Signing is a pass-through, each leg answered by ack
+    private static Web3Service web3(Function<Web3Service.LegOrder, CompletableFuture<Boolean>> ack) {
+        Web3Service web3 = mock(Web3Service.class);
+        when(web3.signOrders(anyList(), any())).thenAnswer(inv -> unsigned(inv.getArgument(0)));
+        when(web3.submitOrders(any(), any())).thenAnswer(inv -> {
+            Web3Service.SignedLegs signed = inv.getArgument(0);
+            return signed.legs().stream().map(ack).toList();
+        });
+        return web3;
+    }
+
+    private static Web3Service.SignedLegs unsigned(List<Web3Service.LegOrder> legs) {
+        return new Web3Service.SignedLegs(legs, new ArrayList<>(Collections.nCopies(legs.size(), null)));
+    }
+
+    private static ExecutionEngine engine(Web3Service web3) {
+        return engine(web3, new MarketSnapshotCache(), mock(LatencyJournal.class));
+    }
+
+    private static ExecutionEngine engine(Web3Service web3, MarketSnapshotCache cache, LatencyJournal journal) {
+        ExecutionEngine engine = new ExecutionEngine(web3, cache, ArbMetrics.simple(), journal);
+        ReflectionTestUtils.setField(engine, "legDeadlineMillis", 1_000L);
+        return engine;
+    }
+
+    private static Market leg(int i, OrderBook yes) {
+        return Market.builder().marketId("m" + i).eventId("e1").negRisk(true)
+                .outcomeIds(List.of("t" + i, "n" + i)).yesOrderBook(yes).build();
+    }
+
+    private static OrderBook book(String bestBid, String deepBid, String deepSize) {
+        return OrderBook.builder()
+                .bids(List.of(level(deepBid, deepSize), level(bestBid, "100")))
+                .asks(List.of())
+                .build();
+    }
+
+    private static OrderBook.OrderLevel level(String price, String size) {
+        return OrderBook.OrderLevel.builder().price(new BigDecimal(price)).size(new BigDecimal(size)).build();
+    }
+
+    private static ArbitrageOpportunity negRiskSell(long snapshotVersion) {
+        ArbitrageOpportunity opp = opportunity(3);
+        opp.getRequiredOrders().forEach(req -> req.setPrice(new BigDecimal("0.40")));
+        opp.setTotalCost(BigDecimal.TEN);
+        opp.setSnapshotVersion(snapshotVersion);
+        opp.setMinEdgeTicks(21); // NegRiskStrategy: execution buffer + profit threshold
+        return opp;
+    }
+
+    private static ArbitrageOpportunity opportunity(int legs) {
+        List<ArbitrageOpportunity.OrderRequest> orders = new ArrayList<>();
+        for (int i = 0; i < legs; i++) {
+            orders.add(ArbitrageOpportunity.OrderRequest.builder().tokenId("t" + i)
+                    .side(ArbitrageOpportunity.Side.SELL).size(BigDecimal.TEN).price(new BigDecimal("0.12")).build());
+        }
+        return ArbitrageOpportunity.builder().id("arb").marketId("e1")
+                .type(ArbitrageOpportunity.Type.NEGRISK_SHORT_ARB).requiredOrders(orders).build();
+    }
+}
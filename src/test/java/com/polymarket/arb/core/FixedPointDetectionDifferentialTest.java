@@ -0,0 +1,272 @@
+package com.polymarket.arb.core;
+
+import com.polymarket.arb.domain.ArbitrageOpportunity;
+import com.polymarket.arb.domain.FixedPoint;
+import com.polymarket.arb.domain.FixedPointBook;
+import com.polymarket.arb.domain.Market;
+import com.polymarket.arb.domain.OrderBook;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Fixed-point kernels vs. the original BigDecimal implementations on random (unsorted) books.
+ */
+class FixedPointDetectionDifferentialTest {
+
+    private static final BigDecimal TARGET_SIZE = new BigDecimal("10.0");
+    private final Random random = new Random(42);
+
+    @Test
+    void testKernelsMatchBigDecimalReference() {
+        for (int i = 0; i < 5_000; i++) {
+            OrderBook book = randomBook(0.5, 0.3);
+            FixedPointBook fp = FixedPointBook.of(book.getBids(), book.getAsks());
+
+            for (boolean bid : new boolean[] { true, false }) {
+                BigDecimal expectedBest = referenceBestPrice(book, !bid);
+                long best = BookKernels.bestPrice(fp, bid);
+                if (expectedBest == null) {
+                    assertEquals(FixedPoint.NONE, best);
+                } else {
+                    assertEquals(0, expectedBest.compareTo(FixedPoint.toPrice(best)));
+                }
+                assertEquals(0, referenceBestSize(book, !bid)
+                        .compareTo(FixedPoint.toSize(BookKernels.bestSize(fp, bid))));
+
+                BigDecimal expectedEffective = referenceEffectivePrice(book, TARGET_SIZE, bid);
+                long effective = BookKernels.effectivePrice(fp, FixedPoint.toSizeUnits(TARGET_SIZE), bid);
+                if (expectedEffective == null) {
+                    assertEquals(FixedPoint.NONE, effective, "book " + book);
+                } else {
+                    assertEquals(0, expectedEffective.compareTo(FixedPoint.toPrice(effective)), "book " + book);
+                }
+            }
+        }
+    }
+
+    @Test
+    void testNormalizedViewAndPrefixArrays() {
+        // CLOB order: each side worst-to-best
+        OrderBook book = OrderBook.builder()
+                .bids(List.of(level("0.45", "10"), level("0.47", "5"), level("0.48", "2.5")))
+                .asks(List.of(level("0.60", "1"), level("0.55", "3"), level("0.52", "4")))
+                .build();
+        FixedPointBook fp = book.fixedPoint();
+
+        assertEquals(4_800, fp.price(true, 0));
+        assertEquals(4_500, fp.price(true, 2));
+        assertEquals(5_200, fp.price(false, 0));
+        assertEquals(FixedPoint.toSizeUnits(new BigDecimal("17.5")), fp.cumulativeSize(true, 2));
+        assertEquals(4_800L * 2_500_000 + 4_700L * 5_000_000, fp.cumulativeNotional(true, 1));
+
+        // 2.5 @ 0.48 + 5 @ 0.47 + 2.5 @ 0.45 = 4.675 / 10 = 0.4675
+        assertEquals(4_675, BookKernels.effectivePrice(fp, FixedPoint.toSizeUnits(TARGET_SIZE), true));
+        assertEquals(FixedPoint.NONE, BookKernels.effectivePrice(fp, FixedPoint.toSizeUnits(TARGET_SIZE), false));
+    }
+
+    @Test
+    void testOversizedLevelsSaturateInsteadOfWrapping() {
+        // 5e12 shares @ 0.99: size * price and the summed size are past the long range
+        long huge = 5_000_000_000_000L * 1_000_000;
+        FixedPointBook fp = new FixedPointBook(new long[0], new long[0], 0,
+                new long[] { 9_900, 9_800 }, new long[] { huge, huge }, 2);
+
+        assertEquals(FixedPointBook.SATURATED, fp.cumulativeNotional(false, 0));
+        assertEquals(FixedPointBook.SATURATED, fp.cumulativeNotional(false, 1));
+        assertEquals(FixedPointBook.SATURATED, fp.cumulativeSize(false, 1));
+        assertEquals(FixedPoint.NONE, BookKernels.effectivePrice(fp, huge + 1, false));
+        // Within the best level (0.98) the fill is still priced exactly
+        assertEquals(9_800, BookKernels.effectivePrice(fp, FixedPoint.toSizeUnits(TARGET_SIZE), false));
+    }
+
+    @Test
+    void testMirroringOpportunitiesMatchReference() {
+        MarketSnapshotCache cache = new MarketSnapshotCache();
+        Map<String, BigDecimal[]> expected = new HashMap<>();
+
+        for (int i = 0; i < 2_000; i++) {
+            Market m = Market.builder()
+                    .marketId("bin-" + i)
+                    .yesOrderBook(randomBook(0.40 + random.nextInt(15) * 0.01, 0.1))
+                    .noOrderBook(randomBook(0.40 + random.nextInt(15) * 0.01, 0.1))
+                    .build();
+            cache.updateMarket(m);
+            BigDecimal[] ref = referenceMirroring(m);
+            if (ref != null) {
+                expected.put(m.getMarketId(), ref);
+            }
+        }
+
+        List<ArbitrageOpportunity> found = new SumOfPricesStrategy(cache).detect();
+        assertFalse(expected.isEmpty(), "Random universe should contain some arbs");
+        assertEquals(expected.size(), found.size());
+        for (ArbitrageOpportunity opp : found) {
+            BigDecimal[] ref = expected.get(opp.getMarketId());
+            assertNotNull(ref, opp.getMarketId());
+            assertEquals(0, ref[0].compareTo(opp.getTotalCost()));
+            assertEquals(0, ref[1].compareTo(opp.getEstimatedProfit()));
+        }
+    }
+
+    @Test
+    void testNegRiskOpportunitiesMatchReference() {
+        MarketSnapshotCache cache = new MarketSnapshotCache();
+        Map<String, BigDecimal> expected = new HashMap<>();
+
+        for (int e = 0; e < 500; e++) {
+            String eventId = "evt-" + e;
+            int legs = 2 + random.nextInt(6);
+            List<Market> markets = new ArrayList<>();
+            for (int l = 0; l < legs; l++) {
+                Market m = Market.builder()
+                        .marketId(eventId + "-" + l)
+                        .eventId(eventId)
+                        .conditionId("cond-" + eventId + "-" + l)
+                        .negRisk(true)
+                        .active(true)
+                        .acceptingOrders(true)
+                        .question("Event " + e + " | Leg " + l)
+                        .outcomeIds(List.of("yes-" + eventId + "-" + l, "no-" + eventId + "-" + l))
+                        .yesOrderBook(randomBook(1.1 / legs, 0.15 / legs))
+                        .noOrderBook(OrderBook.builder().build())
+                        .build();
+                markets.add(m);
+                cache.updateMarket(m);
+            }
+            BigDecimal ref = referenceNegRiskProfit(markets);
+            if (ref != null) {
+                expected.put(eventId, ref);
+            }
+        }
+
+        List<ArbitrageOpportunity> found = new NegRiskStrategy(cache).detect();
+        assertFalse(expected.isEmpty(), "Random universe should contain some arbs");
+        assertEquals(expected.size(), found.size());
+        for (ArbitrageOpportunity opp : found) {
+            assertEquals(0, expected.get(opp.getMarketId()).compareTo(opp.getEstimatedProfit()));
+            for (ArbitrageOpportunity.OrderRequest req : opp.getRequiredOrders()) {
+                Market leg = cache.getMarketsByEventId(opp.getMarketId()).stream()
+                        .filter(m -> m.getOutcomeIds().get(0).equals(req.getTokenId())).findFirst().orElseThrow();
+                assertEquals(0, referenceEffectivePrice(leg.getYesOrderBook(), TARGET_SIZE, true)
+                        .compareTo(req.getPrice()));
+            }
+        }
+    }
+
+    // --- random inputs: prices on a 0.001 grid, sizes with 2 decimals, occasional duplicate levels
+
+    private OrderBook randomBook(double mid, double spread) {
+        return OrderBook.builder()
+                .bids(randomLevels(mid - spread / 2, -1))
+                .asks(randomLevels(mid + spread / 2, 1))
+                .build();
+    }
+
+    private List<OrderBook.OrderLevel> randomLevels(double start, int direction) {
+        int n = random.nextInt(7);
+        List<OrderBook.OrderLevel> levels = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            double p = start + direction * random.nextInt(40) * 0.001;
+            int ticks = (int) Math.max(1, Math.min(999, Math.round(p * 1000)));
+            BigDecimal price = BigDecimal.valueOf(ticks, 3);
+            BigDecimal size = BigDecimal.valueOf(1 + random.nextInt(1_500), 2);
+            levels.add(OrderBook.OrderLevel.builder().price(price).size(size).build());
+            if (random.nextInt(10) == 0) {
+                levels.add(OrderBook.OrderLevel.builder().price(price).size(size).build());
+            }
+        }
+        return levels;
+    }
+
+    private static OrderBook.OrderLevel level(String price, String size) {
+        return OrderBook.OrderLevel.builder().price(new BigDecimal(price)).size(new BigDecimal(size)).build();
+    }
+
+    // --- reference: the BigDecimal detection path as it was before the fixed-point kernels
+
+    private static BigDecimal[] referenceMirroring(Market market) {
+        BigDecimal yesAsk = referenceBestPrice(market.getYesOrderBook(), true);
+        BigDecimal noBid = referenceBestPrice(market.getNoOrderBook(), false);
+        BigDecimal noAsk = referenceBestPrice(market.getNoOrderBook(), true);
+        BigDecimal yesBid = referenceBestPrice(market.getYesOrderBook(), false);
+        if (yesAsk == null || noBid == null || noAsk == null || yesBid == null)
+            return null;
+
+        BigDecimal totalCost = yesAsk.min(BigDecimal.ONE.subtract(noBid))
+                .add(noAsk.min(BigDecimal.ONE.subtract(yesBid)));
+        if (totalCost.compareTo(BigDecimal.ONE) >= 0)
+            return null;
+        BigDecimal profit = BigDecimal.ONE.subtract(totalCost);
+        return profit.compareTo(new BigDecimal("0.0001")) > 0 ? new BigDecimal[] { totalCost, profit } : null;
+    }
+
+    private static BigDecimal referenceNegRiskProfit(List<Market> markets) {
+        BigDecimal total = BigDecimal.ZERO;
+        for (Market m : markets) {
+            BigDecimal effectiveBid = referenceEffectivePrice(m.getYesOrderBook(), TARGET_SIZE, true);
+            if (effectiveBid == null || effectiveBid.compareTo(BigDecimal.ZERO) == 0)
+                return null;
+            total = total.add(effectiveBid);
+        }
+        if (total.compareTo(BigDecimal.ONE) <= 0)
+            return null;
+        BigDecimal net = total.subtract(BigDecimal.ONE).subtract(new BigDecimal("0.002"));
+        return net.compareTo(new BigDecimal("0.0001")) > 0 ? net : null;
+    }
+
+    private static BigDecimal referenceEffectivePrice(OrderBook book, BigDecimal targetSize, boolean isBid) {
+        if (book == null)
+            return null;
+        List<OrderBook.OrderLevel> levels = isBid ? book.getBids() : book.getAsks();
+        if (levels == null || levels.isEmpty())
+            return null;
+
+        BigDecimal totalValue = BigDecimal.ZERO;
+        BigDecimal remainingSize = targetSize;
+        List<OrderBook.OrderLevel> sortedLevels = new ArrayList<>(levels);
+        if (isBid) {
+            sortedLevels.sort((a, b) -> b.getPrice().compareTo(a.getPrice()));
+        } else {
+            sortedLevels.sort(Comparator.comparing(OrderBook.OrderLevel::getPrice));
+        }
+        for (OrderBook.OrderLevel level : sortedLevels) {
+            BigDecimal fillSize = remainingSize.min(level.getSize());
+            totalValue = totalValue.add(fillSize.multiply(level.getPrice()));
+            remainingSize = remainingSize.subtract(fillSize);
+            if (remainingSize.compareTo(BigDecimal.ZERO) <= 0)
+                break;
+        }
+        if (remainingSize.compareTo(BigDecimal.ZERO) > 0)
+            return null;
+        return totalValue.divide(targetSize, 4, RoundingMode.HALF_UP);
+    }
+
+    private static BigDecimal referenceBestPrice(OrderBook book, boolean isAsk) {
+        List<OrderBook.OrderLevel> levels = isAsk ? book.getAsks() : book.getBids();
+        if (levels == null || levels.isEmpty())
+            return null;
+        return isAsk ? levels.stream().map(OrderBook.OrderLevel::getPrice).min(Comparator.naturalOrder()).orElse(null)
+                : levels.stream().map(OrderBook.OrderLevel::getPrice).max(Comparator.naturalOrder()).orElse(null);
+    }
+
+    private static BigDecimal referenceBestSize(OrderBook book, boolean isAsk) {
+        List<OrderBook.OrderLevel> levels = isAsk ? book.getAsks() : book.getBids();
+        if (levels == null || levels.isEmpty())
+            return BigDecimal.ZERO;
+        return isAsk
+                ? levels.stream().min(Comparator.comparing(OrderBook.OrderLevel::getPrice))
+                        .map(OrderBook.OrderLevel::getSize).orElse(BigDecimal.ZERO)
+                : levels.stream().max(Comparator.comparing(OrderBook.OrderLevel::getPrice))
+                        .map(OrderBook.OrderLevel::getSize).orElse(BigDecimal.ZERO);
+    }
+}
@@ -0,0 +1,74 @@
+package com.polymarket.arb.core;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.polymarket.arb.domain.ArbitrageOpportunity;
+import com.polymarket.arb.domain.FixedPointBook;
+import com.polymarket.arb.domain.LatencyLineage;
+import com.polymarket.arb.domain.OrderBook;
+import com.polymarket.arb.infra.ClockOffsetEstimator;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class LatencyJournalTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void testBreakdownOnLocalClock() throws Exception {
+        ClockOffsetEstimator clock = mock(ClockOffsetEstimator.class);
+        when(clock.offsetMillis()).thenReturn(200L); // Exchange 200ms ahead
+        when(clock.uncertaintyMillis()).thenReturn(15L);
+
+        long detected = 1_700_000_010_000_000L; // Local epoch micros
+        ArbitrageOpportunity opp = ArbitrageOpportunity.builder()
+                .id("arb-1")
+                .marketId("m1")
+                .type(ArbitrageOpportunity.Type.SYNTHETIC_ARBITRAGE)
+                .snapshotVersion(42)
+                .build();
+        LatencyLineage lineage = opp.getLineage();
+        // Leg books: exchange-stamped 1.2s / 0.4s before detection (local), received 1.0s / 0.15s before
+        lineage.addLeg(book(1_700_000_008_800L + 200, detected - 1_000_000));
+        lineage.addLeg(book(1_700_000_009_600L + 200, detected - 150_000));
+        lineage.markDetected(detected);
+
+        Path file = dir.resolve("journal/latency.jsonl");
+        LatencyJournal journal = new LatencyJournal(clock, true, file.toString());
+        journal.record(opp, "COMPLETED");
+        journal.record(opp, "STALE");
+        journal.close();
+
+        List<String> lines = Files.readAllLines(file);
+        assertEquals(2, lines.size());
+        JsonNode entry = new ObjectMapper().readTree(lines.get(0));
+        assertEquals("arb-1", entry.path("id").asText());
+        assertEquals("COMPLETED", entry.path("outcome").asText());
+        assertEquals(200, entry.path("clockOffsetMs").asLong());
+        assertEquals(detected, entry.path("at").path("detectedUs").asLong());
+        assertFalse(entry.path("at").has("signedUs"), "milestones not reached are omitted");
+
+        JsonNode ms = entry.path("latencyMs");
+        assertEquals(1_200.0, ms.path("bookAge").asDouble(), 1e-9);
+        assertEquals(250.0, ms.path("transit").asDouble(), 1e-9);
+        assertEquals(150.0, ms.path("receiveToDetect").asDouble(), 1e-9);
+        assertFalse(ms.has("detectToAck"));
+        assertEquals("STALE", new ObjectMapper().readTree(lines.get(1)).path("outcome").asText());
+    }
+
+    private static OrderBook book(long exchangeMillis, long receivedMicros) {
+        return OrderBook.builder()
+                .fixedPoint(FixedPointBook.EMPTY)
+                .exchangeTimestamp(exchangeMillis)
+                .receivedAtMicros(receivedMicros)
+                .build();
+    }
+}
@@ -0,0 +1,115 @@
+package com.polymarket.arb.core;
+
+import com.polymarket.arb.domain.EventMetadata;
+import com.polymarket.arb.domain.MarketMetadata;
+import com.polymarket.arb.infra.PolymarketApiClient;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class MarketCatalogTest {
+
+    @Test
+    void testFetchesPagesInWavesUntilShortPage() {
+        PolymarketApiClient apiClient = mock(PolymarketApiClient.class);
+        // 2 full pages of 10, then a short page of 5
+        when(apiClient.getMarketsAsync(anyInt(), anyString())).thenAnswer(inv -> {
+            int offset = Integer.parseInt(inv.getArgument(1));
+            int count = offset < 20 ? 10 : offset == 20 ? 5 : 0;
+            return CompletableFuture.completedFuture(page(offset, count));
+        });
+        MarketCatalog catalog = new MarketCatalog(apiClient, 10, 4, 1000, "markets");
+
+        MarketCatalog.Diff diff = catalog.sync();
+
+        assertEquals(25, diff.added().size());
+        assertEquals(25, catalog.getAll().size());
+        // One wave of 4 concurrent page requests covers the whole listing
+        verify(apiClient, times(4)).getMarketsAsync(anyInt(), anyString());
+    }
+
+    @Test
+    void testDiffReportsAddedRemovedChanged() {
+        PolymarketApiClient apiClient = mock(PolymarketApiClient.class);
+        MarketCatalog catalog = new MarketCatalog(apiClient, 100, 2, 1000, "markets");
+        List<MarketCatalog.Diff> seen = new ArrayList<>();
+        catalog.addListener(seen::add);
+
+        when(apiClient.getMarketsAsync(anyInt(), anyString())).thenReturn(
+                CompletableFuture.completedFuture(List.of(meta("1", true, "10"), meta("2", true, "10"))));
+        catalog.sync();
+
+        // 1 stops accepting orders, 2 only drifts in volume, 3 is new, nothing else
+        when(apiClient.getMarketsAsync(anyInt(), anyString())).thenReturn(
+                CompletableFuture.completedFuture(List.of(meta("1", false, "10"), meta("3", true, "10"))),
+                CompletableFuture.completedFuture(List.of()));
+        MarketCatalog.Diff diff = catalog.sync();
+
+        assertEquals(List.of("3"), diff.added().stream().map(MarketMetadata::getMarketId).toList());
+        assertEquals(List.of("2"), diff.removed());
+        assertEquals(List.of("1"), diff.changed().stream().map(MarketMetadata::getMarketId).toList());
+        assertEquals(2, seen.size());
+
+        // Only volume drift: no diff, no listener call
+        when(apiClient.getMarketsAsync(anyInt(), anyString())).thenReturn(
+                CompletableFuture.completedFuture(List.of(meta("1", false, "99"), meta("3", true, "10"))),
+                CompletableFuture.completedFuture(List.of()));
+        assertTrue(catalog.sync().isEmpty());
+        assertEquals(2, seen.size());
+    }
+
+    @Test
+    void testEventSourceKeepsGroupsWholeUnderCap() {
+        PolymarketApiClient apiClient = mock(PolymarketApiClient.class);
+        // Events of 3 legs each; a cap of 5 markets fits one event, never a partial second one
+        when(apiClient.getEventsAsync(anyInt(), anyString())).thenAnswer(inv -> {
+            int offset = Integer.parseInt(inv.getArgument(1));
+            List<EventMetadata> events = offset == 0
+                    ? List.of(event("e1", "1", "2", "3"), event("e2", "4", "5", "6"))
+                    : List.of();
+            return CompletableFuture.completedFuture(events);
+        });
+        MarketCatalog catalog = new MarketCatalog(apiClient, 2, 2, 5, "events");
+
+        catalog.sync();
+
+        assertEquals(3, catalog.getAll().size());
+        assertEquals(List.of("1", "2", "3"), catalog.getByEvent("e1").stream().map(MarketMetadata::getMarketId).toList());
+        assertTrue(catalog.getByEvent("e2").isEmpty());
+        verify(apiClient, never()).getMarketsAsync(anyInt(), anyString());
+    }
+
+    private static EventMetadata event(String eventId, String... marketIds) {
+        List<MarketMetadata> legs = new ArrayList<>();
+        for (String id : marketIds) {
+            MarketMetadata leg = meta(id, true, "1");
+            leg.setEventId(eventId);
+            leg.setNegRisk(true);
+            legs.add(leg);
+        }
+        return EventMetadata.builder().eventId(eventId).negRisk(true).markets(legs).build();
+    }
+
+    private static List<MarketMetadata> page(int offset, int count) {
+        return IntStream.range(offset, offset + count).mapToObj(i -> meta(String.valueOf(i), true, "1")).toList();
+    }
+
+    private static MarketMetadata meta(String id, boolean acceptingOrders, String volume) {
+        return MarketMetadata.builder()
+                .marketId(id)
+                .tokenIds(List.of(id + "-Y", id + "-N"))
+                .active(true)
+                .acceptingOrders(acceptingOrders)
+                .volume(new BigDecimal(volume))
+                .build();
+    }
+}
@@ -0,0 +1,188 @@
+package com.polymarket.arb.core;
+
+import com.polymarket.arb.domain.Market;
+import com.polymarket.arb.domain.OrderBook;
+import com.polymarket.arb.infra.ArbMetrics;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MarketSnapshotCacheTest {
+
+    @Test
+    void testChangesSinceVersion() {
+        MarketSnapshotCache cache = new MarketSnapshotCache();
+        cache.updateMarket(Market.builder().marketId("m1").eventId("e1").build());
+        long v = cache.getVersion();
+
+        cache.updateMarket(Market.builder().marketId("m2").eventId("e2").build());
+        cache.updateMarket(Market.builder().marketId("m2").eventId("e2").build());
+        cache.updateMarket(Market.builder().marketId("m3").build());
+
+        DirtySet changes = cache.changesSince(v);
+        assertFalse(changes.full());
+        assertEquals(Set.of("m2", "m3"), changes.marketIds());
+        assertEquals(Set.of("e2"), changes.eventIds());
+        assertEquals(cache.getVersion(), changes.toVersion());
+
+        assertTrue(cache.changesSince(changes.toVersion()).isEmpty());
+    }
+
+    @Test
+    void testEventMoveDirtiesBothGroups() {
+        MarketSnapshotCache cache = new MarketSnapshotCache();
+        cache.updateMarket(Market.builder().marketId("m1").eventId("e1").build());
+        long v = cache.getVersion();
+        cache.updateMarket(Market.builder().marketId("m1").eventId("e2").build());
+
+        assertEquals(Set.of("e1", "e2"), cache.changesSince(v).eventIds());
+    }
+
+    @Test
+    void testJournalOverflowFallsBackToFullScan() {
+        ChangeJournal journal = new ChangeJournal(4);
+        for (int i = 0; i < 10; i++) {
+            journal.append("m" + i, null);
+        }
+        assertTrue(journal.since(0).full());
+        // Versions start at 1, so m6..m9 are versions 7..10
+        assertEquals(Set.of("m6", "m7", "m8", "m9"), journal.since(6).marketIds());
+    }
+
+    @Test
+    void testJournalBatchCap() {
+        ChangeJournal journal = new ChangeJournal(16);
+        for (int i = 0; i < 10; i++) {
+            journal.append(i < 5 ? "m1" : "m" + i, null);
+        }
+        DirtySet first = journal.since(0, 6);
+        assertEquals(6, first.toVersion());
+        assertEquals(Set.of("m1", "m5"), first.marketIds());
+        DirtySet rest = journal.since(first.toVersion(), 6);
+        assertEquals(10, rest.toVersion());
+        assertEquals(Set.of("m6", "m7", "m8", "m9"), rest.marketIds());
+    }
+
+    @Test
+    void testSecondaryIndexes() {
+        MarketSnapshotCache cache = new MarketSnapshotCache();
+        cache.updateMarket(Market.builder().marketId("m1").eventId("e1").conditionId("c1").negRisk(true)
+                .outcomeIds(List.of("Y1", "N1")).build());
+        cache.updateMarket(Market.builder().marketId("m2").eventId("e1").conditionId("c2").negRisk(true)
+                .outcomeIds(List.of("Y2", "N2")).build());
+        cache.updateMarket(Market.builder().marketId("m3").eventId("e2").conditionId("c3")
+                .outcomeIds(List.of("Y3", "N3")).build());
+
+        assertEquals(2, cache.getMarketsByEventId("e1").size());
+        assertEquals("m2", cache.getMarketsByConditionId("c2").get(0).getMarketId());
+        assertEquals(new MarketSnapshotCache.TokenRef("m1", 1), cache.getTokenRef("N1"));
+        assertEquals(Set.of("e1"), cache.getNegRiskEventIds());
+
+        // m1 leaves the event, m2 stops being negRisk -> e1 is no longer a negRisk event
+        cache.updateMarket(Market.builder().marketId("m1").eventId("e2").conditionId("c1").negRisk(true)
+                .outcomeIds(List.of("Y1", "N1")).build());
+        assertEquals(Set.of("e1", "e2"), cache.getNegRiskEventIds());
+        cache.updateMarket(Market.builder().marketId("m2").eventId("e1").conditionId("c2")
+                .outcomeIds(List.of("Y2", "N2")).build());
+        assertEquals(Set.of("e2"), cache.getNegRiskEventIds());
+        assertEquals(2, cache.getMarketsByEventId("e2").size());
+
+        cache.removeMarket("m3");
+        assertEquals(List.of("m1"), cache.getMarketsByEventId("e2").stream().map(Market::getMarketId).toList());
+        assertNull(cache.getTokenRef("Y3"));
+    }
+
+    @Test
+    void testIndexesConsistentUnderConcurrentWriters() {
+        MarketSnapshotCache cache = new MarketSnapshotCache();
+        try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int t = 0; t < 16; t++) {
+                int seed = t;
+                executor.submit(() -> {
+                    for (int i = 0; i < 2_000; i++) {
+                        int m = (i * 31 + seed) % 50;
+                        cache.updateMarket(Market.builder().marketId("m" + m).eventId("e" + ((i + seed) % 5))
+                                .negRisk((i + seed) % 3 == 0).outcomeIds(List.of("Y" + m, "N" + m)).build());
+                    }
+                });
+            }
+        }
+
+        for (int e = 0; e < 5; e++) {
+            String eventId = "e" + e;
+            List<Market> expected = cache.getAllMarkets().stream().filter(m -> eventId.equals(m.getEventId())).toList();
+            assertEquals(Set.copyOf(expected), Set.copyOf(cache.getMarketsByEventId(eventId)));
+            assertEquals(expected.stream().anyMatch(Market::isNegRisk), cache.getNegRiskEventIds().contains(eventId));
+        }
+    }
+
+    @Test
+    void testPinnedSnapshotIsIsolatedFromLaterWrites() {
+        MarketSnapshotCache cache = new MarketSnapshotCache();
+        cache.updateMarkets(List.of(
+                Market.builder().marketId("m1").eventId("e1").negRisk(true).question("v1").build(),
+                Market.builder().marketId("m2").eventId("e1").negRisk(true).question("v1").build()));
+        MarketSnapshot pinned = cache.snapshot();
+        assertEquals(1, pinned.version()); // One publish for the whole batch
+
+        cache.updateMarket(Market.builder().marketId("m1").eventId("e1").negRisk(true).question("v2").build());
+        cache.removeMarket("m2");
+
+        assertEquals(List.of("v1", "v1"), pinned.getMarketsByEventId("e1").stream().map(Market::getQuestion).sorted()
+                .toList());
+        assertEquals(List.of("v2"), cache.getMarketsByEventId("e1").stream().map(Market::getQuestion).toList());
+        assertTrue(cache.snapshot().changedSince(List.of("m1"), pinned.version()));
+        assertTrue(cache.snapshot().changedSince(List.of("m2"), pinned.version())); // removed
+        assertFalse(pinned.changedSince(List.of("m1", "m2"), pinned.version()));
+    }
+
+    @Test
+    void testUpdateBooksSkipsUnchangedAndStaleBooks() {
+        ArbMetrics metrics = ArbMetrics.simple();
+        MarketSnapshotCache cache = new MarketSnapshotCache(metrics);
+        OrderBook current = OrderBook.builder().marketId("Y1").hash("h1").exchangeTimestamp(200).build();
+        cache.updateMarket(Market.builder().marketId("m1").outcomeIds(List.of("Y1", "N1")).yesOrderBook(current)
+                .build());
+        long v = cache.getVersion();
+
+        assertEquals(0, cache.updateBooks(Map.of("Y1", current)));
+        assertEquals(0, cache.updateBooks(Map.of("Y1", OrderBook.builder().hash("h1").exchangeTimestamp(300).build())));
+        assertEquals(0, cache.updateBooks(Map.of("Y1", OrderBook.builder().hash("h0").exchangeTimestamp(100).build())));
+        assertTrue(cache.changesSince(v).isEmpty(), "No-op updates must not reach the journal");
+
+        OrderBook next = OrderBook.builder().hash("h2").exchangeTimestamp(300).build();
+        OrderBook no = OrderBook.builder().hash("n1").build();
+        assertEquals(2, cache.updateBooks(Map.of("Y1", next, "N1", no, "unknown", no)));
+        assertSame(next, cache.getBook("Y1"));
+        assertSame(no, cache.getMarket("m1").getNoOrderBook());
+        assertEquals(Set.of("m1"), cache.changesSince(v).marketIds());
+        // The unknown token is neither written nor skipped
+        assertEquals(3.0 / 5, cache.getBookSkipRatio(), 1e-9);
+        assertEquals(2, metrics.registry().get("arb.books.written").functionCounter().count());
+        assertEquals(3, metrics.registry().get("arb.books.skipped").functionCounter().count());
+    }
+
+    @Test
+    void testUpdateMetadataKeepsCurrentBooks() {
+        MarketSnapshotCache cache = new MarketSnapshotCache();
+        OrderBook old = OrderBook.builder().marketId("Y1").hash("h1").exchangeTimestamp(100).build();
+        cache.updateMarket(Market.builder().marketId("m1").eventId("e1").question("v1")
+                .outcomeIds(List.of("Y1", "N1")).yesOrderBook(old).build());
+        Market.MarketBuilder stale = cache.getMarket("m1").toBuilder();
+
+        OrderBook live = OrderBook.builder().marketId("Y1").hash("h2").exchangeTimestamp(200).build();
+        cache.updateBooks(Map.of("Y1", live));
+        long v = cache.getVersion();
+
+        assertTrue(cache.updateMetadata("m1", builder -> builder.question("v2").eventId("e2")));
+        assertSame(live, cache.getBook("Y1"), "A metadata write must not roll the book back");
+        assertEquals("v2", cache.getMarket("m1").getQuestion());
+        assertEquals(Set.of("e1", "e2"), cache.changesSince(v).eventIds());
+        assertFalse(cache.updateMetadata("m9", builder -> stale));
+    }
+}
@@ -0,0 +1,70 @@
+package com.polymarket.arb.core;
+
+import com.polymarket.arb.domain.ArbitrageOpportunity;
+import com.polymarket.arb.domain.Market;
+import com.polymarket.arb.domain.OrderBook;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OpportunityDeduplicatorTest {
+
+    private static final long TTL = TimeUnit.SECONDS.toNanos(5);
+
+    @Test
+    void testSameNegRiskMispricingFromBothStrategiesExecutesOnce() {
+        MarketSnapshotCache cache = new MarketSnapshotCache();
+        cache.updateMarket(leg("mkt-A", "TokenA", "0.60"));
+        cache.updateMarket(leg("mkt-B", "TokenB", "0.50"));
+        MarketSnapshot snapshot = cache.snapshot();
+
+        // Keyed by conditionId at the best bid vs by eventId at the effective bid
+        List<ArbitrageOpportunity> bySum = new SumOfPricesStrategy(cache).detect(snapshot);
+        List<ArbitrageOpportunity> byEvent = new NegRiskStrategy(cache).detect(snapshot);
+        assertEquals(1, bySum.size());
+        assertEquals(1, byEvent.size());
+        assertEquals(OpportunityDeduplicator.fingerprint(snapshot, bySum.get(0)),
+                OpportunityDeduplicator.fingerprint(snapshot, byEvent.get(0)));
+
+        OpportunityDeduplicator deduplicator = new OpportunityDeduplicator();
+        Map<String, ArbitrageOpportunity> merged = deduplicator.merge(snapshot, List.of(bySum, byEvent));
+        assertEquals(List.of(bySum.get(0)), List.copyOf(merged.values()), "first detector wins");
+
+        // Not handed to execution (e.g. its event was still executing): found again next pass
+        assertEquals(1, deduplicator.merge(snapshot, List.of(new NegRiskStrategy(cache).detect(snapshot))).size());
+
+        // Same books rescanned while the first one executes: suppressed
+        merged.keySet().forEach(fingerprint -> deduplicator.markExecuted(fingerprint, TTL));
+        assertTrue(deduplicator.merge(snapshot, List.of(new NegRiskStrategy(cache).detect(snapshot))).isEmpty());
+
+        // A moved level on any leg is a new opportunity
+        cache.updateMarket(leg("mkt-B", "TokenB", "0.51"));
+        MarketSnapshot moved = cache.snapshot();
+        assertEquals(1, deduplicator.merge(moved, List.of(new NegRiskStrategy(cache).detect(moved))).size());
+    }
+
+    private static Market leg(String marketId, String yesToken, String bid) {
+        OrderBook yes = OrderBook.builder()
+                .bids(List.of(OrderBook.OrderLevel.builder().price(new BigDecimal(bid)).size(new BigDecimal("100"))
+                        .build()))
+                .asks(List.of())
+                .build();
+        return Market.builder()
+                .marketId(marketId)
+                .conditionId("0xCondition")
+                .eventId("evt-1")
+                .negRisk(true)
+                .active(true)
+                .acceptingOrders(true)
+                .question("Who wins? | " + marketId)
+                .outcomeIds(List.of(yesToken, "No" + yesToken))
+                .yesOrderBook(yes)
+                .noOrderBook(OrderBook.builder().bids(List.of()).asks(List.of()).build())
+                .build();
+    }
+}
@@ -0,0 +1,134 @@
+package com.polymarket.arb.core;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.polymarket.arb.domain.ArbitrageOpportunity;
+import com.polymarket.arb.infra.ApiRateLimiters;
+import com.polymarket.arb.infra.ArbMetrics;
+import com.polymarket.arb.infra.ClockOffsetEstimator;
+import com.polymarket.arb.infra.PolymarketApiClient;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Catalog sync, book snapshots, cache and both detectors end to end against a synthetic
+ * Gamma / CLOB server. The small run is part of the suite; the load run is opt-in:
+ * <pre>
+ * mvn test -Dtest=PipelineLoadTest -Dload.markets=25000 [-Dload.depth=10] [-Dload.arb-rate=0.002]
+ *          [-Dload.book-rate=8]   # production CLOB pacing, unthrottled by default
+ * </pre>
+ */
+@Slf4j
+class PipelineLoadTest {
+
+    @Test
+    void testInjectedArbsSurviveIngestAndDetection() throws Exception {
+        Report report = run(SyntheticUniverse.generate(2_000, 5, 2, 50, 0.05, 11), 1_000);
+
+        assertEquals(2_000, report.markets());
+        assertFalse(report.injected().isEmpty());
+        assertEquals(report.injected(), report.found(), "every injected arb found, nothing else");
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = "load.markets", matches = "\\d+")
+    void testLoad() throws Exception {
+        int markets = Integer.getInteger("load.markets");
+        SyntheticUniverse universe = SyntheticUniverse.generate(markets, Integer.getInteger("load.depth", 10), 2, 50,
+                Double.parseDouble(System.getProperty("load.arb-rate", "0.002")), 42);
+        Report report = run(universe, Double.parseDouble(System.getProperty("load.book-rate", "1000")));
+
+        log.info("{}", report);
+        assertEquals(markets, report.markets());
+        assertEquals(report.injected(), report.found());
+    }
+
+    record Report(int markets, long tokens, long catalogMillis, long booksMillis, long bookRequests,
+            long[] sumOfPricesMicros, long[] negRiskMicros, Set<String> injected, Set<String> found) {
+
+        double marketsPerSecond() {
+            return markets * 1_000.0 / Math.max(1, catalogMillis + booksMillis);
+        }
+
+        double foundRate() {
+            return injected.isEmpty() ? 1 : (double) found.stream().filter(injected::contains).count() / injected.size();
+        }
+
+        @Override
+        public String toString() {
+            return String.format("""
+                    Pipeline load: %d markets / %d tokens
+                      ingest      catalog %d ms, books %d ms (%d POST /books), %.0f markets/s
+                      detection   SumOfPrices full scan p50 %d us, max %d us | NegRisk p50 %d us, max %d us
+                      arbs        %d injected, %d found (%.1f%%), %d not injected""",
+                    markets, tokens, catalogMillis, booksMillis, bookRequests, marketsPerSecond(),
+                    percentile(sumOfPricesMicros, 50), percentile(sumOfPricesMicros, 100),
+                    percentile(negRiskMicros, 50), percentile(negRiskMicros, 100),
+                    injected.size(), found.size(), foundRate() * 100,
+                    found.stream().filter(id -> !injected.contains(id)).count());
+        }
+
+        private static long percentile(long[] sorted, int p) {
+            return sorted[Math.min(sorted.length - 1, sorted.length * p / 100)];
+        }
+    }
+
+    private static Report run(SyntheticUniverse universe, double bookRate) throws Exception {
+        int markets = universe.markets().size();
+        try (SyntheticExchange exchange = new SyntheticExchange(universe)) {
+            ApiRateLimiters limiters = new ApiRateLimiters(1_000, 100, bookRate, (int) Math.max(1, bookRate * 2),
+                    100, 10);
+            PolymarketApiClient apiClient = new PolymarketApiClient(new ObjectMapper(), "", exchange.url(),
+                    exchange.url(), limiters, ArbMetrics.simple(), new ClockOffsetEstimator(), 16, 64);
+            try {
+                MarketSnapshotCache cache = new MarketSnapshotCache();
+                MarketCatalog catalog = new MarketCatalog(apiClient, 100, 4, markets, "events");
+                MarketIngestor ingestor = new MarketIngestor(apiClient, catalog, cache,
+                        mock(BookStreamIngestor.class), mock(RefreshScheduler.class));
+
+                long start = System.nanoTime();
+                catalog.sync();
+                long synced = System.nanoTime();
+                ingestor.refreshBooks(); // Snapshots every catalog market, joined
+                long ingested = System.nanoTime();
+
+                MarketSnapshot snapshot = cache.snapshot();
+                SumOfPricesStrategy sumOfPrices = new SumOfPricesStrategy(cache);
+                NegRiskStrategy negRisk = new NegRiskStrategy(cache);
+                Set<String> found = new HashSet<>();
+                int runs = 20;
+                long[] sumOfPricesMicros = new long[runs];
+                long[] negRiskMicros = new long[runs];
+                for (int i = 0; i < runs; i++) {
+                    long t0 = System.nanoTime();
+                    List<ArbitrageOpportunity> binary = sumOfPrices.detect(snapshot);
+                    long t1 = System.nanoTime();
+                    List<ArbitrageOpportunity> events = negRisk.detect(snapshot);
+                    long t2 = System.nanoTime();
+                    sumOfPricesMicros[i] = (t1 - t0) / 1_000;
+                    negRiskMicros[i] = (t2 - t1) / 1_000;
+                    if (i == 0) {
+                        binary.forEach(opp -> found.add(opp.getMarketId()));
+                        events.forEach(opp -> found.add(opp.getMarketId()));
+                    }
+                }
+                Arrays.sort(sumOfPricesMicros);
+                Arrays.sort(negRiskMicros);
+
+                return new Report(snapshot.size(), exchange.booksServed(), (synced - start) / 1_000_000,
+                        (ingested - synced) / 1_000_000, exchange.bookRequests(), sumOfPricesMicros, negRiskMicros,
+                        universe.injectedArbs(), found);
+            } finally {
+                apiClient.shutdown();
+            }
+        }
+    }
+}
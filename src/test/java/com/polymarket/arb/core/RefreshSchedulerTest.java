@@ -0,0 +1,96 @@
+package com.polymarket.arb.core;
+
+import com.polymarket.arb.domain.Market;
+import com.polymarket.arb.domain.OrderBook;
+import com.polymarket.arb.infra.ApiRateLimiters;
+import com.polymarket.arb.infra.ArbMetrics;
+import com.polymarket.arb.infra.PolymarketApiClient;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class RefreshSchedulerTest {
+
+    @Test
+    void testScoreMapsBoundaryDistanceToInterval() {
+        long atBoundary = RefreshScheduler.intervalMillis(RefreshScheduler.score(0, 50, 1e6, 1e7), 300, 60_000);
+        long near = RefreshScheduler.intervalMillis(RefreshScheduler.score(100, 0, 1e4, 1e5), 300, 60_000);
+        long far = RefreshScheduler.intervalMillis(RefreshScheduler.score(4_000, 0, 0, 0), 300, 60_000);
+
+        assertTrue(atBoundary < 1_000, "at boundary " + atBoundary);
+        assertTrue(near < far);
+        assertEquals(60_000, far);
+        assertEquals(300, RefreshScheduler.intervalMillis(1.0, 300, 60_000));
+    }
+
+    @Test
+    void testDispatchesOnlyDueUnitsAndAppliesBooks() throws Exception {
+        MarketSnapshotCache cache = new MarketSnapshotCache();
+        PolymarketApiClient apiClient = mock(PolymarketApiClient.class);
+        BookStreamIngestor bookStream = mock(BookStreamIngestor.class);
+        ApiRateLimiters limiters = new ApiRateLimiters(100, 10, 100, 10, 100, 10);
+        ArbMetrics metrics = ArbMetrics.simple();
+        RefreshScheduler scheduler = new RefreshScheduler(apiClient, cache, bookStream, limiters, metrics,
+                true, 1, 60_000, 4, 100);
+
+        // Σ bids = 1.00: right on the boundary, hot. Σ bids = 0.60, Σ asks = 1.40: cold.
+        Market hot = market("hot", "Y1", "N1", "0.50", "0.52", "0.50", "0.52");
+        Market cold = market("cold", "Y2", "N2", "0.30", "0.70", "0.30", "0.70").toBuilder()
+                .liquidity(null).volume(null).build();
+        cache.updateMarket(hot);
+        cache.updateMarket(cold);
+        scheduler.register(hot);
+        scheduler.register(cold);
+        assertTrue(scheduler.currentIntervalMillis("hot") < 50);
+        assertEquals(60_000, scheduler.currentIntervalMillis("cold"));
+
+        OrderBook refreshed = book("Y1", "0.55", "0.56");
+        when(apiClient.getOrderBooksAsync(anyCollection(), any()))
+                .thenReturn(CompletableFuture.completedFuture(Map.of("Y1", refreshed)));
+
+        Thread.sleep(60);
+        assertEquals(1, scheduler.dispatchDue());
+
+        verify(apiClient).getOrderBooksAsync(eq(List.of("Y1", "N1")), any());
+        assertSame(refreshed, cache.getMarket("hot").getYesOrderBook());
+        assertNotNull(cache.getMarket("hot").getNoOrderBook()); // missing book keeps the previous one
+        verify(apiClient, never()).getOrderBooksAsync(argThat(tokens -> tokens.contains("Y2")), any()); // cold not due
+
+        // Staleness is exported as gauges, not only logged
+        scheduler.reportStaleness();
+        MeterRegistry registry = metrics.registry();
+        assertEquals(2, registry.get("arb.books.staleness.markets").gauge().value());
+        double max = registry.get("arb.books.staleness").tag("quantile", "max").gauge().value();
+        assertTrue(max >= 60, "max " + max); // cold was written before the sleep
+        assertTrue(registry.get("arb.books.staleness").tag("quantile", "0.5").gauge().value() <= max);
+    }
+
+    private static Market market(String id, String yesToken, String noToken, String yesBid, String yesAsk,
+            String noBid, String noAsk) {
+        return Market.builder()
+                .marketId(id)
+                .outcomeIds(List.of(yesToken, noToken))
+                .yesOrderBook(book(yesToken, yesBid, yesAsk))
+                .noOrderBook(book(noToken, noBid, noAsk))
+                .liquidity(new BigDecimal("1000000"))
+                .volume(new BigDecimal("10000000"))
+                .lastUpdated(Instant.now())
+                .build();
+    }
+
+    private static OrderBook book(String token, String bid, String ask) {
+        return OrderBook.builder()
+                .marketId(token)
+                .bids(List.of(OrderBook.OrderLevel.builder().price(new BigDecimal(bid)).size(BigDecimal.TEN).build()))
+                .asks(List.of(OrderBook.OrderLevel.builder().price(new BigDecimal(ask)).size(BigDecimal.TEN).build()))
+                .build();
+    }
+}
@@ -0,0 +1,73 @@
+package com.polymarket.arb.core;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ShardedMapTest {
+
+    @Test
+    void testEditsMatchHashMapAndLeavePublishedVersionsIntact() {
+        Random random = new Random(3);
+        Map<String, Integer> expected = new HashMap<>();
+        ShardedMap<String, Integer> map = ShardedMap.empty();
+        for (int round = 0; round < 50; round++) {
+            ShardedMap<String, Integer> before = map;
+            Map<String, Integer> expectedBefore = new HashMap<>(expected);
+
+            ShardedMap.Editor<String, Integer> editor = map.edit();
+            for (int i = 0; i < 500; i++) {
+                String key = "k" + random.nextInt(20_000);
+                if (random.nextInt(4) == 0) {
+                    editor.remove(key);
+                    expected.remove(key);
+                } else {
+                    editor.put(key, round);
+                    expected.put(key, round);
+                }
+            }
+            map = editor.publish();
+
+            assertEquals(expected.size(), map.size());
+            Map<String, Integer> actual = new HashMap<>();
+            map.forEach(actual::put);
+            assertEquals(expected, actual);
+            // Copy-on-write: the previous version is unchanged
+            Map<String, Integer> previous = new HashMap<>();
+            before.forEach(previous::put);
+            assertEquals(expectedBefore, previous);
+            assertEquals(expectedBefore.size(), before.size());
+        }
+    }
+
+    @Test
+    void testKeysOfOneLeafSpreadOverItsBuckets() {
+        // 100k market ids and 77-digit token ids: ~25 / ~50 keys per leaf
+        Map<Integer, List<String>> leaves = new HashMap<>();
+        for (int i = 0; i < 100_000; i++) {
+            String marketId = Integer.toString(500_000 + i);
+            String tokenId = "2182510759576023067743014730885447325494909253494648516754763519655691" + (1_000_000 + i);
+            leaves.computeIfAbsent(ShardedMap.shardOf(marketId), k -> new ArrayList<>()).add(marketId);
+            leaves.computeIfAbsent(ShardedMap.shardOf(tokenId), k -> new ArrayList<>()).add(tokenId);
+        }
+        assertEquals(64 * 64, leaves.size(), "every leaf used");
+
+        int longestChain = 0;
+        for (List<String> keys : leaves.values()) {
+            // Bucket as java.util.HashMap picks it, in a table of 128 (keys / 0.75, power of two)
+            Map<Integer, Integer> chains = new HashMap<>();
+            for (String key : keys) {
+                int h = key.hashCode();
+                chains.merge((h ^ (h >>> 16)) & 127, 1, Integer::sum);
+            }
+            longestChain = Math.max(longestChain, chains.values().stream().max(Integer::compare).orElse(0));
+        }
+        assertTrue(longestChain <= 8, "longest bucket chain in a leaf: " + longestChain);
+    }
+}
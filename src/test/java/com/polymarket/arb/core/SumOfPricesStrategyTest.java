@@ -9,8 +9,6 @@ import java.math.BigDecimal;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
-import static org.mockito.Mockito.*;
-
 class SumOfPricesStrategyTest {
 
         @Test
@@ -42,8 +40,7 @@ class SumOfPricesStrategyTest {
                 cache.updateMarket(mockMarket);
 
                 // 2. 运行策略
-                com.polymarket.arb.infra.Web3Service mockWeb3Service = mock(com.polymarket.arb.infra.Web3Service.class);
-                SumOfPricesStrategy strategy = new SumOfPricesStrategy(cache, mockWeb3Service);
+                SumOfPricesStrategy strategy = new SumOfPricesStrategy(cache);
                 List<ArbitrageOpportunity> opportunities = strategy.detect();
 
                 // 3. 验证结果
@@ -93,8 +90,7 @@ class SumOfPricesStrategyTest {
                 cache.updateMarket(marketB);
 
                 // 2. Run Strategy
-                com.polymarket.arb.infra.Web3Service mockWeb3Service = mock(com.polymarket.arb.infra.Web3Service.class);
-                SumOfPricesStrategy strategy = new SumOfPricesStrategy(cache, mockWeb3Service);
+                SumOfPricesStrategy strategy = new SumOfPricesStrategy(cache);
                 List<ArbitrageOpportunity> opportunities = strategy.detect();
 
                 // 3. Verify
@@ -103,13 +99,73 @@ class SumOfPricesStrategyTest {
                 assertTrue(opp.getEstimatedProfit().compareTo(BigDecimal.ZERO) > 0);
                 assertEquals(ArbitrageOpportunity.Type.NEGRISK_SHORT_ARB, opp.getType());
 
-                // Verify Execution Calls
-                verify(mockWeb3Service, times(1)).executeSplit(eq(conditionId), any(), eq(2));
-                verify(mockWeb3Service, times(1)).executeOrder(eq("mkt-A"), eq("TokenA"), anyDouble(), eq(0.60),
-                                eq(false), eq(true));
-                verify(mockWeb3Service, times(1)).executeOrder(eq("mkt-B"), eq("TokenB"), anyDouble(), eq(0.50),
-                                eq(false), eq(true));
+                // Detection only describes the trade: split the set, sell every YES leg at its best bid
+                assertEquals(conditionId, opp.getConditionId());
+                assertEquals(2, opp.getOutcomeCount());
+                assertEquals(0, new BigDecimal("10").compareTo(opp.getTotalCost())); // Split amount
+                List<ArbitrageOpportunity.OrderRequest> orders = opp.getRequiredOrders();
+                assertEquals(List.of("TokenA", "TokenB"),
+                                orders.stream().map(ArbitrageOpportunity.OrderRequest::getTokenId).toList());
+                assertEquals(0, new BigDecimal("0.60").compareTo(orders.get(0).getPrice()));
+                assertEquals(0, new BigDecimal("0.50").compareTo(orders.get(1).getPrice()));
+                assertTrue(orders.stream().allMatch(o -> o.getSide() == ArbitrageOpportunity.Side.SELL));
 
                 System.out.println("✅ NegRisk Test Passed! Profit: " + opp.getEstimatedProfit());
         }
+
+        @Test
+        void testIncrementalDetectionOnlyScansChangedMarkets() {
+                MarketSnapshotCache cache = new MarketSnapshotCache();
+                OrderBook book = OrderBook.builder()
+                                .asks(List.of(OrderBook.OrderLevel.builder().price(new BigDecimal("0.40"))
+                                                .size(new BigDecimal("100")).build()))
+                                .bids(List.of(OrderBook.OrderLevel.builder().price(new BigDecimal("0.39"))
+                                                .size(new BigDecimal("100")).build()))
+                                .build();
+
+                // Arb market written before the scanned version, then an unrelated one after
+                cache.updateMarket(Market.builder().marketId("arb").yesOrderBook(book).noOrderBook(book).build());
+                long version = cache.getVersion();
+                cache.updateMarket(Market.builder().marketId("quiet").build());
+
+                SumOfPricesStrategy strategy = new SumOfPricesStrategy(cache);
+                assertTrue(strategy.detect(cache.changesSince(version)).isEmpty(),
+                                "Unchanged market should not be re-evaluated");
+                assertEquals(1, strategy.detect(cache.changesSince(0)).size());
+        }
+
+        @Test
+        void testCategoricalMarketCompleteSet() {
+                MarketSnapshotCache cache = new MarketSnapshotCache();
+                // Three outcomes, Σ(best ask) = 0.30 + 0.30 + 0.35 = 0.95 < 1 -> buy the complete set
+                OrderBook[] books = new OrderBook[3];
+                String[] asks = { "0.30", "0.30", "0.35" };
+                for (int i = 0; i < 3; i++) {
+                        books[i] = OrderBook.builder()
+                                        .asks(List.of(OrderBook.OrderLevel.builder().price(new BigDecimal(asks[i]))
+                                                        .size(new BigDecimal("50")).build()))
+                                        .bids(List.of(OrderBook.OrderLevel.builder().price(new BigDecimal("0.20"))
+                                                        .size(new BigDecimal("50")).build()))
+                                        .build();
+                }
+                cache.updateMarket(Market.builder()
+                                .marketId("cat")
+                                .conditionId("0xcat")
+                                .outcomeIds(List.of("T0", "T1", "T2"))
+                                .books(books)
+                                .build());
+
+                SumOfPricesStrategy strategy = new SumOfPricesStrategy(cache);
+                List<ArbitrageOpportunity> opportunities = strategy.detect();
+
+                assertEquals(1, opportunities.size());
+                ArbitrageOpportunity opp = opportunities.get(0);
+                assertEquals(ArbitrageOpportunity.Type.SYNTHETIC_ARBITRAGE, opp.getType());
+                assertEquals(3, opp.getOutcomeCount());
+                assertEquals(List.of("T0", "T1", "T2"),
+                                opp.getRequiredOrders().stream().map(ArbitrageOpportunity.OrderRequest::getTokenId).toList());
+                assertEquals(0, new BigDecimal("0.50").compareTo(opp.getEstimatedProfit())); // 0.05 x 10
+                assertEquals(0, new BigDecimal("9.50").compareTo(opp.getTotalCost())); // Σ(ask) 0.95 x 10
+                assertSame(books[2], cache.getBook("T2"));
+        }
 }
@@ -0,0 +1,209 @@
+package com.polymarket.arb.core;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.polymarket.arb.domain.Market;
+import com.polymarket.arb.domain.OrderBook;
+import okhttp3.HttpUrl;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import okio.Buffer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Serves a {@link SyntheticUniverse} the way Gamma and the CLOB do: paged /events and
+ * /markets listings and POST /books (plus GET /book), all rendered on request in the live
+ * response shapes. Point both base URLs of a PolymarketApiClient at {@link #url()}.
+ */
+public final class SyntheticExchange extends Dispatcher implements AutoCloseable {
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final MockWebServer server = new MockWebServer();
+    private final List<Market> markets;
+    private final List<List<Market>> events;
+    private final Map<String, OrderBook> books = new HashMap<>();
+
+    private final AtomicLong gammaRequests = new AtomicLong();
+    private final AtomicLong bookRequests = new AtomicLong();
+    private final AtomicLong booksServed = new AtomicLong();
+
+    public SyntheticExchange(SyntheticUniverse universe) throws IOException {
+        this.markets = universe.markets();
+        Map<String, List<Market>> byEvent = new LinkedHashMap<>();
+        for (Market market : markets) {
+            byEvent.computeIfAbsent(market.getEventId(), k -> new ArrayList<>()).add(market);
+            for (int i = 0; i < market.getOutcomeCount(); i++) {
+                books.put(market.getOutcomeIds().get(i), market.getBook(i));
+            }
+        }
+        this.events = new ArrayList<>(byEvent.values());
+        server.setDispatcher(this);
+        server.start();
+    }
+
+    public String url() {
+        return server.url("").toString().replaceAll("/$", "");
+    }
+
+    public long gammaRequests() {
+        return gammaRequests.get();
+    }
+
+    public long bookRequests() {
+        return bookRequests.get();
+    }
+
+    public long booksServed() {
+        return booksServed.get();
+    }
+
+    @Override
+    public MockResponse dispatch(RecordedRequest request) {
+        try {
+            HttpUrl url = request.getRequestUrl();
+            return switch (url.encodedPath()) {
+                case "/events" -> {
+                    gammaRequests.incrementAndGet();
+                    yield json(g -> {
+                        g.writeStartArray();
+                        for (List<Market> event : page(events, url)) {
+                            writeEvent(g, event);
+                        }
+                        g.writeEndArray();
+                    });
+                }
+                case "/markets" -> {
+                    gammaRequests.incrementAndGet();
+                    yield json(g -> {
+                        g.writeStartArray();
+                        for (Market market : page(markets, url)) {
+                            writeMarket(g, market, true);
+                        }
+                        g.writeEndArray();
+                    });
+                }
+                case "/books" -> {
+                    bookRequests.incrementAndGet();
+                    JsonNode body = mapper.readTree(request.getBody().readByteArray());
+                    yield json(g -> {
+                        g.writeStartArray();
+                        for (JsonNode entry : body) {
+                            String tokenId = entry.path("token_id").asText();
+                            OrderBook book = books.get(tokenId);
+                            if (book != null) {
+                                booksServed.incrementAndGet();
+                                SyntheticUniverse.writeBook(g, tokenId, book);
+                            }
+                        }
+                        g.writeEndArray();
+                    });
+                }
+                case "/book" -> {
+                    bookRequests.incrementAndGet();
+                    String tokenId = url.queryParameter("token_id");
+                    OrderBook book = books.get(tokenId);
+                    if (book == null) {
+                        yield new MockResponse().setResponseCode(404).setBody("{\"error\":\"No orderbook exists\"}");
+                    }
+                    booksServed.incrementAndGet();
+                    yield json(g -> SyntheticUniverse.writeBook(g, tokenId, book));
+                }
+                default -> new MockResponse().setResponseCode(404);
+            };
+        } catch (IOException e) {
+            return new MockResponse().setResponseCode(500).setBody(e.toString());
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        server.shutdown();
+    }
+
+    private interface Body {
+        void write(JsonGenerator g) throws IOException;
+    }
+
+    private MockResponse json(Body body) throws IOException {
+        Buffer buffer = new Buffer();
+        try (OutputStream out = buffer.outputStream(); JsonGenerator g = mapper.getFactory().createGenerator(out)) {
+            body.write(g);
+        }
+        return new MockResponse().setHeader("Content-Type", "application/json").setBody(buffer);
+    }
+
+    private static <T> List<T> page(List<T> all, HttpUrl url) {
+        int limit = parse(url.queryParameter("limit"), 100);
+        int offset = parse(url.queryParameter("offset"), 0);
+        return offset >= all.size() ? List.of() : all.subList(offset, Math.min(all.size(), offset + limit));
+    }
+
+    private static int parse(String value, int fallback) {
+        return value != null ? Integer.parseInt(value) : fallback;
+    }
+
+    private static void writeEvent(JsonGenerator g, List<Market> legs) throws IOException {
+        Market first = legs.get(0);
+        g.writeStartObject();
+        g.writeStringField("id", first.getEventId());
+        g.writeStringField("title", "Synthetic " + first.getEventId());
+        g.writeArrayFieldStart("markets");
+        for (Market market : legs) {
+            writeMarket(g, market, false);
+        }
+        g.writeEndArray();
+        g.writeBooleanField("negRisk", first.isNegRisk()); // After the markets, as Gamma sends it
+        g.writeEndObject();
+    }
+
+    private static void writeMarket(JsonGenerator g, Market market, boolean withEvent) throws IOException {
+        g.writeStartObject();
+        g.writeStringField("id", market.getMarketId());
+        g.writeStringField("question", market.getQuestion());
+        g.writeStringField("conditionId", market.getConditionId());
+        g.writeBooleanField("negRisk", market.isNegRisk());
+        g.writeBooleanField("active", market.isActive());
+        g.writeBooleanField("closed", market.isClosed());
+        g.writeBooleanField("acceptingOrders", market.isAcceptingOrders());
+        g.writeNumberField("liquidityNum", market.getLiquidity());
+        g.writeNumberField("volumeNum", market.getVolume());
+        // Gamma embeds both arrays as JSON-encoded strings
+        List<String> tokens = new ArrayList<>();
+        List<String> prices = new ArrayList<>();
+        for (int i = 0; i < market.getOutcomeCount(); i++) {
+            tokens.add("\"" + market.getOutcomeIds().get(i) + "\"");
+            prices.add("\"" + mid(market.getBook(i)).toPlainString() + "\"");
+        }
+        g.writeStringField("clobTokenIds", "[" + String.join(", ", tokens) + "]");
+        g.writeStringField("outcomePrices", "[" + String.join(", ", prices) + "]");
+        if (withEvent) {
+            g.writeArrayFieldStart("events");
+            g.writeStartObject();
+            g.writeStringField("id", market.getEventId());
+            g.writeEndObject();
+            g.writeEndArray();
+        }
+        g.writeEndObject();
+    }
+
+    private static BigDecimal mid(OrderBook book) {
+        List<OrderBook.OrderLevel> bids = book.getBids();
+        List<OrderBook.OrderLevel> asks = book.getAsks();
+        if (bids.isEmpty() || asks.isEmpty()) {
+            return bids.isEmpty() ? (asks.isEmpty() ? BigDecimal.ZERO : asks.get(0).getPrice()) : bids.get(0).getPrice();
+        }
+        return bids.get(0).getPrice().add(asks.get(0).getPrice()).divide(BigDecimal.valueOf(2));
+    }
+}
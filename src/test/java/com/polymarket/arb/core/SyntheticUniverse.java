@@ -0,0 +1,229 @@
+package com.polymarket.arb.core;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.polymarket.arb.domain.FixedPointBook;
+import com.polymarket.arb.domain.Market;
+import com.polymarket.arb.domain.OrderBook;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.SplittableRandom;
+
+/**
+ * Deterministic market universe for benchmarks and load tests: binary markets plus NegRisk
+ * events of {@code minGroup..maxGroup} legs (skewed towards small events), each outcome
+ * with {@code depth} levels per side and Pareto-distributed sizes, so a few markets hold
+ * most of the liquidity. Every market belongs to a Gamma event; binary ones to an event
+ * of their own.
+ * <p>
+ * Books are priced without edges (binary asks sum to 1.02, NegRisk YES bids below 1),
+ * except for a share {@code arbRate} of binary markets and NegRisk events that get a
+ * clean 1% / 2% edge. Those are listed in {@link #injectedArbs()}: market ids for binary
+ * mirror arbs, event ids for NegRisk short arbs.
+ */
+public final class SyntheticUniverse {
+
+    // Share of markets that are NegRisk legs when groups are enabled, roughly the live mix
+    private static final double NEGRISK_SHARE = 0.3;
+    private static final JsonFactory JSON = new JsonFactory();
+
+    private final List<Market> markets;
+    private final Set<String> injectedArbs;
+
+    private SyntheticUniverse(List<Market> markets, Set<String> injectedArbs) {
+        this.markets = markets;
+        this.injectedArbs = injectedArbs;
+    }
+
+    /**
+     * Fixed-size NegRisk groups and no edges; {@code groupSize} below 2 means binary only.
+     */
+    public static SyntheticUniverse generate(int marketCount, int depth, int groupSize, long seed) {
+        return generate(marketCount, depth, groupSize, groupSize, 0, seed);
+    }
+
+    public static SyntheticUniverse generate(int marketCount, int depth, int minGroup, int maxGroup, double arbRate,
+            long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        List<Market> markets = new ArrayList<>(marketCount);
+        Set<String> injected = new HashSet<>();
+
+        int negRiskLegs = minGroup > 1 ? (int) (marketCount * NEGRISK_SHARE) : 0;
+        for (int e = 0; markets.size() < negRiskLegs; e++) {
+            String eventId = "evt-" + e;
+            double u = random.nextDouble();
+            int legs = minGroup + (int) ((maxGroup - minGroup + 1) * u * u * u);
+            legs = Math.max(2, Math.min(legs, negRiskLegs - markets.size()));
+            boolean arb = random.nextDouble() < arbRate;
+            // Best bid sits one tick under the mid: Σ bids = 1.020 with an edge, below 1 without
+            int[] mids = legMids(random, legs, arb ? 1_020 + legs : 1_000);
+            for (int l = 0; l < legs; l++) {
+                markets.add(market(random, "nr-" + e + "-" + l, eventId, true, mids[l], 1_000 - mids[l], depth, 1,
+                        arb));
+            }
+            if (arb) {
+                injected.add(eventId);
+            }
+        }
+        for (int i = 0; markets.size() < marketCount; i++) {
+            String marketId = "bin-" + i;
+            int mid = 50 + random.nextInt(901); // 0.050 .. 0.950 on a 0.001 grid
+            boolean arb = random.nextDouble() < arbRate;
+            // Asks 0.010 over the mids: they sum to 1.020, or 0.990 with the NO side shifted down
+            markets.add(market(random, marketId, "evt-" + marketId, false, mid, (arb ? 970 : 1_000) - mid, depth, 10,
+                    arb));
+            if (arb) {
+                injected.add(marketId);
+            }
+        }
+        return new SyntheticUniverse(markets, injected);
+    }
+
+    public List<Market> markets() {
+        return markets;
+    }
+
+    public Set<String> injectedArbs() {
+        return injectedArbs;
+    }
+
+    public MarketSnapshotCache toCache() {
+        MarketSnapshotCache cache = new MarketSnapshotCache();
+        for (int from = 0; from < markets.size(); from += 1_000) {
+            cache.updateMarkets(markets.subList(from, Math.min(markets.size(), from + 1_000)));
+        }
+        return cache;
+    }
+
+    /**
+     * The book in the CLOB /book response shape.
+     */
+    public static byte[] bookJson(String tokenId, OrderBook book) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(128 + 48 * book.fixedPoint().levelCount(true) * 2);
+        try (JsonGenerator g = JSON.createGenerator(out)) {
+            writeBook(g, tokenId, book);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    public static void writeBook(JsonGenerator g, String tokenId, OrderBook book) throws IOException {
+        g.writeStartObject();
+        g.writeStringField("market", "0x00");
+        g.writeStringField("asset_id", tokenId);
+        g.writeStringField("timestamp", Long.toString(book.getExchangeTimestamp()));
+        g.writeStringField("hash", book.getHash());
+        writeLevels(g, "bids", book.getBids());
+        writeLevels(g, "asks", book.getAsks());
+        g.writeEndObject();
+    }
+
+    private static void writeLevels(JsonGenerator g, String field, List<OrderBook.OrderLevel> levels)
+            throws IOException {
+        g.writeArrayFieldStart(field);
+        for (OrderBook.OrderLevel level : levels) {
+            g.writeStartObject();
+            g.writeStringField("price", level.getPrice().toPlainString());
+            g.writeStringField("size", level.getSize().toPlainString());
+            g.writeEndObject();
+        }
+        g.writeEndArray();
+    }
+
+    // Leg mids in 0.001 ticks summing to exactly total
+    private static int[] legMids(SplittableRandom random, int legs, int total) {
+        double[] weights = new double[legs];
+        double sum = 0;
+        for (int i = 0; i < legs; i++) {
+            weights[i] = 0.2 + random.nextDouble();
+            sum += weights[i];
+        }
+        int[] mids = new int[legs];
+        int assigned = 0;
+        for (int i = 0; i < legs; i++) {
+            mids[i] = Math.max(3, (int) Math.floor(weights[i] / sum * total));
+            assigned += mids[i];
+        }
+        mids[0] += total - assigned;
+        return mids;
+    }
+
+    // spread is the half-spread in 0.001 ticks; an arb market gets a deep best bid so its
+    // edge does not depend on walking thin levels
+    private static Market market(SplittableRandom random, String marketId, String eventId, boolean negRisk,
+            int yesMid, int noMid, int depth, int spread, boolean arb) {
+        String yes = tokenId(random);
+        String no = tokenId(random);
+        double scale = pareto(random, 1.1, 1_000); // Per-market liquidity skew
+        return Market.builder()
+                .marketId(marketId)
+                .conditionId("0x" + Long.toHexString(random.nextLong()))
+                .eventId(eventId)
+                .negRisk(negRisk)
+                .question("Synthetic " + marketId)
+                .outcomeIds(List.of(yes, no))
+                .active(true)
+                .acceptingOrders(true)
+                .liquidity(BigDecimal.valueOf(Math.round(scale * 500)))
+                .volume(BigDecimal.valueOf(Math.round(scale * 5_000)))
+                .yesOrderBook(book(random, yes, yesMid, depth, spread, scale, arb))
+                .noOrderBook(book(random, no, noMid, depth, spread, scale, arb))
+                .build();
+    }
+
+    private static OrderBook book(SplittableRandom random, String tokenId, int mid, int depth, int spread,
+            double scale, boolean deepTop) {
+        List<OrderBook.OrderLevel> bids = new ArrayList<>(depth);
+        List<OrderBook.OrderLevel> asks = new ArrayList<>(depth);
+        for (int i = 0; i < depth; i++) {
+            int bid = mid - spread - i;
+            int ask = mid + spread + i;
+            double floor = deepTop && i == 0 ? 20 : 0;
+            if (bid >= 1) {
+                bids.add(level(bid, floor + scale * pareto(random, 1.3, 10_000)));
+            }
+            if (ask <= 999) {
+                asks.add(level(ask, floor + scale * pareto(random, 1.3, 10_000)));
+            }
+        }
+        return OrderBook.builder()
+                .marketId(tokenId)
+                .bids(bids)
+                .asks(asks)
+                .fixedPoint(FixedPointBook.of(bids, asks))
+                .hash(Long.toHexString(random.nextLong()))
+                .exchangeTimestamp(1_700_000_000_000L + random.nextInt(1_000_000))
+                .sequence(OrderBook.nextSequence())
+                .build();
+    }
+
+    private static OrderBook.OrderLevel level(int priceTicks, double size) {
+        return OrderBook.OrderLevel.builder()
+                .price(BigDecimal.valueOf(priceTicks, 3))
+                .size(BigDecimal.valueOf(Math.max(1, Math.round(size * 100)), 2))
+                .build();
+    }
+
+    // Pareto with minimum 1, capped
+    private static double pareto(SplittableRandom random, double alpha, double cap) {
+        return Math.min(cap, Math.pow(1 - random.nextDouble(), -1 / alpha));
+    }
+
+    // 77-digit decimal like the live CLOB ids
+    private static String tokenId(SplittableRandom random) {
+        byte[] bytes = new byte[32];
+        random.nextBytes(bytes);
+        bytes[0] |= 0x20;
+        bytes[0] &= 0x3f;
+        return new BigInteger(1, bytes).toString();
+    }
+}
@@ -0,0 +1,84 @@
+package com.polymarket.arb.domain;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TokenDictionaryTest {
+
+    // 77-digit ids like the CLOB's; the prefix keeps them apart from other tests' tokens
+    private static String tokenId(String prefix, int i) {
+        return prefix + String.format("%072d", i);
+    }
+
+    @Test
+    void testRoundTripPastInitialCapacity() {
+        int count = 5_000; // Several doublings past the initial 1024
+        int[] keys = new int[count];
+        for (int i = 0; i < count; i++) {
+            // First sight through canonical / value: these grow the arrays they then read
+            String id = new String(tokenId("10001", i));
+            String canonical = i % 2 == 0 ? TokenDictionary.canonical(id) : null;
+            BigInteger value = i % 2 == 1 ? TokenDictionary.value(id) : null;
+            keys[i] = TokenDictionary.intern(id);
+            // A fresh String equal to it maps to the first instance
+            assertSame(TokenDictionary.tokenId(keys[i]), TokenDictionary.canonical(new String(id)));
+            if (canonical != null) {
+                assertSame(id, canonical);
+            } else {
+                assertEquals(new BigInteger(id), value);
+            }
+        }
+        for (int i = 0; i < count; i++) {
+            String id = tokenId("10001", i);
+            assertEquals(keys[i], TokenDictionary.intern(id));
+            assertEquals(id, TokenDictionary.tokenId(keys[i]));
+            assertEquals(new BigInteger(id), TokenDictionary.value(keys[i]));
+            assertEquals(new BigInteger(id), TokenDictionary.value(id));
+        }
+        assertNull(TokenDictionary.value("not-a-number"));
+    }
+
+    @Test
+    void testConcurrentInternAndLookup() throws Exception {
+        int threads = 4;
+        int perThread = 3_000;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<int[]>> results = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                // Overlapping ranges: the same ids are interned from several threads at once
+                int from = t * perThread / 2;
+                results.add(pool.submit(() -> {
+                    int[] keys = new int[perThread];
+                    for (int i = 0; i < perThread; i++) {
+                        String id = tokenId("20002", from + i);
+                        keys[i] = TokenDictionary.intern(id);
+                        assertEquals(new BigInteger(id), TokenDictionary.value(id));
+                        assertEquals(id, TokenDictionary.canonical(id));
+                    }
+                    return keys;
+                }));
+            }
+            for (int t = 0; t < threads; t++) {
+                int from = t * perThread / 2;
+                int[] keys = results.get(t).get();
+                for (int i = 0; i < perThread; i++) {
+                    String id = tokenId("20002", from + i);
+                    // One key per id, whichever thread assigned it
+                    assertEquals(TokenDictionary.intern(id), keys[i]);
+                    assertEquals(id, TokenDictionary.tokenId(keys[i]));
+                }
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+}
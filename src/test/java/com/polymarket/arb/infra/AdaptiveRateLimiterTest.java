@@ -0,0 +1,66 @@
+package com.polymarket.arb.infra;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdaptiveRateLimiterTest {
+
+    @Test
+    void testBurstThenRateLimited() {
+        AdaptiveRateLimiter limiter = new AdaptiveRateLimiter("test", 1, 5);
+        for (int i = 0; i < 5; i++) {
+            assertTrue(limiter.tryAcquire(), "burst permit " + i);
+        }
+        assertFalse(limiter.tryAcquire());
+    }
+
+    @Test
+    void testThrottleHalvesRateAndHoldsBucket() {
+        AdaptiveRateLimiter limiter = new AdaptiveRateLimiter("test", 100, 10);
+        limiter.onThrottled(TimeUnit.SECONDS.toNanos(5));
+        limiter.onThrottled(TimeUnit.SECONDS.toNanos(5)); // same burst of 429s, decreases once
+
+        assertEquals(50, limiter.getRate(), 1e-9);
+        assertFalse(limiter.tryAcquire(), "bucket held until Retry-After");
+
+        for (int i = 0; i < 100; i++) {
+            limiter.onSuccess();
+        }
+        assertEquals(100, limiter.getRate(), 1e-9); // additive recovery, capped at the configured rate
+    }
+
+    @Test
+    void testConcurrentAcquireNeverExceedsBurstPlusRate() throws Exception {
+        AdaptiveRateLimiter limiter = new AdaptiveRateLimiter("test", 50, 10);
+        AtomicInteger granted = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        Thread[] threads = new Thread[8];
+        for (int t = 0; t < threads.length; t++) {
+            threads[t] = Thread.ofVirtual().start(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < 1_000; i++) {
+                    if (limiter.tryAcquire()) {
+                        granted.incrementAndGet();
+                    }
+                }
+            });
+        }
+        long begin = System.nanoTime();
+        start.countDown();
+        for (Thread t : threads) {
+            t.join();
+        }
+        double seconds = (System.nanoTime() - begin) / 1e9;
+        assertTrue(granted.get() >= 10);
+        assertTrue(granted.get() <= 10 + Math.ceil(seconds * 50) + 1, "granted " + granted.get());
+    }
+}
@@ -0,0 +1,133 @@
+package com.polymarket.arb.infra;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.polymarket.arb.domain.EventMetadata;
+import com.polymarket.arb.domain.FixedPoint;
+import com.polymarket.arb.domain.FixedPointBook;
+import com.polymarket.arb.domain.MarketMetadata;
+import com.polymarket.arb.domain.OrderBook;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ApiPayloadDecoderTest {
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    @Test
+    void testDecodeBookMatchesBigDecimalLevels() throws Exception {
+        String json = """
+                {"market":"0xabc","asset_id":"123","timestamp":"1729084808553","hash":"0f1e",
+                 "bids":[{"price":"0.01","size":"1500.25"},{"price":"0.47","size":"12"},{"price":"0.48","size":"3.1234567"}],
+                 "asks":[{"price":"0.99","size":"100"},{"price":"0.52","size":"7.5"},{"price":"5e-1","size":"1"}],
+                 "min_order_size":"5","tick_size":"0.01","neg_risk":false}""";
+
+        OrderBook book;
+        try (JsonParser p = mapper.getFactory().createParser(json)) {
+            book = ApiPayloadDecoder.decodeBook(p, "123");
+        }
+        FixedPointBook fp = book.fixedPoint();
+
+        assertEquals("123", book.getMarketId());
+        assertEquals(3, fp.levelCount(true));
+        assertEquals(4_800, fp.price(true, 0));
+        assertEquals(3_123_457, fp.size(true, 0)); // 7th decimal rounds half-up
+        assertEquals(5_000, fp.price(false, 0)); // exponent falls back to BigDecimal
+        assertEquals(5_200, fp.price(false, 1));
+
+        // Lazily materialized lists carry the normalized levels
+        assertEquals(0, book.getBids().get(0).getPrice().compareTo(new BigDecimal("0.48")));
+        assertEquals(0, book.getAsks().get(2).getSize().compareTo(new BigDecimal("100")));
+    }
+
+    @Test
+    void testParseRoundsHalfUpLikeBigDecimal() {
+        String[] inputs = { "0", "1", "0.5", ".5", "0.12345", "0.12344", "0.99995", "123.456789", "-0.00005", "100" };
+        for (String in : inputs) {
+            long expected = new BigDecimal(in).setScale(4, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+            assertEquals(expected, FixedPoint.parse(in.toCharArray(), 0, in.length(), 4), in);
+        }
+        assertThrows(NumberFormatException.class, () -> FixedPoint.parse("1e3".toCharArray(), 0, 3, 4));
+    }
+
+    @Test
+    void testDecodeMarketsWithEmbeddedArrays() throws Exception {
+        String json = """
+                [{"id":"501","question":"Will it rain?","conditionId":"0xcond","slug":"rain",
+                  "outcomes":"[\\"Yes\\", \\"No\\"]","outcomePrices":"[\\"0.52\\", \\"0.485\\"]",
+                  "clobTokenIds":"[\\"111\\", \\"222\\"]","active":true,"closed":false,"negRisk":true,
+                  "acceptingOrders":true,"liquidity":"1234.5","volume":"99","events":[{"id":"9","title":"x"}]},
+                 {"id":"502","outcomePrices":null,"clobTokenIds":"null"}]""";
+
+        List<MarketMetadata> markets;
+        try (JsonParser p = mapper.getFactory().createParser(json)) {
+            markets = ApiPayloadDecoder.decodeMarkets(p);
+        }
+
+        assertEquals(2, markets.size());
+        MarketMetadata m = markets.get(0);
+        assertEquals("501", m.getMarketId());
+        assertEquals("0xcond", m.getConditionId());
+        assertEquals(List.of("111", "222"), m.getTokenIds());
+        assertEquals(10_050, m.getOutcomePriceSum());
+        assertTrue(m.isNegRisk() && m.isActive() && m.isAcceptingOrders() && !m.isClosed());
+        assertEquals(0, m.getLiquidity().compareTo(new BigDecimal("1234.5")));
+        assertEquals("9", m.getEventId());
+
+        assertEquals(FixedPoint.NONE, markets.get(1).getOutcomePriceSum());
+        assertNull(markets.get(1).getTokenIds());
+    }
+
+    @Test
+    void testDecodeEventsLinksLegsToEvent() throws Exception {
+        String json = """
+                [{"id":"77","title":"Who wins?","markets":[
+                   {"id":"1","clobTokenIds":"[\\"a\\", \\"b\\"]","acceptingOrders":true},
+                   {"id":"2","clobTokenIds":"[\\"c\\", \\"d\\"]","negRisk":true}],
+                  "negRisk":true,"tags":[{"id":"1"}]},
+                 {"id":"78","markets":[]}]""";
+
+        List<EventMetadata> events;
+        try (JsonParser p = mapper.getFactory().createParser(json)) {
+            events = ApiPayloadDecoder.decodeEvents(p);
+        }
+
+        assertEquals(2, events.size());
+        EventMetadata event = events.get(0);
+        assertEquals("77", event.getEventId());
+        assertTrue(event.isNegRisk());
+        assertEquals(List.of("1", "2"), event.getMarkets().stream().map(MarketMetadata::getMarketId).toList());
+        // negRisk arrives after the markets array and still reaches every leg
+        assertTrue(event.getMarkets().stream().allMatch(m -> m.isNegRisk() && "77".equals(m.getEventId())));
+        assertEquals(List.of("c", "d"), event.getMarkets().get(1).getTokenIds());
+        assertTrue(events.get(1).getMarkets().isEmpty());
+    }
+
+    @Test
+    void testUnchangedHashReturnsKnownBookUnparsed() throws Exception {
+        String json = """
+                {"asset_id":"123","timestamp":"1729084808553","hash":"0f1e",
+                 "bids":[{"price":"not-a-number","size":"1"}],"asks":[]}""";
+        OrderBook known = OrderBook.builder().marketId("123").hash("0f1e").build();
+
+        OrderBook book;
+        try (JsonParser p = mapper.getFactory().createParser(json)) {
+            book = ApiPayloadDecoder.decodeBook(p, null, tokenId -> tokenId.equals("123") ? known : null);
+        }
+        assertSame(known, book); // Levels were never parsed, the bad price did not throw
+
+        OrderBook changed;
+        try (JsonParser p = mapper.getFactory().createParser(json.replace("not-a-number", "0.5"))) {
+            changed = ApiPayloadDecoder.decodeBook(p, null,
+                    tokenId -> OrderBook.builder().marketId(tokenId).hash("older").build());
+        }
+        assertEquals("0f1e", changed.getHash());
+        assertEquals(1729084808553L, changed.getExchangeTimestamp());
+        assertTrue(changed.getSequence() > 0);
+    }
+}
@@ -0,0 +1,145 @@
+package com.polymarket.arb.infra;
+
+import com.polymarket.arb.core.SyntheticUniverse;
+import com.polymarket.arb.domain.FixedPointBook;
+import com.polymarket.arb.domain.Market;
+import com.polymarket.arb.domain.OrderBook;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BookLogTest {
+
+    private final Random random = new Random(3);
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void testBooksRoundTripThroughDeltasAndSnapshots() throws IOException {
+        Market market = SyntheticUniverse.generate(1, 10, 0, 1).markets().get(0);
+        List<OrderBook> written = new ArrayList<>();
+        try (BookLogWriter writer = new BookLogWriter(dir, 1 << 20, 4)) {
+            writer.record(market);
+            written.add(market.getYesOrderBook());
+            for (int i = 0; i < 20; i++) {
+                OrderBook next = mutate(market.getYesOrderBook());
+                market = market.toBuilder().yesOrderBook(next).build();
+                writer.record(market);
+                written.add(next);
+            }
+            writer.record(market); // Unchanged: nothing new to write
+            // Both tokens in full once, then YES in full after every 4 deltas
+            assertEquals(2 + 4, writer.getFullBooks());
+            assertEquals(16, writer.getDeltaBooks());
+        }
+
+        String yes = market.getOutcomeIds().get(0);
+        List<Market> markets = new ArrayList<>();
+        List<OrderBook> read = new ArrayList<>();
+        BookLogReader.read(dir, visitor(markets, yes, read));
+
+        assertEquals(1, markets.size());
+        assertEquals(market.getOutcomeIds(), markets.get(0).getOutcomeIds());
+        assertEquals(market.getEventId(), markets.get(0).getEventId());
+        assertEquals(written.size(), read.size());
+        for (int i = 0; i < written.size(); i++) {
+            assertSameLevels(written.get(i).fixedPoint(), read.get(i).fixedPoint());
+            assertEquals(written.get(i).getHash(), read.get(i).getHash());
+            assertEquals(written.get(i).getExchangeTimestamp(), read.get(i).getExchangeTimestamp());
+        }
+    }
+
+    @Test
+    void testRolledSegmentReadsOnItsOwn() throws IOException {
+        Market market = SyntheticUniverse.generate(1, 20, 0, 2).markets().get(0);
+        try (BookLogWriter writer = new BookLogWriter(dir, 4_096, 1_000)) {
+            writer.record(market);
+            for (int i = 0; i < 200; i++) {
+                market = market.toBuilder().yesOrderBook(mutate(market.getYesOrderBook())).build();
+                writer.record(market);
+            }
+        }
+
+        List<Path> segments = BookLogFormat.segments(dir);
+        assertTrue(segments.size() > 2, "segments: " + segments.size());
+        assertTrue(Files.size(segments.get(0)) == 4_096);
+
+        // The last segment alone still knows the market and both of its current books
+        List<Market> markets = new ArrayList<>();
+        List<OrderBook> yesBooks = new ArrayList<>();
+        BookLogReader.readSegment(segments.get(segments.size() - 1),
+                visitor(markets, market.getOutcomeIds().get(0), yesBooks));
+        assertEquals(1, markets.size());
+        assertSameLevels(market.getYesOrderBook().fixedPoint(), yesBooks.get(yesBooks.size() - 1).fixedPoint());
+    }
+
+    private static BookLogReader.Visitor visitor(List<Market> markets, String tokenId, List<OrderBook> books) {
+        return new BookLogReader.Visitor() {
+            @Override
+            public void market(long recordedAtMillis, Market market) {
+                markets.add(market);
+            }
+
+            @Override
+            public void remove(long recordedAtMillis, String marketId) {
+            }
+
+            @Override
+            public void book(long recordedAtMillis, String id, OrderBook book) {
+                if (id.equals(tokenId)) {
+                    books.add(book);
+                }
+            }
+        };
+    }
+
+    // A resized level, a level gone and a new one per side, like a burst of CLOB changes
+    private OrderBook mutate(OrderBook book) {
+        return OrderBook.builder()
+                .marketId(book.getMarketId())
+                .bids(mutate(book.fixedPoint().toLevels(true), -1))
+                .asks(mutate(book.fixedPoint().toLevels(false), 1))
+                .hash(Long.toHexString(random.nextLong()))
+                .exchangeTimestamp(book.getExchangeTimestamp() + 1 + random.nextInt(500))
+                .build();
+    }
+
+    private List<OrderBook.OrderLevel> mutate(List<OrderBook.OrderLevel> levels, int direction) {
+        List<OrderBook.OrderLevel> next = new ArrayList<>(levels);
+        if (!next.isEmpty()) {
+            int i = random.nextInt(next.size());
+            next.set(i, OrderBook.OrderLevel.builder().price(next.get(i).getPrice())
+                    .size(BigDecimal.valueOf(1 + random.nextInt(100_000), 2)).build());
+            if (next.size() > 3) {
+                next.remove(random.nextInt(next.size()));
+            }
+        }
+        BigDecimal edge = next.isEmpty() ? new BigDecimal("0.500") : next.get(next.size() - 1).getPrice();
+        BigDecimal price = edge.add(BigDecimal.valueOf(direction * (1 + random.nextInt(3)), 3));
+        if (price.signum() > 0 && price.compareTo(BigDecimal.ONE) < 0) {
+            next.add(OrderBook.OrderLevel.builder().price(price).size(BigDecimal.valueOf(500 + random.nextInt(900), 2))
+                    .build());
+        }
+        return next;
+    }
+
+    private static void assertSameLevels(FixedPointBook expected, FixedPointBook actual) {
+        for (boolean bid : new boolean[] { true, false }) {
+            assertEquals(expected.levelCount(bid), actual.levelCount(bid));
+            for (int i = 0; i < expected.levelCount(bid); i++) {
+                assertEquals(expected.price(bid, i), actual.price(bid, i));
+                assertEquals(expected.size(bid, i), actual.size(bid, i));
+            }
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.polymarket.arb.infra;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ClobMarketStreamTest {
+
+    private DisposableServer server;
+    private ClobMarketStream stream;
+
+    @AfterEach
+    void tearDown() {
+        if (stream != null)
+            stream.stop();
+        if (server != null)
+            server.disposeNow();
+    }
+
+    @Test
+    void testSubscribeAndDispatch() throws Exception {
+        BlockingQueue<String> received = new LinkedBlockingQueue<>();
+
+        // Stand-in for the CLOB market channel: answers a subscription with an
+        // initial book dump followed by a price_change delta
+        server = HttpServer.create().port(0)
+                .route(routes -> routes.ws("/ws/market", (in, out) -> out.sendString(
+                        in.receiveFrames().map(f -> f.content().toString(java.nio.charset.StandardCharsets.UTF_8))
+                                .doOnNext(received::add)
+                                .filter(msg -> msg.contains("\"type\":\"market\""))
+                                .flatMap(msg -> Flux.just(
+                                        "[{\"event_type\":\"book\",\"asset_id\":\"111\",\"bids\":[{\"price\":\"0.48\",\"size\":\"30\"}],\"asks\":[{\"price\":\"0.52\",\"size\":\"25\"}]}]",
+                                        "{\"event_type\":\"price_change\",\"price_changes\":[{\"asset_id\":\"111\",\"price\":\"0.49\",\"size\":\"10\",\"side\":\"BUY\"}]}",
+                                        "PONG")))))
+                .bindNow();
+
+        RecordingListener listener = new RecordingListener();
+        stream = new ClobMarketStream(new ObjectMapper(), "ws://localhost:" + server.port() + "/ws/market");
+        stream.subscribe(List.of("111", "222"));
+        stream.start(listener);
+
+        JsonNode book = listener.events.poll(5, TimeUnit.SECONDS);
+        JsonNode change = listener.events.poll(5, TimeUnit.SECONDS);
+
+        String subscription = received.poll(5, TimeUnit.SECONDS);
+        assertNotNull(subscription);
+        assertTrue(subscription.contains("\"111\"") && subscription.contains("\"222\""));
+
+        assertNotNull(book, "Should receive book snapshot");
+        assertEquals("book", book.path("event_type").asText());
+        assertEquals("0.48", book.path("bids").get(0).path("price").asText());
+        assertNotNull(change, "Should receive price_change");
+        assertEquals("price_change", change.path("event_type").asText());
+
+        // Tokens added after connect go out as an incremental subscribe
+        stream.subscribe(List.of("222", "333"));
+        String incremental = received.poll(5, TimeUnit.SECONDS);
+        assertNotNull(incremental);
+        assertTrue(incremental.contains("\"operation\":\"subscribe\""));
+        assertTrue(incremental.contains("\"333\"") && !incremental.contains("\"222\""));
+    }
+
+    @Test
+    void testReconnectAfterServerClose() throws Exception {
+        AtomicInteger connections = new AtomicInteger();
+
+        // First session is dropped right after the subscription arrives
+        server = HttpServer.create().port(0)
+                .route(routes -> routes.ws("/ws/market", (in, out) -> {
+                    int n = connections.incrementAndGet();
+                    Mono<Void> firstFrame = in.receiveFrames().next().then();
+                    return n == 1 ? firstFrame : out.sendString(Flux.never());
+                }))
+                .bindNow();
+
+        RecordingListener listener = new RecordingListener();
+        stream = new ClobMarketStream(new ObjectMapper(), "ws://localhost:" + server.port() + "/ws/market");
+        stream.subscribe(List.of("111"));
+        stream.start(listener);
+
+        assertTrue(listener.reconnects.poll(10, TimeUnit.SECONDS) != null, "Should reconnect and report a gap");
+        // Client and server see the handshake independently, give the server side a moment
+        for (int i = 0; i < 50 && connections.get() < 2; i++) {
+            Thread.sleep(20);
+        }
+        assertTrue(connections.get() >= 2);
+    }
+
+    private static class RecordingListener implements ClobMarketStream.Listener {
+        final BlockingQueue<JsonNode> events = new LinkedBlockingQueue<>();
+        final BlockingQueue<Boolean> reconnects = new LinkedBlockingQueue<>();
+
+        @Override
+        public void onBook(JsonNode event) {
+            events.add(event);
+        }
+
+        @Override
+        public void onPriceChange(JsonNode event) {
+            events.add(event);
+        }
+
+        @Override
+        public void onReconnect() {
+            reconnects.add(true);
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.polymarket.arb.infra;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ClockOffsetEstimatorTest {
+
+    @Test
+    void testSecondResolutionDatesConvergeBelowRoundTrip() {
+        ClockOffsetEstimator clock = new ClockOffsetEstimator();
+        assertFalse(clock.hasEstimate());
+        assertEquals(0, clock.offsetMillis());
+
+        long offset = 1_234; // Exchange ahead of us
+        Random random = new Random(7);
+        long local = 1_700_000_000_000L;
+        for (int i = 0; i < 300; i++) {
+            local += 200 + random.nextInt(1_000); // Requests land at every sub-second phase
+            long rtt = 20 + random.nextInt(30);
+            long stampedAt = local + rtt / 2 + offset;
+            clock.onResponse(httpDate(stampedAt), local, local + rtt);
+        }
+
+        assertTrue(clock.hasEstimate());
+        assertEquals(offset, clock.offsetMillis(), 25);
+        assertTrue(clock.uncertaintyMillis() <= 30, "uncertainty " + clock.uncertaintyMillis());
+        assertEquals(5_000 - clock.offsetMillis(), clock.toLocalMillis(5_000));
+    }
+
+    @Test
+    void testClockStepRestartsEstimate() {
+        ClockOffsetEstimator clock = new ClockOffsetEstimator();
+        Random random = new Random(3);
+        long local = 1_700_000_000_000L;
+        for (int i = 0; i < 200; i++, local += 100 + random.nextInt(1_000)) {
+            clock.onResponse(httpDate(local + 5 + 500), local, local + 10);
+        }
+        assertEquals(500, clock.offsetMillis(), 10);
+
+        // Local clock stepped: the exchange now reads 3s behind
+        for (int i = 0; i < 200; i++, local += 100 + random.nextInt(1_000)) {
+            clock.onResponse(httpDate(local + 5 - 3_000), local, local + 10);
+        }
+        assertEquals(-3_000, clock.offsetMillis(), 10);
+
+        clock.onResponse("not a date", local, local + 10);
+        clock.onResponse(null, local, local + 10);
+        assertEquals(-3_000, clock.offsetMillis(), 10);
+    }
+
+    private static String httpDate(long millis) {
+        return DateTimeFormatter.RFC_1123_DATE_TIME.format(Instant.ofEpochMilli(millis).atZone(ZoneOffset.UTC));
+    }
+}
@@ -4,13 +4,18 @@ import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 import org.web3j.crypto.Credentials;
 import org.web3j.crypto.ECKeyPair;
+import org.web3j.crypto.Hash;
 
 import org.web3j.crypto.Keys;
 import org.web3j.crypto.Sign;
 import org.web3j.utils.Numeric;
 
 import java.math.BigInteger;
-import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
 
 class OrderSignerTest {
 
@@ -71,4 +76,95 @@ class OrderSignerTest {
         // uses the same hash logic for signing.
         // If we want to truly verify, we'd replicate the hashing here.
     }
+
+    @Test
+    void testSignaturesMatchWeb3jReference() throws Exception {
+        OrderSigner signer = new OrderSigner();
+        Random random = new Random(7);
+        for (int i = 0; i < 200; i++) {
+            ECKeyPair keyPair = Keys.createEcKeyPair();
+            Credentials credentials = Credentials.create(keyPair);
+            OrderSigner.Order order = randomOrder(random, credentials.getAddress());
+
+            byte[] digest = referenceDigest(order);
+            Assertions.assertArrayEquals(digest, signer.digest(order), "digest " + i);
+
+            // web3j recovers the public key to find v; same RFC 6979 nonce, so byte-identical
+            Sign.SignatureData expected = Sign.signMessage(digest, keyPair, false);
+            String reference = Numeric.toHexString(expected.getR()) + Numeric.toHexStringNoPrefix(expected.getS())
+                    + Numeric.toHexStringNoPrefix(expected.getV());
+            Assertions.assertEquals(reference, signer.signOrder(order, credentials), "signature " + i);
+        }
+    }
+
+    @Test
+    void testSignAllKeepsOrder() throws Exception {
+        OrderSigner signer = new OrderSigner();
+        Credentials credentials = Credentials.create(Keys.createEcKeyPair());
+        Random random = new Random(11);
+        List<OrderSigner.Order> orders = new ArrayList<>();
+        for (int i = 0; i < 12; i++) {
+            orders.add(randomOrder(random, credentials.getAddress()));
+        }
+
+        List<String> signatures = signer.signAll(orders, credentials);
+
+        Assertions.assertEquals(orders.size(), signatures.size());
+        for (int i = 0; i < orders.size(); i++) {
+            Assertions.assertEquals(signer.signOrder(orders.get(i), credentials), signatures.get(i));
+        }
+    }
+
+    private static OrderSigner.Order randomOrder(Random random, String maker) {
+        return OrderSigner.Order.builder()
+                .salt(new BigInteger(random.nextInt(4) == 0 ? 255 : 40, random))
+                .maker(maker)
+                .signer(maker)
+                .taker("0x0000000000000000000000000000000000000000")
+                .tokenId(new BigInteger(random.nextBoolean() ? 256 : 62, random))
+                .makerAmount(BigInteger.valueOf(random.nextLong(1, Long.MAX_VALUE)))
+                .takerAmount(BigInteger.valueOf(random.nextInt(1, 100_000_000)))
+                .expiration(BigInteger.valueOf(random.nextInt(2) == 0 ? 0 : 1_735_444_660L))
+                .nonce(BigInteger.valueOf(random.nextInt(3)))
+                .feeRateBps(BigInteger.ZERO)
+                .side(random.nextInt(2))
+                .signatureType(0)
+                .build();
+    }
+
+    // The EIP-712 digest as computed before encoding moved to reused buffers
+    private static byte[] referenceDigest(OrderSigner.Order o) {
+        byte[] domainSeparator = Hash.sha3(concat(
+                Hash.sha3("EIP712Domain(string name,string version,uint256 chainId,address verifyingContract)"
+                        .getBytes()),
+                Hash.sha3("Polymarket CTF Exchange".getBytes()),
+                Hash.sha3("1".getBytes()),
+                Numeric.toBytesPadded(BigInteger.valueOf(137), 32),
+                Numeric.toBytesPadded(new BigInteger("4D97DCd97eC945f40cF65F87097ACe5EA0476045", 16), 32)));
+        byte[] hashStruct = Hash.sha3(concat(
+                Hash.sha3(("Order(uint256 salt,address maker,address signer,address taker,uint256 tokenId,"
+                        + "uint256 makerAmount,uint256 takerAmount,uint256 expiration,uint256 nonce,"
+                        + "uint256 feeRateBps,uint8 side,uint8 signatureType)").getBytes()),
+                Numeric.toBytesPadded(o.getSalt(), 32),
+                Numeric.toBytesPadded(new BigInteger(o.getMaker().substring(2), 16), 32),
+                Numeric.toBytesPadded(new BigInteger(o.getSigner().substring(2), 16), 32),
+                Numeric.toBytesPadded(new BigInteger(o.getTaker().substring(2), 16), 32),
+                Numeric.toBytesPadded(o.getTokenId(), 32),
+                Numeric.toBytesPadded(o.getMakerAmount(), 32),
+                Numeric.toBytesPadded(o.getTakerAmount(), 32),
+                Numeric.toBytesPadded(o.getExpiration(), 32),
+                Numeric.toBytesPadded(o.getNonce(), 32),
+                Numeric.toBytesPadded(o.getFeeRateBps(), 32),
+                Numeric.toBytesPadded(BigInteger.valueOf(o.getSide()), 32),
+                Numeric.toBytesPadded(BigInteger.valueOf(o.getSignatureType()), 32)));
+        return Hash.sha3(concat(new byte[] { 0x19, 0x01 }, domainSeparator, hashStruct));
+    }
+
+    private static byte[] concat(byte[]... arrays) {
+        ByteBuffer buffer = ByteBuffer.allocate(Arrays.stream(arrays).mapToInt(a -> a.length).sum());
+        for (byte[] array : arrays) {
+            buffer.put(array);
+        }
+        return buffer.array();
+    }
 }
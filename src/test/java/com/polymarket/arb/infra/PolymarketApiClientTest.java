@@ -0,0 +1,239 @@
+package com.polymarket.arb.infra;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.polymarket.arb.domain.OrderBook;
+import io.micrometer.core.instrument.MeterRegistry;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PolymarketApiClientTest {
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private MockWebServer server;
+    private ApiRateLimiters limiters;
+    private ArbMetrics metrics;
+    private ClockOffsetEstimator clock;
+    private PolymarketApiClient client;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        server = new MockWebServer();
+        server.start();
+        String base = server.url("").toString().replaceAll("/$", "");
+        limiters = new ApiRateLimiters(100, 10, 100, 10, 100, 10);
+        metrics = ArbMetrics.simple();
+        clock = new ClockOffsetEstimator();
+        client = new PolymarketApiClient(mapper, "", base, base, limiters, metrics, clock, 2, 16);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        client.shutdown();
+        server.shutdown();
+    }
+
+    @Test
+    void testGetOrderBooksBatchesTokensIntoOneRequest() throws Exception {
+        server.enqueue(new MockResponse().setHeader("Content-Type", "application/json").setBody("""
+                [{"market":"0x1","asset_id":"111","bids":[{"price":"0.40","size":"10"}],"asks":[{"price":"0.45","size":"5"}]},
+                 {"market":"0x1","asset_id":"222","bids":[],"asks":[{"price":"0.58","size":"20"},{"price":"0.56","size":"1"}]}]"""));
+
+        Map<String, OrderBook> books = client.getOrderBooks(List.of("111", "222", "333"));
+
+        RecordedRequest request = server.takeRequest();
+        assertEquals("POST", request.getMethod());
+        assertEquals("/books", request.getPath());
+        JsonNode body = mapper.readTree(request.getBody().readUtf8());
+        assertEquals(3, body.size());
+        assertEquals("111", body.get(0).path("token_id").asText());
+        assertEquals(1, server.getRequestCount());
+
+        // Unknown tokens are simply absent
+        assertEquals(2, books.size());
+        assertEquals(4_000, books.get("111").fixedPoint().price(true, 0));
+        assertEquals(5_600, books.get("222").fixedPoint().price(false, 0));
+        assertFalse(books.containsKey("333"));
+    }
+
+    @Test
+    void testGetOrderBooksRetriesAfter429() throws Exception {
+        server.enqueue(new MockResponse().setResponseCode(429).setHeader("Retry-After", "0"));
+        server.enqueue(new MockResponse().setBody("""
+                [{"asset_id":"111","bids":[],"asks":[]}]"""));
+
+        Map<String, OrderBook> books = client.getOrderBooks(List.of("111"));
+
+        assertEquals(2, server.getRequestCount());
+        assertTrue(books.containsKey("111"));
+        // Only the book bucket backed off
+        assertTrue(limiters.get(ApiRateLimiters.Endpoint.CLOB_BOOK).getRate() < 100);
+        assertEquals(100, limiters.get(ApiRateLimiters.Endpoint.GAMMA).getRate());
+
+        MeterRegistry registry = metrics.registry();
+        assertEquals(1, registry.get("polymarket.api.throttled").tag("endpoint", "clob-book").counter().count());
+        assertEquals(1, registry.get("polymarket.api.request").tags("endpoint", "clob-book", "status", "429")
+                .timer().count());
+        assertEquals(1, registry.get("polymarket.api.request").tags("endpoint", "clob-book", "status", "200")
+                .timer().count());
+    }
+
+    @Test
+    void testAsyncRequestsRespectInFlightCapPerHost() throws Exception {
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+        server.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) throws InterruptedException {
+                maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+                Thread.sleep(50);
+                inFlight.decrementAndGet();
+                String token = request.getRequestUrl().queryParameter("token_id");
+                return new MockResponse().setBody("{\"asset_id\":\"" + token + "\",\"bids\":[],\"asks\":[]}");
+            }
+        });
+
+        List<CompletableFuture<OrderBook>> futures = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            futures.add(client.getOrderBookAsync("T" + i));
+        }
+        CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).get(10, TimeUnit.SECONDS);
+
+        assertEquals(8, server.getRequestCount());
+        assertEquals("T3", futures.get(3).get().getMarketId());
+        assertTrue(maxInFlight.get() <= 2, "max in flight " + maxInFlight.get());
+    }
+
+    @Test
+    void testOrderGoesOutWhileBookReadsHoldEveryHostSlot() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger booksInFlight = new AtomicInteger();
+        server.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) throws InterruptedException {
+                if (request.getPath().startsWith("/books")) {
+                    booksInFlight.incrementAndGet();
+                    release.await(10, TimeUnit.SECONDS);
+                    return new MockResponse().setBody("[]");
+                }
+                return new MockResponse().setBody("{\"success\":true}");
+            }
+        });
+
+        // Twice the per-host cap (2): two stuck on the server, two queued in the dispatcher
+        List<CompletableFuture<Map<String, OrderBook>>> reads = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            reads.add(client.getOrderBooksAsync(List.of("T" + i)));
+        }
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (booksInFlight.get() < 2 && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(2, booksInFlight.get());
+
+        try {
+            PolymarketApiClient.OrderResult result = client.submitOrderAsync(order(1), "0xsig")
+                    .get(5, TimeUnit.SECONDS);
+            assertTrue(result.success());
+            assertTrue(reads.stream().noneMatch(CompletableFuture::isDone));
+        } finally {
+            release.countDown();
+        }
+        CompletableFuture.allOf(reads.toArray(CompletableFuture[]::new)).get(10, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void testSubmitOrdersBatchesIntoPostOrders() throws Exception {
+        // Every order acknowledged except token 3
+        server.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                StringBuilder body = new StringBuilder("[");
+                try {
+                    for (JsonNode order : mapper.readTree(request.getBody().readUtf8())) {
+                        long token = order.path("order").path("tokenId").asLong();
+                        body.append(body.length() > 1 ? "," : "").append(token == 3
+                                ? "{\"success\":false,\"errorMsg\":\"not enough balance\"}"
+                                : "{\"success\":true,\"orderID\":\"0x" + token + "\",\"status\":\"matched\"}");
+                    }
+                } catch (Exception e) {
+                    return new MockResponse().setResponseCode(400);
+                }
+                return new MockResponse().setBody(body.append(']').toString());
+            }
+        });
+
+        // One more than a request takes: two requests
+        List<PolymarketApiClient.SignedOrder> orders = new ArrayList<>();
+        for (int i = 0; i <= PolymarketApiClient.MAX_BATCH_ORDERS; i++) {
+            orders.add(new PolymarketApiClient.SignedOrder(order(i), "0xsig" + i));
+        }
+        List<PolymarketApiClient.OrderResult> results = client.submitOrders(orders);
+
+        assertEquals(2, server.getRequestCount());
+        RecordedRequest first = server.takeRequest();
+        assertEquals("POST", first.getMethod());
+        assertEquals("/orders", first.getPath());
+
+        assertEquals(orders.size(), results.size());
+        for (int i = 0; i < results.size(); i++) {
+            assertEquals(i != 3, results.get(i).success(), "order " + i);
+        }
+        int last = PolymarketApiClient.MAX_BATCH_ORDERS;
+        assertEquals("0x" + last, results.get(last).orderId());
+        assertEquals("not enough balance", results.get(3).errorMsg());
+    }
+
+    @Test
+    void testBatchPayloadMatchesSingleOrderPayload() throws Exception {
+        server.enqueue(new MockResponse().setBody("{\"success\":true}"));
+        server.enqueue(new MockResponse().setResponseCode(500));
+
+        assertTrue(client.submitOrder(order(7), "0xsig"));
+        List<PolymarketApiClient.OrderResult> results = client.submitOrders(
+                List.of(new PolymarketApiClient.SignedOrder(order(7), "0xsig"),
+                        new PolymarketApiClient.SignedOrder(order(8), "0xsig")));
+
+        JsonNode single = mapper.readTree(server.takeRequest().getBody().readUtf8());
+        JsonNode batch = mapper.readTree(server.takeRequest().getBody().readUtf8());
+        assertEquals(single, batch.get(0));
+        assertEquals("SELL", single.path("order").path("side").asText());
+        assertEquals("GTC", single.path("orderType").asText());
+        // A failed request fails each of its orders
+        assertEquals(2, results.size());
+        assertFalse(results.get(0).success() || results.get(1).success());
+    }
+
+    private static OrderSigner.Order order(int tokenId) {
+        return OrderSigner.Order.builder()
+                .salt(BigInteger.valueOf(42))
+                .maker("0xabc")
+                .signer("0xabc")
+                .taker("0x0000000000000000000000000000000000000000")
+                .tokenId(BigInteger.valueOf(tokenId))
+                .makerAmount(BigInteger.valueOf(10_000_000))
+                .takerAmount(BigInteger.valueOf(1_200_000))
+                .expiration(BigInteger.valueOf(1_700_000_000))
+                .nonce(BigInteger.ZERO)
+                .feeRateBps(BigInteger.ZERO)
+                .side(1)
+                .signatureType(0)
+                .build();
+    }
+}